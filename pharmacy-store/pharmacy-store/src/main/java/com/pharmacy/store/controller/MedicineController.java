@@ -1,18 +1,47 @@
 package com.pharmacy.store.controller;
 
+import com.pharmacy.store.dto.DashboardSnapshot;
+import com.pharmacy.store.dto.ForecastReport;
+import com.pharmacy.store.dto.ImportReport;
+import com.pharmacy.store.dto.KeysetSlice;
+import com.pharmacy.store.dto.MedicineSearchCriteria;
+import com.pharmacy.store.dto.MedicineSuggestion;
+import com.pharmacy.store.dto.PurgeReport;
+import com.pharmacy.store.dto.ReorderSuggestion;
+import com.pharmacy.store.dto.SaleLine;
+import com.pharmacy.store.dto.SaleLineResult;
+import com.pharmacy.store.logging.QueryBudget;
 import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.service.DashboardAggregateStore;
+import com.pharmacy.store.service.DashboardStreamPublisher;
+import com.pharmacy.store.service.DemandForecastService;
+import com.pharmacy.store.service.ExpiredMedicinePurgeService;
+import com.pharmacy.store.service.MedicineAutocompleteIndex;
+import com.pharmacy.store.service.MedicineExportService;
+import com.pharmacy.store.service.MedicineImportService;
 import com.pharmacy.store.service.MedicineService;
+import com.pharmacy.store.service.SalesService;
+import com.pharmacy.store.service.StockAdjustmentFailedException;
+import com.pharmacy.store.service.StockLedger;
+import com.pharmacy.store.service.StockLedgerUnavailableException;
+import com.pharmacy.store.service.StockNotYetDurableException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,12 +52,44 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class MedicineController {
 
+    private static final int MAX_KEYSET_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 500;
+    private static final int MAX_SUGGESTIONS = 50;
+    // Why the stock part of a request did not apply, when the rest of it did
+    private static final String STOCK_ERROR_HEADER = "X-Stock-Error";
+
     @Autowired
     private MedicineService medicineService;
 
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private MedicineExportService medicineExportService;
+
+    @Autowired
+    private MedicineImportService medicineImportService;
+
+    @Autowired
+    private ExpiredMedicinePurgeService expiredMedicinePurgeService;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private DashboardAggregateStore dashboardAggregateStore;
+
+    @Autowired
+    private MedicineAutocompleteIndex medicineAutocompleteIndex;
+
+    @Autowired
+    private DashboardStreamPublisher dashboardStreamPublisher;
+
     // Basic CRUD Operations
 
     @GetMapping
+    @QueryBudget(1)
     public ResponseEntity<List<Medicine>> getAllMedicines() {
         try {
             List<Medicine> medicines = medicineService.getAllMedicines();
@@ -38,7 +99,51 @@ public class MedicineController {
         }
     }
 
+    // Streams the catalogue as NDJSON or CSV straight from a database cursor (on the async thread,
+    // so the request thread itself runs no statements)
+    @GetMapping("/export")
+    @QueryBudget(0)
+    public ResponseEntity<StreamingResponseBody> exportMedicines(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        if (format.equalsIgnoreCase("csv")) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"medicines.csv\"")
+                    .body(out -> medicineExportService.exportCsv(out));
+        }
+        if (format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"medicines.ndjson\"")
+                    .body(out -> medicineExportService.exportNdjson(out));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    // Bulk upsert from a supplier CSV feed, read straight from the request body
+    // (no query budget: statements grow with the number of chunks in the file)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @QueryBudget(-1)
+    public ResponseEntity<ImportReport> importMedicines(HttpServletRequest request) {
+        try {
+            ImportReport report = medicineImportService.importCsv(request.getInputStream());
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(medicineImportService.getLastImport());
+        }
+    }
+
+    @GetMapping("/import/status")
+    @QueryBudget(0)
+    public ResponseEntity<ImportReport> getImportStatus() {
+        ImportReport report = medicineImportService.getLastImport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
     @GetMapping("/paginated")
+    @QueryBudget(2)
     public ResponseEntity<Page<Medicine>> getAllMedicinesPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -57,7 +162,28 @@ public class MedicineController {
         }
     }
 
+    @GetMapping("/paginated/keyset")
+    @QueryBudget(1)
+    public ResponseEntity<KeysetSlice<Medicine>> getMedicinesKeyset(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        if (size < 1 || size > MAX_KEYSET_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            KeysetSlice<Medicine> medicines = medicineService.getMedicinesAfter(cursor, size, sortBy, sortDir);
+            return ResponseEntity.ok(medicines);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{id}")
+    @QueryBudget(1)
     public ResponseEntity<Medicine> getMedicineById(@PathVariable Long id) {
         try {
             Medicine medicine = medicineService.getMedicineById(id);
@@ -69,7 +195,9 @@ public class MedicineController {
         }
     }
 
+    // One more statement whenever the id pool needs its next sequence block
     @PostMapping
+    @QueryBudget(3)
     public ResponseEntity<Medicine> createMedicine(@Valid @RequestBody Medicine medicine) {
         try {
             Medicine savedMedicine = medicineService.saveMedicine(medicine);
@@ -82,11 +210,20 @@ public class MedicineController {
     }
 
     @PutMapping("/{id}")
+    @QueryBudget(4)
     public ResponseEntity<Medicine> updateMedicine(@PathVariable Long id, 
                                                  @Valid @RequestBody Medicine medicine) {
         try {
             Medicine updatedMedicine = medicineService.updateMedicine(id, medicine);
             return ResponseEntity.ok(updatedMedicine);
+        } catch (StockNotYetDurableException e) {
+            // Fields and stock both applied; only the stock movement's write is unconfirmed
+            return ResponseEntity.accepted().body(medicineService.getMedicineById(id));
+        } catch (StockAdjustmentFailedException e) {
+            // The fields were saved, the stock was not: the body shows the medicine as it now stands
+            return ResponseEntity.status(unavailableOrFailed(e.getCause()))
+                    .header(STOCK_ERROR_HEADER, e.getCause().getMessage())
+                    .body(e.getSavedMedicine());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
@@ -97,6 +234,7 @@ public class MedicineController {
     }
 
     @DeleteMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<Map<String, String>> deleteMedicine(@PathVariable Long id) {
         try {
             medicineService.deleteMedicine(id);
@@ -113,6 +251,7 @@ public class MedicineController {
     // Search Operations
 
     @GetMapping("/search/name/{name}")
+    @QueryBudget(1)
     public ResponseEntity<Medicine> getMedicineByName(@PathVariable String name) {
         try {
             Optional<Medicine> medicine = medicineService.findMedicineByName(name);
@@ -123,42 +262,138 @@ public class MedicineController {
         }
     }
 
+    // manufacturer, category and priceBucket accept several values (repeated or comma-separated)
     @GetMapping("/search")
-    public ResponseEntity<List<Medicine>> searchMedicines(
+    @QueryBudget(2)
+    public ResponseEntity<Page<Medicine>> searchMedicines(
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String manufacturer,
-            @RequestParam(required = false) String category,
+            @RequestParam(required = false) List<String> manufacturer,
+            @RequestParam(required = false) List<String> category,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false) Boolean prescriptionRequired) {
+            @RequestParam(required = false) List<String> priceBucket,
+            @RequestParam(required = false) Boolean prescriptionRequired,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            MedicineSearchCriteria criteria = new MedicineSearchCriteria(name, manufacturer, category,
+                minPrice, maxPrice, MedicineSearchCriteria.PriceRange.parseAll(priceBucket), prescriptionRequired);
+            Page<Medicine> medicines = medicineService.searchMedicines(criteria, page, size, sortBy, sortDir);
+            return ResponseEntity.ok(medicines);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/search/ranked")
+    @QueryBudget(1)
+    public ResponseEntity<List<Medicine>> searchMedicinesRanked(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<Medicine> medicines = medicineService.searchMedicines(
-                name, manufacturer, category, minPrice, maxPrice, prescriptionRequired);
+            List<Medicine> medicines = medicineService.searchMedicinesRanked(
+                q, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
             return ResponseEntity.ok(medicines);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    // Stock Management
+    @GetMapping("/autocomplete")
+    @QueryBudget(0)
+    public ResponseEntity<List<MedicineSuggestion>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(medicineAutocompleteIndex.suggest(
+                prefix, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Stock Management (without a threshold each medicine is measured against its own reorder point)
 
     @GetMapping("/low-stock")
+    @QueryBudget(1)
     public ResponseEntity<List<Medicine>> getLowStockMedicines(
-            @RequestParam(defaultValue = "10") int threshold) {
+            @RequestParam(required = false) Integer threshold) {
         try {
-            List<Medicine> medicines = medicineService.getLowStockMedicines(threshold);
+            List<Medicine> medicines = threshold == null
+                    ? medicineService.getLowStockMedicines()
+                    : medicineService.getLowStockMedicines(threshold);
             return ResponseEntity.ok(medicines);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/reorder-suggestions")
+    @QueryBudget(1)
+    public ResponseEntity<List<ReorderSuggestion>> getReorderSuggestions() {
+        try {
+            return ResponseEntity.ok(medicineService.getReorderSuggestions());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Runs the nightly demand forecast now, in the background; its reorder quantities feed the suggestions
+    @PostMapping("/reorder-suggestions/forecast")
+    @QueryBudget(0)
+    public ResponseEntity<ForecastReport> runDemandForecast() {
+        try {
+            return ResponseEntity.accepted().body(demandForecastService.start());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(demandForecastService.getLastRun());
+        }
+    }
+
+    @GetMapping("/reorder-suggestions/forecast/status")
+    @QueryBudget(0)
+    public ResponseEntity<ForecastReport> getDemandForecastStatus() {
+        ForecastReport report = demandForecastService.getLastRun();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    // Omitted values clear the medicine's own policy, falling back to the default reorder point
+    @PatchMapping("/{id}/reorder-point")
+    @QueryBudget(2)
+    public ResponseEntity<Medicine> updateReorderPoint(@PathVariable Long id,
+                                                       @RequestParam(required = false) Integer reorderPoint,
+                                                       @RequestParam(required = false) Integer reorderQuantity) {
+        try {
+            return ResponseEntity.ok(medicineService.updateReorderPoint(id, reorderPoint, reorderQuantity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PatchMapping("/{id}/stock")
+    @QueryBudget(2)
     public ResponseEntity<Medicine> updateStock(@PathVariable Long id, 
-                                              @RequestParam int quantity) {
+                                              @RequestParam int quantity,
+                                              @RequestParam(required = false) String performedBy,
+                                              @RequestParam(required = false) StockLedger.Durability durability) {
         try {
-            Medicine medicine = medicineService.updateStock(id, quantity);
+            Medicine medicine = medicineService.updateStock(id, quantity, performedBy, durability);
             return ResponseEntity.ok(medicine);
+        } catch (StockNotYetDurableException e) {
+            return ResponseEntity.accepted().body(medicineService.getMedicineById(id));
+        } catch (StockLedgerUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(STOCK_ERROR_HEADER, e.getMessage())
+                    .build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -166,17 +401,33 @@ public class MedicineController {
         }
     }
 
-    // Sales Operations
+    // Sales Operations (a refused sale reads the row once more to say why)
     @PostMapping("/{id}/sale")
+    @QueryBudget(2)
     public ResponseEntity<Map<String, Object>> processSale(@PathVariable Long id, 
-                                                         @RequestParam int quantity) {
+                                                         @RequestParam int quantity,
+                                                         @RequestParam(required = false) String performedBy,
+                                                         @RequestParam(required = false) StockLedger.Durability durability) {
         try {
-            Medicine medicine = medicineService.processSale(id, quantity);
+            int remainingStock = salesService.processSale(id, quantity, performedBy, durability);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Sale processed successfully");
-            response.put("medicine", medicine);
+            response.put("medicineId", id);
             response.put("soldQuantity", quantity);
+            response.put("remainingStock", remainingStock);
             return ResponseEntity.ok(response);
+        } catch (StockNotYetDurableException e) {
+            // The sale stands; a client that retried it would sell twice
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Sale recorded, not yet durable");
+            response.put("medicineId", id);
+            response.put("soldQuantity", quantity);
+            response.put("remainingStock", e.getStock(id));
+            return ResponseEntity.accepted().body(response);
+        } catch (StockLedgerUnavailableException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
         } catch (RuntimeException e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -186,22 +437,100 @@ public class MedicineController {
         }
     }
 
+    @PostMapping("/sales/basket")
+    @QueryBudget(2)
+    public ResponseEntity<Map<String, Object>> processBasket(@Valid @RequestBody List<SaleLine> lines,
+                                                             @RequestParam(required = false) String performedBy,
+                                                             @RequestParam(required = false) StockLedger.Durability durability) {
+        try {
+            List<SaleLineResult> results = salesService.processBasket(lines, performedBy, durability);
+            boolean rejected = results.stream().anyMatch(SaleLineResult::isRejected);
+            Map<String, Object> response = new HashMap<>();
+            response.put("lines", results);
+            if (rejected) {
+                response.put("error", "Basket rejected, no stock was changed");
+                return ResponseEntity.badRequest().body(response);
+            }
+            response.put("message", "Basket processed successfully");
+            response.put("totalAmount", results.stream()
+                    .map(SaleLineResult::getLineTotal)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+            return ResponseEntity.ok(response);
+        } catch (StockNotYetDurableException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Basket recorded, not yet durable");
+            response.put("remainingStock", e.getResultingStock());
+            return ResponseEntity.accepted().body(response);
+        } catch (StockLedgerUnavailableException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        } catch (RuntimeException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/sales/statistics")
+    @QueryBudget(0)
+    public ResponseEntity<Map<String, Object>> getSaleStatistics() {
+        try {
+            return ResponseEntity.ok(salesService.getSaleStatistics());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/stock/ledger/statistics")
+    @QueryBudget(0)
+    public ResponseEntity<Map<String, Object>> getStockLedgerStatistics() {
+        try {
+            return ResponseEntity.ok(medicineService.getStockLedgerStatistics());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/cache/statistics")
+    @QueryBudget(0)
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        try {
+            return ResponseEntity.ok(medicineService.getCacheStatistics());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // Analytics
     @GetMapping("/analytics/dashboard")
+    @QueryBudget(0)
     public ResponseEntity<Map<String, Object>> getDashboardAnalytics() {
         try {
+            DashboardSnapshot snapshot = dashboardAggregateStore.getSnapshot();
             Map<String, Object> analytics = new HashMap<>();
-            analytics.put("totalMedicines", medicineService.getTotalMedicineCount());
-            analytics.put("expiredMedicines", medicineService.getExpiredMedicineCount());
-            analytics.put("lowStockMedicines", medicineService.getLowStockMedicineCount(10));
-            analytics.put("totalInventoryValue", medicineService.getTotalInventoryValue());
+            analytics.put("totalMedicines", snapshot.getTotalMedicines());
+            analytics.put("expiredMedicines", snapshot.getExpiredMedicines());
+            analytics.put("lowStockMedicines", snapshot.getLowStockMedicines());
+            analytics.put("totalInventoryValue", snapshot.getTotalInventoryValue());
+            analytics.put("lastReconciledAt", snapshot.getLastReconciledAt());
             return ResponseEntity.ok(analytics);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // Live counters: a snapshot event on connect, then delta events with only the figures that changed
+    @GetMapping(value = "/analytics/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @QueryBudget(0)
+    public SseEmitter streamDashboardAnalytics() {
+        return dashboardStreamPublisher.subscribe();
+    }
+
     @GetMapping("/expired")
+    @QueryBudget(1)
     public ResponseEntity<List<Medicine>> getExpiredMedicines() {
         try {
             List<Medicine> medicines = medicineService.getExpiredMedicines();
@@ -210,4 +539,36 @@ public class MedicineController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    // Deletes expired medicines chunk by chunk on a background thread; starting again after a stop or a
+    // failure resumes the same purge
+    @PostMapping("/expired/purge")
+    @QueryBudget(0)
+    public ResponseEntity<PurgeReport> purgeExpiredMedicines(@RequestParam(defaultValue = "false") boolean archive) {
+        try {
+            return ResponseEntity.accepted().body(expiredMedicinePurgeService.start(archive));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(expiredMedicinePurgeService.getLastPurge());
+        }
+    }
+
+    @PostMapping("/expired/purge/stop")
+    @QueryBudget(0)
+    public ResponseEntity<PurgeReport> stopExpiredMedicinePurge() {
+        PurgeReport report = expiredMedicinePurgeService.stop();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    @GetMapping("/expired/purge/status")
+    @QueryBudget(0)
+    public ResponseEntity<PurgeReport> getExpiredMedicinePurgeStatus() {
+        PurgeReport report = expiredMedicinePurgeService.getLastPurge();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    private static HttpStatus unavailableOrFailed(Throwable cause) {
+        return cause instanceof StockLedgerUnavailableException
+                ? HttpStatus.SERVICE_UNAVAILABLE
+                : HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
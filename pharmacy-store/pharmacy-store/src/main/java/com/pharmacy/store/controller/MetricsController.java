@@ -0,0 +1,24 @@
+package com.pharmacy.store.controller;
+
+import com.pharmacy.store.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/actuator")
+public class MetricsController {
+
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    // Prometheus scrape endpoint, at the path Spring Boot Actuator would use
+    @GetMapping(value = "/prometheus", produces = PROMETHEUS_TEXT)
+    public ResponseEntity<String> prometheus() {
+        return ResponseEntity.ok(metricsRegistry.scrape());
+    }
+}
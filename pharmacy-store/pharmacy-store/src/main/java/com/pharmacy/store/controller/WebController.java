@@ -1,53 +1,71 @@
 package com.pharmacy.store.controller;
 
+import com.pharmacy.store.dto.DashboardSnapshot;
+import com.pharmacy.store.logging.QueryBudget;
 import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.service.DashboardAggregateStore;
+import com.pharmacy.store.service.MedicineExpiryIndex;
 import com.pharmacy.store.service.MedicineService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
-import java.util.List;
-
 @Controller
 @RequestMapping("/")
 public class WebController {
 
+    private static final int LIST_PAGE_SIZE = 24;
+    // Page links either side of the current page; prev/next reach the rest
+    private static final int LIST_PAGE_LINKS = 2;
+
     @Autowired
     private MedicineService medicineService;
 
-    // Dashboard
+    @Autowired
+    private DashboardAggregateStore dashboardAggregateStore;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    // Dashboard (served from the in-memory aggregates, never from the medicines table)
     @GetMapping
+    @QueryBudget(0)
     public String dashboard(Model model) {
-        long totalMedicines = medicineService.getTotalMedicineCount();
-        long expiredCount = medicineService.getExpiredMedicineCount();
-        long lowStockCount = medicineService.getLowStockMedicineCount(10);
-        BigDecimal totalValue = medicineService.getTotalInventoryValue();
-        
-        List<Medicine> lowStockMedicines = medicineService.getLowStockMedicines(10);
-        List<Medicine> expiredMedicines = medicineService.getExpiredMedicines();
+        DashboardSnapshot snapshot = dashboardAggregateStore.getSnapshot();
 
-        model.addAttribute("totalMedicines", totalMedicines);
-        model.addAttribute("expiredCount", expiredCount);
-        model.addAttribute("lowStockCount", lowStockCount);
-        model.addAttribute("totalValue", totalValue);
-        model.addAttribute("lowStockMedicines", lowStockMedicines);
-        model.addAttribute("expiredMedicines", expiredMedicines);
+        model.addAttribute("totalMedicines", snapshot.getTotalMedicines());
+        model.addAttribute("expiredCount", snapshot.getExpiredMedicines());
+        model.addAttribute("lowStockCount", snapshot.getLowStockMedicines());
+        model.addAttribute("totalValue", snapshot.getTotalInventoryValue());
+        model.addAttribute("expiringSoonCount", medicineExpiryIndex.getExpiringSoonIds().size());
+        model.addAttribute("expiryAlertDays", medicineExpiryIndex.getAlertDays());
 
         return "dashboard";
     }
 
-    // Medicine List
+    // Medicine List (paged so the page never renders the whole catalogue)
     @GetMapping("/medicines")
-    public String listMedicines(Model model) {
-        List<Medicine> medicines = medicineService.getAllMedicines();
-        model.addAttribute("medicines", medicines);
+    @QueryBudget(2)
+    public String listMedicines(@RequestParam(defaultValue = "0") int page, Model model) {
+        Page<Medicine> medicines = medicineService.getAllMedicines(
+                PageRequest.of(Math.max(page, 0), LIST_PAGE_SIZE, Sort.by("name")));
+        model.addAttribute("medicines", medicines.getContent());
+        model.addAttribute("currentPage", medicines.getNumber());
+        model.addAttribute("totalPages", medicines.getTotalPages());
+        // Clamped so a page past the end still links back into the catalogue
+        int linkedPage = Math.min(medicines.getNumber(), medicines.getTotalPages() - 1);
+        model.addAttribute("firstLinkedPage", Math.max(linkedPage - LIST_PAGE_LINKS, 0));
+        model.addAttribute("lastLinkedPage", Math.min(linkedPage + LIST_PAGE_LINKS, medicines.getTotalPages() - 1));
         return "medicines/list";
     }
 
     // Add Medicine Form
     @GetMapping("/medicines/add")
+    @QueryBudget(0)
     public String showAddMedicineForm(Model model) {
         model.addAttribute("medicine", new Medicine());
         return "medicines/form";
@@ -55,6 +73,7 @@ public class WebController {
 
     // View Medicine Details
     @GetMapping("/medicines/view/{id}")
+    @QueryBudget(1)
     public String viewMedicine(@PathVariable Long id, Model model) {
         try {
             Medicine medicine = medicineService.getMedicineById(id);
@@ -0,0 +1,56 @@
+package com.pharmacy.store.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class DashboardSnapshot {
+
+    private final long totalMedicines;
+    private final long expiredMedicines;
+    private final long lowStockMedicines;
+    private final BigDecimal totalInventoryValue;
+    private final int defaultReorderPoint;
+    private final LocalDate asOfDate;
+    private final LocalDateTime lastReconciledAt;
+
+    public DashboardSnapshot(long totalMedicines, long expiredMedicines, long lowStockMedicines,
+                             BigDecimal totalInventoryValue, int defaultReorderPoint, LocalDate asOfDate,
+                             LocalDateTime lastReconciledAt) {
+        this.totalMedicines = totalMedicines;
+        this.expiredMedicines = expiredMedicines;
+        this.lowStockMedicines = lowStockMedicines;
+        this.totalInventoryValue = totalInventoryValue;
+        this.defaultReorderPoint = defaultReorderPoint;
+        this.asOfDate = asOfDate;
+        this.lastReconciledAt = lastReconciledAt;
+    }
+
+    public long getTotalMedicines() {
+        return totalMedicines;
+    }
+
+    public long getExpiredMedicines() {
+        return expiredMedicines;
+    }
+
+    public long getLowStockMedicines() {
+        return lowStockMedicines;
+    }
+
+    public BigDecimal getTotalInventoryValue() {
+        return totalInventoryValue;
+    }
+
+    public int getDefaultReorderPoint() {
+        return defaultReorderPoint;
+    }
+
+    public LocalDate getAsOfDate() {
+        return asOfDate;
+    }
+
+    public LocalDateTime getLastReconciledAt() {
+        return lastReconciledAt;
+    }
+}
@@ -0,0 +1,81 @@
+package com.pharmacy.store.dto;
+
+import java.time.LocalDate;
+
+public class ForecastReport {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final State state;
+    private final LocalDate historyFrom;
+    private final LocalDate historyUntil;
+    private final long salesRowsRead;
+    private final long unitsSold;
+    private final int categories;
+    private final int medicinesForecast;
+    private final int reorderQuantitiesChanged;
+    private final long elapsedMillis;
+    private final String error;
+
+    public ForecastReport(State state, LocalDate historyFrom, LocalDate historyUntil, long salesRowsRead,
+                          long unitsSold, int categories, int medicinesForecast, int reorderQuantitiesChanged,
+                          long elapsedMillis, String error) {
+        this.state = state;
+        this.historyFrom = historyFrom;
+        this.historyUntil = historyUntil;
+        this.salesRowsRead = salesRowsRead;
+        this.unitsSold = unitsSold;
+        this.categories = categories;
+        this.medicinesForecast = medicinesForecast;
+        this.reorderQuantitiesChanged = reorderQuantitiesChanged;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    // First day of sales history read
+    public LocalDate getHistoryFrom() {
+        return historyFrom;
+    }
+
+    // Sales history runs up to, not including, this day
+    public LocalDate getHistoryUntil() {
+        return historyUntil;
+    }
+
+    // Daily totals (one per medicine and day with sales) streamed from the ledger
+    public long getSalesRowsRead() {
+        return salesRowsRead;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public int getCategories() {
+        return categories;
+    }
+
+    public int getMedicinesForecast() {
+        return medicinesForecast;
+    }
+
+    public int getReorderQuantitiesChanged() {
+        return reorderQuantitiesChanged;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
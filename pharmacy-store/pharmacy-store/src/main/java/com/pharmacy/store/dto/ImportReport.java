@@ -0,0 +1,69 @@
+package com.pharmacy.store.dto;
+
+import java.util.List;
+
+public class ImportReport {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final State state;
+    private final long rowsRead;
+    private final long inserted;
+    private final long updated;
+    private final long rejected;
+    private final int chunksCommitted;
+    private final long elapsedMillis;
+    private final List<String> errors;
+
+    public ImportReport(State state, long rowsRead, long inserted, long updated, long rejected,
+                        int chunksCommitted, long elapsedMillis, List<String> errors) {
+        this.state = state;
+        this.rowsRead = rowsRead;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.rejected = rejected;
+        this.chunksCommitted = chunksCommitted;
+        this.elapsedMillis = elapsedMillis;
+        this.errors = List.copyOf(errors);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public int getChunksCommitted() {
+        return chunksCommitted;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : rowsRead * 1000.0 / elapsedMillis;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,32 @@
+package com.pharmacy.store.dto;
+
+import java.util.List;
+
+public class KeysetSlice<T> {
+
+    private final List<T> content;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public KeysetSlice(List<T> content, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
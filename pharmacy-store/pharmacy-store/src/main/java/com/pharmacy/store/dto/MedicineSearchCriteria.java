@@ -0,0 +1,130 @@
+package com.pharmacy.store.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional filters for the catalogue search. Null or blank values mean "not
+ * filtered"; multi-valued filters match any of their values.
+ */
+public class MedicineSearchCriteria {
+
+    private final String name;
+    private final List<String> manufacturers;
+    private final List<String> categories;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final List<PriceRange> priceBuckets;
+    private final Boolean prescriptionRequired;
+
+    public MedicineSearchCriteria(String name, List<String> manufacturers, List<String> categories,
+                                  BigDecimal minPrice, BigDecimal maxPrice, List<PriceRange> priceBuckets,
+                                  Boolean prescriptionRequired) {
+        this.name = name == null || name.isBlank() ? null : name.trim();
+        this.manufacturers = nonBlank(manufacturers);
+        this.categories = nonBlank(categories);
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.priceBuckets = priceBuckets == null ? List.of() : List.copyOf(priceBuckets);
+        this.prescriptionRequired = prescriptionRequired;
+    }
+
+    private static List<String> nonBlank(List<String> values) {
+        List<String> result = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    result.add(value.trim());
+                }
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getManufacturers() {
+        return manufacturers;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public List<PriceRange> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public Boolean getPrescriptionRequired() {
+        return prescriptionRequired;
+    }
+
+    /**
+     * Half-open price range [min, max); either end may be open, so adjacent
+     * buckets such as "0-10" and "10-25" never overlap.
+     */
+    public static class PriceRange {
+
+        private final BigDecimal min;
+        private final BigDecimal max;
+
+        public PriceRange(BigDecimal min, BigDecimal max) {
+            if (min == null && max == null) {
+                throw new IllegalArgumentException("Price bucket needs at least one bound");
+            }
+            if (min != null && max != null && min.compareTo(max) >= 0) {
+                throw new IllegalArgumentException("Price bucket lower bound must be below its upper bound");
+            }
+            this.min = min;
+            this.max = max;
+        }
+
+        // Accepts "10-25", "50-" and "-10"
+        public static PriceRange parse(String bucket) {
+            String value = bucket.trim();
+            int dash = value.indexOf('-');
+            if (dash < 0) {
+                throw new IllegalArgumentException("Invalid price bucket: " + bucket);
+            }
+            try {
+                String low = value.substring(0, dash).trim();
+                String high = value.substring(dash + 1).trim();
+                return new PriceRange(low.isEmpty() ? null : new BigDecimal(low),
+                                      high.isEmpty() ? null : new BigDecimal(high));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid price bucket: " + bucket);
+            }
+        }
+
+        public static List<PriceRange> parseAll(List<String> buckets) {
+            List<PriceRange> ranges = new ArrayList<>();
+            if (buckets != null) {
+                for (String bucket : buckets) {
+                    if (bucket != null && !bucket.isBlank()) {
+                        ranges.add(parse(bucket));
+                    }
+                }
+            }
+            return ranges;
+        }
+
+        public BigDecimal getMin() {
+            return min;
+        }
+
+        public BigDecimal getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.pharmacy.store.dto;
+
+import java.math.BigDecimal;
+
+public class MedicineSuggestion {
+
+    private final Long id;
+    private final String name;
+    private final int stockQuantity;
+    private final BigDecimal price;
+
+    public MedicineSuggestion(Long id, String name, int stockQuantity, BigDecimal price) {
+        this.id = id;
+        this.name = name;
+        this.stockQuantity = stockQuantity;
+        this.price = price;
+    }
+
+    public MedicineSuggestion withStockQuantity(int stockQuantity) {
+        return new MedicineSuggestion(id, name, stockQuantity, price);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,83 @@
+package com.pharmacy.store.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class PurgeReport {
+
+    public enum State {
+        RUNNING,
+        STOPPED,
+        COMPLETED,
+        FAILED
+    }
+
+    private final State state;
+    private final LocalDate cutoff;
+    private final long expected;
+    private final long deleted;
+    private final long archived;
+    private final int chunksCommitted;
+    private final long elapsedMillis;
+    private final String archiveFile;
+    private final List<String> errors;
+
+    public PurgeReport(State state, LocalDate cutoff, long expected, long deleted, long archived,
+                       int chunksCommitted, long elapsedMillis, String archiveFile, List<String> errors) {
+        this.state = state;
+        this.cutoff = cutoff;
+        this.expected = expected;
+        this.deleted = deleted;
+        this.archived = archived;
+        this.chunksCommitted = chunksCommitted;
+        this.elapsedMillis = elapsedMillis;
+        this.archiveFile = archiveFile;
+        this.errors = List.copyOf(errors);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    // Medicines that expired before this day are purged
+    public LocalDate getCutoff() {
+        return cutoff;
+    }
+
+    // Rows deleted so far plus the expired rows counted when the run (or its last resume) started
+    public long getExpected() {
+        return expected;
+    }
+
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public long getArchived() {
+        return archived;
+    }
+
+    public int getChunksCommitted() {
+        return chunksCommitted;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : deleted * 1000.0 / elapsedMillis;
+    }
+
+    public double getPercentComplete() {
+        return expected == 0 ? 100.0 : Math.min(100.0, deleted * 100.0 / expected);
+    }
+
+    public String getArchiveFile() {
+        return archiveFile;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
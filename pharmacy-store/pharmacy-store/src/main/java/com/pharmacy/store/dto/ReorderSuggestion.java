@@ -0,0 +1,45 @@
+package com.pharmacy.store.dto;
+
+public class ReorderSuggestion {
+
+    private final Long medicineId;
+    private final String name;
+    private final String manufacturer;
+    private final int stockQuantity;
+    private final int reorderPoint;
+    private final int suggestedQuantity;
+
+    public ReorderSuggestion(Long medicineId, String name, String manufacturer, int stockQuantity,
+                             int reorderPoint, int suggestedQuantity) {
+        this.medicineId = medicineId;
+        this.name = name;
+        this.manufacturer = manufacturer;
+        this.stockQuantity = stockQuantity;
+        this.reorderPoint = reorderPoint;
+        this.suggestedQuantity = suggestedQuantity;
+    }
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public int getReorderPoint() {
+        return reorderPoint;
+    }
+
+    public int getSuggestedQuantity() {
+        return suggestedQuantity;
+    }
+}
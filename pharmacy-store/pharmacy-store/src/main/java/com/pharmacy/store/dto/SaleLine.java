@@ -0,0 +1,36 @@
+package com.pharmacy.store.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class SaleLine {
+
+    @NotNull(message = "Medicine id is required")
+    private Long medicineId;
+
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private int quantity;
+
+    public SaleLine() {}
+
+    public SaleLine(Long medicineId, int quantity) {
+        this.medicineId = medicineId;
+        this.quantity = quantity;
+    }
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
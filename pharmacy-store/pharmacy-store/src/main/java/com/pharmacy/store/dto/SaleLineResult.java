@@ -0,0 +1,79 @@
+package com.pharmacy.store.dto;
+
+import java.math.BigDecimal;
+
+public class SaleLineResult {
+
+    public enum Status {
+        SOLD,
+        AVAILABLE,
+        NOT_FOUND,
+        EXPIRED,
+        INSUFFICIENT_STOCK
+    }
+
+    private Long medicineId;
+    private String medicineName;
+    private int quantity;
+    private Status status;
+    private String message;
+    private BigDecimal lineTotal;
+    private Integer remainingStock;
+
+    public SaleLineResult(Long medicineId, int quantity) {
+        this.medicineId = medicineId;
+        this.quantity = quantity;
+    }
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public String getMedicineName() {
+        return medicineName;
+    }
+
+    public void setMedicineName(String medicineName) {
+        this.medicineName = medicineName;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public BigDecimal getLineTotal() {
+        return lineTotal;
+    }
+
+    public void setLineTotal(BigDecimal lineTotal) {
+        this.lineTotal = lineTotal;
+    }
+
+    public Integer getRemainingStock() {
+        return remainingStock;
+    }
+
+    public void setRemainingStock(Integer remainingStock) {
+        this.remainingStock = remainingStock;
+    }
+
+    public boolean isRejected() {
+        return status != Status.SOLD && status != Status.AVAILABLE;
+    }
+}
@@ -0,0 +1,96 @@
+package com.pharmacy.store.event;
+
+import com.pharmacy.store.model.Medicine;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published whenever medicine rows change. Listeners that keep derived
+ * in-memory state (caches, aggregates, indexes) subscribe after commit so
+ * rolled-back writes never leak into them.
+ */
+public class MedicineChangedEvent {
+
+    public enum Type {
+        // Full state after an insert or update is attached
+        SAVED,
+        // Only the stock moved, by stockDelta; no entity was loaded
+        STOCK_CHANGED,
+        // The removed row's last state is attached
+        DELETED,
+        // Rows written by set-based statements; listeners reload them, missing ids were deleted
+        BULK_CHANGED,
+        // Pending ledger movements were folded into stock_quantity; the effective stock did not move
+        STOCK_FOLDED
+    }
+
+    private final Type type;
+    private final Long medicineId;
+    private final Medicine medicine;
+    private final int stockDelta;
+    private final Collection<Long> medicineIds;
+    private final Map<Long, Integer> foldedDeltas;
+
+    private MedicineChangedEvent(Type type, Long medicineId, Medicine medicine, int stockDelta,
+                                 Collection<Long> medicineIds) {
+        this(type, medicineId, medicine, stockDelta, medicineIds, Map.of());
+    }
+
+    private MedicineChangedEvent(Type type, Long medicineId, Medicine medicine, int stockDelta,
+                                 Collection<Long> medicineIds, Map<Long, Integer> foldedDeltas) {
+        this.type = type;
+        this.medicineId = medicineId;
+        this.medicine = medicine;
+        this.stockDelta = stockDelta;
+        this.medicineIds = medicineIds;
+        this.foldedDeltas = foldedDeltas;
+    }
+
+    public static MedicineChangedEvent saved(Medicine medicine) {
+        return new MedicineChangedEvent(Type.SAVED, medicine.getId(), new Medicine(medicine), 0, List.of(medicine.getId()));
+    }
+
+    public static MedicineChangedEvent stockChanged(Long medicineId, int stockDelta) {
+        return new MedicineChangedEvent(Type.STOCK_CHANGED, medicineId, null, stockDelta, List.of(medicineId));
+    }
+
+    public static MedicineChangedEvent deleted(Medicine medicine) {
+        return new MedicineChangedEvent(Type.DELETED, medicine.getId(), new Medicine(medicine), 0, List.of(medicine.getId()));
+    }
+
+    public static MedicineChangedEvent bulkChanged(Collection<Long> medicineIds) {
+        return new MedicineChangedEvent(Type.BULK_CHANGED, null, null, 0, List.copyOf(medicineIds));
+    }
+
+    // Deltas moved from the pending movements into stock_quantity, per medicine
+    public static MedicineChangedEvent stockFolded(Map<Long, Integer> foldedDeltas) {
+        return new MedicineChangedEvent(Type.STOCK_FOLDED, null, null, 0, List.copyOf(foldedDeltas.keySet()),
+                Map.copyOf(foldedDeltas));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public Medicine getMedicine() {
+        return medicine;
+    }
+
+    public int getStockDelta() {
+        return stockDelta;
+    }
+
+    public Collection<Long> getMedicineIds() {
+        return medicineIds;
+    }
+
+    public Map<Long, Integer> getFoldedDeltas() {
+        return foldedDeltas;
+    }
+}
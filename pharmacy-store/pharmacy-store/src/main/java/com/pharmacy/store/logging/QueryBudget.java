@@ -0,0 +1,21 @@
+package com.pharmacy.store.logging;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most statements a handler may run on the request thread, including any
+ * run while rendering its view. A method-level budget overrides one on the
+ * controller; handlers without either get pharmacy.query-guard.default-budget.
+ * A negative budget leaves the handler unchecked.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+
+    int value();
+}
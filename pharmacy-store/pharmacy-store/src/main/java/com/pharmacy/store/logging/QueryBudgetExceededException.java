@@ -0,0 +1,19 @@
+package com.pharmacy.store.logging;
+
+/**
+ * Thrown in place of a statement that would take a request over its declared
+ * query budget while the guard is enforcing.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    private final int budget;
+
+    public QueryBudgetExceededException(int budget, String sql) {
+        super("Query budget of " + budget + " exceeded by statement: " + sql);
+        this.budget = budget;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+}
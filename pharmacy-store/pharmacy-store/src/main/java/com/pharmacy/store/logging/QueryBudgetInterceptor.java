@@ -0,0 +1,125 @@
+package com.pharmacy.store.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds each handler to its {@link QueryBudget}. In WARN mode a request that
+ * went over budget is logged once it completes; in FAIL mode the statement
+ * that would go over is rejected, so the request fails. Statements are counted
+ * by {@link QueryLoggingDataSource}; work handed to other threads (streamed
+ * export bodies, the stock ledger writer) is not attributed to the request.
+ */
+@Component
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+
+    private static final String STARTED_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".STARTED";
+
+    public enum Mode {
+        OFF, WARN, FAIL
+    }
+
+    @Value("${pharmacy.query-guard.mode:WARN}")
+    private Mode mode;
+
+    @Value("${pharmacy.query-guard.default-budget:20}")
+    private int defaultBudget;
+
+    private final Map<Method, Integer> budgets = new ConcurrentHashMap<>();
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder exceeded = new LongAdder();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (mode == Mode.OFF || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        int budget = budgetOf(handlerMethod);
+        if (budget < 0) {
+            return true;
+        }
+        // The request summary filter normally started the stats already; keep its count
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats == null) {
+            stats = RequestQueryStats.start();
+            request.setAttribute(STARTED_ATTRIBUTE, Boolean.TRUE);
+        }
+        stats.limit(budget, mode == Mode.FAIL);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        finish(request, handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        finish(request, handler);
+    }
+
+    private void finish(HttpServletRequest request, Object handler) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats == null || stats.getBudget() < 0) {
+            return;
+        }
+        checked.increment();
+        if (stats.isOverBudget()) {
+            exceeded.increment();
+            logger.warn("query budget exceeded handler={} uri={} queries={} budget={} mode={}",
+                    handlerName(handler), request.getRequestURI(), stats.getQueries(), stats.getBudget(), mode);
+        }
+        stats.limit(-1, false);
+        if (request.getAttribute(STARTED_ATTRIBUTE) != null) {
+            request.removeAttribute(STARTED_ATTRIBUTE);
+            RequestQueryStats.end();
+        }
+    }
+
+    private int budgetOf(HandlerMethod handlerMethod) {
+        return budgets.computeIfAbsent(handlerMethod.getMethod(), method -> {
+            QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(method, QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), QueryBudget.class);
+            }
+            return budget != null ? budget.value() : defaultBudget;
+        });
+    }
+
+    private static String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+        }
+        return String.valueOf(handler);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", mode.name());
+        stats.put("defaultBudget", defaultBudget);
+        stats.put("checked", checked.sum());
+        stats.put("exceeded", exceeded.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,206 @@
+package com.pharmacy.store.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times every statement executed through the pool, for JPA and JdbcTemplate
+ * alike. Each execution is added to the current request's query stats;
+ * executions over the threshold are logged, sampled, with their SQL and
+ * bind values. Bind values are only kept in a small array per statement and
+ * formatted when a slow statement is actually logged. This is also where a
+ * request's enforced query budget is applied.
+ */
+public class QueryLoggingDataSource extends DelegatingDataSource {
+
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("com.pharmacy.store.sql.slow");
+
+    private static final int MAX_PARAMETER_LENGTH = 100;
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final boolean captureParameters;
+
+    public QueryLoggingDataSource(DataSource target, Duration threshold, double sampleRate,
+                                  boolean captureParameters) {
+        super(target);
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.captureParameters = captureParameters;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    Object result = call(target, method, args);
+                    if (result instanceof Statement statement) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                                : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                                new StatementHandler(statement, sql));
+                    }
+                    return result;
+                }
+            }
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private Object[] parameters;
+        private int batched;
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch",
+                     "executeLargeBatch" -> {
+                    return execute(method, args);
+                }
+                case "addBatch" -> batched++;
+                case "clearBatch" -> batched = 0;
+                case "clearParameters" -> parameters = null;
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    if (captureParameters && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index) {
+                        capture(index, name.equals("setNull") ? null : args[1]);
+                    }
+                }
+            }
+            return call(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String statement = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+            RequestQueryStats.checkBudget(statement);
+            long start = System.nanoTime();
+            try {
+                return call(target, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                RequestQueryStats.record(nanos);
+                if (nanos >= thresholdNanos && sampled()) {
+                    logSlow(statement, nanos);
+                }
+                if (method.getName().endsWith("Batch")) {
+                    batched = 0;
+                }
+            }
+        }
+
+        private void capture(int index, Object value) {
+            if (parameters == null) {
+                parameters = new Object[Math.max(8, index)];
+            } else if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            if (index >= 1) {
+                parameters[index - 1] = value;
+            }
+        }
+
+        private void logSlow(String statement, long nanos) {
+            if (!slowQueryLogger.isWarnEnabled()) {
+                return;
+            }
+            String text = statement == null ? "" : statement.replaceAll("\\s+", " ").trim();
+            slowQueryLogger.warn("slow query durationMs={} batch={} sql=\"{}\" params={}",
+                    String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0), batched,
+                    text.length() > MAX_SQL_LENGTH ? text.substring(0, MAX_SQL_LENGTH) + "..." : text,
+                    formatParameters());
+        }
+
+        private String formatParameters() {
+            if (!captureParameters || parameters == null) {
+                return "[]";
+            }
+            int last = parameters.length;
+            while (last > 0 && parameters[last - 1] == null) {
+                last--;
+            }
+            StringBuilder formatted = new StringBuilder("[");
+            for (int i = 0; i < last; i++) {
+                if (i > 0) {
+                    formatted.append(", ");
+                }
+                Object value = parameters[i];
+                String text = value instanceof CharSequence ? "'" + value + "'" : String.valueOf(value);
+                formatted.append(text.length() > MAX_PARAMETER_LENGTH
+                        ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text);
+            }
+            return formatted.append(']').toString();
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
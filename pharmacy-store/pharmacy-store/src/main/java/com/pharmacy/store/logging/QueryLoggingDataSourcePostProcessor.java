@@ -0,0 +1,35 @@
+package com.pharmacy.store.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application's DataSource so every statement is timed for the
+ * slow-query log and the per-request summary.
+ */
+@Component
+@ConditionalOnProperty(name = "pharmacy.logging.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryLoggingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Value("${pharmacy.logging.slow-query.threshold:200ms}")
+    private Duration threshold;
+
+    @Value("${pharmacy.logging.slow-query.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${pharmacy.logging.slow-query.capture-parameters:true}")
+    private boolean captureParameters;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof QueryLoggingDataSource)) {
+            return new QueryLoggingDataSource(dataSource, threshold, sampleRate, captureParameters);
+        }
+        return bean;
+    }
+}
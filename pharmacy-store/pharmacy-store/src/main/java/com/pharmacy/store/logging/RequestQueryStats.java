@@ -0,0 +1,75 @@
+package com.pharmacy.store.logging;
+
+/**
+ * Statement count and database time of the request running on the current
+ * thread. Work on other threads (the stock ledger writer, scheduled jobs) is
+ * not attributed to any request.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int queries;
+    private long databaseNanos;
+    private int budget = -1;
+    private boolean enforced;
+    private boolean rejected;
+
+    private RequestQueryStats() {}
+
+    public static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    // Called before each statement; an enforced budget rejects the statement that would exceed it
+    static void checkBudget(String sql) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null && stats.enforced && stats.queries >= stats.budget) {
+            stats.rejected = true;
+            throw new QueryBudgetExceededException(stats.budget, sql);
+        }
+    }
+
+    static void record(long nanos) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.queries++;
+            stats.databaseNanos += nanos;
+        }
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    public long getDatabaseNanos() {
+        return databaseNanos;
+    }
+
+    /**
+     * Limits the statements this request may run. A negative budget removes
+     * the limit; an enforced budget fails the statement that would exceed it.
+     */
+    public void limit(int budget, boolean enforced) {
+        this.budget = budget;
+        this.enforced = enforced && budget >= 0;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public boolean isOverBudget() {
+        return budget >= 0 && (rejected || queries > budget);
+    }
+}
@@ -0,0 +1,56 @@
+package com.pharmacy.store.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * One structured line per request in place of per-statement SQL output:
+ * method, URI template, status, statement count, database time and total
+ * time. Turn it off with the com.pharmacy.store.request logger level.
+ */
+@Component
+@ConditionalOnProperty(name = "pharmacy.logging.request-summary.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestSummaryFilter extends OncePerRequestFilter {
+
+    private static final Logger requestLogger = LoggerFactory.getLogger("com.pharmacy.store.request");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!requestLogger.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        RequestQueryStats stats = RequestQueryStats.start();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            RequestQueryStats.end();
+            // A streaming response's length is not the request's cost
+            if (!request.isAsyncStarted()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                requestLogger.info("request method={} uri={} status={} queries={} dbMs={} totalMs={}",
+                        request.getMethod(), pattern != null ? pattern : request.getRequestURI(), status,
+                        stats.getQueries(), millis(stats.getDatabaseNanos()), millis(System.nanoTime() - start));
+            }
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.pharmacy.store.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands every Hikari pool a tracker that times connection acquisition, usage
+ * and creation and counts acquisition timeouts, under the Micrometer names.
+ * The pool's own MXBean only has point-in-time counts. The tracker has to be
+ * set before the pool starts, so this runs before the DataSource is wrapped
+ * or used; the registry is only looked up when the pool starts.
+ */
+@Component
+@ConditionalOnProperty(name = "pharmacy.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class HikariMetricsPostProcessor implements BeanPostProcessor {
+
+    @Autowired
+    private ObjectProvider<MetricsRegistry> metricsRegistry;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari && hikari.getMetricsTrackerFactory() == null
+                && hikari.getHikariPoolMXBean() == null) {
+            hikari.setMetricsTrackerFactory(this::create);
+        }
+        return bean;
+    }
+
+    private IMetricsTracker create(String pool, PoolStats poolStats) {
+        return new Tracker(metricsRegistry.getObject(), pool);
+    }
+
+    private static final class Tracker implements IMetricsTracker {
+        private final Timer acquire;
+        private final Timer usage;
+        private final Timer creation;
+        private final LongAdder timeouts;
+
+        private Tracker(MetricsRegistry registry, String pool) {
+            acquire = registry.timer("hikaricp_connections_acquire_seconds",
+                    "Time spent waiting for a pooled connection", "pool", pool);
+            usage = registry.timer("hikaricp_connections_usage_seconds",
+                    "Time a connection is held before it is returned", "pool", pool);
+            creation = registry.timer("hikaricp_connections_creation_seconds",
+                    "Time to open a new physical connection", "pool", pool);
+            timeouts = registry.counter("hikaricp_connections_timeout",
+                    "Connection requests that timed out", "pool", pool);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquire.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usage.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            creation.record(TimeUnit.MILLISECONDS.toNanos(connectionCreatedMillis));
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.pharmacy.store.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Per-endpoint request latency, tagged with the matched URI template rather
+ * than the raw path so ids do not explode the number of series. Streaming
+ * responses (SSE, exports) are left out: their duration is the length of the
+ * stream, not the cost of the request.
+ */
+@Component
+@ConditionalOnProperty(name = "pharmacy.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class HttpMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            if (!request.isAsyncStarted()) {
+                metricsRegistry.timer("http_server_requests_seconds", "HTTP request latency",
+                        "method", request.getMethod(),
+                        "uri", uri(request, status),
+                        "status", Integer.toString(status),
+                        "outcome", outcome(status))
+                        .record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static String uri(HttpServletRequest request, int status) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        return status == HttpServletResponse.SC_NOT_FOUND ? "NOT_FOUND" : "UNKNOWN";
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        if (status >= 300) {
+            return "REDIRECTION";
+        }
+        return status >= 200 ? "SUCCESS" : "INFORMATIONAL";
+    }
+}
@@ -0,0 +1,90 @@
+package com.pharmacy.store.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency timers around the sales and medicine services and every repository
+ * call. Timers are resolved once per bean class and method, so a timed call
+ * costs two nanoTime reads and a histogram update.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "pharmacy.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsAspect {
+
+    private static final String SERVICE_TIMER = "pharmacy_service_seconds";
+    private static final String REPOSITORY_TIMER = "pharmacy_repository_seconds";
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    // Keyed by bean class then method: Spring Data repositories share methods such as findById
+    private final ClassValue<Map<Method, Timer>> timers = new ClassValue<>() {
+        @Override
+        protected Map<Method, Timer> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    @Around("execution(public * com.pharmacy.store.service.MedicineService.*(..)) || " +
+            "execution(public * com.pharmacy.store.service.SalesService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_TIMER, "Service method latency", "service");
+    }
+
+    // Spring Data repositories through their proxy, JDBC repositories directly; the custom fragment
+    // is only reached through the MedicineRepository proxy, which already times it
+    @Around("execution(public * *(..)) && (this(org.springframework.data.repository.Repository) || " +
+            "(within(com.pharmacy.store.repository..*) && !this(com.pharmacy.store.repository.MedicineRepositoryCustom)))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, REPOSITORY_TIMER, "Repository query latency", "repository");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name, String help, String componentTag)
+            throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timer(joinPoint, name, help, componentTag).record(System.nanoTime() - start);
+            return result;
+        } catch (Throwable e) {
+            metricsRegistry.timer(name, help, componentTag, componentName(joinPoint.getThis().getClass()),
+                    "method", joinPoint.getSignature().getName(), "exception", e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint, String name, String help, String componentTag) {
+        Class<?> beanClass = joinPoint.getThis().getClass();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return timers.get(beanClass).computeIfAbsent(method, m -> metricsRegistry.timer(name, help,
+                componentTag, componentName(beanClass), "method", m.getName(), "exception", "none"));
+    }
+
+    // Proxies are named after the application type they stand for
+    private static String componentName(Class<?> beanClass) {
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            if (type.getName().startsWith("com.pharmacy.store.") && !type.getName().contains("$$")) {
+                return type.getSimpleName();
+            }
+            for (Class<?> contract : type.getInterfaces()) {
+                if (contract.getName().startsWith("com.pharmacy.store.repository.")
+                        && !contract.getSimpleName().endsWith("Custom")) {
+                    return contract.getSimpleName();
+                }
+            }
+        }
+        return beanClass.getSimpleName();
+    }
+}
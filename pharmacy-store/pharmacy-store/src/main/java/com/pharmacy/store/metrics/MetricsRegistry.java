@@ -0,0 +1,196 @@
+package com.pharmacy.store.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process metrics rendered in the Prometheus text exposition format.
+ * Timers and counters are looked up once and then updated with plain adders;
+ * gauges and the services' statistics maps are only read at scrape time, so
+ * they add nothing to the paths they describe. Metric names follow the
+ * Micrometer Prometheus conventions (e.g. http_server_requests_seconds).
+ */
+@Component
+public class MetricsRegistry {
+
+    private enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    private final List<StatisticsSource> statisticsSources = new CopyOnWriteArrayList<>();
+
+    // Registration
+
+    public Timer timer(String name, String help, String... tags) {
+        return (Timer) family(name, help, Type.HISTOGRAM).meters.computeIfAbsent(labels(tags), l -> new Timer());
+    }
+
+    public LongAdder counter(String name, String help, String... tags) {
+        return (LongAdder) family(name, help, Type.COUNTER).meters.computeIfAbsent(labels(tags), l -> new LongAdder());
+    }
+
+    public void gauge(String name, String help, Supplier<? extends Number> value, String... tags) {
+        family(name, help, Type.GAUGE).meters.put(labels(tags), value);
+    }
+
+    // Numeric entries become prefix_snake_case_key: counters for the given keys, gauges for the rest
+    public void statistics(String prefix, String help, Supplier<Map<String, Object>> source, Set<String> counterKeys) {
+        statisticsSources.add(new StatisticsSource(prefix, help, source, counterKeys));
+    }
+
+    // Exposition
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        families.forEach((name, family) -> family.write(name, out));
+        for (StatisticsSource source : statisticsSources) {
+            source.write(out);
+        }
+        return out.toString();
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, n -> new Family(help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + family.type);
+        }
+        return family;
+    }
+
+    // Tags are key/value pairs; keys are sorted so the same tags always map to the same series
+    private static String labels(String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be key/value pairs");
+        }
+        if (tags.length == 0) {
+            return "";
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            sorted.put(tags[i], tags[i + 1]);
+        }
+        StringBuilder labels = new StringBuilder();
+        sorted.forEach((key, value) -> {
+            if (labels.length() > 0) {
+                labels.append(',');
+            }
+            labels.append(key).append("=\"").append(escape(value)).append('"');
+        });
+        return labels.toString();
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, Object value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String withLabel(String labels, String label) {
+        return labels.isEmpty() ? label : labels + "," + label;
+    }
+
+    private static final class Family {
+        private final String help;
+        private final Type type;
+        private final Map<String, Object> meters = new ConcurrentHashMap<>();
+
+        private Family(String help, Type type) {
+            this.help = help;
+            this.type = type;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void write(String name, StringBuilder out) {
+            Map<String, Object> series = new TreeMap<>(meters);
+            switch (type) {
+                case COUNTER -> {
+                    header(out, name + "_total", help, "counter");
+                    series.forEach((labels, counter) -> sample(out, name + "_total", labels, ((LongAdder) counter).sum()));
+                }
+                case GAUGE -> {
+                    header(out, name, help, "gauge");
+                    series.forEach((labels, gauge) -> {
+                        Number value = ((Supplier<? extends Number>) gauge).get();
+                        sample(out, name, labels, value == null ? Double.NaN : value);
+                    });
+                }
+                case HISTOGRAM -> {
+                    header(out, name, help, "histogram");
+                    List<String> maxima = new ArrayList<>();
+                    series.forEach((labels, meter) -> {
+                        Timer timer = (Timer) meter;
+                        long[] counts = timer.bucketCounts();
+                        long cumulative = 0;
+                        for (int i = 0; i < Timer.BUCKETS_SECONDS.length; i++) {
+                            cumulative += counts[i];
+                            sample(out, name + "_bucket", withLabel(labels, "le=\"" + Timer.BUCKETS_SECONDS[i] + "\""),
+                                    cumulative);
+                        }
+                        cumulative += counts[counts.length - 1];
+                        sample(out, name + "_bucket", withLabel(labels, "le=\"+Inf\""), cumulative);
+                        sample(out, name + "_count", labels, cumulative);
+                        sample(out, name + "_sum", labels, timer.getTotalSeconds());
+                        maxima.add(labels);
+                    });
+                    header(out, name + "_max", help + " (recent maximum)", "gauge");
+                    for (String labels : maxima) {
+                        sample(out, name + "_max", labels, ((Timer) series.get(labels)).getMaxSeconds());
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class StatisticsSource {
+        private final String prefix;
+        private final String help;
+        private final Supplier<Map<String, Object>> source;
+        private final Set<String> counterKeys;
+
+        private StatisticsSource(String prefix, String help, Supplier<Map<String, Object>> source,
+                                 Set<String> counterKeys) {
+            this.prefix = prefix;
+            this.help = help;
+            this.source = source;
+            this.counterKeys = counterKeys;
+        }
+
+        private void write(StringBuilder out) {
+            new TreeMap<>(source.get()).forEach((key, value) -> {
+                Object number = value instanceof Boolean flag ? (flag ? 1 : 0) : value;
+                if (!(number instanceof Number)) {
+                    return;
+                }
+                boolean counter = counterKeys.contains(key);
+                String name = prefix + "_" + snakeCase(key) + (counter ? "_total" : "");
+                header(out, name, help + " (" + key + ")", counter ? "counter" : "gauge");
+                sample(out, name, "", number);
+            });
+        }
+
+        private static String snakeCase(String key) {
+            return key.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+        }
+    }
+}
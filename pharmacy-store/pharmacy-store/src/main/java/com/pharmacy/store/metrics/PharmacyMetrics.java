@@ -0,0 +1,160 @@
+package com.pharmacy.store.metrics;
+
+import com.pharmacy.store.logging.QueryBudgetInterceptor;
+import com.pharmacy.store.service.DashboardStreamPublisher;
+import com.pharmacy.store.service.DemandForecastService;
+import com.pharmacy.store.service.ExpiredMedicinePurgeService;
+import com.pharmacy.store.service.MedicineAutocompleteIndex;
+import com.pharmacy.store.service.MedicineCatalogueCache;
+import com.pharmacy.store.service.MedicineExpiryIndex;
+import com.pharmacy.store.service.MedicineLowStockIndex;
+import com.pharmacy.store.service.MedicineSearchIndex;
+import com.pharmacy.store.service.SalesService;
+import com.pharmacy.store.service.StockLedger;
+import com.pharmacy.store.threading.ConcurrencyLimitedDataSource;
+import com.pharmacy.store.threading.ExecutionModeReporter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Binds the cache, connection pool, index and throughput figures the services
+ * already keep to the metrics registry. Everything here is read at scrape time.
+ */
+@Component
+public class PharmacyMetrics {
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private MedicineCatalogueCache medicineCatalogueCache;
+
+    @Autowired
+    private MedicineSearchIndex medicineSearchIndex;
+
+    @Autowired
+    private MedicineAutocompleteIndex medicineAutocompleteIndex;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @Autowired
+    private MedicineLowStockIndex medicineLowStockIndex;
+
+    @Autowired
+    private ExpiredMedicinePurgeService expiredMedicinePurgeService;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private DashboardStreamPublisher dashboardStreamPublisher;
+
+    @Autowired
+    private QueryBudgetInterceptor queryBudgetInterceptor;
+
+    @Autowired
+    private ExecutionModeReporter executionModeReporter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PostConstruct
+    void bind() {
+        // Throughput
+        metricsRegistry.statistics("pharmacy_sales", "Sales through SalesService",
+                salesService::getSaleStatistics, Set.of("attempts", "completed", "conflicts", "contendedReservations",
+                        "rejectedNotFound", "rejectedExpired", "rejectedInsufficientStock"));
+        metricsRegistry.statistics("pharmacy_stock_ledger", "Stock movements through the stock ledger",
+                stockLedger::getStatistics,
+                Set.of("recorded", "rejected", "written", "batches", "writeFailures", "compactions",
+                        "deferredCompactions", "foldedMedicines"));
+        metricsRegistry.statistics("pharmacy_query_budget", "Requests checked against their query budget",
+                queryBudgetInterceptor::getStatistics, Set.of("checked", "exceeded"));
+        metricsRegistry.statistics("pharmacy_purge", "Expired medicine purges",
+                expiredMedicinePurgeService::getStatistics,
+                Set.of("purges", "deletedMedicines", "archivedMedicines", "chunksCommitted"));
+        metricsRegistry.statistics("pharmacy_forecast", "Nightly demand forecasts",
+                demandForecastService::getStatistics,
+                Set.of("runs", "salesRowsRead", "medicinesForecast", "reorderQuantitiesChanged"));
+
+        // Caches and in-memory indexes
+        metricsRegistry.statistics("pharmacy_catalogue_cache", "Catalogue cache",
+                medicineCatalogueCache::getStatistics,
+                Set.of("idHits", "idMisses", "nameHits", "nameMisses", "invalidations"));
+        metricsRegistry.statistics("pharmacy_search_index", "Trigram search index",
+                medicineSearchIndex::getStatistics, Set.of());
+        // Rollover cost: medicines moved and microseconds spent per midnight rollover
+        metricsRegistry.statistics("pharmacy_expiry", "Expiry wheel", medicineExpiryIndex::getStatistics,
+                Set.of("rollovers", "rolledOverMedicines", "rolloverMicros"));
+        metricsRegistry.statistics("pharmacy_low_stock", "Medicines below their reorder point",
+                medicineLowStockIndex::getStatistics, Set.of());
+        metricsRegistry.gauge("pharmacy_autocomplete_entries", "Medicines in the autocomplete index",
+                medicineAutocompleteIndex::size);
+        metricsRegistry.gauge("pharmacy_dashboard_subscribers", "Open dashboard streams",
+                dashboardStreamPublisher::getSubscriberCount);
+
+        // Connection pool (acquire, usage and timeout timers come from HikariMetricsPostProcessor)
+        HikariDataSource hikari = unwrap(dataSource, HikariDataSource.class);
+        if (hikari != null) {
+            String pool = hikari.getPoolName() == null ? "default" : hikari.getPoolName();
+            poolGauge(hikari, "hikaricp_connections_active", "Connections in use", pool,
+                    HikariPoolMXBean::getActiveConnections);
+            poolGauge(hikari, "hikaricp_connections_idle", "Idle connections", pool,
+                    HikariPoolMXBean::getIdleConnections);
+            poolGauge(hikari, "hikaricp_connections", "Open connections", pool,
+                    HikariPoolMXBean::getTotalConnections);
+            poolGauge(hikari, "hikaricp_connections_pending", "Threads waiting for a connection", pool,
+                    HikariPoolMXBean::getThreadsAwaitingConnection);
+            metricsRegistry.gauge("hikaricp_connections_max", "Maximum pool size",
+                    hikari::getMaximumPoolSize, "pool", pool);
+            metricsRegistry.gauge("hikaricp_connections_min", "Minimum idle connections",
+                    hikari::getMinimumIdle, "pool", pool);
+        }
+        ConcurrencyLimitedDataSource limiter = unwrap(dataSource, ConcurrencyLimitedDataSource.class);
+        if (limiter != null) {
+            metricsRegistry.statistics("pharmacy_db_concurrency", "Threads admitted to the connection pool",
+                    limiter::getStatistics, Set.of("acquired", "timeouts"));
+        }
+
+        // JVM
+        metricsRegistry.gauge("jvm_memory_used_bytes", "Used heap memory",
+                () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), "area", "heap");
+        metricsRegistry.gauge("jvm_threads_live_threads", "Live platform threads",
+                () -> ManagementFactory.getThreadMXBean().getThreadCount());
+        metricsRegistry.gauge("pharmacy_virtual_threads_enabled", "1 when requests run on virtual threads",
+                () -> executionModeReporter.isVirtualThreadsActive() ? 1 : 0);
+    }
+
+    private void poolGauge(HikariDataSource hikari, String name, String help, String pool,
+                           ToIntFunction<HikariPoolMXBean> value) {
+        // The pool bean only exists once the first connection has been requested
+        metricsRegistry.gauge(name, help, () -> {
+            HikariPoolMXBean bean = hikari.getHikariPoolMXBean();
+            return bean == null ? 0 : value.applyAsInt(bean);
+        }, "pool", pool);
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
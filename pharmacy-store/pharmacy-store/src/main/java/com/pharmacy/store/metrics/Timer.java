@@ -0,0 +1,92 @@
+package com.pharmacy.store.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed Prometheus buckets. Recording is a bucket scan
+ * over a dozen longs plus three uncontended adds, cheap enough to leave on
+ * every request; the max covers roughly the last two windows only, so it
+ * tracks recent spikes rather than the worst call since startup.
+ */
+public class Timer {
+
+    // Upper bounds in seconds, the default service-level buckets of typical dashboards
+    static final double[] BUCKETS_SECONDS = {0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5,
+            1, 2.5, 5, 10};
+
+    private static final long[] BUCKETS_NANOS = new long[BUCKETS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKETS_SECONDS.length; i++) {
+            BUCKETS_NANOS[i] = (long) (BUCKETS_SECONDS[i] * 1_000_000_000L);
+        }
+    }
+
+    private static final long MAX_WINDOW_NANOS = 60_000_000_000L;
+
+    // One extra slot for +Inf
+    private final LongAdder[] buckets = new LongAdder[BUCKETS_NANOS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator[] maxima = {new LongAccumulator(Math::max, 0), new LongAccumulator(Math::max, 0)};
+    private final AtomicLongArray maxEpochs = new AtomicLongArray(2);
+
+    Timer() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BUCKETS_NANOS.length && nanos > BUCKETS_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        recordMax(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getTotalSeconds() {
+        return totalNanos.sum() / 1e9;
+    }
+
+    public double getMaxSeconds() {
+        long epoch = System.nanoTime() / MAX_WINDOW_NANOS;
+        long max = 0;
+        for (int slot = 0; slot < maxima.length; slot++) {
+            if (maxEpochs.get(slot) >= epoch - 1) {
+                max = Math.max(max, maxima[slot].get());
+            }
+        }
+        return max / 1e9;
+    }
+
+    // Non-cumulative counts per bucket; the last entry is everything above the largest bound
+    long[] bucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    private void recordMax(long nanos) {
+        long epoch = System.nanoTime() / MAX_WINDOW_NANOS;
+        int slot = (int) (epoch & 1);
+        long slotEpoch = maxEpochs.get(slot);
+        // The first call into a new window recycles the slot; a racing sample may be dropped from the max only
+        if (slotEpoch != epoch && maxEpochs.compareAndSet(slot, slotEpoch, epoch)) {
+            maxima[slot].reset();
+        }
+        maxima[slot].accumulate(nanos);
+    }
+}
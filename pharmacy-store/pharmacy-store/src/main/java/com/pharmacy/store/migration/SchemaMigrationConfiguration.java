@@ -0,0 +1,25 @@
+package com.pharmacy.store.migration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs the versioned migrations at startup when the schema is managed by
+ * them rather than by Hibernate (the production profiles).
+ */
+@Configuration
+@ConditionalOnProperty(name = "pharmacy.schema.migration.enabled", havingValue = "true")
+public class SchemaMigrationConfiguration {
+
+    @Bean
+    public SchemaMigrator schemaMigrator(DataSource dataSource,
+                                         @Value("${pharmacy.schema.migration.location:classpath:db/migration/{vendor}}")
+                                         String location,
+                                         @Value("${pharmacy.schema.migration.baseline-version:1}") int baselineVersion) {
+        return new SchemaMigrator(dataSource, location, baselineVersion, "medicines");
+    }
+}
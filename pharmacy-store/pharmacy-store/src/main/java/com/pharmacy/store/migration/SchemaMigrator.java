@@ -0,0 +1,216 @@
+package com.pharmacy.store.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned SQL scripts, named V&lt;version&gt;__&lt;description&gt;.sql as
+ * Flyway names them, from a location whose {vendor} placeholder becomes the
+ * database id (h2, mysql). Each applied script is recorded in schema_history
+ * with a checksum; editing an applied script stops startup. A database that
+ * already has the tables but no history is baselined: scripts up to the
+ * baseline version are recorded without running. DDL commits implicitly on
+ * MySQL, so a script that fails halfway has to be repaired by hand. Meant to
+ * run from one instance at a time, as a rolling deploy does.
+ */
+public class SchemaMigrator implements InitializingBean {
+
+    public static final String HISTORY_TABLE = "schema_history";
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final String CREATE_HISTORY =
+            "CREATE TABLE " + HISTORY_TABLE + " (version INT NOT NULL, description VARCHAR(200) NOT NULL, " +
+            "script VARCHAR(200) NOT NULL, checksum BIGINT NOT NULL, baseline BOOLEAN NOT NULL, " +
+            "execution_millis BIGINT NOT NULL, installed_on TIMESTAMP NOT NULL, PRIMARY KEY (version))";
+
+    private static final String SELECT_HISTORY = "SELECT version, checksum, baseline FROM " + HISTORY_TABLE;
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO " + HISTORY_TABLE + " (version, description, script, checksum, baseline, execution_millis, " +
+            "installed_on) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final String location;
+    private final int baselineVersion;
+    private final String baselineTable;
+
+    // baselineTable: a table whose presence means the schema predates the history
+    public SchemaMigrator(DataSource dataSource, String location, int baselineVersion, String baselineTable) {
+        this.dataSource = dataSource;
+        this.location = location;
+        this.baselineVersion = baselineVersion;
+        this.baselineTable = baselineTable;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    // Returns the versions run by this call
+    public List<Integer> migrate() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String vendor;
+        boolean historyExists;
+        boolean schemaExists;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            vendor = DatabaseDriver.fromJdbcUrl(metaData.getURL()).getId();
+            historyExists = tableExists(connection, HISTORY_TABLE);
+            schemaExists = tableExists(connection, baselineTable);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not inspect the database schema", e);
+        }
+        List<Script> scripts = scripts(location.replace("{vendor}", vendor));
+
+        if (!historyExists) {
+            jdbcTemplate.execute(CREATE_HISTORY);
+            if (schemaExists) {
+                for (Script script : scripts) {
+                    if (script.version <= baselineVersion) {
+                        record(jdbcTemplate, script, true, 0);
+                    }
+                }
+                logger.info("Existing schema baselined at version {}", baselineVersion);
+            }
+        }
+
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbcTemplate.query(SELECT_HISTORY, rs -> {
+            applied.put(rs.getInt("version"), rs.getBoolean("baseline") ? null : rs.getLong("checksum"));
+        });
+        int current = applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        List<Integer> ran = new ArrayList<>();
+        for (Script script : scripts) {
+            if (applied.containsKey(script.version)) {
+                Long checksum = applied.get(script.version);
+                if (checksum != null && checksum != script.checksum) {
+                    throw new IllegalStateException("Migration " + script.name + " was changed after it was applied");
+                }
+                continue;
+            }
+            if (script.version < current) {
+                throw new IllegalStateException("Migration " + script.name + " is older than the schema (version "
+                        + current + ") but was never applied");
+            }
+            long start = System.nanoTime();
+            try (Connection connection = dataSource.getConnection()) {
+                ScriptUtils.executeSqlScript(connection, new EncodedResource(script.resource, StandardCharsets.UTF_8));
+            } catch (SQLException e) {
+                throw new IllegalStateException("Migration " + script.name + " failed", e);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            record(jdbcTemplate, script, false, millis);
+            logger.info("Applied migration {} in {} ms", script.name, millis);
+            ran.add(script.version);
+        }
+        if (ran.isEmpty()) {
+            logger.info("Schema is up to date at version {} ({})", current, vendor);
+        }
+        return ran;
+    }
+
+    private static List<Script> scripts(String location) {
+        Resource[] resources;
+        try {
+            resources = new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not list migrations in " + location, e);
+        }
+        List<Script> scripts = new ArrayList<>();
+        for (Resource resource : resources) {
+            Matcher matcher = SCRIPT_NAME.matcher(String.valueOf(resource.getFilename()));
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Migration name must be V<version>__<description>.sql: "
+                        + resource.getFilename());
+            }
+            scripts.add(new Script(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    resource));
+        }
+        scripts.sort(Comparator.comparingInt(script -> script.version));
+        for (int i = 1; i < scripts.size(); i++) {
+            if (scripts.get(i).version == scripts.get(i - 1).version) {
+                throw new IllegalStateException("Duplicate migration version " + scripts.get(i).version);
+            }
+        }
+        return scripts;
+    }
+
+    private static void record(JdbcTemplate jdbcTemplate, Script script, boolean baseline, long millis) {
+        jdbcTemplate.update(INSERT_HISTORY, script.version, script.description, script.name, script.checksum,
+                baseline, millis, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // Identifier case differs between databases (H2 upper-cases unquoted names unless told otherwise)
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name,
+                    new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class Script {
+        private final int version;
+        private final String description;
+        private final String name;
+        private final Resource resource;
+        private final long checksum;
+
+        private Script(int version, String description, Resource resource) {
+            this.version = version;
+            this.description = description;
+            this.name = resource.getFilename();
+            this.resource = resource;
+            this.checksum = checksum(resource);
+        }
+
+        // Line endings are normalised so a checkout with different ones does not count as an edit
+        private static long checksum(Resource resource) {
+            try {
+                String content = new String(resource.getContentAsByteArray(), StandardCharsets.UTF_8)
+                        .replace("\r\n", "\n");
+                CRC32 crc = new CRC32();
+                crc.update(content.getBytes(StandardCharsets.UTF_8));
+                return crc.getValue();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read migration " + resource.getFilename(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.pharmacy.store.migration;
+
+import org.springframework.boot.sql.init.dependency.AbstractBeansOfTypeDatabaseInitializerDetector;
+
+import java.util.Set;
+
+/**
+ * Marks {@link SchemaMigrator} as a database initializer, so the entity
+ * manager factory, JdbcTemplate and everything else that uses the schema is
+ * only created once the migrations have run.
+ */
+public class SchemaMigratorDatabaseInitializerDetector extends AbstractBeansOfTypeDatabaseInitializerDetector {
+
+    @Override
+    protected Set<Class<?>> getDatabaseInitializerBeanTypes() {
+        return Set.of(SchemaMigrator.class);
+    }
+}
@@ -10,11 +10,25 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "medicines")
+@Table(name = "medicines", indexes = {
+        @Index(name = "idx_medicines_name_key", columnList = "name_key"),
+        @Index(name = "idx_medicines_manufacturer_key", columnList = "manufacturer_key"),
+        @Index(name = "idx_medicines_category_key", columnList = "category_key, price"),
+        @Index(name = "idx_medicines_price", columnList = "price, medicine_id"),
+        @Index(name = "idx_medicines_name", columnList = "name, medicine_id"),
+        @Index(name = "idx_medicines_manufacturer", columnList = "manufacturer, medicine_id"),
+        @Index(name = "idx_medicines_stock_quantity", columnList = "stock_quantity DESC, medicine_id DESC"),
+        @Index(name = "idx_medicines_expiry_date", columnList = "expiry_date, medicine_id"),
+        @Index(name = "idx_medicines_batch_number", columnList = "batch_number")
+})
 public class Medicine {
+
+    public static final int ID_ALLOCATION_SIZE = 50;
     
+    // Pooled sequence (a table on MySQL): one round trip per ID_ALLOCATION_SIZE ids, and inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medicine_id")
+    @SequenceGenerator(name = "medicine_id", sequenceName = "medicines_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "medicine_id")
     private Long id;
     
@@ -23,6 +37,11 @@ public class Medicine {
     @Column(name = "name", nullable = false, length = 100)
     private String name;
     
+    // Lower-cased name maintained by the database so case-insensitive lookups can use an index
+    @Column(name = "name_key", length = 100, insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(100) GENERATED ALWAYS AS (LOWER(name))")
+    private String nameKey;
+    
     @Size(max = 500, message = "Description cannot exceed 500 characters")
     @Column(name = "description", length = 500)
     private String description;
@@ -32,6 +51,10 @@ public class Medicine {
     @Column(name = "manufacturer", nullable = false, length = 100)
     private String manufacturer;
     
+    @Column(name = "manufacturer_key", length = 100, insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(100) GENERATED ALWAYS AS (LOWER(manufacturer))")
+    private String manufacturerKey;
+    
     @NotNull(message = "Price is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
     @Column(name = "price", nullable = false, precision = 10, scale = 2)
@@ -39,7 +62,8 @@ public class Medicine {
     
     @NotNull(message = "Stock quantity is required")
     @Min(value = 0, message = "Stock quantity cannot be negative")
-    @Column(name = "stock_quantity", nullable = false)
+    // Inserted with the row, then moved only by StockLedger compaction; entity saves never rewrite it
+    @Column(name = "stock_quantity", nullable = false, updatable = false)
     private Integer stockQuantity;
     
     @NotNull(message = "Expiry date is required")
@@ -51,6 +75,10 @@ public class Medicine {
     @Column(name = "category", length = 50)
     private String category;
     
+    @Column(name = "category_key", length = 50, insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(50) GENERATED ALWAYS AS (LOWER(category))")
+    private String categoryKey;
+    
     @Column(name = "prescription_required")
     private Boolean prescriptionRequired = false;
     
@@ -58,6 +86,16 @@ public class Medicine {
     @Column(name = "batch_number", length = 20)
     private String batchNumber;
     
+    // Low on stock below this level; null falls back to pharmacy.stock.default-reorder-point
+    @Min(value = 0, message = "Reorder point cannot be negative")
+    @Column(name = "reorder_point")
+    private Integer reorderPoint;
+    
+    // How much to order once low on stock; null orders up to twice the reorder point
+    @Min(value = 1, message = "Reorder quantity must be at least 1")
+    @Column(name = "reorder_quantity")
+    private Integer reorderQuantity;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -78,6 +116,25 @@ public class Medicine {
         this.expiryDate = expiryDate;
     }
     
+    // Copy constructor for detached snapshots (caches, events)
+    public Medicine(Medicine other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.nameKey = other.nameKey;
+        this.description = other.description;
+        this.manufacturer = other.manufacturer;
+        this.price = other.price;
+        this.stockQuantity = other.stockQuantity;
+        this.expiryDate = other.expiryDate;
+        this.category = other.category;
+        this.prescriptionRequired = other.prescriptionRequired;
+        this.batchNumber = other.batchNumber;
+        this.reorderPoint = other.reorderPoint;
+        this.reorderQuantity = other.reorderQuantity;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -159,6 +216,22 @@ public class Medicine {
         this.batchNumber = batchNumber;
     }
     
+    public Integer getReorderPoint() {
+        return reorderPoint;
+    }
+    
+    public void setReorderPoint(Integer reorderPoint) {
+        this.reorderPoint = reorderPoint;
+    }
+    
+    public Integer getReorderQuantity() {
+        return reorderQuantity;
+    }
+    
+    public void setReorderQuantity(Integer reorderQuantity) {
+        this.reorderQuantity = reorderQuantity;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,57 @@
+package com.pharmacy.store.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-row high-water mark of the stock ledger: every movement up to
+ * foldedThrough is already part of medicines.stock_quantity. Compaction moves
+ * it forward instead of flagging each folded movement. The row also holds the
+ * ledger's write lease: only leaseOwner may append or fold movements until
+ * leaseUntil passes without a renewal.
+ */
+@Entity
+@Table(name = "stock_ledger_checkpoint")
+public class StockLedgerCheckpoint {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    @Column(name = "checkpoint_id")
+    private Integer id;
+
+    @Column(name = "folded_through", nullable = false)
+    private Long foldedThrough;
+
+    @Column(name = "folded_at")
+    private LocalDateTime foldedAt;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    public StockLedgerCheckpoint() {}
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Long getFoldedThrough() {
+        return foldedThrough;
+    }
+
+    public LocalDateTime getFoldedAt() {
+        return foldedAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+}
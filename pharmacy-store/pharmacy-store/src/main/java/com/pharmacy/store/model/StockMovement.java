@@ -0,0 +1,80 @@
+package com.pharmacy.store.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One signed stock change in the append-only stock ledger. Movements are
+ * written in batches by StockLedger; those above the ledger checkpoint have
+ * not yet been folded into the medicine's stock_quantity. Sales are never
+ * deleted, so SALE movements double as the sales history for forecasting.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_reason_created_at", columnList = "reason, created_at, medicine_id, delta")
+})
+public class StockMovement {
+
+    public enum Reason {
+        SALE,
+        RESTOCK,
+        ADJUSTMENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "movement_id")
+    private Long id;
+
+    // No foreign key: movements outlive deleted medicines and compaction simply folds them into nothing
+    @Column(name = "medicine_id", nullable = false)
+    private Long medicineId;
+
+    @Column(name = "delta", nullable = false)
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false, length = 20)
+    private Reason reason;
+
+    @Column(name = "performed_by", length = 100)
+    private String performedBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public StockMovement() {}
+
+    public StockMovement(Long medicineId, int delta, Reason reason, String performedBy, LocalDateTime createdAt) {
+        this.medicineId = medicineId;
+        this.delta = delta;
+        this.reason = reason;
+        this.performedBy = performedBy;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getPerformedBy() {
+        return performedBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
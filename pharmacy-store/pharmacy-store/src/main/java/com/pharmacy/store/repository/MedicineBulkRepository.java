@@ -0,0 +1,289 @@
+package com.pharmacy.store.repository;
+
+import com.pharmacy.store.model.Medicine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based JDBC statements for bulk loads and purges. Inserts and updates go out as
+ * real JDBC batches; inserted rows take their ids from the entity's pooled
+ * sequence, so they never collide with rows saved through JPA.
+ */
+@Repository
+public class MedicineBulkRepository {
+
+    private static final String SELECT_IDS_BY_NAME =
+            "SELECT medicine_id, name_key FROM medicines WHERE name_key IN (:names)";
+
+    private static final String INSERT_MEDICINE =
+            "INSERT INTO medicines (medicine_id, name, description, manufacturer, price, stock_quantity, " +
+            "expiry_date, category, prescription_required, batch_number, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Stock is left out: it only changes through the stock ledger, which folds its own movements into it
+    private static final String UPDATE_MEDICINE =
+            "UPDATE medicines SET description = COALESCE(?, description), manufacturer = ?, price = ?, " +
+            "expiry_date = ?, category = COALESCE(?, category), prescription_required = ?, " +
+            "batch_number = COALESCE(?, batch_number), updated_at = ? WHERE medicine_id = ?";
+
+    private static final String SELECT_SEARCH_DOCUMENTS =
+            "SELECT medicine_id, name, manufacturer, description FROM medicines";
+
+    private static final String SELECT_SEARCH_DOCUMENTS_BY_ID =
+            SELECT_SEARCH_DOCUMENTS + " WHERE medicine_id IN (:ids)";
+
+    private static final String SELECT_SUGGESTIONS =
+            "SELECT medicine_id, name, stock_quantity, price FROM medicines";
+
+    private static final String SELECT_SUGGESTIONS_BY_ID =
+            SELECT_SUGGESTIONS + " WHERE medicine_id IN (:ids)";
+
+    // Expired rows oldest first, seeking idx_medicines_expiry_date; locked so the chunk deletes exactly what it read
+    private static final String LOCK_EXPIRED_IDS =
+            "SELECT medicine_id FROM medicines WHERE expiry_date < ? ORDER BY expiry_date, medicine_id LIMIT ? " +
+            "FOR UPDATE";
+
+    private static final String LOCK_EXPIRED =
+            "SELECT medicine_id, name, description, manufacturer, price, stock_quantity, expiry_date, category, " +
+            "prescription_required, batch_number, reorder_point, reorder_quantity, created_at, updated_at " +
+            "FROM medicines WHERE expiry_date < ? " +
+            "ORDER BY expiry_date, medicine_id LIMIT ? FOR UPDATE";
+
+    private static final String COUNT_EXPIRED =
+            "SELECT COUNT(*) FROM medicines WHERE expiry_date < ?";
+
+    private static final String DELETE_BY_ID =
+            "DELETE FROM medicines WHERE medicine_id IN (:ids)";
+
+    private static final String SELECT_CATEGORIES =
+            "SELECT medicine_id, category FROM medicines";
+
+    // Rows already holding the quantity are left alone, so their update count tells what changed
+    private static final String UPDATE_REORDER_QUANTITY =
+            "UPDATE medicines SET reorder_quantity = ?, updated_at = ? " +
+            "WHERE medicine_id = ? AND (reorder_quantity IS NULL OR reorder_quantity <> ?)";
+
+    private static final int SEARCH_DOCUMENT_FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // One indexed query per chunk instead of a findByNameIgnoreCase per row; keys are lower-cased names
+    public Map<String, Long> findIdsByNormalizedNames(Collection<String> normalizedNames) {
+        Map<String, Long> ids = new HashMap<>();
+        if (normalizedNames.isEmpty()) {
+            return ids;
+        }
+        namedParameterJdbcTemplate.query(SELECT_IDS_BY_NAME, Map.of("names", normalizedNames),
+                rs -> {
+                    ids.put(rs.getString("name_key"), rs.getLong("medicine_id"));
+                });
+        return ids;
+    }
+
+    // Returns the assigned ids in insert order. Joins the caller's transaction, whose session draws the ids.
+    @Transactional
+    public List<Long> insertBatch(List<Medicine> medicines) {
+        List<Long> ids = allocateIds(medicines.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_MEDICINE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Medicine m = medicines.get(i);
+                ps.setLong(1, ids.get(i));
+                ps.setString(2, m.getName());
+                ps.setString(3, m.getDescription());
+                ps.setString(4, m.getManufacturer());
+                ps.setBigDecimal(5, m.getPrice());
+                ps.setInt(6, m.getStockQuantity());
+                ps.setDate(7, Date.valueOf(m.getExpiryDate()));
+                ps.setString(8, m.getCategory());
+                ps.setBoolean(9, Boolean.TRUE.equals(m.getPrescriptionRequired()));
+                ps.setString(10, m.getBatchNumber());
+                ps.setTimestamp(11, now);
+                ps.setTimestamp(12, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return medicines.size();
+            }
+        });
+        return ids;
+    }
+
+    // Same generator and pool as Hibernate's own inserts: one sequence call per Medicine.ID_ALLOCATION_SIZE ids
+    private List<Long> allocateIds(int count) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Medicine.class).getGenerator();
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(((Number) generator.generate(session, null, null, EventType.INSERT)).longValue());
+        }
+        return ids;
+    }
+
+    // Medicines must carry the id of the row they replace; their stock is not written
+    public int[] updateBatch(List<Medicine> medicines) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(medicines.size());
+        for (Medicine m : medicines) {
+            batchArgs.add(new Object[]{
+                    m.getDescription(), m.getManufacturer(), m.getPrice(), m.getExpiryDate(),
+                    m.getCategory(), m.getPrescriptionRequired(), m.getBatchNumber(), now, m.getId()});
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_MEDICINE, batchArgs);
+    }
+
+    // Purge chunks: lock up to limit rows that expired before the cutoff, then delete them in one statement.
+    // Both locks must be taken inside the caller's transaction.
+
+    public List<Long> lockExpiredIds(LocalDate cutoff, int limit) {
+        return jdbcTemplate.queryForList(LOCK_EXPIRED_IDS, Long.class, Date.valueOf(cutoff), limit);
+    }
+
+    // Whole rows, for archiving before they are deleted
+    public List<Medicine> lockExpired(LocalDate cutoff, int limit) {
+        return jdbcTemplate.query(LOCK_EXPIRED, (rs, rowNum) -> {
+            Medicine m = new Medicine();
+            m.setId(rs.getLong("medicine_id"));
+            m.setName(rs.getString("name"));
+            m.setDescription(rs.getString("description"));
+            m.setManufacturer(rs.getString("manufacturer"));
+            m.setPrice(rs.getBigDecimal("price"));
+            m.setStockQuantity(rs.getInt("stock_quantity"));
+            m.setExpiryDate(rs.getObject("expiry_date", LocalDate.class));
+            m.setCategory(rs.getString("category"));
+            m.setPrescriptionRequired(rs.getBoolean("prescription_required"));
+            m.setBatchNumber(rs.getString("batch_number"));
+            m.setReorderPoint(rs.getObject("reorder_point", Integer.class));
+            m.setReorderQuantity(rs.getObject("reorder_quantity", Integer.class));
+            m.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+            m.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+            return m;
+        }, Date.valueOf(cutoff), limit);
+    }
+
+    public long countExpired(LocalDate cutoff) {
+        Long count = jdbcTemplate.queryForObject(COUNT_EXPIRED, Long.class, Date.valueOf(cutoff));
+        return count == null ? 0 : count;
+    }
+
+    public int deleteByIds(Collection<Long> medicineIds) {
+        if (medicineIds.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update(DELETE_BY_ID, Map.of("ids", medicineIds));
+    }
+
+    // Returns the ids whose reorder quantity changed (or whose driver could not say)
+    public List<Long> updateReorderQuantities(Map<Long, Integer> reorderQuantities) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ids = new ArrayList<>(reorderQuantities.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Integer quantity = reorderQuantities.get(id);
+            batchArgs.add(new Object[]{quantity, now, id, quantity});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_REORDER_QUANTITY, batchArgs);
+        List<Long> changed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                changed.add(ids.get(i));
+            }
+        }
+        return changed;
+    }
+
+    // Every medicine's category, for grouping sales history
+    public void forEachCategory(CategoryHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_CATEGORIES);
+            statement.setFetchSize(SEARCH_DOCUMENT_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getString("category")));
+    }
+
+    // Text columns only, for rebuilding the in-memory search index
+    public void forEachSearchDocument(SearchDocumentHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_SEARCH_DOCUMENTS);
+            statement.setFetchSize(SEARCH_DOCUMENT_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getString("name"),
+                rs.getString("manufacturer"), rs.getString("description")));
+    }
+
+    public void forEachSearchDocument(Collection<Long> medicineIds, SearchDocumentHandler handler) {
+        if (medicineIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.query(SELECT_SEARCH_DOCUMENTS_BY_ID, Map.of("ids", medicineIds),
+                (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getString("name"),
+                        rs.getString("manufacturer"), rs.getString("description")));
+    }
+
+    // Just what an autocomplete row shows
+    public void forEachSuggestion(SuggestionHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_SUGGESTIONS);
+            statement.setFetchSize(SEARCH_DOCUMENT_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getString("name"),
+                rs.getInt("stock_quantity"), rs.getBigDecimal("price")));
+    }
+
+    public void forEachSuggestion(Collection<Long> medicineIds, SuggestionHandler handler) {
+        if (medicineIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.query(SELECT_SUGGESTIONS_BY_ID, Map.of("ids", medicineIds),
+                (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getString("name"),
+                        rs.getInt("stock_quantity"), rs.getBigDecimal("price")));
+    }
+
+    @FunctionalInterface
+    public interface SuggestionHandler {
+        void accept(long medicineId, String name, int stockQuantity, BigDecimal price);
+    }
+
+    @FunctionalInterface
+    public interface CategoryHandler {
+        void accept(long medicineId, String category);
+    }
+
+    @FunctionalInterface
+    public interface SearchDocumentHandler {
+        void accept(long medicineId, String name, String manufacturer, String description);
+    }
+}
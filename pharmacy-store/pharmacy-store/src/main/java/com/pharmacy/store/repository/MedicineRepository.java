@@ -1,8 +1,11 @@
 package com.pharmacy.store.repository;
 
 import com.pharmacy.store.model.Medicine;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,18 +13,24 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface MedicineRepository extends JpaRepository<Medicine, Long> {
+public interface MedicineRepository extends JpaRepository<Medicine, Long>, JpaSpecificationExecutor<Medicine>,
+        MedicineRepositoryCustom {
     
-    // Find by name (case-insensitive)
-    Optional<Medicine> findByNameIgnoreCase(String name);
+    // Find by name (case-insensitive). The IgnoreCase lookups compare against the lower-cased key columns;
+    // a derived UPPER(name) = UPPER(?) could not use any index.
+    @Query("SELECT m FROM Medicine m WHERE m.nameKey = LOWER(:name)")
+    Optional<Medicine> findByNameIgnoreCase(@Param("name") String name);
     
     // Find by manufacturer
-    List<Medicine> findByManufacturerIgnoreCase(String manufacturer);
+    @Query("SELECT m FROM Medicine m WHERE m.manufacturerKey = LOWER(:manufacturer)")
+    List<Medicine> findByManufacturerIgnoreCase(@Param("manufacturer") String manufacturer);
     
     // Find by category
-    List<Medicine> findByCategoryIgnoreCase(String category);
+    @Query("SELECT m FROM Medicine m WHERE m.categoryKey = LOWER(:category)")
+    List<Medicine> findByCategoryIgnoreCase(@Param("category") String category);
     
     // Find medicines requiring prescription
     List<Medicine> findByPrescriptionRequiredTrue();
@@ -44,23 +53,6 @@ public interface MedicineRepository extends JpaRepository<Medicine, Long> {
     // Search by name containing (partial match)
     List<Medicine> findByNameContainingIgnoreCase(String nameFragment);
     
-    // Custom query to find medicines by multiple criteria
-    @Query("SELECT m FROM Medicine m WHERE " +
-           "(:name IS NULL OR LOWER(m.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-           "(:manufacturer IS NULL OR LOWER(m.manufacturer) = LOWER(:manufacturer)) AND " +
-           "(:category IS NULL OR LOWER(m.category) = LOWER(:category)) AND " +
-           "(:minPrice IS NULL OR m.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR m.price <= :maxPrice) AND " +
-           "(:prescriptionRequired IS NULL OR m.prescriptionRequired = :prescriptionRequired)")
-    List<Medicine> findMedicinesByCriteria(
-            @Param("name") String name,
-            @Param("manufacturer") String manufacturer,
-            @Param("category") String category,
-            @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            @Param("prescriptionRequired") Boolean prescriptionRequired
-    );
-    
     // Native SQL query to get medicine statistics
     @Query(value = "SELECT COUNT(*) FROM medicines WHERE expiry_date < CURRENT_DATE", nativeQuery = true)
     long countExpiredMedicines();
@@ -78,9 +70,14 @@ public interface MedicineRepository extends JpaRepository<Medicine, Long> {
     // Find medicines by batch number
     Optional<Medicine> findByBatchNumber(String batchNumber);
     
-    // Delete expired medicines
-    void deleteByExpiryDateBefore(LocalDate date);
-    
     // Check if medicine exists by name
-    boolean existsByNameIgnoreCase(String name);
+    @Query("SELECT COUNT(m) > 0 FROM Medicine m WHERE m.nameKey = LOWER(:name)")
+    boolean existsByNameIgnoreCase(@Param("name") String name);
+    
+    // Cursor over the whole catalogue for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<Medicine> streamAllByOrderByIdAsc();
 }
\ No newline at end of file
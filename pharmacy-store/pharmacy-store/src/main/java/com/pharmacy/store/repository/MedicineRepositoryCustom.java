@@ -0,0 +1,12 @@
+package com.pharmacy.store.repository;
+
+import com.pharmacy.store.model.Medicine;
+
+import java.util.List;
+
+public interface MedicineRepositoryCustom {
+
+    // Keyset page ordered by (sort key, id); pass a null lastId for the first page
+    List<Medicine> findKeysetPage(MedicineSortKey sortKey, boolean descending,
+                                  Object lastSortValue, Long lastId, int limit);
+}
@@ -0,0 +1,51 @@
+package com.pharmacy.store.repository;
+
+import com.pharmacy.store.model.Medicine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+public class MedicineRepositoryImpl implements MedicineRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Seeks past the last row instead of using OFFSET, and never issues a COUNT query
+    @Override
+    public List<Medicine> findKeysetPage(MedicineSortKey sortKey, boolean descending,
+                                         Object lastSortValue, Long lastId, int limit) {
+        String property = "m." + sortKey.getProperty();
+        String comparison = descending ? "<" : ">";
+        String direction = descending ? " DESC" : " ASC";
+        boolean idOnly = sortKey == MedicineSortKey.ID;
+
+        StringBuilder jpql = new StringBuilder("SELECT m FROM Medicine m");
+        if (lastId != null) {
+            if (idOnly) {
+                jpql.append(" WHERE m.id ").append(comparison).append(" :lastId");
+            } else {
+                // Same rows as "value > :v OR (value = :v AND id > :id)", but the leading range can seek
+                // the (value, id) index; an OR at the top level would not
+                jpql.append(" WHERE ").append(property).append(' ').append(comparison).append("= :lastValue")
+                    .append(" AND (").append(property).append(' ').append(comparison).append(" :lastValue OR m.id ")
+                    .append(comparison).append(" :lastId)");
+            }
+        }
+        jpql.append(" ORDER BY ");
+        if (!idOnly) {
+            jpql.append(property).append(direction).append(", ");
+        }
+        jpql.append("m.id").append(direction);
+
+        TypedQuery<Medicine> query = entityManager.createQuery(jpql.toString(), Medicine.class);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+            if (!idOnly) {
+                query.setParameter("lastValue", lastSortValue);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
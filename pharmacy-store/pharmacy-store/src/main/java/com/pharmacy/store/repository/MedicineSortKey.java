@@ -0,0 +1,52 @@
+package com.pharmacy.store.repository;
+
+import com.pharmacy.store.model.Medicine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Columns a keyset (seek) page can be ordered by. Only non-null columns are
+ * allowed so (sort value, id) always gives a strict total order.
+ */
+public enum MedicineSortKey {
+
+    NAME("name", Medicine::getName, value -> value),
+    MANUFACTURER("manufacturer", Medicine::getManufacturer, value -> value),
+    PRICE("price", Medicine::getPrice, BigDecimal::new),
+    STOCK_QUANTITY("stockQuantity", Medicine::getStockQuantity, Integer::valueOf),
+    EXPIRY_DATE("expiryDate", Medicine::getExpiryDate, LocalDate::parse),
+    ID("id", Medicine::getId, Long::valueOf);
+
+    private final String property;
+    private final Function<Medicine, Object> extractor;
+    private final Function<String, Object> parser;
+
+    MedicineSortKey(String property, Function<Medicine, Object> extractor, Function<String, Object> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Object valueOf(Medicine medicine) {
+        return extractor.apply(medicine);
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static MedicineSortKey fromProperty(String property) {
+        for (MedicineSortKey key : values()) {
+            if (key.property.equalsIgnoreCase(property)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort property: " + property);
+    }
+}
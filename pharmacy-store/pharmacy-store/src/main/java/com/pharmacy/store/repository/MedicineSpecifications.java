@@ -0,0 +1,92 @@
+package com.pharmacy.store.repository;
+
+import com.pharmacy.store.dto.MedicineSearchCriteria;
+import com.pharmacy.store.model.Medicine;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds catalogue search queries from only the filters that were supplied,
+ * so each combination gets its own plan. Text filters compare against the
+ * lower-cased generated key columns, which keeps their indexes usable.
+ */
+public final class MedicineSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private MedicineSpecifications() {
+    }
+
+    public static Specification<Medicine> matching(MedicineSearchCriteria criteria) {
+        List<Specification<Medicine>> filters = new ArrayList<>();
+        if (criteria.getName() != null) {
+            filters.add(nameContains(criteria.getName()));
+        }
+        if (!criteria.getManufacturers().isEmpty()) {
+            filters.add(keyIn("manufacturerKey", criteria.getManufacturers()));
+        }
+        if (!criteria.getCategories().isEmpty()) {
+            filters.add(keyIn("categoryKey", criteria.getCategories()));
+        }
+        if (criteria.getMinPrice() != null) {
+            filters.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            filters.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), criteria.getMaxPrice()));
+        }
+        if (!criteria.getPriceBuckets().isEmpty()) {
+            filters.add(priceInBuckets(criteria.getPriceBuckets()));
+        }
+        if (criteria.getPrescriptionRequired() != null) {
+            filters.add((root, query, cb) ->
+                    cb.equal(root.get("prescriptionRequired"), criteria.getPrescriptionRequired()));
+        }
+        return Specification.allOf(filters);
+    }
+
+    public static Specification<Medicine> nameContains(String fragment) {
+        String pattern = "%" + escapeLike(fragment.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(root.get("nameKey"), pattern, LIKE_ESCAPE);
+    }
+
+    // A single value becomes an equality, several an IN list
+    private static Specification<Medicine> keyIn(String keyAttribute, List<String> values) {
+        List<String> keys = values.stream().map(value -> value.toLowerCase(Locale.ROOT)).distinct().toList();
+        return (root, query, cb) -> keys.size() == 1
+                ? cb.equal(root.get(keyAttribute), keys.get(0))
+                : root.get(keyAttribute).in(keys);
+    }
+
+    private static Specification<Medicine> priceInBuckets(List<MedicineSearchCriteria.PriceRange> buckets) {
+        return (root, query, cb) -> {
+            List<Predicate> ranges = new ArrayList<>(buckets.size());
+            for (MedicineSearchCriteria.PriceRange bucket : buckets) {
+                List<Predicate> bounds = new ArrayList<>(2);
+                if (bucket.getMin() != null) {
+                    bounds.add(cb.greaterThanOrEqualTo(root.<BigDecimal>get("price"), bucket.getMin()));
+                }
+                if (bucket.getMax() != null) {
+                    bounds.add(cb.lessThan(root.<BigDecimal>get("price"), bucket.getMax()));
+                }
+                ranges.add(cb.and(bounds.toArray(new Predicate[0])));
+            }
+            return cb.or(ranges.toArray(new Predicate[0]));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
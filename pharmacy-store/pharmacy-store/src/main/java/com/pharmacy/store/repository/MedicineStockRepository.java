@@ -0,0 +1,113 @@
+package com.pharmacy.store.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC access for stock hot paths. Stock is read here as plain projections
+ * rather than through JPA so the ledger and the in-memory aggregates never
+ * materialise entities or flush a persistence context.
+ */
+@Repository
+public class MedicineStockRepository {
+
+    private static final String SELECT_STOCK =
+            "SELECT stock_quantity FROM medicines WHERE medicine_id = ?";
+
+    private static final String SELECT_STOCK_LEVELS =
+            "SELECT medicine_id, price, stock_quantity, expiry_date FROM medicines";
+
+    private static final String SELECT_STOCK_LEVELS_BY_ID =
+            SELECT_STOCK_LEVELS + " WHERE medicine_id IN (:ids)";
+
+    private static final String SELECT_STOCK_LEVEL =
+            SELECT_STOCK_LEVELS + " WHERE medicine_id = ?";
+
+    private static final String SELECT_REORDER_LEVELS =
+            "SELECT medicine_id, stock_quantity, reorder_point, reorder_quantity FROM medicines";
+
+    private static final String SELECT_REORDER_LEVELS_BY_ID =
+            SELECT_REORDER_LEVELS + " WHERE medicine_id IN (:ids)";
+
+    private static final int STOCK_LEVEL_FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Lightweight (id, price, stock, expiry) projection for in-memory aggregates; rows are never materialised as entities
+    public void forEachStockLevel(StockLevelHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_STOCK_LEVELS);
+            statement.setFetchSize(STOCK_LEVEL_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getBigDecimal("price"),
+                rs.getInt("stock_quantity"), rs.getObject("expiry_date", LocalDate.class)));
+    }
+
+    public void forEachStockLevel(Collection<Long> medicineIds, StockLevelHandler handler) {
+        if (medicineIds.isEmpty()) {
+            return;
+        }
+        if (medicineIds.size() == 1) {
+            // Single-medicine stock changes are the hot path; skip the IN-list expansion
+            jdbcTemplate.query(SELECT_STOCK_LEVEL, (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"),
+                    rs.getBigDecimal("price"), rs.getInt("stock_quantity"), rs.getObject("expiry_date", LocalDate.class)),
+                    medicineIds.iterator().next());
+            return;
+        }
+        namedParameterJdbcTemplate.query(SELECT_STOCK_LEVELS_BY_ID, Map.of("ids", medicineIds),
+                (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getBigDecimal("price"),
+                        rs.getInt("stock_quantity"), rs.getObject("expiry_date", LocalDate.class)));
+    }
+
+    // (id, stock, reorder point, reorder quantity) projection for the low-stock index; null policies stay null
+    public void forEachReorderLevel(ReorderLevelHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_REORDER_LEVELS);
+            statement.setFetchSize(STOCK_LEVEL_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getInt("stock_quantity"),
+                rs.getObject("reorder_point", Integer.class), rs.getObject("reorder_quantity", Integer.class)));
+    }
+
+    public void forEachReorderLevel(Collection<Long> medicineIds, ReorderLevelHandler handler) {
+        if (medicineIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.query(SELECT_REORDER_LEVELS_BY_ID, Map.of("ids", medicineIds),
+                (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"), rs.getInt("stock_quantity"),
+                        rs.getObject("reorder_point", Integer.class), rs.getObject("reorder_quantity", Integer.class)));
+    }
+
+    public Optional<Integer> findStockQuantity(Long medicineId) {
+        try {
+            return Optional.ofNullable(jdbcTemplate.queryForObject(SELECT_STOCK, Integer.class, medicineId));
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    @FunctionalInterface
+    public interface StockLevelHandler {
+        void accept(long medicineId, BigDecimal price, int stockQuantity, LocalDate expiryDate);
+    }
+
+    @FunctionalInterface
+    public interface ReorderLevelHandler {
+        void accept(long medicineId, int stockQuantity, Integer reorderPoint, Integer reorderQuantity);
+    }
+}
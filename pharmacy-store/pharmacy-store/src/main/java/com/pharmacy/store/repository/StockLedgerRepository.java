@@ -0,0 +1,179 @@
+package com.pharmacy.store.repository;
+
+import com.pharmacy.store.model.StockLedgerCheckpoint;
+import com.pharmacy.store.model.StockMovement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC access for the stock ledger: batched appends of movements and the
+ * set-based fold of pending movements into medicines.stock_quantity. Pending
+ * movements are a primary-key range above the checkpoint, so folding never
+ * rewrites ledger rows. The checkpoint row also carries the write lease that
+ * keeps a single instance appending and folding. Sales movements are also read
+ * back, totalled per medicine and day, as the sales history for demand forecasting.
+ */
+@Repository
+public class StockLedgerRepository {
+
+    private static final String INSERT_MOVEMENT =
+            "INSERT INTO stock_movements (medicine_id, delta, reason, performed_by, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CHECKPOINT =
+            "INSERT INTO stock_ledger_checkpoint (checkpoint_id, folded_through) " +
+            "SELECT ?, 0 WHERE NOT EXISTS (SELECT 1 FROM stock_ledger_checkpoint WHERE checkpoint_id = ?)";
+
+    private static final String SELECT_CHECKPOINT =
+            "SELECT folded_through FROM stock_ledger_checkpoint WHERE checkpoint_id = ?";
+
+    private static final String LOCK_CHECKPOINT = SELECT_CHECKPOINT + " FOR UPDATE";
+
+    // Lease times are the database's own clock, so instances never compare their clocks with each other
+    private static final String ACQUIRE_LEASE =
+            "UPDATE stock_ledger_checkpoint " +
+            "SET lease_owner = ?, lease_until = TIMESTAMPADD(SECOND, ?, LOCALTIMESTAMP) " +
+            "WHERE checkpoint_id = ? AND (lease_owner IS NULL OR lease_owner = ? OR lease_until < LOCALTIMESTAMP)";
+
+    private static final String RENEW_LEASE =
+            "UPDATE stock_ledger_checkpoint SET lease_until = TIMESTAMPADD(SECOND, ?, LOCALTIMESTAMP) " +
+            "WHERE checkpoint_id = ? AND lease_owner = ?";
+
+    private static final String RELEASE_LEASE =
+            "UPDATE stock_ledger_checkpoint SET lease_owner = NULL, lease_until = NULL " +
+            "WHERE checkpoint_id = ? AND lease_owner = ?";
+
+    private static final String LOCK_LEASE =
+            "SELECT lease_owner FROM stock_ledger_checkpoint WHERE checkpoint_id = ? FOR UPDATE";
+
+    private static final String SELECT_PENDING_DELTAS =
+            "SELECT medicine_id, SUM(delta) AS delta FROM stock_movements WHERE movement_id > ? GROUP BY medicine_id";
+
+    private static final String SELECT_FOLD_WATERMARK =
+            "SELECT MAX(movement_id) FROM (SELECT movement_id FROM stock_movements WHERE movement_id > ? " +
+            "ORDER BY movement_id LIMIT ?) pending";
+
+    private static final String SELECT_FOLD_DELTAS =
+            "SELECT medicine_id, SUM(delta) AS delta FROM stock_movements " +
+            "WHERE movement_id > ? AND movement_id <= ? GROUP BY medicine_id";
+
+    private static final String APPLY_DELTA =
+            "UPDATE medicines SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE medicine_id = ?";
+
+    private static final String ADVANCE_CHECKPOINT =
+            "UPDATE stock_ledger_checkpoint SET folded_through = ?, folded_at = ? WHERE checkpoint_id = ?";
+
+    // Totalled by the database from the covering (reason, created_at, medicine_id, delta) index
+    private static final String SELECT_DAILY_SALES =
+            "SELECT medicine_id, CAST(created_at AS DATE) AS sale_date, -SUM(delta) AS quantity " +
+            "FROM stock_movements WHERE reason = 'SALE' AND created_at >= ? AND created_at < ? " +
+            "GROUP BY medicine_id, CAST(created_at AS DATE)";
+
+    private static final int DAILY_SALES_FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertBatch(List<StockMovement> movements) {
+        List<Object[]> batchArgs = new ArrayList<>(movements.size());
+        for (StockMovement movement : movements) {
+            batchArgs.add(new Object[]{movement.getMedicineId(), movement.getDelta(), movement.getReason().name(),
+                    movement.getPerformedBy(), movement.getCreatedAt()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT, batchArgs);
+    }
+
+    // Takes the lease when it is free, already the owner's, or expired; false while another instance holds it
+    public boolean acquireLease(String owner, Duration lease) {
+        insertCheckpoint();
+        return jdbcTemplate.update(ACQUIRE_LEASE, owner, lease.toSeconds(), StockLedgerCheckpoint.SINGLETON_ID,
+                owner) == 1;
+    }
+
+    // Extends the lease only while the owner still holds it; an expired lease nobody took over is still held
+    public boolean renewLease(String owner, Duration lease) {
+        return jdbcTemplate.update(RENEW_LEASE, lease.toSeconds(), StockLedgerCheckpoint.SINGLETON_ID, owner) == 1;
+    }
+
+    public void releaseLease(String owner) {
+        jdbcTemplate.update(RELEASE_LEASE, StockLedgerCheckpoint.SINGLETON_ID, owner);
+    }
+
+    // Must run inside the caller's transaction: the checkpoint row stays locked until it ends,
+    // so the lease cannot change hands while the caller writes under it
+    public boolean lockLease(String owner) {
+        String leaseOwner = jdbcTemplate.queryForObject(LOCK_LEASE, String.class, StockLedgerCheckpoint.SINGLETON_ID);
+        return owner.equals(leaseOwner);
+    }
+
+    // Net delta per medicine of every movement not yet folded
+    public Map<Long, Integer> findPendingDeltas() {
+        insertCheckpoint();
+        Long foldedThrough = jdbcTemplate.queryForObject(SELECT_CHECKPOINT, Long.class,
+                StockLedgerCheckpoint.SINGLETON_ID);
+        Map<Long, Integer> deltas = new TreeMap<>();
+        jdbcTemplate.query(SELECT_PENDING_DELTAS, (RowCallbackHandler) rs ->
+                deltas.put(rs.getLong("medicine_id"), rs.getInt("delta")), foldedThrough);
+        return deltas;
+    }
+
+    // Folds up to maxMovements of the oldest pending movements; must run inside the caller's transaction.
+    // The checkpoint row lock keeps folds from overlapping; medicines are updated in id order.
+    public Map<Long, Integer> foldPending(int maxMovements) {
+        Long foldedThrough = jdbcTemplate.queryForObject(LOCK_CHECKPOINT, Long.class,
+                StockLedgerCheckpoint.SINGLETON_ID);
+        Long watermark = jdbcTemplate.queryForObject(SELECT_FOLD_WATERMARK, Long.class, foldedThrough, maxMovements);
+        if (watermark == null) {
+            return Map.of();
+        }
+
+        Map<Long, Integer> deltas = new TreeMap<>();
+        jdbcTemplate.query(SELECT_FOLD_DELTAS, (RowCallbackHandler) rs ->
+                deltas.put(rs.getLong("medicine_id"), rs.getInt("delta")), foldedThrough, watermark);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        deltas.forEach((medicineId, delta) -> {
+            if (delta != 0) {
+                batchArgs.add(new Object[]{delta, now, medicineId});
+            }
+        });
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA, batchArgs);
+        }
+        jdbcTemplate.update(ADVANCE_CHECKPOINT, watermark, now, StockLedgerCheckpoint.SINGLETON_ID);
+        return deltas;
+    }
+
+    private void insertCheckpoint() {
+        jdbcTemplate.update(INSERT_CHECKPOINT, StockLedgerCheckpoint.SINGLETON_ID, StockLedgerCheckpoint.SINGLETON_ID);
+    }
+
+    // Units sold per medicine and day from the first day up to, not including, the last; streamed, never collected
+    public void forEachDailySale(LocalDate from, LocalDate until, DailySaleHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_DAILY_SALES);
+            statement.setFetchSize(DAILY_SALES_FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            statement.setTimestamp(2, Timestamp.valueOf(until.atStartOfDay()));
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getLong("medicine_id"),
+                rs.getObject("sale_date", LocalDate.class), rs.getInt("quantity")));
+    }
+
+    @FunctionalInterface
+    public interface DailySaleHandler {
+        void accept(long medicineId, LocalDate saleDate, int quantity);
+    }
+}
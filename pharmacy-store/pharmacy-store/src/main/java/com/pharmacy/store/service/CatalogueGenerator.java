@@ -0,0 +1,164 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Synthetic catalogue for load testing. Rows are bulk inserted in chunks with
+ * skewed category, manufacturer and expiry distributions; a seed makes every
+ * run produce the same catalogue. Rows are written in popularity order, so
+ * the first ids are the best sellers and carry the deepest stock.
+ * Set pharmacy.generator.rows to fill the database on startup.
+ */
+@Component
+public class CatalogueGenerator implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogueGenerator.class);
+
+    public static final String BATCH_PREFIX = "GEN-";
+
+    public static final String[] NAME_STEMS = {"amoxi", "ator", "beta", "calci", "cefu", "clopi", "dexa", "diclo",
+            "esome", "fluo", "gaba", "hydro", "ibu", "keto", "lansa", "levo", "lora", "meto", "napro", "olme", "panto",
+            "para", "predni", "quina", "rami", "rosu", "salbu", "sertra", "tama", "trama", "vala", "zola"};
+
+    private static final String[] NAME_SUFFIXES = {"cillin", "statin", "pril", "sartan", "prazole", "profen",
+            "cetamol", "mycin", "olol", "dronate", "tadine", "xetine", "pam", "sone", "dipine", "floxacin"};
+
+    private static final String[] FORMS = {"Tablets", "Capsules", "Syrup", "Suspension", "Cream", "Gel", "Drops",
+            "Inhaler", "Injection", "Sachets"};
+
+    private static final int[] STRENGTHS_MG = {5, 10, 20, 25, 50, 100, 200, 250, 400, 500, 1000};
+
+    // Most-stocked first: draws follow a Zipf curve over this order
+    private static final String[] CATEGORIES = {"Analgesics", "Antibiotics", "Cardiovascular", "Vitamins",
+            "Antihistamines", "Gastrointestinal", "Respiratory", "Dermatology", "Diabetes", "Antidepressants",
+            "Cold & Flu", "Eye Care", "Antifungals", "Hormones", "Antivirals", "Oncology", "Immunology",
+            "Anaesthetics", "Urology", "Neurology"};
+
+    private static final String[] MAKER_FIRST = {"Apex", "Northwind", "Sunrise", "Crescent", "Blue River", "Helix",
+            "Meridian", "Summit", "Evergreen", "Orion", "Pioneer", "Harbor", "Silverline", "Granite", "Aurora"};
+
+    private static final String[] MAKER_SECOND = {"Pharma", "Labs", "Health", "Generics", "Therapeutics",
+            "Biotech", "Healthcare", "Medical"};
+
+    private static final double CATEGORY_SKEW = 1.1;
+    private static final double MANUFACTURER_SKEW = 1.2;
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Value("${pharmacy.generator.rows:0}")
+    private int startupRows;
+
+    @Value("${pharmacy.generator.seed:20240601}")
+    private long seed;
+
+    @Value("${pharmacy.generator.chunk-size:1000}")
+    private int chunkSize;
+
+    // Runs before ApplicationReadyEvent, so the in-memory indexes build over the generated rows
+    @Override
+    public void run(ApplicationArguments args) {
+        if (startupRows > 0) {
+            generate(startupRows, seed);
+        }
+    }
+
+    // Returns the generated ids in popularity order
+    public long[] generate(int rows, long seed) {
+        if (rows <= 0) {
+            throw new IllegalArgumentException("Row count must be positive");
+        }
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        ZipfSampler categories = new ZipfSampler(CATEGORIES.length, CATEGORY_SKEW);
+        ZipfSampler manufacturers = new ZipfSampler(MAKER_FIRST.length * MAKER_SECOND.length, MANUFACTURER_SKEW);
+        LocalDate today = LocalDate.now();
+
+        long[] ids = new long[rows];
+        int written = 0;
+        List<Medicine> chunk = new ArrayList<>(chunkSize);
+        for (int rank = 0; rank < rows; rank++) {
+            chunk.add(medicine(rank, rows, random, categories, manufacturers, today));
+            if (chunk.size() == chunkSize || rank == rows - 1) {
+                for (Long id : medicineBulkRepository.insertBatch(chunk)) {
+                    ids[written++] = id;
+                }
+                chunk.clear();
+                if (written % 100_000 == 0) {
+                    logger.info("Generated {} of {} medicines", written, rows);
+                }
+            }
+        }
+        logger.info("Generated {} medicines in {} ms (seed {})", rows, (System.nanoTime() - start) / 1_000_000, seed);
+        return ids;
+    }
+
+    private static Medicine medicine(int rank, int rows, Random random, ZipfSampler categories,
+                                     ZipfSampler manufacturers, LocalDate today) {
+        String name = capitalize(NAME_STEMS[random.nextInt(NAME_STEMS.length)])
+                + NAME_SUFFIXES[random.nextInt(NAME_SUFFIXES.length)]
+                + " " + STRENGTHS_MG[random.nextInt(STRENGTHS_MG.length)] + "mg "
+                + FORMS[random.nextInt(FORMS.length)]
+                // Keeps names unique however many rows are generated
+                + " " + Integer.toString(rank, 36).toUpperCase(Locale.ROOT);
+        int maker = manufacturers.sample(random);
+        String manufacturer = MAKER_FIRST[maker % MAKER_FIRST.length] + " " + MAKER_SECOND[maker / MAKER_FIRST.length];
+
+        // Log-normal prices around a median of 8.00
+        BigDecimal price = BigDecimal.valueOf(Math.max(0.5, 8.0 * Math.exp(0.9 * random.nextGaussian())))
+                .setScale(2, RoundingMode.HALF_UP);
+
+        Medicine medicine = new Medicine(name, manufacturer, price, stock(rank, rows, random), expiry(random, today));
+        medicine.setCategory(CATEGORIES[categories.sample(random)]);
+        medicine.setPrescriptionRequired(random.nextInt(100) < 35);
+        medicine.setBatchNumber(BATCH_PREFIX + Integer.toString(random.nextInt(36 * 36 * 36 * 36), 36)
+                .toUpperCase(Locale.ROOT));
+        medicine.setDescription(medicine.getCategory() + " - " + name);
+        return medicine;
+    }
+
+    // The top 1% sellers are stocked deep; about 8% of the rest sit below the low-stock line
+    private static int stock(int rank, int rows, Random random) {
+        if (rank < Math.max(1, rows / 100)) {
+            return 5_000 + random.nextInt(20_000);
+        }
+        if (random.nextInt(100) < 8) {
+            return random.nextInt(10);
+        }
+        return 10 + random.nextInt(500);
+    }
+
+    // About 3% already expired, 5% expiring within a month, the rest spread over three years
+    private static LocalDate expiry(Random random, LocalDate today) {
+        int roll = random.nextInt(100);
+        if (roll < 3) {
+            return today.minusDays(1 + random.nextInt(365));
+        }
+        if (roll < 8) {
+            return today.plusDays(random.nextInt(31));
+        }
+        // Triangular over one month to three years, peaking around 18 months
+        int days = 31 + (random.nextInt(535) + random.nextInt(535));
+        return today.plusDays(days);
+    }
+
+    private static String capitalize(String stem) {
+        return Character.toUpperCase(stem.charAt(0)) + stem.substring(1);
+    }
+}
@@ -0,0 +1,223 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.DashboardSnapshot;
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard counters kept up to date from MedicineChangedEvent so that the
+ * dashboard is answered from memory instead of four table scans per request.
+ * Each medicine's price and stock sit in a concurrent map and the inventory
+ * value in a LongAdder of cents, so sales on different medicines never share
+ * a lock; the snapshot is only built when a read finds something changed.
+ * The low-stock count is the size of MedicineLowStockIndex's set, since each
+ * medicine is measured against its own reorder point, and the expired count is
+ * the size of MedicineExpiryIndex's expired set. A periodic rebuild from
+ * the table corrects any drift from writes that bypass the services.
+ */
+@Component
+public class DashboardAggregateStore extends RebuildableIndex<DashboardAggregateStore.Aggregates> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardAggregateStore.class);
+
+    @Autowired
+    private MedicineStockRepository medicineStockRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private MedicineLowStockIndex medicineLowStockIndex;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    // Counts every change to the aggregates; a read rebuilds the snapshot when it moved
+    private final LongAdder changes = new LongAdder();
+    private volatile Published published;
+    private volatile LocalDateTime lastReconciledAt;
+
+    public DashboardAggregateStore() {
+        super(new Aggregates());
+    }
+
+    // Reads
+
+    public DashboardSnapshot getSnapshot() {
+        long version = changes.sum();
+        Published current = published;
+        // Roll the snapshot over on first read of a new day; the low-stock set and the expiry wheel listen to
+        // the same events and may have moved since the last build, the wheel also at midnight without any write
+        if (current == null || current.version != version
+                || !current.snapshot.getAsOfDate().equals(medicineExpiryIndex.today())
+                || current.snapshot.getLowStockMedicines() != medicineLowStockIndex.getLowStockCount()
+                || current.snapshot.getExpiredMedicines() != medicineExpiryIndex.getExpiredCount()) {
+            Aggregates aggregates = current();
+            current = new Published(version, new DashboardSnapshot(aggregates.entries.size(),
+                    medicineExpiryIndex.getExpiredCount(), medicineLowStockIndex.getLowStockCount(),
+                    BigDecimal.valueOf(aggregates.valueCents.sum(), 2),
+                    medicineLowStockIndex.getDefaultReorderPoint(), medicineExpiryIndex.today(), lastReconciledAt));
+            published = current;
+        }
+        return current.snapshot;
+    }
+
+    // Maintenance
+
+    @Override
+    protected Aggregates create() {
+        return new Aggregates();
+    }
+
+    @Override
+    protected void loadAll(Aggregates target) {
+        // Rows folded while the scan runs are marked touched and reloaded after it
+        medicineStockRepository.forEachStockLevel((id, price, stock, expiry) ->
+                target.put(id, cents(price), stock + stockLedger.getPendingDelta(id)));
+    }
+
+    @Override
+    protected Set<Long> load(List<Long> medicineIds, Aggregates target) {
+        Set<Long> found = new HashSet<>();
+        stockLedger.readConsistent(() -> {
+            medicineStockRepository.forEachStockLevel(medicineIds, (id, price, stock, expiry) -> {
+                found.add(id);
+                target.put(id, cents(price), stock + stockLedger.getPendingDelta(id));
+            });
+            return null;
+        });
+        changes.increment();
+        return found;
+    }
+
+    @Override
+    protected void apply(Aggregates target, MedicineChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED -> target.save(event.getMedicine());
+            case STOCK_CHANGED -> target.adjustStock(event.getMedicineId(), event.getStockDelta());
+            default -> {
+                // Entries already hold stored plus pending stock; only a running rebuild scan may have misread them
+            }
+        }
+        changes.increment();
+    }
+
+    @Override
+    protected void remove(Aggregates target, Long medicineId) {
+        target.remove(medicineId);
+        changes.increment();
+    }
+
+    @Override
+    protected void beforeSwap(Aggregates fresh, Aggregates previous) {
+        long previousValue = previous.valueCents.sum();
+        long value = fresh.valueCents.sum();
+        if (previous.entries.size() != fresh.entries.size() || previousValue != value) {
+            logger.info("Dashboard aggregates reconciled: {} -> {} medicines, value {} -> {}",
+                    previous.entries.size(), fresh.entries.size(), BigDecimal.valueOf(previousValue, 2),
+                    BigDecimal.valueOf(value, 2));
+        }
+    }
+
+    @Override
+    protected void rebuilt(Aggregates fresh, long millis) {
+        lastReconciledAt = LocalDateTime.now();
+        changes.increment();
+    }
+
+    // Reconciliation
+
+    @Scheduled(initialDelayString = "${pharmacy.dashboard.reconcile-interval:PT15M}",
+               fixedDelayString = "${pharmacy.dashboard.reconcile-interval:PT15M}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    // Prices carry two decimals (the column's scale), so the value is summed exactly in cents
+    private static long cents(BigDecimal price) {
+        return price == null ? 0 : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Per-medicine entries and their summed value; each entry changes under its own map bin, never a shared lock
+    static final class Aggregates {
+        private final Map<Long, StockEntry> entries = new ConcurrentHashMap<>();
+        private final LongAdder valueCents = new LongAdder();
+
+        private void put(Long medicineId, long priceCents, int stockQuantity) {
+            entries.compute(medicineId, (id, current) -> {
+                StockEntry next = new StockEntry(priceCents, stockQuantity);
+                valueCents.add(next.value() - (current == null ? 0 : current.value()));
+                return next;
+            });
+        }
+
+        // A save carries stock read at some point before it was published, while sales keep moving it through
+        // STOCK_CHANGED. For a tracked medicine the save only reprices the stock already held here, every stock
+        // change having reached it as a delta; only a medicine seen for the first time takes the saved stock.
+        private void save(Medicine medicine) {
+            long priceCents = cents(medicine.getPrice());
+            int savedStock = medicine.getStockQuantity() == null ? 0 : medicine.getStockQuantity();
+            entries.compute(medicine.getId(), (id, current) -> {
+                StockEntry next = new StockEntry(priceCents, current == null ? savedStock : current.stockQuantity);
+                valueCents.add(next.value() - (current == null ? 0 : current.value()));
+                return next;
+            });
+        }
+
+        private void adjustStock(Long medicineId, int stockDelta) {
+            // A row created behind our back is picked up by the next rebuild
+            entries.computeIfPresent(medicineId, (id, current) -> {
+                valueCents.add(current.priceCents * stockDelta);
+                return new StockEntry(current.priceCents, current.stockQuantity + stockDelta);
+            });
+        }
+
+        private void remove(Long medicineId) {
+            entries.computeIfPresent(medicineId, (id, current) -> {
+                valueCents.add(-current.value());
+                return null;
+            });
+        }
+    }
+
+    private static final class StockEntry {
+        private final long priceCents;
+        private final int stockQuantity;
+
+        private StockEntry(long priceCents, int stockQuantity) {
+            this.priceCents = priceCents;
+            this.stockQuantity = stockQuantity;
+        }
+
+        private long value() {
+            return priceCents * stockQuantity;
+        }
+    }
+
+    private static final class Published {
+        private final long version;
+        private final DashboardSnapshot snapshot;
+
+        private Published(long version, DashboardSnapshot snapshot) {
+            this.version = version;
+            this.snapshot = snapshot;
+        }
+    }
+}
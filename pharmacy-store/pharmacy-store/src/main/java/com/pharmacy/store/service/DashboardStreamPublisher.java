@@ -0,0 +1,173 @@
+package com.pharmacy.store.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.store.dto.DashboardSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes dashboard counters to every open dashboard over Server-Sent Events.
+ * One scheduled tick diffs the in-memory aggregates against what was last
+ * sent and fans the changed figures out to all clients, so dashboard load on
+ * the database does not grow with the number of open browsers.
+ */
+@Component
+public class DashboardStreamPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStreamPublisher.class);
+
+    @Autowired
+    private DashboardAggregateStore dashboardAggregateStore;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pharmacy.dashboard.stream.timeout:30m}")
+    private Duration emitterTimeout;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    // Subscribing and ticking exclude each other, so a new client sits on one side of every tick.
+    // A lock rather than a monitor, so waiting virtual threads do not pin their carriers.
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    // Figures as of the last tick; deltas carry the new absolute values of whatever changed since
+    private Map<String, Object> lastPublished;
+
+    // Figures a subscriber's snapshot showed ahead of lastPublished; the next tick sends them even if they move back
+    private final Set<String> resend = new HashSet<>();
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitters.remove(emitter));
+        publishLock.lock();
+        try {
+            Map<String, Object> current = figures(dashboardAggregateStore.getSnapshot());
+            if (lastPublished == null) {
+                lastPublished = current;
+            } else {
+                current.forEach((figure, value) -> {
+                    if (!sameValue(lastPublished.get(figure), value)) {
+                        resend.add(figure);
+                    }
+                });
+            }
+            // Registered before the snapshot is sent: the handler has not returned yet, so the send only
+            // buffers, never blocks, and the snapshot stays ahead of any delta the next tick sends
+            emitters.add(emitter);
+            emitter.send(SseEmitter.event().name("snapshot").data(toJson(current)));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        } finally {
+            publishLock.unlock();
+        }
+        return emitter;
+    }
+
+    // Coalesces every change since the previous tick into a single event
+    @Scheduled(fixedDelayString = "${pharmacy.dashboard.stream.interval:PT1S}")
+    public void publishChanges() {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        List<SseEmitter> recipients;
+        publishLock.lock();
+        try {
+            Map<String, Object> current = figures(dashboardAggregateStore.getSnapshot());
+            Map<String, Object> previous = lastPublished;
+            lastPublished = current;
+            if (previous == null || emitters.isEmpty()) {
+                resend.clear();
+                return;
+            }
+
+            current.forEach((figure, value) -> {
+                if (resend.contains(figure) || !sameValue(previous.get(figure), value)) {
+                    delta.put(figure, value);
+                }
+            });
+            resend.clear();
+            recipients = List.copyOf(emitters);
+        } finally {
+            publishLock.unlock();
+        }
+        // Sent outside the lock, so a slow client holds up only this tick's fan-out, never a subscription
+        if (!delta.isEmpty()) {
+            broadcast(recipients, SseEmitter.event().name("delta").data(toJson(delta)));
+        }
+    }
+
+    // Keeps idle connections open through proxies and surfaces clients that went away
+    @Scheduled(fixedDelayString = "${pharmacy.dashboard.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        if (!emitters.isEmpty()) {
+            broadcast(List.copyOf(emitters), SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    private void broadcast(List<SseEmitter> recipients, SseEmitter.SseEventBuilder event) {
+        // Built once: the payload is serialised a single time however many clients are listening
+        Set<ResponseBodyEmitter.DataWithMediaType> payload = event.build();
+        for (SseEmitter emitter : recipients) {
+            try {
+                emitter.send(payload);
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+                logger.debug("Dropping dashboard subscriber: {}", e.getMessage());
+            }
+        }
+    }
+
+    private String toJson(Map<String, Object> figures) {
+        try {
+            return objectMapper.writeValueAsString(figures);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise dashboard figures", e);
+        }
+    }
+
+    private Map<String, Object> figures(DashboardSnapshot snapshot) {
+        Map<String, Object> figures = new LinkedHashMap<>();
+        figures.put("totalMedicines", snapshot.getTotalMedicines());
+        figures.put("expiredMedicines", snapshot.getExpiredMedicines());
+        figures.put("lowStockMedicines", snapshot.getLowStockMedicines());
+        figures.put("totalInventoryValue", snapshot.getTotalInventoryValue());
+        figures.put("expiringSoonMedicines", medicineExpiryIndex.getExpiringSoonIds().size());
+        return figures;
+    }
+
+    private static boolean sameValue(Object previous, Object current) {
+        if (previous instanceof BigDecimal a && current instanceof BigDecimal b) {
+            return a.compareTo(b) == 0;
+        }
+        return Objects.equals(previous, current);
+    }
+}
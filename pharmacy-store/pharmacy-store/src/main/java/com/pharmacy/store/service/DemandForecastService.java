@@ -0,0 +1,264 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.ForecastReport;
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import com.pharmacy.store.repository.StockLedgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Nightly demand forecast over the sales history in the stock ledger. The
+ * database totals SALE movements per medicine and day, and those totals are
+ * streamed into one series per medicine, grouped by category, so memory
+ * grows with the catalogue and the history window rather than the number
+ * of sales. Categories are forecast in parallel on a dedicated fork-join
+ * pool, and the resulting reorder quantities are written back in batched
+ * chunks; only rows whose quantity changed are rewritten and reloaded by
+ * the in-memory indexes.
+ */
+@Service
+public class DemandForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemandForecastService.class);
+
+    private static final int WRITE_CHUNK_SIZE = 1000;
+    private static final String UNCATEGORISED = "";
+
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final DemandForecaster forecaster;
+    private final int parallelism;
+
+    private final AtomicReference<ForecastReport> lastRun = new AtomicReference<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder salesRowsRead = new LongAdder();
+    private final LongAdder medicinesForecast = new LongAdder();
+    private final LongAdder reorderQuantitiesChanged = new LongAdder();
+
+    public DemandForecastService(@Value("${pharmacy.forecast.history-days:56}") int historyDays,
+                                 @Value("${pharmacy.forecast.smoothing-factor:0.3}") double smoothingFactor,
+                                 @Value("${pharmacy.forecast.cover-days:14}") int coverDays,
+                                 @Value("${pharmacy.forecast.parallelism:0}") int parallelism) {
+        this.forecaster = new DemandForecaster(historyDays, smoothingFactor, coverDays);
+        // 0 = one worker per core
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    // Progress of the running forecast, or the outcome of the last one
+    public ForecastReport getLastRun() {
+        return lastRun.get();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Scheduled(cron = "${pharmacy.forecast.cron:0 30 2 * * *}")
+    public void runNightly() {
+        try {
+            run();
+        } catch (IllegalStateException e) {
+            logger.warn("Nightly demand forecast skipped: {}", e.getMessage());
+        }
+    }
+
+    // Runs on the caller's thread; history covers the configured number of whole days before today
+    public ForecastReport run() {
+        return run(LocalDate.now());
+    }
+
+    // History runs up to, not including, the given day
+    ForecastReport run(LocalDate until) {
+        return execute(begin(until));
+    }
+
+    // Runs on a background thread and returns its first report
+    public ForecastReport start() {
+        ForecastReport started = begin(LocalDate.now());
+        Thread worker = new Thread(() -> execute(started), "demand-forecast");
+        worker.setDaemon(true);
+        worker.start();
+        return started;
+    }
+
+    private ForecastReport begin(LocalDate until) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A demand forecast is already running");
+        }
+        ForecastReport started = new ForecastReport(ForecastReport.State.RUNNING,
+                until.minusDays(forecaster.getHistoryDays()), until, 0, 0, 0, 0, 0, 0, null);
+        lastRun.set(started);
+        return started;
+    }
+
+    private ForecastReport execute(ForecastReport started) {
+        LocalDate from = started.getHistoryFrom();
+        LocalDate until = started.getHistoryUntil();
+        long start = System.nanoTime();
+        runs.increment();
+
+        SalesHistory history = new SalesHistory(from);
+        int forecastCount = 0;
+        int changedCount = 0;
+        ForecastReport report;
+        try {
+            Map<Long, String> categories = new HashMap<>();
+            medicineBulkRepository.forEachCategory((id, category) ->
+                    categories.put(id, category == null ? UNCATEGORISED : category));
+            stockLedgerRepository.forEachDailySale(from, until, (id, saleDate, quantity) ->
+                    history.add(categories.get(id), id, saleDate, quantity));
+            salesRowsRead.add(history.rowsRead);
+
+            Map<Long, Integer> reorderQuantities = forecastByCategory(history.byCategory);
+            forecastCount = reorderQuantities.size();
+            medicinesForecast.add(forecastCount);
+
+            changedCount = write(reorderQuantities);
+            report = report(ForecastReport.State.COMPLETED, from, until, history, forecastCount, changedCount,
+                    start, null);
+            lastRun.set(report);
+        } catch (RuntimeException e) {
+            logger.error("Demand forecast failed after {} sales rows", history.rowsRead, e);
+            report = report(ForecastReport.State.FAILED, from, until, history, forecastCount, changedCount,
+                    start, e.getMessage());
+            lastRun.set(report);
+        } finally {
+            running.set(false);
+        }
+
+        logger.info("Demand forecast {}: {} daily sales rows ({} units) over {} categories, {} medicines forecast, "
+                        + "{} reorder quantities changed in {} ms", report.getState(), report.getSalesRowsRead(),
+                report.getUnitsSold(), report.getCategories(), report.getMedicinesForecast(),
+                report.getReorderQuantitiesChanged(), report.getElapsedMillis());
+        return report;
+    }
+
+    // One task per category; parallel streams started inside the pool run on its workers, not the common pool
+    private Map<Long, Integer> forecastByCategory(Map<String, Map<Long, int[]>> byCategory) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> byCategory.values().parallelStream()
+                    .map(this::forecastCategory)
+                    .flatMap(quantities -> quantities.entrySet().stream())
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Demand forecast interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Demand forecast failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Map<Long, Integer> forecastCategory(Map<Long, int[]> dailySales) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        dailySales.forEach((id, sales) -> {
+            int quantity = forecaster.forecast(sales).getReorderQuantity();
+            if (quantity > 0) {
+                quantities.put(id, quantity);
+            }
+        });
+        return quantities;
+    }
+
+    // Each chunk commits on its own; the indexes reload only the medicines that changed
+    private int write(Map<Long, Integer> reorderQuantities) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(reorderQuantities).entrySet());
+        int changed = 0;
+        for (int from = 0; from < entries.size(); from += WRITE_CHUNK_SIZE) {
+            Map<Long, Integer> chunk = new TreeMap<>();
+            entries.subList(from, Math.min(from + WRITE_CHUNK_SIZE, entries.size()))
+                    .forEach(entry -> chunk.put(entry.getKey(), entry.getValue()));
+            List<Long> ids = transaction.execute(status -> medicineBulkRepository.updateReorderQuantities(chunk));
+            if (ids != null && !ids.isEmpty()) {
+                changed += ids.size();
+                reorderQuantitiesChanged.add(ids.size());
+                eventPublisher.publishEvent(MedicineChangedEvent.bulkChanged(ids));
+            }
+        }
+        return changed;
+    }
+
+    private static ForecastReport report(ForecastReport.State state, LocalDate from, LocalDate until,
+                                         SalesHistory history, int forecastCount, int changedCount, long start,
+                                         String error) {
+        return new ForecastReport(state, from, until, history.rowsRead, history.unitsSold,
+                history.byCategory.size(), forecastCount, changedCount, (System.nanoTime() - start) / 1_000_000,
+                error);
+    }
+
+    public Map<String, Object> getStatistics() {
+        ForecastReport last = lastRun.get();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("runs", runs.sum());
+        statistics.put("salesRowsRead", salesRowsRead.sum());
+        statistics.put("medicinesForecast", medicinesForecast.sum());
+        statistics.put("reorderQuantitiesChanged", reorderQuantitiesChanged.sum());
+        statistics.put("running", running.get() ? 1 : 0);
+        statistics.put("lastElapsedMillis", last == null ? 0 : last.getElapsedMillis());
+        statistics.put("historyDays", forecaster.getHistoryDays());
+        statistics.put("coverDays", forecaster.getCoverDays());
+        statistics.put("parallelism", parallelism);
+        return statistics;
+    }
+
+    // Filled from a single result set on the job's thread
+    private final class SalesHistory {
+        private final LocalDate from;
+        private final Map<String, Map<Long, int[]>> byCategory = new HashMap<>();
+        private long rowsRead;
+        private long unitsSold;
+
+        SalesHistory(LocalDate from) {
+            this.from = from;
+        }
+
+        void add(String category, long medicineId, LocalDate saleDate, int quantity) {
+            rowsRead++;
+            unitsSold += quantity;
+            if (category == null) {
+                // Sold, then deleted
+                return;
+            }
+            int[] daily = byCategory.computeIfAbsent(category, c -> new HashMap<>())
+                    .computeIfAbsent(medicineId, id -> new int[forecaster.getHistoryDays()]);
+            daily[(int) ChronoUnit.DAYS.between(from, saleDate)] += quantity;
+        }
+    }
+}
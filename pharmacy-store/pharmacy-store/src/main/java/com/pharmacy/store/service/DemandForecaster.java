@@ -0,0 +1,100 @@
+package com.pharmacy.store.service;
+
+/**
+ * Daily demand forecast of one medicine from its units sold per day, oldest
+ * day first. The series is summarised by a short and a long moving average
+ * and by simple exponential smoothing; the forecast daily demand is the
+ * higher of the smoothed level and the short average, so a recent surge is
+ * not ordered for at the slower smoothed rate. The reorder quantity covers
+ * that demand for a fixed number of days.
+ */
+public class DemandForecaster {
+
+    public static final int SHORT_WINDOW_DAYS = 7;
+    public static final int LONG_WINDOW_DAYS = 28;
+
+    private final int historyDays;
+    private final double smoothingFactor;
+    private final int coverDays;
+
+    public DemandForecaster(int historyDays, double smoothingFactor, int coverDays) {
+        if (historyDays < LONG_WINDOW_DAYS) {
+            throw new IllegalArgumentException("History must cover at least " + LONG_WINDOW_DAYS + " days: "
+                    + historyDays);
+        }
+        if (!(smoothingFactor > 0 && smoothingFactor <= 1)) {
+            throw new IllegalArgumentException("Smoothing factor must be in (0, 1]: " + smoothingFactor);
+        }
+        if (coverDays < 1) {
+            throw new IllegalArgumentException("Reorders must cover at least one day: " + coverDays);
+        }
+        this.historyDays = historyDays;
+        this.smoothingFactor = smoothingFactor;
+        this.coverDays = coverDays;
+    }
+
+    public int getHistoryDays() {
+        return historyDays;
+    }
+
+    public int getCoverDays() {
+        return coverDays;
+    }
+
+    public Forecast forecast(int[] dailySales) {
+        if (dailySales.length != historyDays) {
+            throw new IllegalArgumentException("Expected " + historyDays + " days of sales, got " + dailySales.length);
+        }
+        double level = dailySales[0];
+        for (int day = 1; day < dailySales.length; day++) {
+            level = smoothingFactor * dailySales[day] + (1 - smoothingFactor) * level;
+        }
+        double shortAverage = trailingAverage(dailySales, SHORT_WINDOW_DAYS);
+        double dailyDemand = Math.max(level, shortAverage);
+        return new Forecast(shortAverage, trailingAverage(dailySales, LONG_WINDOW_DAYS), level,
+                (int) Math.ceil(dailyDemand * coverDays));
+    }
+
+    private static double trailingAverage(int[] dailySales, int days) {
+        long total = 0;
+        for (int day = dailySales.length - days; day < dailySales.length; day++) {
+            total += dailySales[day];
+        }
+        return (double) total / days;
+    }
+
+    public static final class Forecast {
+        private final double shortMovingAverage;
+        private final double longMovingAverage;
+        private final double smoothedDemand;
+        private final int reorderQuantity;
+
+        private Forecast(double shortMovingAverage, double longMovingAverage, double smoothedDemand,
+                         int reorderQuantity) {
+            this.shortMovingAverage = shortMovingAverage;
+            this.longMovingAverage = longMovingAverage;
+            this.smoothedDemand = smoothedDemand;
+            this.reorderQuantity = reorderQuantity;
+        }
+
+        // Units per day over the last SHORT_WINDOW_DAYS
+        public double getShortMovingAverage() {
+            return shortMovingAverage;
+        }
+
+        // Units per day over the last LONG_WINDOW_DAYS
+        public double getLongMovingAverage() {
+            return longMovingAverage;
+        }
+
+        // Exponentially smoothed units per day
+        public double getSmoothedDemand() {
+            return smoothedDemand;
+        }
+
+        // Zero when nothing was sold recently; such medicines keep their current reorder quantity
+        public int getReorderQuantity() {
+            return reorderQuantity;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.pharmacy.store.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.store.dto.PurgeReport;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes expired medicines in bounded chunks, each locked, optionally
+ * archived and deleted with set-based statements in its own transaction.
+ * Deletes are throttled to a rows-per-second ceiling so a large purge does
+ * not crowd out sales. A stop takes effect between chunks; starting again
+ * after a stopped or failed run resumes it with the same cutoff, and since
+ * committed chunks are gone, a purge cut short by a restart loses nothing.
+ */
+@Service
+public class ExpiredMedicinePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredMedicinePurgeService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @Autowired
+    private MedicinePurgeChunkWriter chunkWriter;
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pharmacy.purge.chunk-size:500}")
+    private int chunkSize;
+
+    // 0 = unthrottled
+    @Value("${pharmacy.purge.max-rows-per-second:0}")
+    private int maxRowsPerSecond;
+
+    @Value("${pharmacy.purge.archive-directory:purge-archive}")
+    private String archiveDirectory;
+
+    private final AtomicReference<PurgeReport> lastPurge = new AtomicReference<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopRequested;
+
+    private final LongAdder purges = new LongAdder();
+    private final LongAdder deletedMedicines = new LongAdder();
+    private final LongAdder archivedMedicines = new LongAdder();
+    private final LongAdder chunksCommitted = new LongAdder();
+
+    // Progress of the running purge, or the outcome of the last one
+    public PurgeReport getLastPurge() {
+        return lastPurge.get();
+    }
+
+    // Runs the purge on the caller's thread and returns its outcome
+    public PurgeReport purge(boolean archive) {
+        return execute(begin(archive));
+    }
+
+    // Runs the purge on a background thread and returns its first report
+    public PurgeReport start(boolean archive) {
+        Progress progress = begin(archive);
+        PurgeReport started = lastPurge.get();
+        Thread worker = new Thread(() -> execute(progress), "expired-medicine-purge");
+        worker.setDaemon(true);
+        worker.start();
+        return started;
+    }
+
+    // Takes effect once the chunk in flight has committed
+    public PurgeReport stop() {
+        if (running.get()) {
+            stopRequested = true;
+        }
+        return lastPurge.get();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private Progress begin(boolean archive) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An expired medicine purge is already running");
+        }
+        stopRequested = false;
+        PurgeReport previous = lastPurge.get();
+        Progress progress;
+        if (previous != null && (previous.getState() == PurgeReport.State.STOPPED
+                || previous.getState() == PurgeReport.State.FAILED)) {
+            // Carry on with the interrupted run: same cutoff, same archive, counts carried over
+            Path archiveFile = previous.getArchiveFile() != null ? Path.of(previous.getArchiveFile())
+                    : archive ? archiveFile(previous.getCutoff()) : null;
+            progress = new Progress(previous, archiveFile);
+        } else {
+            LocalDate cutoff = medicineExpiryIndex.today();
+            progress = new Progress(cutoff, archive ? archiveFile(cutoff) : null);
+        }
+        lastPurge.set(progress.snapshot(PurgeReport.State.RUNNING));
+        return progress;
+    }
+
+    private PurgeReport execute(Progress progress) {
+        purges.increment();
+        PurgeReport.State outcome = PurgeReport.State.COMPLETED;
+        PurgeReport report;
+        try (MedicinePurgeArchive archive = progress.archiveFile == null ? null
+                : new MedicinePurgeArchive(progress.archiveFile, objectMapper)) {
+            progress.expected = progress.deleted + medicineBulkRepository.countExpired(progress.cutoff);
+            logger.info("Expired medicine purge started: {} medicines expired before {}{}",
+                    progress.expected - progress.deleted, progress.cutoff,
+                    archive == null ? "" : ", archiving to " + archive.getFile());
+            while (true) {
+                if (stopRequested) {
+                    outcome = PurgeReport.State.STOPPED;
+                    break;
+                }
+                List<Long> ids = chunkWriter.purge(progress.cutoff, chunkSize, archive);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                progress.chunkCommitted(ids.size(), archive != null);
+                deletedMedicines.add(ids.size());
+                if (archive != null) {
+                    archivedMedicines.add(ids.size());
+                }
+                chunksCommitted.increment();
+
+                PurgeReport snapshot = progress.snapshot(PurgeReport.State.RUNNING);
+                lastPurge.set(snapshot);
+                logger.debug("Purge progress: {} of {} deleted, {} rows/sec", snapshot.getDeleted(),
+                        snapshot.getExpected(), Math.round(snapshot.getRowsPerSecond()));
+                throttle(progress);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The failed chunk rolled back on its own; starting again resumes from it
+            outcome = PurgeReport.State.FAILED;
+            progress.error("Chunk " + (progress.chunksCommitted + 1) + " rolled back: " + e.getMessage());
+            logger.error("Expired medicine purge failed after {} rows", progress.deleted, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = PurgeReport.State.STOPPED;
+        } finally {
+            report = progress.snapshot(outcome);
+            lastPurge.set(report);
+            running.set(false);
+        }
+
+        logger.info("Expired medicine purge {}: {} deleted, {} archived in {} chunks, {} rows/sec",
+                report.getState().name().toLowerCase(Locale.ROOT), report.getDeleted(), report.getArchived(),
+                report.getChunksCommitted(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    // Sleeps off any lead over the allowed rate for this run
+    private void throttle(Progress progress) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long allowedNanos = TimeUnit.SECONDS.toNanos(progress.deletedThisRun) / maxRowsPerSecond;
+        long aheadNanos = allowedNanos - (System.nanoTime() - progress.runStartNanos);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+
+    private Path archiveFile(LocalDate cutoff) {
+        return Path.of(archiveDirectory, "expired-medicines-before-" + cutoff + ".ndjson");
+    }
+
+    public Map<String, Object> getStatistics() {
+        PurgeReport last = lastPurge.get();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("purges", purges.sum());
+        statistics.put("deletedMedicines", deletedMedicines.sum());
+        statistics.put("archivedMedicines", archivedMedicines.sum());
+        statistics.put("chunksCommitted", chunksCommitted.sum());
+        statistics.put("running", running.get() ? 1 : 0);
+        statistics.put("lastRowsPerSecond", last == null ? 0.0 : last.getRowsPerSecond());
+        statistics.put("lastPercentComplete", last == null ? 0.0 : last.getPercentComplete());
+        statistics.put("maxRowsPerSecond", maxRowsPerSecond);
+        statistics.put("chunkSize", chunkSize);
+        return statistics;
+    }
+
+    private static final class Progress {
+        private final LocalDate cutoff;
+        private final Path archiveFile;
+        private final long runStartNanos = System.nanoTime();
+        private final long previousElapsedMillis;
+        private final List<String> errors;
+        private long expected;
+        private long deleted;
+        private long archived;
+        private long deletedThisRun;
+        private int chunksCommitted;
+
+        Progress(LocalDate cutoff, Path archiveFile) {
+            this.cutoff = cutoff;
+            this.archiveFile = archiveFile;
+            this.previousElapsedMillis = 0;
+            this.errors = new ArrayList<>();
+        }
+
+        Progress(PurgeReport previous, Path archiveFile) {
+            this.cutoff = previous.getCutoff();
+            this.archiveFile = archiveFile;
+            this.previousElapsedMillis = previous.getElapsedMillis();
+            this.errors = new ArrayList<>(previous.getErrors());
+            this.expected = previous.getExpected();
+            this.deleted = previous.getDeleted();
+            this.archived = previous.getArchived();
+            this.chunksCommitted = previous.getChunksCommitted();
+        }
+
+        void chunkCommitted(int rows, boolean archivedRows) {
+            deleted += rows;
+            deletedThisRun += rows;
+            if (archivedRows) {
+                archived += rows;
+            }
+            chunksCommitted++;
+        }
+
+        void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        PurgeReport snapshot(PurgeReport.State state) {
+            long elapsedMillis = previousElapsedMillis + (System.nanoTime() - runStartNanos) / 1_000_000;
+            return new PurgeReport(state, cutoff, expected, deleted, archived, chunksCommitted, elapsedMillis,
+                    archiveFile == null ? null : archiveFile.toString(), errors);
+        }
+    }
+}
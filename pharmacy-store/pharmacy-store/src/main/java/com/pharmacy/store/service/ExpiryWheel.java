@@ -0,0 +1,210 @@
+package com.pharmacy.store.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Medicine ids bucketed by expiry day on a wheel of horizonDays slots, one per
+ * day from today; later dates wait in an overflow map until their day comes
+ * within the horizon. Advancing a day empties one slot into the expired set
+ * and pulls one day into the alert window, so the expired and expiring-soon
+ * sets are maintained as days pass and read without any scan. Writes are
+ * serialised; the two published sets are concurrent and read without locking.
+ */
+public class ExpiryWheel {
+
+    private final int horizonDays;
+    private final int alertDays;
+
+    // Guarded by this
+    private final List<Set<Long>> slots;
+    private final NavigableMap<LocalDate, Set<Long>> beyondHorizon = new TreeMap<>();
+    private final Map<Long, LocalDate> expiryDates = new HashMap<>();
+    private volatile LocalDate today;
+
+    private final Set<Long> expired = ConcurrentHashMap.newKeySet();
+    private final Set<Long> expiringSoon = ConcurrentHashMap.newKeySet();
+    private final Set<Long> expiredView = Collections.unmodifiableSet(expired);
+    private final Set<Long> expiringSoonView = Collections.unmodifiableSet(expiringSoon);
+
+    // Expiring soon means expiring today through today + alertDays, as getMedicinesExpiringSoon counts it
+    public ExpiryWheel(LocalDate today, int horizonDays, int alertDays) {
+        if (alertDays < 0 || alertDays >= horizonDays) {
+            throw new IllegalArgumentException("Alert window must be shorter than the wheel horizon: "
+                    + alertDays + " >= " + horizonDays);
+        }
+        this.today = today;
+        this.horizonDays = horizonDays;
+        this.alertDays = alertDays;
+        this.slots = new ArrayList<>(horizonDays);
+        for (int i = 0; i < horizonDays; i++) {
+            slots.add(new HashSet<>());
+        }
+    }
+
+    // Writes
+
+    public synchronized void put(long medicineId, LocalDate expiryDate) {
+        LocalDate previous = expiryDates.put(medicineId, expiryDate);
+        if (expiryDate.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            unplace(medicineId, previous);
+        }
+        place(medicineId, expiryDate);
+    }
+
+    public synchronized void remove(long medicineId) {
+        LocalDate previous = expiryDates.remove(medicineId);
+        if (previous != null) {
+            unplace(medicineId, previous);
+        }
+    }
+
+    // Moves the wheel forward to day; returns how many medicines expired or entered the alert window
+    public synchronized int advanceTo(LocalDate day) {
+        if (!day.isAfter(today)) {
+            return 0;
+        }
+        if (ChronoUnit.DAYS.between(today, day) >= horizonDays) {
+            // Every slot has rolled over; placing each medicine afresh is cheaper than turning the wheel
+            return replaceAll(day);
+        }
+
+        int moved = 0;
+        for (LocalDate passed = today; passed.isBefore(day); passed = passed.plusDays(1)) {
+            Set<Long> slot = slot(passed);
+            expired.addAll(slot);
+            expiringSoon.removeAll(slot);
+            moved += slot.size();
+            slot.clear();
+            // The freed slot now stands for the day one horizon later
+            Set<Long> arriving = beyondHorizon.remove(passed.plusDays(horizonDays));
+            if (arriving != null) {
+                slot.addAll(arriving);
+            }
+        }
+        LocalDate windowEnd = day.plusDays(alertDays);
+        LocalDate entering = today.plusDays(alertDays + 1);
+        for (LocalDate next = entering.isBefore(day) ? day : entering; !next.isAfter(windowEnd);
+             next = next.plusDays(1)) {
+            Set<Long> slot = slot(next);
+            expiringSoon.addAll(slot);
+            moved += slot.size();
+        }
+        today = day;
+        return moved;
+    }
+
+    // Reads
+
+    public LocalDate getToday() {
+        return today;
+    }
+
+    public int getAlertDays() {
+        return alertDays;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    public Set<Long> expiredIds() {
+        return expiredView;
+    }
+
+    public Set<Long> expiringSoonIds() {
+        return expiringSoonView;
+    }
+
+    // Ids expiring today through today + days; costs one slot per day instead of a date-range query
+    public synchronized Set<Long> expiringWithin(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Days must not be negative: " + days);
+        }
+        if (days == alertDays) {
+            return new HashSet<>(expiringSoon);
+        }
+        Set<Long> ids = new HashSet<>();
+        LocalDate last = today.plusDays(days);
+        for (LocalDate day = today; !day.isAfter(last) && day.isBefore(today.plusDays(horizonDays));
+             day = day.plusDays(1)) {
+            ids.addAll(slot(day));
+        }
+        beyondHorizon.headMap(last, true).values().forEach(ids::addAll);
+        return ids;
+    }
+
+    public synchronized int size() {
+        return expiryDates.size();
+    }
+
+    public synchronized int beyondHorizonSize() {
+        int count = 0;
+        for (Set<Long> ids : beyondHorizon.values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    // Placement (caller holds this)
+
+    private void place(long medicineId, LocalDate expiryDate) {
+        if (expiryDate.isBefore(today)) {
+            expired.add(medicineId);
+            return;
+        }
+        if (expiryDate.isBefore(today.plusDays(horizonDays))) {
+            slot(expiryDate).add(medicineId);
+        } else {
+            beyondHorizon.computeIfAbsent(expiryDate, day -> new HashSet<>()).add(medicineId);
+        }
+        if (!expiryDate.isAfter(today.plusDays(alertDays))) {
+            expiringSoon.add(medicineId);
+        }
+    }
+
+    private void unplace(long medicineId, LocalDate expiryDate) {
+        if (expiryDate.isBefore(today)) {
+            expired.remove(medicineId);
+            return;
+        }
+        if (expiryDate.isBefore(today.plusDays(horizonDays))) {
+            slot(expiryDate).remove(medicineId);
+        } else {
+            Set<Long> ids = beyondHorizon.get(expiryDate);
+            if (ids != null && ids.remove(medicineId) && ids.isEmpty()) {
+                beyondHorizon.remove(expiryDate);
+            }
+        }
+        expiringSoon.remove(medicineId);
+    }
+
+    private int replaceAll(LocalDate day) {
+        int expiredBefore = expired.size();
+        int soonBefore = expiringSoon.size();
+        slots.forEach(Set::clear);
+        beyondHorizon.clear();
+        expired.clear();
+        expiringSoon.clear();
+        today = day;
+        expiryDates.forEach(this::place);
+        return Math.max(0, expired.size() - expiredBefore) + Math.max(0, expiringSoon.size() - soonBefore);
+    }
+
+    private Set<Long> slot(LocalDate day) {
+        return slots.get((int) Math.floorMod(day.toEpochDay(), (long) horizonDays));
+    }
+}
@@ -0,0 +1,61 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineSortKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pages: the sort it was issued for plus
+ * the (sort value, id) of the last row returned.
+ */
+public final class KeysetCursor {
+
+    private final MedicineSortKey sortKey;
+    private final boolean descending;
+    private final Long lastId;
+    private final Object lastSortValue;
+
+    private KeysetCursor(MedicineSortKey sortKey, boolean descending, Long lastId, Object lastSortValue) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.lastId = lastId;
+        this.lastSortValue = lastSortValue;
+    }
+
+    public static String encode(MedicineSortKey sortKey, boolean descending, Medicine lastRow) {
+        String raw = sortKey.name() + '|' + (descending ? "desc" : "asc") + '|' +
+                     lastRow.getId() + '|' + sortKey.valueOf(lastRow);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The sort value goes last so names containing '|' survive the split
+            String[] parts = raw.split("\\|", 4);
+            MedicineSortKey sortKey = MedicineSortKey.valueOf(parts[0]);
+            return new KeysetCursor(sortKey, "desc".equals(parts[1]),
+                    Long.valueOf(parts[2]), sortKey.parse(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
+    }
+
+    public MedicineSortKey getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public Object getLastSortValue() {
+        return lastSortValue;
+    }
+}
@@ -0,0 +1,177 @@
+package com.pharmacy.store.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock level and reorder policy of every medicine. The medicines below their
+ * reorder point are kept as a ready set, and all medicines are bucketed by
+ * stock, so low-stock reads cost the size of their result rather than of the
+ * catalogue. Writes are serialised; the low-stock set is concurrent and read
+ * without locking.
+ */
+public class LowStockSet {
+
+    private final int defaultReorderPoint;
+
+    // Guarded by this
+    private final Map<Long, Level> levels = new HashMap<>();
+    private final NavigableMap<Integer, Set<Long>> byStock = new TreeMap<>();
+
+    private final Set<Long> lowStock = ConcurrentHashMap.newKeySet();
+    private final Set<Long> lowStockView = Collections.unmodifiableSet(lowStock);
+
+    public LowStockSet(int defaultReorderPoint) {
+        if (defaultReorderPoint < 0) {
+            throw new IllegalArgumentException("Default reorder point cannot be negative: " + defaultReorderPoint);
+        }
+        this.defaultReorderPoint = defaultReorderPoint;
+    }
+
+    // Writes
+
+    // A null reorder point falls back to the default; a null reorder quantity orders up to twice the reorder point
+    public synchronized void put(long medicineId, int stockQuantity, Integer reorderPoint, Integer reorderQuantity) {
+        Level previous = levels.get(medicineId);
+        if (previous != null) {
+            unplace(previous);
+        }
+        place(new Level(medicineId, stockQuantity, reorderPoint == null ? defaultReorderPoint : reorderPoint,
+                reorderQuantity));
+    }
+
+    // Returns false when the medicine is not tracked, leaving it to be loaded from the table
+    public synchronized boolean adjust(long medicineId, int stockDelta) {
+        Level previous = levels.get(medicineId);
+        if (previous == null) {
+            return false;
+        }
+        unplace(previous);
+        place(new Level(medicineId, previous.stockQuantity + stockDelta, previous.reorderPoint,
+                previous.reorderQuantity));
+        return true;
+    }
+
+    public synchronized void remove(long medicineId) {
+        Level previous = levels.get(medicineId);
+        if (previous != null) {
+            unplace(previous);
+        }
+    }
+
+    // Reads
+
+    public int getDefaultReorderPoint() {
+        return defaultReorderPoint;
+    }
+
+    // Medicines below their own reorder point
+    public Set<Long> lowStockIds() {
+        return lowStockView;
+    }
+
+    public synchronized List<Level> lowStockLevels() {
+        List<Level> low = new ArrayList<>(lowStock.size());
+        for (Long id : lowStock) {
+            low.add(levels.get(id));
+        }
+        return low;
+    }
+
+    // Medicines with stock below a fixed threshold, lowest stock first
+    public synchronized List<Long> idsBelow(int threshold) {
+        List<Long> ids = new ArrayList<>();
+        for (Set<Long> bucket : byStock.headMap(threshold, false).values()) {
+            List<Long> sorted = new ArrayList<>(bucket);
+            Collections.sort(sorted);
+            ids.addAll(sorted);
+        }
+        return ids;
+    }
+
+    public synchronized int countBelow(int threshold) {
+        int count = 0;
+        for (Set<Long> bucket : byStock.headMap(threshold, false).values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    public synchronized Level get(long medicineId) {
+        return levels.get(medicineId);
+    }
+
+    public synchronized int size() {
+        return levels.size();
+    }
+
+    // Placement (caller holds this)
+
+    private void place(Level level) {
+        levels.put(level.medicineId, level);
+        byStock.computeIfAbsent(level.stockQuantity, stock -> new HashSet<>()).add(level.medicineId);
+        if (level.isLow()) {
+            lowStock.add(level.medicineId);
+        }
+    }
+
+    private void unplace(Level level) {
+        levels.remove(level.medicineId);
+        Set<Long> bucket = byStock.get(level.stockQuantity);
+        if (bucket != null && bucket.remove(level.medicineId) && bucket.isEmpty()) {
+            byStock.remove(level.stockQuantity);
+        }
+        lowStock.remove(level.medicineId);
+    }
+
+    public static final class Level {
+        private final long medicineId;
+        private final int stockQuantity;
+        private final int reorderPoint;
+        private final Integer reorderQuantity;
+
+        private Level(long medicineId, int stockQuantity, int reorderPoint, Integer reorderQuantity) {
+            this.medicineId = medicineId;
+            this.stockQuantity = stockQuantity;
+            this.reorderPoint = reorderPoint;
+            this.reorderQuantity = reorderQuantity;
+        }
+
+        public long getMedicineId() {
+            return medicineId;
+        }
+
+        public int getStockQuantity() {
+            return stockQuantity;
+        }
+
+        // The medicine's own reorder point, or the default when it has none
+        public int getReorderPoint() {
+            return reorderPoint;
+        }
+
+        public Integer getReorderQuantity() {
+            return reorderQuantity;
+        }
+
+        public boolean isLow() {
+            return stockQuantity < reorderPoint;
+        }
+
+        // The configured reorder quantity, or enough to reach twice the reorder point; never less than the
+        // amount needed to get back to the reorder point
+        public int getSuggestedQuantity() {
+            int shortfall = reorderPoint - stockQuantity;
+            int quantity = reorderQuantity != null ? reorderQuantity : shortfall + reorderPoint;
+            return Math.max(quantity, shortfall);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.MedicineSuggestion;
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Name-prefix suggestions for type-ahead at the counter. Entries are kept in a
+ * skip list ordered by lower-cased name, so a prefix is a contiguous range and
+ * the top K are simply its first K entries. Suggestions are immutable and
+ * handed out as-is; a lookup allocates little more than the result list.
+ */
+@Component
+public class MedicineAutocompleteIndex extends RebuildableIndex<MedicineAutocompleteIndex.Entries> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicineAutocompleteIndex.class);
+
+    // Sorts after every character a name key can contain, closing the prefix range
+    private static final char PREFIX_END = Character.MAX_VALUE;
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    public MedicineAutocompleteIndex() {
+        super(new Entries());
+    }
+
+    // Lookup
+
+    public List<MedicineSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<MedicineSuggestion> suggestions = new ArrayList<>(limit);
+        for (MedicineSuggestion suggestion : current().byName
+                .subMap(new NameKey(key, Long.MIN_VALUE), new NameKey(key + PREFIX_END, Long.MIN_VALUE))
+                .values()) {
+            suggestions.add(suggestion);
+            if (suggestions.size() == limit) {
+                break;
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return current().byId.size();
+    }
+
+    // Maintenance
+
+    @Override
+    protected Entries create() {
+        return new Entries();
+    }
+
+    @Override
+    protected void loadAll(Entries target) {
+        // Rows folded while the scan runs are marked touched and reloaded after it
+        medicineBulkRepository.forEachSuggestion((id, name, stock, price) ->
+                target.put(new MedicineSuggestion(id, name, stock + stockLedger.getPendingDelta(id), price)));
+    }
+
+    @Override
+    protected Set<Long> load(List<Long> medicineIds, Entries target) {
+        Set<Long> found = new HashSet<>();
+        stockLedger.readConsistent(() -> {
+            medicineBulkRepository.forEachSuggestion(medicineIds, (id, name, stock, price) -> {
+                found.add(id);
+                target.put(new MedicineSuggestion(id, name, stock + stockLedger.getPendingDelta(id), price));
+            });
+            return null;
+        });
+        return found;
+    }
+
+    @Override
+    protected void apply(Entries target, MedicineChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED -> {
+                Medicine medicine = event.getMedicine();
+                target.put(new MedicineSuggestion(medicine.getId(), medicine.getName(),
+                        medicine.getStockQuantity(), medicine.getPrice()));
+            }
+            case STOCK_CHANGED -> target.adjustStock(event.getMedicineId(), event.getStockDelta());
+            default -> {
+                // Suggestions already carry stored plus pending stock, which folding leaves unchanged
+            }
+        }
+    }
+
+    @Override
+    protected void remove(Entries target, Long medicineId) {
+        target.remove(medicineId);
+    }
+
+    @Override
+    protected void rebuilt(Entries fresh, long millis) {
+        logger.info("Autocomplete index built: {} medicines in {} ms", fresh.byId.size(), millis);
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static final class Entries {
+        private final ConcurrentSkipListMap<NameKey, MedicineSuggestion> byName = new ConcurrentSkipListMap<>();
+        private final Map<Long, NameKey> byId = new ConcurrentHashMap<>();
+
+        private void put(MedicineSuggestion suggestion) {
+            NameKey key = new NameKey(normalize(suggestion.getName()), suggestion.getId());
+            // Insert before removing a renamed key so the id never briefly disappears from lookups
+            byName.put(key, suggestion);
+            NameKey previous = byId.put(suggestion.getId(), key);
+            if (previous != null && !previous.equals(key)) {
+                byName.remove(previous);
+            }
+        }
+
+        private void remove(Long medicineId) {
+            NameKey key = byId.remove(medicineId);
+            if (key != null) {
+                byName.remove(key);
+            }
+        }
+
+        private void adjustStock(Long medicineId, int stockDelta) {
+            NameKey key = byId.get(medicineId);
+            if (key != null) {
+                byName.computeIfPresent(key, (k, current) ->
+                        current.withStockQuantity(current.getStockQuantity() + stockDelta));
+            }
+        }
+    }
+
+    // Names are not unique, so the id breaks ties
+    private static final class NameKey implements Comparable<NameKey> {
+        private final String name;
+        private final long id;
+
+        private NameKey(String name, long id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(NameKey other) {
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof NameKey other && id == other.id && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + Long.hashCode(id);
+        }
+    }
+}
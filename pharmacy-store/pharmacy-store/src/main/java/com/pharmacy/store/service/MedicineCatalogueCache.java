@@ -0,0 +1,199 @@
+package com.pharmacy.store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache in front of MedicineRepository for id and
+ * case-insensitive name lookups. Names map to ids only, so a stock or price
+ * change never leaves a stale entity behind under a name key.
+ */
+@Component
+public class MedicineCatalogueCache {
+
+    // Negative entry: the name is known not to exist
+    private static final Long ABSENT = -1L;
+
+    private static final int STAMP_STRIPES = 1024;
+
+    private final Cache<Long, Medicine> byId;
+    private final Cache<String, Long> byName;
+
+    // Bumped on every invalidation; a load only populates the cache if its stripe did not move meanwhile
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder idHits = new LongAdder();
+    private final LongAdder idMisses = new LongAdder();
+    private final LongAdder nameHits = new LongAdder();
+    private final LongAdder nameMisses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public MedicineCatalogueCache(@Value("${pharmacy.cache.catalogue.maximum-size:10000}") long maximumSize,
+                                  @Value("${pharmacy.cache.catalogue.time-to-live:10m}") Duration timeToLive) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.byName = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    // Lookups (cached entities are never handed out; callers get their own copy)
+
+    public Optional<Medicine> findById(Long id, Function<Long, Optional<Medicine>> loader) {
+        Medicine cached = byId.getIfPresent(id);
+        if (cached != null) {
+            idHits.increment();
+            return Optional.of(new Medicine(cached));
+        }
+
+        idMisses.increment();
+        long stamp = stamps.get(stripe(id));
+        Optional<Medicine> loaded = loader.apply(id);
+        loaded.ifPresent(medicine -> putIfUnchanged(medicine, stamp));
+        return loaded;
+    }
+
+    public Optional<Medicine> findByName(String name, Function<String, Optional<Medicine>> loader) {
+        String key = normalize(name);
+        Long id = byName.getIfPresent(key);
+        if (ABSENT.equals(id)) {
+            nameHits.increment();
+            return Optional.empty();
+        }
+        if (id != null) {
+            Medicine cached = byId.getIfPresent(id);
+            // A rename leaves the old key pointing at an entity that no longer carries that name
+            if (cached != null && normalize(cached.getName()).equals(key)) {
+                nameHits.increment();
+                return Optional.of(new Medicine(cached));
+            }
+        }
+
+        nameMisses.increment();
+        // The id is unknown until the load returns, so guard on the global generation instead of a stripe
+        long observedGeneration = generation.get();
+        Optional<Medicine> loaded = loader.apply(name);
+        if (generation.get() == observedGeneration) {
+            if (loaded.isPresent()) {
+                byId.put(loaded.get().getId(), new Medicine(loaded.get()));
+                byName.put(key, loaded.get().getId());
+            } else {
+                byName.put(key, ABSENT);
+            }
+        }
+        return loaded;
+    }
+
+    // Invalidation
+
+    public void evict(Long id) {
+        stamps.incrementAndGet(stripe(id));
+        generation.incrementAndGet();
+        byId.invalidate(id);
+        invalidations.increment();
+    }
+
+    // Published under the ledger's fold lock, so readers never see the new stored stock with the old pending delta
+    private void foldStock(Long id, int delta) {
+        // Loads that read the row before the fold must not populate it afterwards
+        stamps.incrementAndGet(stripe(id));
+        generation.incrementAndGet();
+        byId.asMap().computeIfPresent(id, (key, cached) -> {
+            Medicine folded = new Medicine(cached);
+            folded.setStockQuantity(cached.getStockQuantity() + delta);
+            return folded;
+        });
+    }
+
+    public void evictName(String name) {
+        generation.incrementAndGet();
+        byName.invalidate(normalize(name));
+    }
+
+    public void clear() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        generation.incrementAndGet();
+        byId.invalidateAll();
+        byName.invalidateAll();
+        invalidations.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMedicineChanged(MedicineChangedEvent event) {
+        if (event.getType() == MedicineChangedEvent.Type.STOCK_CHANGED) {
+            // Cached rows hold stored stock and readers add the pending delta, so the best sellers stay cached
+            return;
+        }
+        if (event.getType() == MedicineChangedEvent.Type.STOCK_FOLDED) {
+            event.getFoldedDeltas().forEach(this::foldStock);
+            return;
+        }
+        event.getMedicineIds().forEach(this::evict);
+        if (event.getMedicine() != null) {
+            // Drops a negative entry for a newly created or renamed medicine
+            evictName(event.getMedicine().getName());
+        }
+        if (event.getType() == MedicineChangedEvent.Type.BULK_CHANGED) {
+            // Bulk writes may create names that are cached as absent
+            byName.asMap().values().removeIf(ABSENT::equals);
+        }
+    }
+
+    // Statistics
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("idHits", idHits.sum());
+        statistics.put("idMisses", idMisses.sum());
+        statistics.put("idHitRate", hitRate(idHits.sum(), idMisses.sum()));
+        statistics.put("nameHits", nameHits.sum());
+        statistics.put("nameMisses", nameMisses.sum());
+        statistics.put("nameHitRate", hitRate(nameHits.sum(), nameMisses.sum()));
+        statistics.put("invalidations", invalidations.sum());
+        statistics.put("cachedMedicines", byId.estimatedSize());
+        statistics.put("cachedNames", byName.estimatedSize());
+        return statistics;
+    }
+
+    private void putIfUnchanged(Medicine medicine, long stamp) {
+        if (stamps.get(stripe(medicine.getId())) == stamp) {
+            byId.put(medicine.getId(), new Medicine(medicine));
+        }
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private static int stripe(Long key) {
+        return Math.floorMod(key.hashCode(), STAMP_STRIPES);
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,202 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.repository.MedicineStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps an ExpiryWheel of the catalogue in step with MedicineChangedEvent and
+ * turns it at midnight, so expiry checks and the expired / expiring-soon
+ * alerts never run a date-range query. A read that finds the day has changed
+ * before the scheduled rollover ran turns the wheel itself. The wheel is
+ * built from the table on startup and rebuilt periodically to correct drift
+ * from writes that bypass the services.
+ */
+@Component
+public class MedicineExpiryIndex extends RebuildableIndex<ExpiryWheel> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicineExpiryIndex.class);
+
+    @Autowired
+    private MedicineStockRepository medicineStockRepository;
+
+    private final int horizonDays;
+    private final int alertDays;
+
+    private volatile long nextRolloverMillis;
+
+    private final LongAdder rollovers = new LongAdder();
+    private final LongAdder rolledOverMedicines = new LongAdder();
+    private final LongAdder rolloverMicros = new LongAdder();
+    private volatile long lastRolloverMicros;
+
+    public MedicineExpiryIndex(@Value("${pharmacy.expiry.horizon-days:366}") int horizonDays,
+                               @Value("${pharmacy.expiry.alert-days:30}") int alertDays) {
+        super(new ExpiryWheel(LocalDate.now(), horizonDays, alertDays));
+        this.horizonDays = horizonDays;
+        this.alertDays = alertDays;
+        this.nextRolloverMillis = startOfDayMillis(current().getToday().plusDays(1));
+    }
+
+    // Reads
+
+    // The current day without asking the clock for a date: one time comparison until midnight passes
+    public LocalDate today() {
+        if (System.currentTimeMillis() >= nextRolloverMillis) {
+            rollOver();
+        }
+        return current().getToday();
+    }
+
+    public boolean isExpired(LocalDate expiryDate) {
+        return expiryDate.isBefore(today());
+    }
+
+    // Answered from the wheel's expired set, so the sale path does no date work at all
+    public boolean isExpired(Long medicineId) {
+        today();
+        return current().expiredIds().contains(medicineId);
+    }
+
+    public Set<Long> getExpiredIds() {
+        today();
+        return current().expiredIds();
+    }
+
+    // The one expired count: the dashboard and the analytics both read it from here
+    public int getExpiredCount() {
+        today();
+        return current().expiredIds().size();
+    }
+
+    // Expiring today through today + getAlertDays()
+    public Set<Long> getExpiringSoonIds() {
+        today();
+        return current().expiringSoonIds();
+    }
+
+    public Set<Long> getExpiringWithin(int days) {
+        today();
+        return current().expiringWithin(days);
+    }
+
+    public int getAlertDays() {
+        return alertDays;
+    }
+
+    // Maintenance
+
+    @Override
+    protected ExpiryWheel create() {
+        return new ExpiryWheel(today(), horizonDays, alertDays);
+    }
+
+    @Override
+    protected void loadAll(ExpiryWheel target) {
+        medicineStockRepository.forEachStockLevel((id, price, stock, expiry) -> target.put(id, expiry));
+    }
+
+    @Override
+    protected Set<Long> load(List<Long> medicineIds, ExpiryWheel target) {
+        Set<Long> found = new HashSet<>();
+        medicineStockRepository.forEachStockLevel(medicineIds, (id, price, stock, expiry) -> {
+            found.add(id);
+            target.put(id, expiry);
+        });
+        return found;
+    }
+
+    @Override
+    protected void apply(ExpiryWheel target, MedicineChangedEvent event) {
+        // Stock does not move expiry, so only a save changes anything
+        if (event.getType() == MedicineChangedEvent.Type.SAVED) {
+            target.put(event.getMedicineId(), event.getMedicine().getExpiryDate());
+        }
+    }
+
+    @Override
+    protected void remove(ExpiryWheel target, Long medicineId) {
+        target.remove(medicineId);
+    }
+
+    @Override
+    protected void beforeSwap(ExpiryWheel fresh, ExpiryWheel previous) {
+        // A rollover may have run during the scan
+        fresh.advanceTo(previous.getToday());
+    }
+
+    @Override
+    protected void rebuilt(ExpiryWheel fresh, long millis) {
+        logger.info("Expiry index built: {} medicines, {} expired, {} expire within {} days in {} ms",
+                fresh.size(), fresh.expiredIds().size(), fresh.expiringSoonIds().size(), alertDays, millis);
+    }
+
+    // Rollover
+
+    @Scheduled(cron = "${pharmacy.expiry.rollover-cron:0 0 0 * * *}")
+    public void rollOver() {
+        LocalDate today = LocalDate.now();
+        synchronized (swapLock()) {
+            nextRolloverMillis = startOfDayMillis(today.plusDays(1));
+            ExpiryWheel current = current();
+            if (!today.isAfter(current.getToday())) {
+                return;
+            }
+            long start = System.nanoTime();
+            int moved = current.advanceTo(today);
+            long micros = (System.nanoTime() - start) / 1_000;
+
+            rollovers.increment();
+            rolledOverMedicines.add(moved);
+            rolloverMicros.add(micros);
+            lastRolloverMicros = micros;
+            logger.info("Expiry rollover to {}: {} medicines expired, {} expire within {} days ({} medicines " +
+                    "moved in {} us)", today, current.expiredIds().size(), current.expiringSoonIds().size(),
+                    alertDays, moved, micros);
+        }
+    }
+
+    // Reconciliation
+
+    @Scheduled(initialDelayString = "${pharmacy.expiry.reconcile-interval:PT1H}",
+               fixedDelayString = "${pharmacy.expiry.reconcile-interval:PT1H}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    public Map<String, Object> getStatistics() {
+        ExpiryWheel current = current();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("today", current.getToday());
+        statistics.put("trackedMedicines", current.size());
+        statistics.put("expiredMedicines", current.expiredIds().size());
+        statistics.put("expiringSoonMedicines", current.expiringSoonIds().size());
+        statistics.put("beyondHorizonMedicines", current.beyondHorizonSize());
+        statistics.put("alertDays", alertDays);
+        statistics.put("horizonDays", horizonDays);
+        statistics.put("rollovers", rollovers.sum());
+        statistics.put("rolledOverMedicines", rolledOverMedicines.sum());
+        statistics.put("rolloverMicros", rolloverMicros.sum());
+        statistics.put("lastRolloverMicros", lastRolloverMicros);
+        statistics.put("rebuilding", isRebuilding());
+        return statistics;
+    }
+
+    private static long startOfDayMillis(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,124 @@
+package com.pharmacy.store.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalogue row by row from a database cursor. Each entity is
+ * detached once written, so heap use stays flat regardless of catalogue size.
+ */
+@Service
+public class MedicineExportService {
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private static final String CSV_HEADER =
+            "id,name,description,manufacturer,price,stockQuantity,expiryDate,category,prescriptionRequired,batchNumber";
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        // One JSON document per line; flushing is left to the loop rather than done per row
+        ObjectWriter rowWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long rows = 0;
+        try (Stream<Medicine> medicines = medicineRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Medicine> iterator = medicines.iterator();
+            while (iterator.hasNext()) {
+                Medicine medicine = iterator.next();
+                rowWriter.writeValue(generator, medicine);
+                generator.writeRaw('\n');
+                entityManager.detach(medicine);
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.flush();
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = 0;
+        try (Stream<Medicine> medicines = medicineRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Medicine> iterator = medicines.iterator();
+            while (iterator.hasNext()) {
+                Medicine medicine = iterator.next();
+                writeCsvRow(writer, medicine);
+                entityManager.detach(medicine);
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, Medicine medicine) throws IOException {
+        writer.write(String.valueOf(medicine.getId()));
+        writer.write(',');
+        writer.write(csv(medicine.getName()));
+        writer.write(',');
+        writer.write(csv(medicine.getDescription()));
+        writer.write(',');
+        writer.write(csv(medicine.getManufacturer()));
+        writer.write(',');
+        writer.write(medicine.getPrice().toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(medicine.getStockQuantity()));
+        writer.write(',');
+        writer.write(String.valueOf(medicine.getExpiryDate()));
+        writer.write(',');
+        writer.write(csv(medicine.getCategory()));
+        writer.write(',');
+        writer.write(String.valueOf(Boolean.TRUE.equals(medicine.getPrescriptionRequired())));
+        writer.write(',');
+        writer.write(csv(medicine.getBatchNumber()));
+        writer.write('\n');
+    }
+
+    // RFC 4180 quoting: only fields containing a delimiter, quote or line break are wrapped
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
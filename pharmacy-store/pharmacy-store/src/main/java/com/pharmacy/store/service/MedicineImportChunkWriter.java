@@ -0,0 +1,89 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Writes one import chunk in its own transaction, so a large feed commits as
+ * it goes and a failed chunk rolls back alone. Stock of updated rows is not
+ * written here; the caller records it through the stock ledger once the
+ * chunk has committed.
+ */
+@Service
+public class MedicineImportChunkWriter {
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Chunk rows are keyed by lower-cased name and already de-duplicated
+    @Transactional
+    public Written write(Map<String, Medicine> rowsByNormalizedName) {
+        Map<String, Long> existingIds = medicineBulkRepository.findIdsByNormalizedNames(rowsByNormalizedName.keySet());
+
+        List<Medicine> inserts = new ArrayList<>();
+        List<Medicine> updates = new ArrayList<>();
+        rowsByNormalizedName.forEach((normalizedName, medicine) -> {
+            Long existingId = existingIds.get(normalizedName);
+            if (existingId == null) {
+                inserts.add(medicine);
+            } else {
+                medicine.setId(existingId);
+                updates.add(medicine);
+            }
+        });
+
+        List<Long> changedIds = new ArrayList<>(rowsByNormalizedName.size());
+        SortedMap<Long, Integer> updatedStock = new TreeMap<>();
+        if (!inserts.isEmpty()) {
+            changedIds.addAll(medicineBulkRepository.insertBatch(inserts));
+        }
+        if (!updates.isEmpty()) {
+            medicineBulkRepository.updateBatch(updates);
+            updates.forEach(medicine -> {
+                changedIds.add(medicine.getId());
+                updatedStock.put(medicine.getId(), medicine.getStockQuantity());
+            });
+        }
+        eventPublisher.publishEvent(MedicineChangedEvent.bulkChanged(changedIds));
+        return new Written(inserts.size(), updates.size(), updatedStock);
+    }
+
+    public static final class Written {
+        private final int inserted;
+        private final int updated;
+        private final SortedMap<Long, Integer> updatedStock;
+
+        Written(int inserted, int updated, SortedMap<Long, Integer> updatedStock) {
+            this.inserted = inserted;
+            this.updated = updated;
+            this.updatedStock = updatedStock;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        // Imported stock of the updated rows by id, still to be recorded as ledger adjustments
+        public SortedMap<Long, Integer> getUpdatedStock() {
+            return updatedStock;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.ImportReport;
+import com.pharmacy.store.model.Medicine;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk import of supplier CSV feeds. The file is parsed as a stream and
+ * upserted in chunks keyed on the case-insensitive medicine name; each chunk
+ * costs one duplicate-check query plus one insert batch and one update batch.
+ * Updated rows' stock is then set through the stock ledger like any other
+ * stock change.
+ */
+@Service
+public class MedicineImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicineImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // performedBy on the stock adjustments an import records
+    private static final String IMPORT_PERFORMED_BY = "csv-import";
+
+    private static final Set<String> REQUIRED_COLUMNS =
+            Set.of("name", "manufacturer", "price", "stockquantity", "expirydate");
+
+    @Autowired
+    private MedicineImportChunkWriter chunkWriter;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${pharmacy.import.chunk-size:1000}")
+    private int chunkSize;
+
+    private final AtomicReference<ImportReport> lastImport = new AtomicReference<>();
+
+    // Progress of the running import, or the outcome of the last one
+    public ImportReport getLastImport() {
+        return lastImport.get();
+    }
+
+    public ImportReport importCsv(InputStream in) throws IOException {
+        Progress progress = new Progress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        CsvRecordReader records = new CsvRecordReader(reader);
+
+        List<String> header = records.next();
+        if (header == null) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        Map<String, Integer> columns = columnIndex(header);
+
+        Map<String, Medicine> chunk = new LinkedHashMap<>();
+        List<String> row;
+        try {
+            while ((row = records.next()) != null) {
+                if (row.size() == 1 && row.get(0).isBlank()) {
+                    continue;
+                }
+                progress.rowsRead++;
+                Medicine medicine = parseRow(row, columns, records.getRecordNumber(), progress);
+                if (medicine == null) {
+                    continue;
+                }
+                // A later line for the same medicine in one chunk supersedes the earlier one
+                chunk.put(medicine.getName().trim().toLowerCase(Locale.ROOT), medicine);
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, progress);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, progress);
+            }
+        } catch (IOException | RuntimeException e) {
+            progress.error("Import aborted: " + e.getMessage());
+            lastImport.set(progress.snapshot(ImportReport.State.FAILED));
+            throw e;
+        }
+
+        ImportReport report = progress.snapshot(ImportReport.State.COMPLETED);
+        lastImport.set(report);
+        logger.info("Import completed: {} rows read, {} inserted, {} updated, {} rejected, {} rows/sec",
+                report.getRowsRead(), report.getInserted(), report.getUpdated(), report.getRejected(),
+                Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private void writeChunk(Map<String, Medicine> chunk, Progress progress) {
+        try {
+            MedicineImportChunkWriter.Written written = chunkWriter.write(chunk);
+            progress.inserted += written.getInserted();
+            progress.updated += written.getUpdated();
+            progress.chunksCommitted++;
+            // Recorded after the commit, so movements not yet folded count towards the imported level
+            // instead of landing on top of it
+            if (!written.getUpdatedStock().isEmpty()) {
+                stockLedger.adjustAllTo(written.getUpdatedStock(), IMPORT_PERFORMED_BY, null);
+            }
+        } catch (DataAccessException e) {
+            // The chunk rolled back on its own; keep going with the rest of the feed
+            progress.rejected += chunk.size();
+            progress.error("Chunk " + (progress.chunksCommitted + 1) + " rolled back: " + e.getMostSpecificCause().getMessage());
+        }
+        chunk.clear();
+
+        ImportReport snapshot = progress.snapshot(ImportReport.State.RUNNING);
+        lastImport.set(snapshot);
+        logger.debug("Import progress: {} rows read, {} rows/sec", snapshot.getRowsRead(),
+                Math.round(snapshot.getRowsPerSecond()));
+    }
+
+    private Medicine parseRow(List<String> row, Map<String, Integer> columns, long recordNumber, Progress progress) {
+        Medicine medicine = new Medicine();
+        try {
+            medicine.setName(column(row, columns, "name"));
+            medicine.setManufacturer(column(row, columns, "manufacturer"));
+            medicine.setDescription(column(row, columns, "description"));
+            medicine.setCategory(column(row, columns, "category"));
+            medicine.setBatchNumber(column(row, columns, "batchnumber"));
+            medicine.setPrice(new BigDecimal(column(row, columns, "price")));
+            medicine.setStockQuantity(Integer.valueOf(column(row, columns, "stockquantity")));
+            medicine.setExpiryDate(LocalDate.parse(column(row, columns, "expirydate")));
+            medicine.setPrescriptionRequired(Boolean.parseBoolean(column(row, columns, "prescriptionrequired")));
+        } catch (RuntimeException e) {
+            progress.rejected++;
+            progress.error("Record " + recordNumber + ": could not parse value (" + e.getMessage() + ")");
+            return null;
+        }
+
+        // Same bean validation rules the entity enforces on save
+        Set<ConstraintViolation<Medicine>> violations = validator.validate(medicine);
+        if (!violations.isEmpty()) {
+            progress.rejected++;
+            progress.error("Record " + recordNumber + ": " + violations.iterator().next().getMessage());
+            return null;
+        }
+        return medicine;
+    }
+
+    private static Map<String, Integer> columnIndex(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Import file is missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static String column(List<String> row, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= row.size()) {
+            return null;
+        }
+        String value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static final class Progress {
+        private final long startNanos = System.nanoTime();
+        private final List<String> errors = new ArrayList<>();
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long rejected;
+        private int chunksCommitted;
+
+        void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        ImportReport snapshot(ImportReport.State state) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            return new ImportReport(state, rowsRead, inserted, updated, rejected, chunksCommitted, elapsedMillis, errors);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.repository.MedicineStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a LowStockSet of the catalogue in step with MedicineChangedEvent, so
+ * every sale, restock and adjustment moves a medicine in or out of the
+ * low-stock set as it happens and low-stock reads never scan the table.
+ * Stock is the stored quantity plus the ledger's pending delta. The set is
+ * built from the table on startup and rebuilt periodically to correct drift
+ * from writes that bypass the services.
+ */
+@Component
+public class MedicineLowStockIndex extends RebuildableIndex<LowStockSet> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicineLowStockIndex.class);
+
+    @Autowired
+    private MedicineStockRepository medicineStockRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    private final int defaultReorderPoint;
+
+    public MedicineLowStockIndex(@Value("${pharmacy.stock.default-reorder-point:10}") int defaultReorderPoint) {
+        super(new LowStockSet(defaultReorderPoint));
+        this.defaultReorderPoint = defaultReorderPoint;
+    }
+
+    // Reads
+
+    public int getDefaultReorderPoint() {
+        return defaultReorderPoint;
+    }
+
+    public Set<Long> getLowStockIds() {
+        return current().lowStockIds();
+    }
+
+    public int getLowStockCount() {
+        return current().lowStockIds().size();
+    }
+
+    public List<LowStockSet.Level> getLowStockLevels() {
+        return current().lowStockLevels();
+    }
+
+    // Lowest stock first
+    public List<Long> getIdsBelow(int threshold) {
+        return current().idsBelow(threshold);
+    }
+
+    public int countBelow(int threshold) {
+        return current().countBelow(threshold);
+    }
+
+    // Maintenance
+
+    @Override
+    protected LowStockSet create() {
+        return new LowStockSet(defaultReorderPoint);
+    }
+
+    @Override
+    protected void loadAll(LowStockSet target) {
+        // Rows folded while the scan runs are marked touched and reloaded after it
+        medicineStockRepository.forEachReorderLevel((id, stock, reorderPoint, reorderQuantity) ->
+                target.put(id, stock + stockLedger.getPendingDelta(id), reorderPoint, reorderQuantity));
+    }
+
+    @Override
+    protected Set<Long> load(List<Long> medicineIds, LowStockSet target) {
+        Set<Long> found = new HashSet<>();
+        stockLedger.readConsistent(() -> {
+            medicineStockRepository.forEachReorderLevel(medicineIds, (id, stock, reorderPoint, reorderQuantity) -> {
+                found.add(id);
+                target.put(id, stock + stockLedger.getPendingDelta(id), reorderPoint, reorderQuantity);
+            });
+            return null;
+        });
+        return found;
+    }
+
+    @Override
+    protected void apply(LowStockSet target, MedicineChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED -> target.put(event.getMedicineId(), stockOf(event), event.getMedicine().getReorderPoint(),
+                    event.getMedicine().getReorderQuantity());
+            case STOCK_CHANGED -> {
+                // A row created behind our back is picked up by the next rebuild
+                target.adjust(event.getMedicineId(), event.getStockDelta());
+            }
+            default -> {
+                // Levels already hold stored plus pending stock
+            }
+        }
+    }
+
+    @Override
+    protected void remove(LowStockSet target, Long medicineId) {
+        target.remove(medicineId);
+    }
+
+    @Override
+    protected void rebuilt(LowStockSet fresh, long millis) {
+        logger.info("Low-stock index built: {} medicines, {} below their reorder point in {} ms",
+                fresh.size(), fresh.lowStockIds().size(), millis);
+    }
+
+    // Reconciliation
+
+    @Scheduled(initialDelayString = "${pharmacy.stock.low-stock.reconcile-interval:PT15M}",
+               fixedDelayString = "${pharmacy.stock.low-stock.reconcile-interval:PT15M}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    public Map<String, Object> getStatistics() {
+        LowStockSet current = current();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("trackedMedicines", current.size());
+        statistics.put("lowStockMedicines", current.lowStockIds().size());
+        statistics.put("defaultReorderPoint", defaultReorderPoint);
+        statistics.put("rebuilding", isRebuilding());
+        return statistics;
+    }
+
+    private static int stockOf(MedicineChangedEvent event) {
+        Integer stock = event.getMedicine().getStockQuantity();
+        return stock == null ? 0 : stock;
+    }
+}
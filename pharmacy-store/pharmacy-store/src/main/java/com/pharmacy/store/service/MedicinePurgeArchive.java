@@ -0,0 +1,61 @@
+package com.pharmacy.store.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pharmacy.store.model.Medicine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append-only NDJSON file of purged medicines, one row per line in the export
+ * format. A chunk is written and forced to disk before its rows are deleted,
+ * so no purged row is lost; a chunk whose delete rolls back is archived again
+ * when it is retried, so readers should keep the last line per id.
+ */
+public class MedicinePurgeArchive implements Closeable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ObjectWriter rowWriter;
+
+    public MedicinePurgeArchive(Path file, ObjectMapper objectMapper) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.rowWriter = objectMapper.writer();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void append(List<Medicine> medicines) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(medicines.size() * 256);
+        for (Medicine medicine : medicines) {
+            lines.write(rowWriter.writeValueAsBytes(medicine));
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Deletes one purge chunk in its own transaction, so a long purge holds row
+ * locks for one chunk at a time and commits as it goes.
+ */
+@Service
+public class MedicinePurgeChunkWriter {
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Returns the ids deleted; empty once nothing before the cutoff is left. A null archive skips archiving.
+    @Transactional(rollbackFor = IOException.class)
+    public List<Long> purge(LocalDate cutoff, int limit, MedicinePurgeArchive archive) throws IOException {
+        List<Long> ids;
+        if (archive == null) {
+            ids = medicineBulkRepository.lockExpiredIds(cutoff, limit);
+        } else {
+            List<Medicine> expired = medicineBulkRepository.lockExpired(cutoff, limit);
+            archive.append(expired);
+            ids = expired.stream().map(Medicine::getId).toList();
+        }
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        medicineBulkRepository.deleteByIds(ids);
+        eventPublisher.publishEvent(MedicineChangedEvent.bulkChanged(ids));
+        return ids;
+    }
+}
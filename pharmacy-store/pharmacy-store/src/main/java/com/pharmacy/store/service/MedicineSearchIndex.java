@@ -0,0 +1,88 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a TrigramIndex of the catalogue in step with MedicineChangedEvent so
+ * counter-side name search never scans the medicines table. The index is
+ * built from the table on startup and can be rebuilt on demand.
+ */
+@Component
+public class MedicineSearchIndex extends RebuildableIndex<TrigramIndex> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicineSearchIndex.class);
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    public MedicineSearchIndex() {
+        super(new TrigramIndex());
+    }
+
+    public List<TrigramIndex.Hit> search(String query, int limit) {
+        return current().search(query, limit);
+    }
+
+    // Maintenance
+
+    @Override
+    protected TrigramIndex create() {
+        return new TrigramIndex();
+    }
+
+    @Override
+    protected void loadAll(TrigramIndex target) {
+        medicineBulkRepository.forEachSearchDocument(target::put);
+    }
+
+    @Override
+    protected Set<Long> load(List<Long> medicineIds, TrigramIndex target) {
+        Set<Long> found = new HashSet<>();
+        medicineBulkRepository.forEachSearchDocument(medicineIds, (id, name, manufacturer, description) -> {
+            found.add(id);
+            target.put(id, name, manufacturer, description);
+        });
+        return found;
+    }
+
+    @Override
+    protected void apply(TrigramIndex target, MedicineChangedEvent event) {
+        // Stock is not indexed, so only a save changes anything
+        if (event.getType() == MedicineChangedEvent.Type.SAVED) {
+            Medicine medicine = event.getMedicine();
+            target.put(medicine.getId(), medicine.getName(), medicine.getManufacturer(), medicine.getDescription());
+        }
+    }
+
+    @Override
+    protected void remove(TrigramIndex target, Long medicineId) {
+        target.remove(medicineId);
+    }
+
+    @Override
+    protected void rebuilt(TrigramIndex fresh, long millis) {
+        logger.info("Search index built: {} medicines, {} postings in {} ms",
+                fresh.size(), fresh.postingCount(), millis);
+    }
+
+    public Map<String, Object> getStatistics() {
+        TrigramIndex current = current();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("indexedMedicines", current.size());
+        statistics.put("postings", current.postingCount());
+        statistics.put("rebuilding", isRebuilding());
+        return statistics;
+    }
+}
@@ -1,17 +1,36 @@
 package com.pharmacy.store.service;
 
+import com.pharmacy.store.dto.KeysetSlice;
+import com.pharmacy.store.dto.MedicineSearchCriteria;
+import com.pharmacy.store.dto.PurgeReport;
+import com.pharmacy.store.dto.ReorderSuggestion;
+import com.pharmacy.store.event.MedicineChangedEvent;
 import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.model.StockMovement;
 import com.pharmacy.store.repository.MedicineRepository;
+import com.pharmacy.store.repository.MedicineSortKey;
+import com.pharmacy.store.repository.MedicineSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -20,53 +39,135 @@ public class MedicineService {
     @Autowired
     private MedicineRepository medicineRepository;
     
+    @Autowired
+    private MedicineCatalogueCache catalogueCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MedicineSearchIndex searchIndex;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private MedicineExpiryIndex expiryIndex;
+
+    @Autowired
+    private ExpiredMedicinePurgeService expiredMedicinePurgeService;
+
+    @Autowired
+    private MedicineLowStockIndex lowStockIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
     // Basic CRUD Operations
     
     public Medicine saveMedicine(Medicine medicine) {
         validateMedicine(medicine);
-        return medicineRepository.save(medicine);
+        Medicine savedMedicine = medicineRepository.save(medicine);
+        eventPublisher.publishEvent(MedicineChangedEvent.saved(savedMedicine));
+        return savedMedicine;
     }
     
+    // The fields commit before the stock edit is recorded: a ledger movement cannot be rolled back, so it
+    // must never outlive a rejected or rolled-back edit, and a failed adjustment leaves the fields standing
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Medicine updateMedicine(Long id, Medicine updatedMedicine) {
-        Medicine existingMedicine = getMedicineById(id);
-        
-        // Update fields
-        existingMedicine.setName(updatedMedicine.getName());
-        existingMedicine.setDescription(updatedMedicine.getDescription());
-        existingMedicine.setManufacturer(updatedMedicine.getManufacturer());
-        existingMedicine.setPrice(updatedMedicine.getPrice());
-        existingMedicine.setStockQuantity(updatedMedicine.getStockQuantity());
-        existingMedicine.setExpiryDate(updatedMedicine.getExpiryDate());
-        existingMedicine.setCategory(updatedMedicine.getCategory());
-        existingMedicine.setPrescriptionRequired(updatedMedicine.getPrescriptionRequired());
-        existingMedicine.setBatchNumber(updatedMedicine.getBatchNumber());
-        
-        validateMedicine(existingMedicine);
-        return medicineRepository.save(existingMedicine);
+        Medicine savedMedicine = new TransactionTemplate(transactionManager).execute(status -> {
+            Medicine existingMedicine = loadMedicine(id);
+
+            // Update fields
+            existingMedicine.setName(updatedMedicine.getName());
+            existingMedicine.setDescription(updatedMedicine.getDescription());
+            existingMedicine.setManufacturer(updatedMedicine.getManufacturer());
+            existingMedicine.setPrice(updatedMedicine.getPrice());
+            existingMedicine.setStockQuantity(updatedMedicine.getStockQuantity());
+            existingMedicine.setExpiryDate(updatedMedicine.getExpiryDate());
+            existingMedicine.setCategory(updatedMedicine.getCategory());
+            existingMedicine.setPrescriptionRequired(updatedMedicine.getPrescriptionRequired());
+            existingMedicine.setBatchNumber(updatedMedicine.getBatchNumber());
+            existingMedicine.setReorderPoint(updatedMedicine.getReorderPoint());
+            existingMedicine.setReorderQuantity(updatedMedicine.getReorderQuantity());
+
+            validateMedicine(existingMedicine);
+            return medicineRepository.save(existingMedicine);
+        });
+        // The stock column is not rewritten by the save; the edit becomes a ledger adjustment instead
+        try {
+            stockLedger.adjustTo(id, updatedMedicine.getStockQuantity(), null, null)
+                    .ifPresent(savedMedicine::setStockQuantity);
+        } catch (StockNotYetDurableException e) {
+            // The adjustment stands and will still be written; the whole edit applied
+            Optional.ofNullable(e.getStock(id)).ifPresent(savedMedicine::setStockQuantity);
+            eventPublisher.publishEvent(MedicineChangedEvent.saved(savedMedicine));
+            throw e;
+        } catch (RuntimeException e) {
+            // The committed fields still reach the listeners, which reload the row with whatever stock stands
+            eventPublisher.publishEvent(MedicineChangedEvent.bulkChanged(List.of(id)));
+            throw new StockAdjustmentFailedException(getMedicineById(id), e);
+        }
+        eventPublisher.publishEvent(MedicineChangedEvent.saved(savedMedicine));
+        return savedMedicine;
     }
     
     public Medicine getMedicineById(Long id) {
-        return medicineRepository.findById(id)
+        return stockLedger.readConsistent(() ->
+                        catalogueCache.findById(id, medicineRepository::findById).map(this::withPendingStock))
                 .orElseThrow(() -> new RuntimeException("Medicine not found with id: " + id));
     }
     
     public List<Medicine> getAllMedicines() {
-        return medicineRepository.findAll();
+        return withPendingStock(medicineRepository.findAll());
     }
     
     public Page<Medicine> getAllMedicines(Pageable pageable) {
-        return medicineRepository.findAll(pageable);
+        return medicineRepository.findAll(pageable)
+                .map(shownStock(pageable.getSort().getOrderFor(MedicineSortKey.STOCK_QUANTITY.getProperty()) != null));
+    }
+    
+    // Cursor-based paging: cost stays flat with depth because no OFFSET or COUNT is issued
+    public KeysetSlice<Medicine> getMedicinesAfter(String cursor, int size, String sortBy, String sortDir) {
+        MedicineSortKey sortKey;
+        boolean descending;
+        Object lastSortValue = null;
+        Long lastId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            // The cursor carries its own sort so a scroll cannot switch ordering halfway through
+            KeysetCursor decoded = KeysetCursor.decode(cursor);
+            sortKey = decoded.getSortKey();
+            descending = decoded.isDescending();
+            lastSortValue = decoded.getLastSortValue();
+            lastId = decoded.getLastId();
+        } else {
+            sortKey = MedicineSortKey.fromProperty(sortBy);
+            descending = sortDir.equalsIgnoreCase("desc");
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        List<Medicine> rows = medicineRepository.findKeysetPage(sortKey, descending, lastSortValue, lastId, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Medicine> page = hasNext ? rows.subList(0, size) : rows;
+        // The database seeks on the stored row, so the cursor is taken from it rather than from the shown copy
+        String nextCursor = hasNext
+                ? KeysetCursor.encode(sortKey, descending, page.get(page.size() - 1))
+                : null;
+        List<Medicine> content = page.stream().map(shownStock(sortKey == MedicineSortKey.STOCK_QUANTITY)).toList();
+        return new KeysetSlice<>(content, hasNext, nextCursor);
     }
     
     public void deleteMedicine(Long id) {
-        Medicine medicine = getMedicineById(id);
+        Medicine medicine = loadMedicine(id);
         medicineRepository.delete(medicine);
+        eventPublisher.publishEvent(MedicineChangedEvent.deleted(medicine));
     }
     
     // Search Operations
     
     public Optional<Medicine> findMedicineByName(String name) {
-        return medicineRepository.findByNameIgnoreCase(name);
+        return catalogueCache.findByName(name, medicineRepository::findByNameIgnoreCase);
     }
     
     public List<Medicine> findMedicinesByManufacturer(String manufacturer) {
@@ -93,52 +194,114 @@ public class MedicineService {
         return medicineRepository.findByPrescriptionRequiredFalse();
     }
     
-    // Advanced Search
-    public List<Medicine> searchMedicines(String name, String manufacturer, String category, 
-                                        BigDecimal minPrice, BigDecimal maxPrice, 
-                                        Boolean prescriptionRequired) {
-        return medicineRepository.findMedicinesByCriteria(
-                name, manufacturer, category, minPrice, maxPrice, prescriptionRequired);
+    // Ranked, typo-tolerant search over name, manufacturer and description (served by the in-memory index)
+    public List<Medicine> searchMedicinesRanked(String query, int limit) {
+        List<Long> ids = searchIndex.search(query, limit).stream()
+                .map(TrigramIndex.Hit::getMedicineId)
+                .toList();
+        Map<Long, Medicine> medicines = medicineRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Medicine::getId, Function.identity()));
+        return ids.stream()
+                .map(medicines::get)
+                .filter(Objects::nonNull)
+                .map(this::withPendingStock)
+                .toList();
+    }
+    
+    // Advanced Search (only the filters actually supplied become predicates)
+    public Page<Medicine> searchMedicines(MedicineSearchCriteria criteria, int page, int size,
+                                          String sortBy, String sortDir) {
+        MedicineSortKey sortKey = MedicineSortKey.fromProperty(sortBy);
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // Id breaks ties so pages never overlap or skip rows
+        Sort sort = Sort.by(direction, sortKey.getProperty()).and(Sort.by(direction, "id"));
+        return medicineRepository.findAll(MedicineSpecifications.matching(criteria),
+                        PageRequest.of(Math.max(page, 0), size, sort))
+                .map(shownStock(sortKey == MedicineSortKey.STOCK_QUANTITY));
     }
     
-    // Stock Management
+    // Stock Management (recorded through the stock ledger; no transaction is held open while a
+    // durable movement waits for its batch)
     
+    // Medicines below their own reorder point, lowest stock first; ids come from the low-stock index
+    public List<Medicine> getLowStockMedicines() {
+        return lowStockFirst(medicineRepository.findAllById(List.copyOf(lowStockIndex.getLowStockIds())));
+    }
+    
+    // Medicines below a fixed threshold regardless of their reorder points
     public List<Medicine> getLowStockMedicines(int threshold) {
-        return medicineRepository.findByStockQuantityLessThan(threshold);
+        return lowStockFirst(medicineRepository.findAllById(lowStockIndex.getIdsBelow(threshold)));
+    }
+    
+    // Largest shortfall first; only the low-stock rows themselves are read
+    public List<ReorderSuggestion> getReorderSuggestions() {
+        Map<Long, LowStockSet.Level> levels = lowStockIndex.getLowStockLevels().stream()
+                .collect(Collectors.toMap(LowStockSet.Level::getMedicineId, Function.identity()));
+        return medicineRepository.findAllById(List.copyOf(levels.keySet())).stream()
+                .map(medicine -> {
+                    LowStockSet.Level level = levels.get(medicine.getId());
+                    return new ReorderSuggestion(medicine.getId(), medicine.getName(), medicine.getManufacturer(),
+                            level.getStockQuantity(), level.getReorderPoint(), level.getSuggestedQuantity());
+                })
+                .sorted(Comparator.comparingInt((ReorderSuggestion s) -> s.getStockQuantity() - s.getReorderPoint())
+                        .thenComparing(ReorderSuggestion::getMedicineId))
+                .toList();
     }
     
+    public Medicine updateReorderPoint(Long id, Integer reorderPoint, Integer reorderQuantity) {
+        if (reorderPoint != null && reorderPoint < 0) {
+            throw new IllegalArgumentException("Reorder point cannot be negative");
+        }
+        if (reorderQuantity != null && reorderQuantity < 1) {
+            throw new IllegalArgumentException("Reorder quantity must be at least 1");
+        }
+        Medicine medicine = loadMedicine(id);
+        medicine.setReorderPoint(reorderPoint);
+        medicine.setReorderQuantity(reorderQuantity);
+        Medicine savedMedicine = withPendingStock(medicineRepository.save(medicine));
+        eventPublisher.publishEvent(MedicineChangedEvent.saved(savedMedicine));
+        return savedMedicine;
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Medicine updateStock(Long medicineId, int quantity) {
-        Medicine medicine = getMedicineById(medicineId);
-        medicine.updateStock(quantity);
-        return medicineRepository.save(medicine);
+        return updateStock(medicineId, quantity, null, null);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Medicine updateStock(Long medicineId, int quantity, String performedBy, StockLedger.Durability durability) {
+        return recordStockMovement(medicineId, quantity, StockMovement.Reason.ADJUSTMENT, performedBy, durability);
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Medicine reduceStock(Long medicineId, int quantity) {
-        return updateStock(medicineId, -quantity);
+        return recordStockMovement(medicineId, -quantity, StockMovement.Reason.ADJUSTMENT, null, null);
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Medicine increaseStock(Long medicineId, int quantity) {
-        return updateStock(medicineId, quantity);
+        return recordStockMovement(medicineId, quantity, StockMovement.Reason.RESTOCK, null, null);
     }
     
-    // Expiry Management
+    // Expiry Management (ids come from the expiry index; only the rows themselves are read)
     
     public List<Medicine> getExpiredMedicines() {
-        return medicineRepository.findByExpiryDateBefore(LocalDate.now());
+        return medicineRepository.findAllById(List.copyOf(expiryIndex.getExpiredIds()));
     }
     
     public List<Medicine> getMedicinesExpiringSoon(int days) {
-        LocalDate today = LocalDate.now();
-        LocalDate futureDate = today.plusDays(days);
-        return medicineRepository.findByExpiryDateBetween(today, futureDate);
+        return medicineRepository.findAllById(expiryIndex.getExpiringWithin(days));
     }
     
-    @Transactional
+    // Purges in committed chunks on the caller's thread; see ExpiredMedicinePurgeService for the background job
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int removeExpiredMedicines() {
-        List<Medicine> expiredMedicines = getExpiredMedicines();
-        int count = expiredMedicines.size();
-        medicineRepository.deleteByExpiryDateBefore(LocalDate.now());
-        return count;
+        PurgeReport report = expiredMedicinePurgeService.purge(false);
+        if (report.getState() == PurgeReport.State.FAILED) {
+            throw new RuntimeException("Expired medicine purge failed after " + report.getDeleted() + " rows: "
+                    + report.getErrors().get(report.getErrors().size() - 1));
+        }
+        return (int) report.getDeleted();
     }
     
     // Analytics and Reports
@@ -148,11 +311,15 @@ public class MedicineService {
     }
     
     public long getExpiredMedicineCount() {
-        return medicineRepository.countExpiredMedicines();
+        return expiryIndex.getExpiredCount();
+    }
+    
+    public long getLowStockMedicineCount() {
+        return lowStockIndex.getLowStockCount();
     }
     
     public long getLowStockMedicineCount(int threshold) {
-        return medicineRepository.countLowStockMedicines(threshold);
+        return lowStockIndex.countBelow(threshold);
     }
     
     public BigDecimal getTotalInventoryValue() {
@@ -165,15 +332,25 @@ public class MedicineService {
     
     // Business Logic Methods
     
+    public Map<String, Object> getCacheStatistics() {
+        return catalogueCache.getStatistics();
+    }
+    
     public boolean isMedicineAvailable(Long medicineId, int requestedQuantity) {
         Medicine medicine = getMedicineById(medicineId);
-        return medicine.getStockQuantity() >= requestedQuantity && !medicine.isExpired();
+        return medicine.getStockQuantity() >= requestedQuantity && !expiryIndex.isExpired(medicine.getExpiryDate());
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Medicine processSale(Long medicineId, int quantity) {
+        return processSale(medicineId, quantity, null, null);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Medicine processSale(Long medicineId, int quantity, String performedBy, StockLedger.Durability durability) {
         Medicine medicine = getMedicineById(medicineId);
         
-        if (medicine.isExpired()) {
+        if (expiryIndex.isExpired(medicine.getExpiryDate())) {
             throw new RuntimeException("Cannot sell expired medicine: " + medicine.getName());
         }
         
@@ -182,8 +359,16 @@ public class MedicineService {
                                      ", Requested: " + quantity);
         }
         
-        medicine.updateStock(-quantity);
-        return medicineRepository.save(medicine);
+        // The ledger re-checks under its own lock; a concurrent sale may have taken the stock meanwhile
+        int remaining = stockLedger.record(medicineId, -quantity, StockMovement.Reason.SALE, performedBy, durability)
+                .orElseThrow(() -> new RuntimeException("Insufficient stock. Available: " +
+                        getMedicineById(medicineId).getStockQuantity() + ", Requested: " + quantity));
+        medicine.setStockQuantity(remaining);
+        return medicine;
+    }
+    
+    public Map<String, Object> getStockLedgerStatistics() {
+        return stockLedger.getStatistics();
     }
     
     // Validation
@@ -206,7 +391,7 @@ public class MedicineService {
         }
         
         // Check for duplicate names (excluding current medicine in case of update)
-        Optional<Medicine> existing = medicineRepository.findByNameIgnoreCase(medicine.getName());
+        Optional<Medicine> existing = findMedicineByName(medicine.getName());
         if (existing.isPresent() && !existing.get().getId().equals(medicine.getId())) {
             throw new IllegalArgumentException("Medicine with name '" + medicine.getName() + "' already exists");
         }
@@ -219,6 +404,48 @@ public class MedicineService {
     }
     
     public boolean medicineExistsByName(String name) {
-        return medicineRepository.existsByNameIgnoreCase(name);
+        return findMedicineByName(name).isPresent();
+    }
+    
+    private Medicine recordStockMovement(Long medicineId, int delta, StockMovement.Reason reason,
+                                         String performedBy, StockLedger.Durability durability) {
+        Medicine medicine = getMedicineById(medicineId);
+        int stock = stockLedger.record(medicineId, delta, reason, performedBy, durability)
+                .orElseThrow(() -> new RuntimeException("Medicine not found with id: " + medicineId));
+        medicine.setStockQuantity(stock);
+        return medicine;
+    }
+    
+    // Stored stock plus movements not yet folded; pending medicines are copied so managed entities stay untouched
+    private Medicine withPendingStock(Medicine medicine) {
+        int pending = stockLedger.getPendingDelta(medicine.getId());
+        if (pending == 0) {
+            return medicine;
+        }
+        Medicine merged = new Medicine(medicine);
+        merged.setStockQuantity(medicine.getStockQuantity() + pending);
+        return merged;
+    }
+    
+    private List<Medicine> withPendingStock(List<Medicine> medicines) {
+        return medicines.stream().map(this::withPendingStock).toList();
+    }
+    
+    // Pages the database ordered by stock show the stored stock they were ordered by (as of the last ledger fold),
+    // like the top-stocked list, so rows never appear out of the order they are listed in
+    private Function<Medicine, Medicine> shownStock(boolean sortedByStock) {
+        return sortedByStock ? Function.identity() : this::withPendingStock;
+    }
+    
+    private List<Medicine> lowStockFirst(List<Medicine> medicines) {
+        return medicines.stream().map(this::withPendingStock)
+                .sorted(Comparator.comparing(Medicine::getStockQuantity).thenComparing(Medicine::getId))
+                .toList();
+    }
+    
+    // Writes always start from the database row, never from a cached copy
+    private Medicine loadMedicine(Long id) {
+        return medicineRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Medicine not found with id: " + id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.event.MedicineChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Base for the in-memory structures kept in step with MedicineChangedEvent.
+ * It owns the event routing, the chunked reload of BULK_CHANGED rows, and the
+ * rebuild that scans the table into a fresh structure and swaps it in; rows
+ * written while the scan runs are reloaded afterwards. A subclass only says
+ * how to create, load, apply to and remove from its structure.
+ *
+ * @param <S> the structure readers query, swapped whole on rebuild
+ */
+public abstract class RebuildableIndex<S> {
+
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private volatile S structure;
+
+    // Ids written while a rebuild scan is running; reloaded once the new structure is swapped in
+    private final Object swapLock = new Object();
+    private Set<Long> touchedDuringRebuild;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    protected RebuildableIndex(S initial) {
+        this.structure = initial;
+    }
+
+    // Subclass contract
+
+    // An empty structure for a rebuild to scan into
+    protected abstract S create();
+
+    // Puts every row of the table into target
+    protected abstract void loadAll(S target);
+
+    // Puts the rows of the given medicines into target and returns the ids that were found
+    protected abstract Set<Long> load(List<Long> medicineIds, S target);
+
+    // Applies a SAVED, STOCK_CHANGED or STOCK_FOLDED event
+    protected abstract void apply(S target, MedicineChangedEvent event);
+
+    protected abstract void remove(S target, Long medicineId);
+
+    // Called with the fresh structure just before it is swapped in, under the swap lock
+    protected void beforeSwap(S fresh, S previous) {
+    }
+
+    // Called once a rebuild has swapped its structure in
+    protected void rebuilt(S fresh, long millis) {
+    }
+
+    // Reads
+
+    protected final S current() {
+        return structure;
+    }
+
+    // Held while a rebuild swaps its structure in; a subclass that moves the structure on its own takes it too
+    protected final Object swapLock() {
+        return swapLock;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    // Incremental maintenance
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMedicineChanged(MedicineChangedEvent event) {
+        markTouched(event.getMedicineIds());
+        switch (event.getType()) {
+            case DELETED -> remove(structure, event.getMedicineId());
+            case BULK_CHANGED -> reload(event.getMedicineIds());
+            case SAVED, STOCK_CHANGED, STOCK_FOLDED -> apply(structure, event);
+        }
+    }
+
+    void reload(Collection<Long> medicineIds) {
+        List<Long> ids = new ArrayList<>(medicineIds);
+        for (int from = 0; from < ids.size(); from += RELOAD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, ids.size()));
+            S target = structure;
+            Set<Long> found = load(chunk, target);
+            // Ids missing from the table were deleted
+            for (Long id : chunk) {
+                if (!found.contains(id)) {
+                    remove(target, id);
+                }
+            }
+        }
+    }
+
+    // Rebuild
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialise() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (swapLock) {
+                touchedDuringRebuild = new HashSet<>();
+            }
+
+            long start = System.nanoTime();
+            S fresh = create();
+            loadAll(fresh);
+
+            Set<Long> touched;
+            synchronized (swapLock) {
+                beforeSwap(fresh, structure);
+                structure = fresh;
+                touched = touchedDuringRebuild;
+                touchedDuringRebuild = null;
+            }
+            rebuilt(fresh, (System.nanoTime() - start) / 1_000_000);
+
+            // The scan may have read these rows before or after their write; reload them to be sure
+            if (!touched.isEmpty()) {
+                reload(touched);
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void markTouched(Collection<Long> medicineIds) {
+        synchronized (swapLock) {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.addAll(medicineIds);
+            }
+        }
+    }
+}
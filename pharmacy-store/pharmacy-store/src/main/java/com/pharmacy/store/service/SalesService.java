@@ -0,0 +1,229 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.SaleLine;
+import com.pharmacy.store.dto.SaleLineResult;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.model.StockMovement;
+import com.pharmacy.store.repository.MedicineRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sale path built on the stock ledger instead of read-check-save. The ledger
+ * checks each sale against stored plus pending stock under a per-medicine
+ * lock, so nothing is oversold; the optional reservation stripes only queue
+ * same-medicine sales before they reach it.
+ */
+@Service
+public class SalesService {
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private MedicineExpiryIndex expiryIndex;
+
+    @Value("${pharmacy.sales.reservation.enabled:false}")
+    private boolean reservationEnabled;
+
+    @Value("${pharmacy.sales.reservation.stripes:64}")
+    private int reservationStripes;
+
+    private ReentrantLock[] stripes;
+
+    // Sale statistics
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder rejectedNotFound = new LongAdder();
+    private final LongAdder rejectedExpired = new LongAdder();
+    private final LongAdder rejectedInsufficientStock = new LongAdder();
+    private final LongAdder contendedReservations = new LongAdder();
+
+    @PostConstruct
+    void initStripes() {
+        stripes = new ReentrantLock[Math.max(1, reservationStripes)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Sales Operations
+
+    public int processSale(Long medicineId, int quantity) {
+        return processSale(medicineId, quantity, null, null);
+    }
+
+    public int processSale(Long medicineId, int quantity, String performedBy, StockLedger.Durability durability) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Sale quantity must be greater than zero");
+        }
+
+        attempts.increment();
+        Optional<StockLedger.Recording> recording;
+        // The reservation only covers applying the sale; the wait for its batch commit happens after it is released
+        ReentrantLock reservation = reservationEnabled ? reserve(medicineId) : null;
+        try {
+            recording = stockLedger.recordDeferred(medicineId, -quantity, StockMovement.Reason.SALE, performedBy,
+                    durability);
+        } finally {
+            if (reservation != null) {
+                reservation.unlock();
+            }
+        }
+
+        if (recording.isEmpty()) {
+            throw rejectionFor(medicineId, quantity);
+        }
+        completed.increment();
+        stockLedger.awaitDurable(recording.get());
+        return recording.get().getStock(medicineId).getAsInt();
+    }
+
+    public List<SaleLineResult> processBasket(List<SaleLine> lines) {
+        return processBasket(lines, null, null);
+    }
+
+    // Basket checkout: one IN query to load, then every line recorded in the ledger at once.
+    // The basket is all-or-nothing; when any line is rejected nothing is sold and every line reports its status.
+    public List<SaleLineResult> processBasket(List<SaleLine> lines, String performedBy,
+                                              StockLedger.Durability durability) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Basket must contain at least one line");
+        }
+
+        // Repeated medicines are validated and decremented on their combined quantity
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (SaleLine line : lines) {
+            if (line.getMedicineId() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Each basket line needs a medicine id and a quantity greater than zero");
+            }
+            quantities.merge(line.getMedicineId(), line.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, Medicine> medicines = medicineRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Medicine::getId, Function.identity()));
+        List<SaleLineResult> results = new ArrayList<>(lines.size());
+        boolean rejected = false;
+        for (SaleLine line : lines) {
+            SaleLineResult result = validateLine(line, medicines.get(line.getMedicineId()),
+                    quantities.get(line.getMedicineId()));
+            rejected |= result.isRejected();
+            results.add(result);
+        }
+        if (rejected) {
+            return results;
+        }
+
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        quantities.forEach((medicineId, quantity) -> deltas.put(medicineId, -quantity));
+        attempts.add(quantities.size());
+        Optional<Map<Long, Integer>> recorded =
+                stockLedger.recordAll(deltas, StockMovement.Reason.SALE, performedBy, durability);
+        if (recorded.isEmpty()) {
+            // A concurrent sale took the stock between validation and recording; nothing was sold
+            conflicts.add(quantities.size());
+            throw new RuntimeException("Stock changed during checkout; no line was sold");
+        }
+        Map<Long, Integer> remainingStock = recorded.get();
+        for (SaleLineResult result : results) {
+            result.setStatus(SaleLineResult.Status.SOLD);
+            result.setMessage("Sold");
+            result.setRemainingStock(remainingStock.get(result.getMedicineId()));
+        }
+        completed.add(quantities.size());
+        return results;
+    }
+
+    // Statistics
+
+    public Map<String, Object> getSaleStatistics() {
+        long attempted = attempts.sum();
+        long conflicted = conflicts.sum();
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("attempts", attempted);
+        statistics.put("completed", completed.sum());
+        statistics.put("conflicts", conflicted);
+        statistics.put("conflictRate", attempted == 0 ? 0.0 : (double) conflicted / attempted);
+        statistics.put("rejectedNotFound", rejectedNotFound.sum());
+        statistics.put("rejectedExpired", rejectedExpired.sum());
+        statistics.put("rejectedInsufficientStock", rejectedInsufficientStock.sum());
+        statistics.put("reservationEnabled", reservationEnabled);
+        statistics.put("contendedReservations", contendedReservations.sum());
+        return statistics;
+    }
+
+    // Reservation stripes
+
+    private ReentrantLock reserve(Long medicineId) {
+        ReentrantLock lock = stripes[Math.floorMod(medicineId.hashCode(), stripes.length)];
+        if (!lock.tryLock()) {
+            contendedReservations.increment();
+            lock.lock();
+        }
+        return lock;
+    }
+
+    private SaleLineResult validateLine(SaleLine line, Medicine medicine, int combinedQuantity) {
+        SaleLineResult result = new SaleLineResult(line.getMedicineId(), line.getQuantity());
+        if (medicine == null) {
+            result.setStatus(SaleLineResult.Status.NOT_FOUND);
+            result.setMessage("Medicine not found with id: " + line.getMedicineId());
+            return result;
+        }
+
+        result.setMedicineName(medicine.getName());
+        result.setLineTotal(medicine.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+        int available = medicine.getStockQuantity() + stockLedger.getPendingDelta(medicine.getId());
+        // Same expiry answer the ledger gives when the basket is recorded
+        if (expiryIndex.isExpired(medicine.getId())) {
+            result.setStatus(SaleLineResult.Status.EXPIRED);
+            result.setMessage("Cannot sell expired medicine: " + medicine.getName());
+        } else if (available < combinedQuantity) {
+            result.setStatus(SaleLineResult.Status.INSUFFICIENT_STOCK);
+            result.setMessage("Insufficient stock. Available: " + available +
+                              ", Requested: " + combinedQuantity);
+        } else {
+            result.setStatus(SaleLineResult.Status.AVAILABLE);
+            result.setMessage("Available");
+        }
+        return result;
+    }
+
+    // Only reached when the ledger rejected the sale, so the extra read stays off the hot path.
+    // Each outcome is counted on its own; none of them is a conflict between sales.
+    private RuntimeException rejectionFor(Long medicineId, int quantity) {
+        Medicine medicine = medicineRepository.findById(medicineId).orElse(null);
+        if (medicine == null) {
+            rejectedNotFound.increment();
+            return new RuntimeException("Medicine not found with id: " + medicineId);
+        }
+        if (expiryIndex.isExpired(medicineId)) {
+            rejectedExpired.increment();
+            return new RuntimeException("Cannot sell expired medicine: " + medicine.getName());
+        }
+        rejectedInsufficientStock.increment();
+        return new RuntimeException("Insufficient stock. Available: " +
+                                    (medicine.getStockQuantity() + stockLedger.getPendingDelta(medicineId)) +
+                                    ", Requested: " + quantity);
+    }
+}
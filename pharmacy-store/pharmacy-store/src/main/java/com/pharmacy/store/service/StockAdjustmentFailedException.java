@@ -0,0 +1,23 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.model.Medicine;
+
+/**
+ * Thrown by a medicine edit whose fields were committed but whose stock
+ * adjustment failed afterwards. The saved medicine carries the stock that
+ * actually stands, so the caller can tell which half of the edit applied.
+ */
+public class StockAdjustmentFailedException extends RuntimeException {
+
+    private final Medicine savedMedicine;
+
+    public StockAdjustmentFailedException(Medicine savedMedicine, RuntimeException cause) {
+        super("Medicine " + savedMedicine.getId() + " saved, but its stock was not adjusted: " + cause.getMessage(),
+                cause);
+        this.savedMedicine = savedMedicine;
+    }
+
+    public Medicine getSavedMedicine() {
+        return savedMedicine;
+    }
+}
@@ -0,0 +1,742 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.StockMovement;
+import com.pharmacy.store.repository.MedicineStockRepository;
+import com.pharmacy.store.repository.StockLedgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind stock ledger. A stock change is checked against the stored
+ * quantity plus the medicine's pending delta, added to that delta and queued;
+ * a single writer appends queued movements to stock_movements in JDBC batches,
+ * and a periodic compaction folds written movements into stock_quantity.
+ * The effective stock is therefore always stored quantity + pending delta.
+ * <p>
+ * Checking against pending deltas is only sound while one instance records
+ * stock, so the ledger holds a write lease in the checkpoint row. Records are
+ * refused without it, and every batch and fold locks the row and checks the
+ * owner in the same transaction, so an instance that lost the lease cannot
+ * write movements the new owner never checked against. An instance without
+ * the lease shows stock as of the owner's last fold and takes the lease over
+ * once it expires.
+ */
+@Component
+public class StockLedger implements SmartLifecycle {
+
+    public enum Durability {
+        // Returns once the movement is queued; it is lost if the process dies before its batch is written
+        BUFFERED,
+        // Returns once the batch holding the movement has committed
+        DURABLE
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final int STRIPES = 256;
+    private static final long POLL_MILLIS = 100;
+    private static final long RETRY_BACKOFF_MILLIS = 500;
+    private static final long FOLD_LOCK_WAIT_MILLIS = 100;
+    // The lease is renewed three times per period, and records stop a third of a period before it could expire
+    private static final int LEASE_RENEWALS = 3;
+
+    // Starts before the web server accepts requests and stops after it has drained them
+    private static final int PHASE = 0;
+
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+
+    @Autowired
+    private MedicineStockRepository medicineStockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MedicineExpiryIndex expiryIndex;
+
+    @Value("${pharmacy.stock.ledger.durability:DURABLE}")
+    private Durability defaultDurability;
+
+    @Value("${pharmacy.stock.ledger.batch-size:500}")
+    private int batchSize;
+
+    @Value("${pharmacy.stock.ledger.durable-timeout:5s}")
+    private Duration durableTimeout;
+
+    @Value("${pharmacy.stock.ledger.compaction-batch:50000}")
+    private int compactionBatch;
+
+    @Value("${pharmacy.stock.ledger.lease:30s}")
+    private Duration lease;
+
+    // Blank picks a random id per start, so a restarted instance waits out its own old lease
+    @Value("${pharmacy.stock.ledger.instance-id:}")
+    private String instanceId;
+
+    // Net delta per medicine of every movement recorded but not yet folded
+    private final Map<Long, Integer> pendingDeltas = new ConcurrentHashMap<>();
+
+    // Stripes serialise check-and-record per medicine; compaction takes the write lock to swap
+    // stored quantity and pending delta atomically, so readers never count a movement twice or not at all
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantReadWriteLock foldLock = new ReentrantReadWriteLock();
+
+    // Two overlapping folds would both read the same pending movements and apply them twice
+    private final ReentrantLock compactionLock = new ReentrantLock();
+
+    // Write lease. Only the writer thread, or start and stop around it, hand the lease over; each change
+    // of hands starts a new epoch, and movements queued under an earlier epoch are dropped, never written
+    private volatile boolean leaseHeld;
+    private volatile long leaseDeadline;
+    private volatile long leaseEpoch;
+    private long nextLeaseCheck;
+    // First dropped sequence per epoch, so DURABLE callers learn their movement was never written
+    private final Map<Long, Long> droppedFrom = new ConcurrentHashMap<>();
+
+    // Movements are numbered in queue order; the writer advances writtenThrough by whole batches
+    private final BlockingQueue<QueuedMovement> queue = new LinkedBlockingQueue<>();
+    private long lastQueued;
+    // A lock rather than a monitor: DURABLE callers park here, which must not pin a virtual thread's carrier
+    private final ReentrantLock writtenLock = new ReentrantLock();
+    private final Condition writtenAdvanced = writtenLock.newCondition();
+    private long writtenThrough;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    // Ledger statistics
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder deferredCompactions = new LongAdder();
+    private final LongAdder foldedMedicines = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder leaseLosses = new LongAdder();
+
+    public StockLedger() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Recording
+
+    // Returns the resulting stock, or empty when the medicine does not exist, or a sale is short or expired.
+    // Adjustments below zero are clamped to zero, as Medicine.updateStock does.
+    public OptionalInt record(Long medicineId, int delta, StockMovement.Reason reason, String performedBy,
+                              Durability durability) {
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        deltas.put(medicineId, delta);
+        return single(applyAndAwait(deltas, false, reason, performedBy, durability), medicineId);
+    }
+
+    // Same as record, but leaves waiting for durability to the caller through awaitDurable, so locks the caller
+    // holds around the record can be released before the batch commit
+    public Optional<Recording> recordDeferred(Long medicineId, int delta, StockMovement.Reason reason,
+                                              String performedBy, Durability durability) {
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        deltas.put(medicineId, delta);
+        return apply(deltas, false, reason, performedBy, durability);
+    }
+
+    // Records whatever movement brings the medicine to exactly the given quantity
+    public OptionalInt adjustTo(Long medicineId, int quantity, String performedBy, Durability durability) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        quantities.put(medicineId, quantity);
+        return single(applyAndAwait(quantities, true, StockMovement.Reason.ADJUSTMENT, performedBy, durability),
+                medicineId);
+    }
+
+    // Brings every medicine to its given quantity; medicines deleted meanwhile are skipped and left out of the result
+    public Map<Long, Integer> adjustAllTo(SortedMap<Long, Integer> quantities, String performedBy,
+                                          Durability durability) {
+        return applyAndAwait(quantities, true, StockMovement.Reason.ADJUSTMENT, performedBy, durability)
+                .orElseThrow();
+    }
+
+    // All movements are recorded or none is; returns the resulting stock per medicine
+    public Optional<Map<Long, Integer>> recordAll(SortedMap<Long, Integer> deltas, StockMovement.Reason reason,
+                                                  String performedBy, Durability durability) {
+        return applyAndAwait(deltas, false, reason, performedBy, durability);
+    }
+
+    // Blocks until a deferred recording is written when its durability asks for it
+    public void awaitDurable(Recording recording) {
+        if (recording.durable && !awaitWritten(recording.sequence, recording.epoch)) {
+            throw new StockNotYetDurableException(durableTimeout, recording.resultingStock);
+        }
+    }
+
+    private Optional<Map<Long, Integer>> applyAndAwait(SortedMap<Long, Integer> amounts, boolean absolute,
+                                                       StockMovement.Reason reason, String performedBy,
+                                                       Durability durability) {
+        Optional<Recording> recording = apply(amounts, absolute, reason, performedBy, durability);
+        recording.ifPresent(this::awaitDurable);
+        return recording.map(Recording::getResultingStock);
+    }
+
+    private Optional<Recording> apply(SortedMap<Long, Integer> amounts, boolean absolute,
+                                      StockMovement.Reason reason, String performedBy, Durability durability) {
+        List<StockMovement> movements = new ArrayList<>(amounts.size());
+        Map<Long, Integer> resulting = new HashMap<>();
+        long sequence;
+        long epoch;
+
+        // Stored stock only changes in a fold, which the read lock keeps out, so it is read before the
+        // stripes are taken and no other record of these medicines waits on the query
+        List<ReentrantLock> locked = List.of();
+        foldLock.readLock().lock();
+        try {
+            epoch = leaseEpoch;
+            if (!holdsLease()) {
+                throw new StockLedgerUnavailableException("Stock ledger does not hold the write lease; stock is "
+                        + "recorded by another instance");
+            }
+            Map<Long, Integer> stored = new HashMap<>();
+            medicineStockRepository.forEachStockLevel(amounts.keySet(),
+                    (id, price, stock, expiry) -> stored.put(id, stock));
+            locked = lockStripes(amounts.keySet());
+
+            // Expiry comes from the expiry wheel, the one place that knows which medicines have expired
+            Map<Long, Integer> deltas = new TreeMap<>();
+            for (Map.Entry<Long, Integer> amount : amounts.entrySet()) {
+                Long medicineId = amount.getKey();
+                Integer storedStock = stored.get(medicineId);
+                if (storedStock == null && absolute) {
+                    continue;
+                }
+                if (storedStock == null
+                        || (reason == StockMovement.Reason.SALE && expiryIndex.isExpired(medicineId))) {
+                    rejected.increment();
+                    return Optional.empty();
+                }
+                int current = storedStock + getPendingDelta(medicineId);
+                int delta = absolute ? amount.getValue() - current : amount.getValue();
+                if (current + delta < 0) {
+                    if (reason != StockMovement.Reason.ADJUSTMENT) {
+                        rejected.increment();
+                        return Optional.empty();
+                    }
+                    delta = -current;
+                }
+                deltas.put(medicineId, delta);
+                resulting.put(medicineId, current + delta);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            deltas.forEach((medicineId, delta) -> {
+                if (delta != 0) {
+                    pendingDeltas.merge(medicineId, delta, StockLedger::sumOrRemove);
+                    movements.add(new StockMovement(medicineId, delta, reason, performedBy, now));
+                }
+            });
+            sequence = enqueue(movements, epoch);
+        } finally {
+            foldLock.readLock().unlock();
+            locked.forEach(ReentrantLock::unlock);
+        }
+
+        recorded.add(movements.size());
+        // Pending deltas already include these movements, so listeners can follow them before they are written
+        for (StockMovement movement : movements) {
+            eventPublisher.publishEvent(MedicineChangedEvent.stockChanged(movement.getMedicineId(), movement.getDelta()));
+        }
+        boolean durable = resolve(durability) == Durability.DURABLE && !movements.isEmpty();
+        return Optional.of(new Recording(resulting, sequence, epoch, durable));
+    }
+
+    // Reads
+
+    public int getPendingDelta(Long medicineId) {
+        return medicineId == null ? 0 : pendingDeltas.getOrDefault(medicineId, 0);
+    }
+
+    // Runs a read of stored stock plus pending deltas without a compaction landing in between
+    public <T> T readConsistent(Supplier<T> read) {
+        foldLock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            foldLock.readLock().unlock();
+        }
+    }
+
+    // Records are accepted until a third of a lease period before another instance could take it over
+    public boolean holdsLease() {
+        return leaseHeld && System.nanoTime() - leaseDeadline < 0;
+    }
+
+    public Durability getDefaultDurability() {
+        return defaultDurability;
+    }
+
+    // Blocks until every movement queued so far has been written
+    public void flush() {
+        long target;
+        synchronized (queue) {
+            target = lastQueued;
+        }
+        if (!awaitWritten(target, -1)) {
+            throw new RuntimeException("Stock ledger not flushed after " + durableTimeout);
+        }
+    }
+
+    // Compaction
+
+    @Scheduled(fixedDelayString = "${pharmacy.stock.ledger.compaction-interval:PT5S}")
+    public int compact() {
+        compactionLock.lock();
+        try {
+            return fold();
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private int fold() {
+        long epoch = leaseEpoch;
+        if (!leaseHeld) {
+            return 0;
+        }
+        // Fold outside the read-write lock; only the commit and the pending swap have to be atomic for readers
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        Map<Long, Integer> folded;
+        try {
+            // Pending deltas are this instance's view of the unfolded movements, valid only under the same lease
+            if (!stockLedgerRepository.lockLease(instanceId) || epoch != leaseEpoch) {
+                transactionManager.rollback(transaction);
+                return 0;
+            }
+            folded = stockLedgerRepository.foldPending(compactionBatch);
+        } catch (RuntimeException e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+        if (folded.isEmpty()) {
+            transactionManager.commit(transaction);
+            return 0;
+        }
+
+        // The fold holds a pooled connection here, and readers inside the lock may be waiting for one;
+        // rather than wait them out, give the connection back and fold on the next run
+        if (!tryLockForFold()) {
+            transactionManager.rollback(transaction);
+            deferredCompactions.increment();
+            return 0;
+        }
+        try {
+            transactionManager.commit(transaction);
+            // A lease lost since the commit has already dropped these pending deltas
+            if (epoch == leaseEpoch) {
+                folded.forEach((medicineId, delta) ->
+                        pendingDeltas.merge(medicineId, -delta, StockLedger::sumOrRemove));
+            }
+            // Cached rows now carry a stale stored quantity
+            eventPublisher.publishEvent(MedicineChangedEvent.stockFolded(folded));
+        } finally {
+            foldLock.writeLock().unlock();
+        }
+        compactions.increment();
+        foldedMedicines.add(folded.size());
+        logger.debug("Stock ledger folded pending movements into {} medicines", folded.size());
+        return folded.size();
+    }
+
+    private boolean tryLockForFold() {
+        try {
+            return foldLock.writeLock().tryLock(FOLD_LOCK_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Writer
+
+    private long enqueue(List<StockMovement> movements, long epoch) {
+        synchronized (queue) {
+            for (StockMovement movement : movements) {
+                queue.add(new QueuedMovement(movement, epoch, ++lastQueued));
+            }
+            return lastQueued;
+        }
+    }
+
+    private void writeLoop() {
+        List<QueuedMovement> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                maintainLease();
+                QueuedMovement first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Stock ledger writer interrupted with {} movements queued", queue.size());
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    // A failed batch is retried until it lands, so accepted movements are never silently dropped while running;
+    // only movements the lease no longer covers are dropped
+    private void writeBatch(List<QueuedMovement> batch) throws InterruptedException {
+        long epoch = leaseEpoch;
+        List<StockMovement> movements = new ArrayList<>(batch.size());
+        for (QueuedMovement queued : batch) {
+            if (queued.epoch != epoch) {
+                drop(queued);
+            } else {
+                movements.add(queued.movement);
+            }
+        }
+        while (!movements.isEmpty()) {
+            try {
+                if (!appendUnderLease(movements, epoch)) {
+                    if (epoch == leaseEpoch) {
+                        leaseLost();
+                    }
+                    dropAll(batch, epoch);
+                    movements.clear();
+                }
+                break;
+            } catch (RuntimeException e) {
+                writeFailures.increment();
+                if (!running) {
+                    logger.error("Stock ledger dropping {} movements on shutdown: {}", movements.size(),
+                            e.getMessage());
+                    dropAll(batch, epoch);
+                    movements.clear();
+                    break;
+                }
+                logger.warn("Stock ledger write of {} movements failed, retrying: {}", movements.size(),
+                        e.getMessage());
+                Thread.sleep(RETRY_BACKOFF_MILLIS);
+            }
+        }
+        if (!movements.isEmpty()) {
+            written.add(movements.size());
+            batches.increment();
+        }
+        writtenLock.lock();
+        try {
+            writtenThrough = batch.get(batch.size() - 1).sequence;
+            writtenAdvanced.signalAll();
+        } finally {
+            writtenLock.unlock();
+        }
+    }
+
+    // The checkpoint row stays locked until the batch commits, so the lease cannot pass to another
+    // instance between the owner check and the insert
+    private boolean appendUnderLease(List<StockMovement> movements, long epoch) {
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            if (!stockLedgerRepository.lockLease(instanceId) || epoch != leaseEpoch) {
+                transactionManager.rollback(transaction);
+                return false;
+            }
+            stockLedgerRepository.insertBatch(movements);
+        } catch (RuntimeException e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+        transactionManager.commit(transaction);
+        return true;
+    }
+
+    private void dropAll(List<QueuedMovement> batch, long epoch) {
+        batch.stream().filter(queued -> queued.epoch == epoch).forEach(this::drop);
+    }
+
+    private void drop(QueuedMovement queued) {
+        droppedFrom.putIfAbsent(queued.epoch, queued.sequence);
+        dropped.increment();
+    }
+
+    // An epoch of -1 waits for the sequence to be processed without asking whether it was written
+    // False when the timeout passed first: the movement stands and will still be written, only unconfirmed
+    private boolean awaitWritten(long sequence, long epoch) {
+        long remainingNanos = durableTimeout.toNanos();
+        writtenLock.lock();
+        try {
+            while (writtenThrough < sequence) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = writtenAdvanced.awaitNanos(remainingNanos);
+            }
+            Long firstDropped = droppedFrom.get(epoch);
+            if (firstDropped != null && sequence >= firstDropped) {
+                throw new StockLedgerUnavailableException("Stock movement dropped: the stock ledger lost its "
+                        + "write lease before writing it");
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for stock movement to be written", e);
+        } finally {
+            writtenLock.unlock();
+        }
+    }
+
+    // Lease
+
+    // Runs on the writer thread, so renewals are never held up behind scheduled jobs
+    private void maintainLease() {
+        long now = System.nanoTime();
+        if (now - nextLeaseCheck < 0) {
+            return;
+        }
+        nextLeaseCheck = now + lease.toNanos() / LEASE_RENEWALS;
+        try {
+            if (leaseHeld) {
+                if (stockLedgerRepository.renewLease(instanceId, lease)) {
+                    leaseDeadline = now + leaseValidity();
+                } else {
+                    leaseLost();
+                }
+            } else if (stockLedgerRepository.acquireLease(instanceId, lease)) {
+                Set<Long> changed = leaseAcquired(now);
+                logger.info("Stock ledger took over the write lease: {} medicines with pending movements",
+                        pendingDeltas.size());
+                if (!changed.isEmpty()) {
+                    eventPublisher.publishEvent(MedicineChangedEvent.bulkChanged(changed));
+                }
+            }
+        } catch (RuntimeException e) {
+            // An unrenewed lease runs out locally first, so records stop before another instance can take over
+            logger.warn("Stock ledger could not renew its write lease: {}", e.getMessage());
+        }
+    }
+
+    // Nobody else writes under the lease, so the unfolded movements read now are exactly the pending deltas
+    private Set<Long> leaseAcquired(long acquiredAt) {
+        Map<Long, Integer> pending = stockLedgerRepository.findPendingDeltas();
+        Set<Long> changed = new HashSet<>(pending.keySet());
+        foldLock.writeLock().lock();
+        try {
+            leaseEpoch++;
+            changed.addAll(pendingDeltas.keySet());
+            pendingDeltas.clear();
+            pendingDeltas.putAll(pending);
+            leaseDeadline = acquiredAt + leaseValidity();
+            leaseHeld = true;
+        } finally {
+            foldLock.writeLock().unlock();
+        }
+        return changed;
+    }
+
+    // The new owner never saw this instance's unwritten movements; they are dropped and its stock shown as stored
+    private void leaseLost() {
+        Set<Long> changed;
+        foldLock.writeLock().lock();
+        try {
+            if (!leaseHeld) {
+                return;
+            }
+            leaseHeld = false;
+            leaseEpoch++;
+            changed = new HashSet<>(pendingDeltas.keySet());
+            pendingDeltas.clear();
+        } finally {
+            foldLock.writeLock().unlock();
+        }
+        leaseLosses.increment();
+        logger.warn("Stock ledger lost its write lease to another instance; {} queued movements are dropped",
+                queue.size());
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(MedicineChangedEvent.bulkChanged(changed));
+        }
+    }
+
+    private long leaseValidity() {
+        return lease.toNanos() - lease.toNanos() / LEASE_RENEWALS;
+    }
+
+    // Lifecycle
+
+    @Override
+    public void start() {
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = UUID.randomUUID().toString();
+        }
+        long now = System.nanoTime();
+        nextLeaseCheck = now + lease.toNanos() / LEASE_RENEWALS;
+        if (stockLedgerRepository.acquireLease(instanceId, lease)) {
+            // Movements written before a restart but never folded still count towards stock
+            leaseAcquired(now);
+        } else {
+            logger.warn("Stock ledger write lease is held by another instance; stock is read-only here until it "
+                    + "expires");
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "stock-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Stock ledger {} started: {} medicines with pending movements", instanceId, pendingDeltas.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(durableTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.error("Stock ledger stopped with {} movements unwritten", queue.size());
+        }
+        if (leaseHeld) {
+            leaseHeld = false;
+            try {
+                stockLedgerRepository.releaseLease(instanceId);
+            } catch (RuntimeException e) {
+                logger.warn("Stock ledger could not release its write lease, it expires in {}: {}", lease,
+                        e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // Statistics
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("recorded", recorded.sum());
+        statistics.put("rejected", rejected.sum());
+        statistics.put("written", written.sum());
+        statistics.put("batches", batches.sum());
+        statistics.put("writeFailures", writeFailures.sum());
+        statistics.put("queued", queue.size());
+        statistics.put("pendingMedicines", pendingDeltas.size());
+        statistics.put("compactions", compactions.sum());
+        statistics.put("deferredCompactions", deferredCompactions.sum());
+        statistics.put("foldedMedicines", foldedMedicines.sum());
+        statistics.put("dropped", dropped.sum());
+        statistics.put("leaseHeld", holdsLease());
+        statistics.put("leaseLosses", leaseLosses.sum());
+        statistics.put("defaultDurability", defaultDurability);
+        return statistics;
+    }
+
+    // Stripes are always taken in index order so multi-medicine records cannot deadlock
+    private List<ReentrantLock> lockStripes(Iterable<Long> medicineIds) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        medicineIds.forEach(id -> indexes.add(Math.floorMod(id.hashCode(), STRIPES)));
+        List<ReentrantLock> locked = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            stripes[index].lock();
+            locked.add(stripes[index]);
+        }
+        return locked;
+    }
+
+    private Durability resolve(Durability durability) {
+        return durability == null ? defaultDurability : durability;
+    }
+
+    private static OptionalInt single(Optional<Map<Long, Integer>> resulting, Long medicineId) {
+        return resulting.filter(stock -> stock.containsKey(medicineId))
+                .map(stock -> OptionalInt.of(stock.get(medicineId)))
+                .orElse(OptionalInt.empty());
+    }
+
+    // Movements applied to pending stock, with what awaitDurable needs to wait for their batch commit
+    public static final class Recording {
+        private final Map<Long, Integer> resultingStock;
+        private final long sequence;
+        private final long epoch;
+        private final boolean durable;
+
+        private Recording(Map<Long, Integer> resultingStock, long sequence, long epoch, boolean durable) {
+            this.resultingStock = resultingStock;
+            this.sequence = sequence;
+            this.epoch = epoch;
+            this.durable = durable;
+        }
+
+        public Map<Long, Integer> getResultingStock() {
+            return resultingStock;
+        }
+
+        public OptionalInt getStock(Long medicineId) {
+            Integer stock = resultingStock.get(medicineId);
+            return stock == null ? OptionalInt.empty() : OptionalInt.of(stock);
+        }
+    }
+
+    private static final class QueuedMovement {
+        private final StockMovement movement;
+        private final long epoch;
+        private final long sequence;
+
+        private QueuedMovement(StockMovement movement, long epoch, long sequence) {
+            this.movement = movement;
+            this.epoch = epoch;
+            this.sequence = sequence;
+        }
+    }
+
+    private static Integer sumOrRemove(Integer current, Integer delta) {
+        int sum = current + delta;
+        return sum == 0 ? null : sum;
+    }
+}
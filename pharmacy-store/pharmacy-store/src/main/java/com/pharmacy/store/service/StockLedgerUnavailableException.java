@@ -0,0 +1,13 @@
+package com.pharmacy.store.service;
+
+/**
+ * Thrown when this instance does not hold the stock ledger's write lease, or
+ * lost it before a DURABLE movement was written. Nothing was applied, so the
+ * caller may retry once the lease is held again.
+ */
+public class StockLedgerUnavailableException extends IllegalStateException {
+
+    public StockLedgerUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.pharmacy.store.service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Thrown to a DURABLE caller whose movements are applied but whose batch has
+ * not committed within the durable timeout. The movements stand and will
+ * still be written, so the caller must not retry them.
+ */
+public class StockNotYetDurableException extends RuntimeException {
+
+    private final Map<Long, Integer> resultingStock;
+
+    public StockNotYetDurableException(Duration timeout, Map<Long, Integer> resultingStock) {
+        super("Stock movement recorded but not yet durable after " + timeout);
+        this.resultingStock = Map.copyOf(resultingStock);
+    }
+
+    // Stock per medicine after the movements, as record would have returned it
+    public Map<Long, Integer> getResultingStock() {
+        return resultingStock;
+    }
+
+    public Integer getStock(Long medicineId) {
+        return resultingStock.get(medicineId);
+    }
+}
@@ -0,0 +1,432 @@
+package com.pharmacy.store.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over medicine name, manufacturer and description.
+ * Every write takes a fresh slot, so posting lists stay sorted by append alone
+ * and stale slots are dropped in bulk once they outnumber live ones. Queries
+ * match when enough of their trigrams occur in one field, which tolerates
+ * typos and partial words.
+ */
+public class TrigramIndex {
+
+    public static final int NAME = 0;
+    public static final int MANUFACTURER = 1;
+    public static final int DESCRIPTION = 2;
+
+    private static final int FIELDS = 3;
+    private static final double[] FIELD_WEIGHTS = {1.0, 0.6, 0.3};
+
+    // Share of query trigrams a field must contain once the query is longer than one short word
+    private static final double MIN_MATCH_RATIO = 0.6;
+    private static final double PREFIX_BONUS = 1.0;
+    private static final double SUBSTRING_BONUS = 0.5;
+
+    // Bounds the work of unselective queries ("a", a manufacturer shared by half the catalogue); their
+    // ranking then covers the first matches found, and each extra keystroke narrows it back to exact.
+    // The match cap keeps p99 under 2 ms at 1M SKUs while leaving a wide margin over any result limit.
+    private static final int MAX_MATCHES_PER_FIELD = 250;
+    private static final int MAX_CANDIDATES_PER_FIELD = 20_000;
+
+    private static final int MIN_SLOTS_BEFORE_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Map<Long, PostingList>> postings = new ArrayList<>(FIELDS);
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private long[] slotIds = new long[1024];
+    private String[] slotNames = new String[1024];
+    private final BitSet deadSlots = new BitSet();
+    private int slotCount;
+    private int deadCount;
+
+    public TrigramIndex() {
+        for (int field = 0; field < FIELDS; field++) {
+            postings.add(new HashMap<>());
+        }
+    }
+
+    // Writes
+
+    public void put(long medicineId, String name, String manufacturer, String description) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(medicineId);
+
+            int slot = slotCount++;
+            if (slot == slotIds.length) {
+                slotIds = Arrays.copyOf(slotIds, slot * 2);
+                slotNames = Arrays.copyOf(slotNames, slot * 2);
+            }
+            String normalizedName = normalize(name);
+            slotIds[slot] = medicineId;
+            slotNames[slot] = normalizedName;
+            slotsById.put(medicineId, slot);
+
+            addField(NAME, slot, normalizedName);
+            addField(MANUFACTURER, slot, normalize(manufacturer));
+            addField(DESCRIPTION, slot, normalize(description));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long medicineId) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(medicineId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addField(int field, int slot, String text) {
+        for (long gram : grams(text, true)) {
+            postings.get(field).computeIfAbsent(gram, g -> new PostingList()).add(slot);
+        }
+    }
+
+    private void removeSlot(long medicineId) {
+        Integer slot = slotsById.remove(medicineId);
+        if (slot == null) {
+            return;
+        }
+        deadSlots.set(slot);
+        slotNames[slot] = null;
+        deadCount++;
+        if (deadCount >= MIN_SLOTS_BEFORE_COMPACTION && deadCount > slotsById.size()) {
+            compact();
+        }
+    }
+
+    // Renumbers live slots in order, which keeps every posting list sorted
+    private void compact() {
+        int[] remap = new int[slotCount];
+        int next = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (deadSlots.get(slot)) {
+                remap[slot] = -1;
+            } else {
+                remap[slot] = next;
+                slotIds[next] = slotIds[slot];
+                slotNames[next] = slotNames[slot];
+                slotsById.put(slotIds[next], next);
+                next++;
+            }
+        }
+        Arrays.fill(slotNames, next, slotCount, null);
+        for (Map<Long, PostingList> field : postings) {
+            field.values().removeIf(list -> list.remap(remap) == 0);
+        }
+        slotCount = next;
+        deadSlots.clear();
+        deadCount = 0;
+    }
+
+    // Queries
+
+    public List<Hit> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean lastWordComplete = Character.isWhitespace(query.charAt(query.length() - 1));
+        long[] queryGrams = grams(normalizedQuery, lastWordComplete);
+        int required = queryGrams.length <= 3
+                ? queryGrams.length
+                : (int) Math.ceil(queryGrams.length * MIN_MATCH_RATIO);
+
+        lock.readLock().lock();
+        try {
+            ScoreTable scores = new ScoreTable();
+            for (int field = 0; field < FIELDS; field++) {
+                scoreField(field, queryGrams, required, scores);
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (int i = 0; i < scores.keys.length; i++) {
+                if (scores.keys[i] == 0) {
+                    continue;
+                }
+                int slot = scores.keys[i] - 1;
+                String name = slotNames[slot];
+                double score = scores.values[i];
+                if (name.startsWith(normalizedQuery)) {
+                    score += PREFIX_BONUS;
+                } else if (name.contains(normalizedQuery)) {
+                    score += SUBSTRING_BONUS;
+                }
+                // Only allocate a hit when it would enter the current top
+                if (top.size() == limit && !outranks(score, name.length(), slotIds[slot], top.peek())) {
+                    continue;
+                }
+                top.add(new Hit(slotIds[slot], score, name.length()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scoreField(int field, long[] queryGrams, int required, ScoreTable scores) {
+        PostingList[] lists = new PostingList[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; i++) {
+            lists[i] = postings.get(field).getOrDefault(queryGrams[i], PostingList.EMPTY);
+        }
+        Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+
+        // A slot matching `required` grams must appear in at least one of the shortest (n - required + 1) lists
+        int candidateLists = lists.length - required + 1;
+        int[] cursors = new int[lists.length];
+        int examined = 0;
+        int matches = 0;
+        for (int i = 0; i < candidateLists && examined < MAX_CANDIDATES_PER_FIELD && matches < MAX_MATCHES_PER_FIELD; i++) {
+            Arrays.fill(cursors, 0);
+            PostingList candidates = lists[i];
+            candidate:
+            for (int c = 0; c < candidates.size; c++) {
+                int slot = candidates.slots[c];
+                if (deadSlots.get(slot)) {
+                    continue;
+                }
+                if (++examined > MAX_CANDIDATES_PER_FIELD || matches >= MAX_MATCHES_PER_FIELD) {
+                    break;
+                }
+                int matched = 1;
+                for (int j = 0; j < lists.length; j++) {
+                    if (j == i) {
+                        continue;
+                    }
+                    // Candidates arrive in slot order, so each list is walked forward exactly once
+                    cursors[j] = lists[j].seek(cursors[j], slot);
+                    if (lists[j].holdsAt(cursors[j], slot)) {
+                        if (j < i) {
+                            // Already scored while that shorter list supplied candidates
+                            continue candidate;
+                        }
+                        matched++;
+                    } else if (matched + lists.length - 1 - j - (j < i ? 1 : 0) < required) {
+                        continue candidate;
+                    }
+                }
+                if (matched >= required) {
+                    scores.add(slot, FIELD_WEIGHTS[field] * matched / queryGrams.length);
+                    matches++;
+                }
+            }
+        }
+    }
+
+    private static boolean outranks(double score, int nameLength, long medicineId, Hit worst) {
+        if (score != worst.score) {
+            return score > worst.score;
+        }
+        if (nameLength != worst.nameLength) {
+            return nameLength < worst.nameLength;
+        }
+        return medicineId < worst.medicineId;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long postingCount() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (Map<Long, PostingList> field : postings) {
+                for (PostingList list : field.values()) {
+                    total += list.size;
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Text handling
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Each word is padded like "  word " so word starts weigh in; a query's last word skips the end pad to act as a prefix
+    static long[] grams(String normalized, boolean padLastWord) {
+        Set<Long> grams = new LinkedHashSet<>();
+        String[] words = normalized.isEmpty() ? new String[0] : normalized.split(" ");
+        for (int w = 0; w < words.length; w++) {
+            boolean padEnd = padLastWord || w < words.length - 1;
+            String padded = "  " + words[w] + (padEnd ? " " : "");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        long[] result = new long[grams.size()];
+        int i = 0;
+        for (long gram : grams) {
+            result[i++] = gram;
+        }
+        return result;
+    }
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::getScore).reversed()
+            .thenComparingInt(hit -> hit.nameLength)
+            .thenComparingLong(Hit::getMedicineId);
+
+    public static final class Hit {
+        private final long medicineId;
+        private final double score;
+        private final int nameLength;
+
+        private Hit(long medicineId, double score, int nameLength) {
+            this.medicineId = medicineId;
+            this.score = score;
+            this.nameLength = nameLength;
+        }
+
+        public long getMedicineId() {
+            return medicineId;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    private static final class PostingList {
+        private static final PostingList EMPTY = new PostingList();
+
+        private int[] slots = new int[4];
+        private int size;
+
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        // Index of the first entry >= slot at or after `from`, found by galloping
+        private int seek(int from, int slot) {
+            if (from >= size || slots[from] >= slot) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < size && slots[low + step] < slot) {
+                low += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(slots, low + 1, Math.min(low + step + 1, size), slot);
+            return found >= 0 ? found : -found - 1;
+        }
+
+        private boolean holdsAt(int index, int slot) {
+            return index < size && slots[index] == slot;
+        }
+
+        private int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int mapped = remap[slots[i]];
+                if (mapped >= 0) {
+                    slots[kept++] = mapped;
+                }
+            }
+            size = kept;
+            return size;
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+
+    // Open-addressing slot -> score map; avoids boxing on queries that touch many slots
+    private static final class ScoreTable {
+        private int[] keys = new int[256];
+        private double[] values = new double[256];
+        private int size;
+
+        private void add(int slot, double score) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int key = slot + 1;
+            int mask = keys.length - 1;
+            int index = mix(key) & mask;
+            while (keys[index] != 0 && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            if (keys[index] == 0) {
+                keys[index] = key;
+                size++;
+            }
+            values[index] += score;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new double[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int index = mix(oldKeys[i]) & mask;
+                    while (keys[index] != 0) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
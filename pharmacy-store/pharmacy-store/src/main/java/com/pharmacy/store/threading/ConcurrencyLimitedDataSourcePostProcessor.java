@@ -0,0 +1,56 @@
+package com.pharmacy.store.threading;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Puts the application's DataSource behind a {@link ConcurrencyLimitedDataSource}.
+ * With no explicit limit it is sized to the Hikari pool.
+ */
+@Component
+@ConditionalOnProperty(name = "pharmacy.datasource.concurrency.enabled", havingValue = "true")
+public class ConcurrencyLimitedDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitedDataSourcePostProcessor.class);
+
+    @Value("${pharmacy.datasource.concurrency.max:0}")
+    private int maxConcurrency;
+
+    @Value("${pharmacy.datasource.concurrency.acquire-timeout:30s}")
+    private Duration acquireTimeout;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+            return bean;
+        }
+        int poolSize = poolSize(dataSource);
+        int limit = maxConcurrency > 0 ? maxConcurrency : poolSize;
+        if (limit < 1) {
+            logger.warn("DataSource '{}' is not a Hikari pool and pharmacy.datasource.concurrency.max is not set; "
+                    + "database concurrency is not limited", beanName);
+            return bean;
+        }
+        logger.info("Database concurrency limited to {} (pool size {})", limit, poolSize);
+        return new ConcurrencyLimitedDataSource(dataSource, limit, acquireTimeout);
+    }
+
+    // Another post processor may already have wrapped the pool
+    private static int poolSize(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() : 0;
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+}
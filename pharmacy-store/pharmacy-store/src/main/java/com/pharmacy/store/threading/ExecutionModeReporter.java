@@ -0,0 +1,41 @@
+package com.pharmacy.store.threading;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Says at startup which threads serve requests. Virtual threads need a Java 21
+ * runtime; on an older one Spring Boot silently keeps platform threads, so the
+ * mismatch is called out here.
+ */
+@Component
+public class ExecutionModeReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionModeReporter.class);
+
+    private static final int VIRTUAL_THREADS_FEATURE_VERSION = 21;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @Value("${pharmacy.datasource.concurrency.enabled:false}")
+    private boolean databaseConcurrencyLimited;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        if (virtualThreadsRequested && !isVirtualThreadsActive()) {
+            logger.warn("Virtual threads requested but the runtime is Java {}; requests run on platform threads",
+                    Runtime.version().feature());
+        }
+        logger.info("Execution mode: {} threads, database concurrency {}",
+                isVirtualThreadsActive() ? "virtual" : "platform", databaseConcurrencyLimited ? "limited" : "unlimited");
+    }
+
+    public boolean isVirtualThreadsActive() {
+        return virtualThreadsRequested && Runtime.version().feature() >= VIRTUAL_THREADS_FEATURE_VERSION;
+    }
+}
@@ -0,0 +1,17 @@
+-- The medicines table as ddl-auto created it from the original Medicine entity; existing databases are
+-- baselined here, so every later column, index and table is added by its own script
+CREATE TABLE medicines (
+    medicine_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    manufacturer VARCHAR(100) NOT NULL,
+    price NUMERIC(10,2) NOT NULL,
+    stock_quantity INTEGER NOT NULL,
+    expiry_date DATE NOT NULL,
+    category VARCHAR(50),
+    prescription_required BOOLEAN,
+    batch_number VARCHAR(20),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (medicine_id)
+);
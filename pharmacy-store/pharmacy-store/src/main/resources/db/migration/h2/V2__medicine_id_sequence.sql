@@ -0,0 +1,7 @@
+-- Medicine ids move from an identity column to a pooled sequence, so JPA inserts can be batched. The pooled
+-- optimizer hands out the 50 ids up to each value it reads, so the sequence starts one block above the highest id.
+CREATE SEQUENCE medicines_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE medicines_seq RESTART WITH (SELECT COALESCE(MAX(medicine_id), 0) + 50 FROM medicines);
+
+-- Inserts that still rely on the identity fail instead of taking ids the sequence will hand out again
+ALTER TABLE medicines ALTER COLUMN medicine_id DROP IDENTITY;
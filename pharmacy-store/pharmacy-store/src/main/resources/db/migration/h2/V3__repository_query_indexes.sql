@@ -0,0 +1,9 @@
+-- One index per repository filter and keyset sort. Keyset pages seek on (sort value, id), so the sort
+-- columns carry the primary key as a second column. Stock is kept descending for the dashboard's top-stocked
+-- list (MySQL can read any index backwards, H2 cannot).
+CREATE INDEX idx_medicines_name ON medicines (name, medicine_id);
+CREATE INDEX idx_medicines_manufacturer ON medicines (manufacturer, medicine_id);
+CREATE INDEX idx_medicines_stock_quantity ON medicines (stock_quantity DESC, medicine_id DESC);
+CREATE INDEX idx_medicines_expiry_date ON medicines (expiry_date, medicine_id);
+CREATE INDEX idx_medicines_batch_number ON medicines (batch_number);
+CREATE INDEX idx_medicines_price ON medicines (price, medicine_id);
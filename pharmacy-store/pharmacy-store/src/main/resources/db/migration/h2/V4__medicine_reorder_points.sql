@@ -0,0 +1,4 @@
+-- Per-medicine reorder policy. A medicine is low on stock once its stock falls below reorder_point
+-- (pharmacy.stock.default-reorder-point when null); reorder_quantity is how much to order then.
+ALTER TABLE medicines ADD COLUMN reorder_point INTEGER;
+ALTER TABLE medicines ADD COLUMN reorder_quantity INTEGER;
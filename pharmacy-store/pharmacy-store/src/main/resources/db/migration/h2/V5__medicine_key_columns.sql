@@ -0,0 +1,10 @@
+-- Lower-cased copies of name, manufacturer and category kept by the database, so case-insensitive lookups
+-- and filters seek an index instead of applying LOWER() to every row. Category is paired with price for
+-- category listings sorted by price.
+ALTER TABLE medicines ADD COLUMN name_key VARCHAR(100) GENERATED ALWAYS AS (LOWER(name));
+ALTER TABLE medicines ADD COLUMN manufacturer_key VARCHAR(100) GENERATED ALWAYS AS (LOWER(manufacturer));
+ALTER TABLE medicines ADD COLUMN category_key VARCHAR(50) GENERATED ALWAYS AS (LOWER(category));
+
+CREATE INDEX idx_medicines_name_key ON medicines (name_key);
+CREATE INDEX idx_medicines_manufacturer_key ON medicines (manufacturer_key);
+CREATE INDEX idx_medicines_category_key ON medicines (category_key, price);
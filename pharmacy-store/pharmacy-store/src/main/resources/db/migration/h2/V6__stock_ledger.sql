@@ -0,0 +1,18 @@
+-- Stock ledger: every stock change is appended to stock_movements and folded into medicines.stock_quantity
+-- in batches; the single checkpoint row records the last movement folded.
+CREATE TABLE stock_movements (
+    movement_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    medicine_id BIGINT NOT NULL,
+    delta INTEGER NOT NULL,
+    reason VARCHAR(20) NOT NULL CHECK (reason IN ('SALE', 'RESTOCK', 'ADJUSTMENT')),
+    performed_by VARCHAR(100),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (movement_id)
+);
+
+CREATE TABLE stock_ledger_checkpoint (
+    checkpoint_id INTEGER NOT NULL,
+    folded_through BIGINT NOT NULL,
+    folded_at TIMESTAMP(6),
+    PRIMARY KEY (checkpoint_id)
+);
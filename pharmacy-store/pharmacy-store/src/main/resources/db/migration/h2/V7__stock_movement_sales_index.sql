@@ -0,0 +1,3 @@
+-- Sales history reads for demand forecasting: SALE movements in a date range. The index covers the
+-- columns the daily totals are grouped from, so the forecast job never reads the table rows themselves.
+CREATE INDEX idx_stock_movements_reason_created_at ON stock_movements (reason, created_at, medicine_id, delta);
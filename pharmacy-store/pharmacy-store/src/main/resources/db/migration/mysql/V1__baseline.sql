@@ -0,0 +1,17 @@
+-- The medicines table as ddl-auto created it from the original Medicine entity; existing databases are
+-- baselined here, so every later column, index and table is added by its own script
+CREATE TABLE medicines (
+    medicine_id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    manufacturer VARCHAR(100) NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    stock_quantity INT NOT NULL,
+    expiry_date DATE NOT NULL,
+    category VARCHAR(50),
+    prescription_required BIT,
+    batch_number VARCHAR(20),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (medicine_id)
+) ENGINE=InnoDB;
@@ -0,0 +1,11 @@
+-- Medicine ids move from AUTO_INCREMENT to a pooled sequence (Hibernate's table emulation on MySQL), so JPA
+-- inserts can be batched. The pooled optimizer hands out the 50 ids up to each value it reads, so the table
+-- starts one block above the highest existing id.
+CREATE TABLE medicines_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO medicines_seq (next_val) SELECT COALESCE(MAX(medicine_id), 0) + 50 FROM medicines;
+
+-- Inserts that still rely on AUTO_INCREMENT fail instead of taking ids the sequence will hand out again
+ALTER TABLE medicines MODIFY medicine_id BIGINT NOT NULL;
@@ -0,0 +1,18 @@
+-- Stock ledger: every stock change is appended to stock_movements and folded into medicines.stock_quantity
+-- in batches; the single checkpoint row records the last movement folded.
+CREATE TABLE stock_movements (
+    movement_id BIGINT NOT NULL AUTO_INCREMENT,
+    medicine_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    reason ENUM('SALE', 'RESTOCK', 'ADJUSTMENT') NOT NULL,
+    performed_by VARCHAR(100),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (movement_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE stock_ledger_checkpoint (
+    checkpoint_id INT NOT NULL,
+    folded_through BIGINT NOT NULL,
+    folded_at DATETIME(6),
+    PRIMARY KEY (checkpoint_id)
+) ENGINE=InnoDB;
@@ -0,0 +1,4 @@
+-- Write lease of the stock ledger. Only the instance named in lease_owner may record, append or fold
+-- movements; another instance takes the lease over once lease_until has passed without a renewal.
+ALTER TABLE stock_ledger_checkpoint ADD COLUMN lease_owner VARCHAR(64);
+ALTER TABLE stock_ledger_checkpoint ADD COLUMN lease_until DATETIME(6);
@@ -0,0 +1,108 @@
+package com.pharmacy.store.benchmark;
+
+import com.pharmacy.store.dto.ForecastReport;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.model.StockMovement;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import com.pharmacy.store.repository.StockLedgerRepository;
+import com.pharmacy.store.service.DemandForecastService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sale events/sec through the nightly demand forecast, from the ledger's
+ * SALE movements to written reorder quantities. Compaction is held off so
+ * the generated history is not folded into stock while it is read.
+ * Run with: mvn test -Pbenchmark -Dtest=DemandForecastBenchmarkTest
+ * (-Dbenchmark.forecast.sales=20000000 for a production-sized history)
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO",
+        "pharmacy.stock.ledger.compaction-interval=PT24H"
+})
+class DemandForecastBenchmarkTest {
+
+    private static final int SKUS = Integer.getInteger("benchmark.forecast.skus", 20_000);
+    private static final int CATEGORIES = Integer.getInteger("benchmark.forecast.categories", 40);
+    private static final int SALES = Integer.getInteger("benchmark.forecast.sales", 2_000_000);
+    private static final int HISTORY_DAYS = 56;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkForecastOverSalesHistory() {
+        List<Medicine> rows = new ArrayList<>(SKUS);
+        for (int i = 0; i < SKUS; i++) {
+            Medicine medicine = new Medicine("Forecast Bench " + i, "Forecast Bench Labs", new BigDecimal("2.75"),
+                    1_000_000, LocalDate.now().plusYears(1));
+            medicine.setCategory("Bench Category " + i % CATEGORIES);
+            rows.add(medicine);
+        }
+        long[] ids = transactionTemplate.execute(status -> medicineBulkRepository.insertBatch(rows)).stream()
+                .mapToLong(Long::longValue).toArray();
+
+        // Skewed demand: a few SKUs sell most of the units, spread over the history window
+        Random random = new Random(20240601);
+        LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+        long start = System.nanoTime();
+        List<StockMovement> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < SALES; i++) {
+            long id = ids[(int) (Math.abs(random.nextGaussian()) * SKUS / 4) % SKUS];
+            LocalDateTime soldAt = startOfToday.minusSeconds(1 + random.nextInt(HISTORY_DAYS * 86_400));
+            batch.add(new StockMovement(id, -(1 + random.nextInt(3)), StockMovement.Reason.SALE, null, soldAt));
+            if (batch.size() == INSERT_BATCH) {
+                stockLedgerRepository.insertBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            stockLedgerRepository.insertBatch(batch);
+        }
+        double insertRate = SALES / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        ForecastReport report = demandForecastService.run();
+        double forecastRate = SALES * 1000.0 / Math.max(1, report.getElapsedMillis());
+
+        System.out.printf("sale events inserted: %,12d  %,12.0f events/sec%n", SALES, insertRate);
+        System.out.printf("forecast            : %,12d  %,12.0f events/sec  %,d ms%n", SALES, forecastRate,
+                report.getElapsedMillis());
+        System.out.printf("  daily rows %,d, categories %d, medicines forecast %,d, reorder quantities changed %,d%n",
+                report.getSalesRowsRead(), report.getCategories(), report.getMedicinesForecast(),
+                report.getReorderQuantitiesChanged());
+
+        assertEquals(ForecastReport.State.COMPLETED, report.getState());
+        assertTrue(report.getMedicinesForecast() > 0);
+        // The generated movements fold into nothing once their medicines are gone
+        jdbcTemplate.update("DELETE FROM medicines WHERE manufacturer = 'Forecast Bench Labs'");
+    }
+}
@@ -0,0 +1,141 @@
+package com.pharmacy.store.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pharmacy.store.service.CatalogueGenerator;
+import com.pharmacy.store.threading.ExecutionModeReporter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Throughput and tail latency of the REST API under a closed loop of many
+ * concurrent clients, in the execution mode the context was started with.
+ * Run once per mode; the second run prints both side by side:
+ *   mvn test -Pbenchmark -Dtest=ExecutionModeLoadTest -Dloadtest.clients=1000
+ *   mvn test -Pbenchmark -Dtest=ExecutionModeLoadTest -Dloadtest.clients=1000 -Dloadtest.virtual-threads=true
+ * The virtual-thread run needs a Java 21 runtime and is skipped on older ones.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO",
+        "logging.level.com.pharmacy.store.request=WARN",
+        "spring.datasource.url=jdbc:h2:mem:executionmode;DB_CLOSE_DELAY=-1",
+        "pharmacy.generator.rows=${loadtest.rows:20000}",
+        "pharmacy.generator.seed=${loadtest.seed:20240601}",
+        "spring.threads.virtual.enabled=${loadtest.virtual-threads:false}",
+        "pharmacy.datasource.concurrency.enabled=${loadtest.virtual-threads:false}"
+})
+class ExecutionModeLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 1000);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+    private static final long SEED = Long.getLong("loadtest.seed", 20240601);
+    private static final double POPULARITY_SKEW = Double.parseDouble(System.getProperty("loadtest.zipf", "1.0"));
+    private static final String RESULTS_DIR = System.getProperty("benchmark.results.dir", "target/benchmark-results");
+    private static final String FILE_PREFIX = "execution-mode-";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExecutionModeReporter executionModeReporter;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreadsRequested;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatThreads;
+
+    @Test
+    void compareExecutionModes() throws Exception {
+        assumeTrue(!virtualThreadsRequested || executionModeReporter.isVirtualThreadsActive(),
+                "virtual threads need a Java 21 runtime");
+        String mode = executionModeReporter.isVirtualThreadsActive() ? "virtual" : "platform";
+
+        long[] ids = jdbcTemplate.queryForList("SELECT medicine_id FROM medicines WHERE batch_number LIKE '"
+                + CatalogueGenerator.BATCH_PREFIX + "%' ORDER BY medicine_id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        assertTrue(ids.length > 0, "no generated catalogue; set -Dloadtest.rows");
+
+        TrafficDriver driver = new TrafficDriver("http://localhost:" + port, ids, TrafficDriver.defaultMix(),
+                POPULARITY_SKEW, CLIENTS);
+        driver.runClosedLoop(CLIENTS, WARMUP, SEED - CLIENTS);
+        TrafficDriver.Report report = driver.runClosedLoop(CLIENTS, DURATION, SEED);
+        System.out.printf("Execution mode %s, %,d clients%n", mode, CLIENTS);
+        report.print();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode);
+        result.put("javaVersion", Runtime.version().toString());
+        result.put("clients", CLIENTS);
+        result.put("tomcatThreads", mode.equals("virtual") ? null : tomcatThreads);
+        result.put("catalogueRows", ids.length);
+        result.put("seed", SEED);
+        result.putAll(report.toMap());
+        Path file = Path.of(RESULTS_DIR, FILE_PREFIX + mode + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(file.toFile(), result);
+        System.out.println("Load test results written to " + file.toAbsolutePath());
+
+        Optional<Path> other = latestResult(mode.equals("virtual") ? "platform" : "virtual");
+        if (other.isPresent()) {
+            printComparison(mapper.readTree(other.get().toFile()), mapper.valueToTree(result));
+        }
+
+        assertTrue(report.requests() > 0);
+        assertEquals(0, report.failures(), "server errors or transport failures during the run");
+    }
+
+    private static Optional<Path> latestResult(String mode) throws IOException {
+        Path dir = Path.of(RESULTS_DIR);
+        if (!Files.isDirectory(dir)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            // Timestamped names sort chronologically
+            return files.filter(path -> path.getFileName().toString().startsWith(FILE_PREFIX + mode + "-"))
+                    .max(Comparator.comparing(path -> path.getFileName().toString()));
+        }
+    }
+
+    private static void printComparison(JsonNode first, JsonNode second) {
+        System.out.printf("%-10s %8s %11s %9s %9s %9s %9s%n",
+                "mode", "clients", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "failed");
+        for (JsonNode run : new JsonNode[]{first, second}) {
+            JsonNode all = run.path("operations").path("ALL");
+            System.out.printf("%-10s %,8d %,11.1f %9.2f %9.2f %9.2f %,9d%n", run.path("mode").asText(),
+                    run.path("clients").asInt(), run.path("achievedRate").asDouble(),
+                    all.path("p50Micros").asLong() / 1000.0, all.path("p99Micros").asLong() / 1000.0,
+                    all.path("p999Micros").asLong() / 1000.0, all.path("failed").asLong());
+        }
+    }
+}
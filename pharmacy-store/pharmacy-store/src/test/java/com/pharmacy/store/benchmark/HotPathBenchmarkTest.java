@@ -0,0 +1,187 @@
+package com.pharmacy.store.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.store.dto.MedicineSearchCriteria;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import com.pharmacy.store.repository.MedicineRepository;
+import com.pharmacy.store.service.MedicineService;
+import com.pharmacy.store.service.SalesService;
+import com.pharmacy.store.service.StockLedger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Average time per call of the service, repository and rendering hot paths on
+ * synthetic catalogues of configurable size, written as JMH-format JSON under
+ * target/benchmark-results so runs can be compared between commits.
+ * Run with: mvn test -Pbenchmark -Dtest=HotPathBenchmarkTest -Dbenchmark.hotpath.rows=10000,1000000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class HotPathBenchmarkTest {
+
+    private static final String ROWS = System.getProperty("benchmark.hotpath.rows", "10000");
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("benchmark.hotpath.warmup", 3);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.hotpath.iterations", 5);
+    private static final Duration ITERATION_TIME =
+            Duration.ofMillis(Long.getLong("benchmark.hotpath.time", 1_000));
+    private static final int LIST_SIZE = Integer.getInteger("benchmark.hotpath.list.size", 100);
+    private static final String RESULTS_DIR = System.getProperty("benchmark.results.dir", "target/benchmark-results");
+
+    private static final String MANUFACTURER_PREFIX = "Hot Path Maker ";
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ConversionService mvcConversionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final MockServletContext servletContext = new MockServletContext();
+    private final JakartaServletWebApplication webApplication =
+            JakartaServletWebApplication.buildApplication(servletContext);
+
+    @Test
+    void benchmarkHotPaths() throws Exception {
+        MicroBenchmark benchmark = new MicroBenchmark(WARMUP_ITERATIONS, ITERATIONS, ITERATION_TIME);
+        int[] catalogueSizes = Arrays.stream(ROWS.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+        for (int rows : catalogueSizes) {
+            long[] ids = seed(rows);
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("rows", rows);
+            try {
+                benchmark.run("SalesService.processSale", params, () ->
+                        salesService.processSale(ids[ThreadLocalRandom.current().nextInt(ids.length)], 1));
+
+                MedicineSearchCriteria byCategory = new MedicineSearchCriteria(null, null,
+                        List.of("Hot Path Category 7"), null, null, null, null);
+                benchmark.run("MedicineService.searchMedicines", params, () ->
+                        medicineService.searchMedicines(byCategory, 0, 50, "name", "asc"));
+
+                benchmark.run("MedicineRepository.findByNameContainingIgnoreCase", params, () ->
+                        medicineRepository.findByNameContainingIgnoreCase("path 4242"));
+
+                benchmark.run("MedicineRepository.getTotalInventoryValue", params,
+                        medicineRepository::getTotalInventoryValue);
+
+                List<Medicine> page = medicineService.getAllMedicines(
+                        PageRequest.of(0, LIST_SIZE, Sort.by("name"))).getContent();
+                assertFalse(page.isEmpty());
+                Map<String, Object> listParams = new LinkedHashMap<>(params);
+                listParams.put("listSize", page.size());
+                benchmark.run("Jackson.writeMedicineList", listParams, () -> objectMapper.writeValueAsBytes(page));
+
+                String html = renderList(page);
+                assertTrue(html.contains(page.get(0).getName()), "rendered list is missing medicines");
+                benchmark.run("Thymeleaf.medicines/list", listParams, () -> renderList(page));
+            } finally {
+                stockLedger.flush();
+                while (stockLedger.compact() > 0) {
+                    // Fold everything the sale benchmark recorded before its medicines go
+                }
+                jdbcTemplate.update("DELETE FROM stock_movements WHERE medicine_id IN " +
+                        "(SELECT medicine_id FROM medicines WHERE manufacturer LIKE 'Hot Path Maker %')");
+                jdbcTemplate.update("DELETE FROM medicines WHERE manufacturer LIKE 'Hot Path Maker %'");
+            }
+        }
+
+        String file = System.getProperty("benchmark.results.file",
+                "hot-paths-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        benchmark.writeJson(Path.of(RESULTS_DIR, file));
+    }
+
+    private long[] seed(int rows) {
+        long[] ids = new long[rows];
+        int seeded = 0;
+        List<Medicine> chunk = new ArrayList<>(1000);
+        for (int i = 0; i < rows; i++) {
+            Medicine medicine = new Medicine("Hot Path " + i, MANUFACTURER_PREFIX + (i % 200),
+                    new BigDecimal((1 + i % 9_000) / 100 + "." + (10 + i % 90)), INITIAL_STOCK,
+                    LocalDate.now().plusYears(1));
+            medicine.setCategory("Hot Path Category " + (i % 40));
+            medicine.setPrescriptionRequired(i % 3 == 0);
+            chunk.add(medicine);
+            if (chunk.size() == 1000 || i == rows - 1) {
+                for (Long id : medicineBulkRepository.insertBatch(chunk)) {
+                    ids[seeded++] = id;
+                }
+                chunk.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE");
+        return ids;
+    }
+
+    // Renders the template the way ThymeleafView does, minus the controller and its query
+    private String renderList(List<Medicine> medicines) {
+        WebContext context = new WebContext(webApplication.buildExchange(
+                new MockHttpServletRequest(servletContext, "GET", "/medicines"), new MockHttpServletResponse()),
+                Locale.ENGLISH);
+        context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, mvcConversionService));
+        context.setVariable("medicines", medicines);
+        context.setVariable("currentPage", 0);
+        context.setVariable("totalPages", 1);
+        return templateEngine.process("medicines/list", context);
+    }
+}
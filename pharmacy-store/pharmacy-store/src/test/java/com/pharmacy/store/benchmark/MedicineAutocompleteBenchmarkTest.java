@@ -0,0 +1,62 @@
+package com.pharmacy.store.benchmark;
+
+import com.pharmacy.store.dto.MedicineSuggestion;
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.service.MedicineAutocompleteIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-lookup latency and throughput of the autocomplete index over a large catalogue.
+ * Run with: mvn test -Pbenchmark -Dtest=MedicineAutocompleteBenchmarkTest
+ */
+@Tag("benchmark")
+class MedicineAutocompleteBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.autocomplete.rows", 1_000_000);
+    private static final int LOOKUPS = Integer.getInteger("benchmark.autocomplete.lookups", 200_000);
+
+    private static final String[] STEMS = {"amoxi", "atorva", "benzo", "cetiri", "diclo", "esome", "fluco", "ibupro",
+            "lorata", "metfor", "napro", "omepra", "panto", "parace", "predni", "ranit", "salbu", "simva", "tramad"};
+    private static final String[] PREFIXES = {"p", "pa", "par", "parace", "ib", "ibupro", "metfor", "s", "zz", "tram"};
+
+    @Test
+    void benchmarkPrefixLookups() {
+        MedicineAutocompleteIndex index = new MedicineAutocompleteIndex();
+        long start = System.nanoTime();
+        for (long i = 0; i < ROWS; i++) {
+            Medicine medicine = new Medicine(STEMS[(int) (i % STEMS.length)] + " " + Long.toString(i, 36),
+                    "Bench Labs", new BigDecimal("2.50"), (int) (i % 200), LocalDate.now().plusYears(1));
+            medicine.setId(i);
+            index.onMedicineChanged(MedicineChangedEvent.saved(medicine));
+        }
+        double buildSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long[] nanos = new long[LOOKUPS];
+        long returned = 0;
+        for (int i = 0; i < LOOKUPS * 2; i++) {
+            long lookupStart = System.nanoTime();
+            List<MedicineSuggestion> suggestions = index.suggest(PREFIXES[i % PREFIXES.length], 10);
+            if (i >= LOOKUPS) {
+                nanos[i - LOOKUPS] = System.nanoTime() - lookupStart;
+                returned += suggestions.size();
+            }
+        }
+        Arrays.sort(nanos);
+        double totalSeconds = Arrays.stream(nanos).sum() / 1_000_000_000.0;
+
+        System.out.printf("autocomplete: %,d names built in %.1f s%n", index.size(), buildSeconds);
+        System.out.printf("autocomplete: %,d lookups  mean %6.1f us  p99 %6.1f us  %,10.0f lookups/sec%n",
+                LOOKUPS, totalSeconds * 1_000_000 / LOOKUPS, nanos[(int) (LOOKUPS * 0.99)] / 1_000.0,
+                LOOKUPS / totalSeconds);
+        assertTrue(returned > 0);
+    }
+}
@@ -0,0 +1,172 @@
+package com.pharmacy.store.benchmark;
+
+import com.pharmacy.store.dto.MedicineSearchCriteria;
+import com.pharmacy.store.dto.MedicineSearchCriteria.PriceRange;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import com.pharmacy.store.service.MedicineService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans and latency of the old catch-all criteria JPQL against the
+ * Specification-based search on a large synthetic catalogue.
+ * Run with: mvn test -Pbenchmark -Dtest=MedicineCriteriaSearchBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineCriteriaSearchBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.criteria.rows", 200_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.criteria.iterations", 50);
+
+    // The query this search replaced, kept verbatim for comparison
+    private static final String CATCH_ALL_JPQL = "SELECT m FROM Medicine m WHERE " +
+            "(:name IS NULL OR LOWER(m.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+            "(:manufacturer IS NULL OR LOWER(m.manufacturer) = LOWER(:manufacturer)) AND " +
+            "(:category IS NULL OR LOWER(m.category) = LOWER(:category)) AND " +
+            "(:minPrice IS NULL OR m.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR m.price <= :maxPrice) AND " +
+            "(:prescriptionRequired IS NULL OR m.prescriptionRequired = :prescriptionRequired)";
+
+    private static final String CATCH_ALL_SQL = "SELECT * FROM medicines WHERE " +
+            "(CAST(? AS VARCHAR) IS NULL OR LOWER(name) LIKE LOWER(CONCAT('%', ?, '%'))) AND " +
+            "(CAST(? AS VARCHAR) IS NULL OR LOWER(manufacturer) = LOWER(?)) AND " +
+            "(CAST(? AS VARCHAR) IS NULL OR LOWER(category) = LOWER(?)) AND " +
+            "(CAST(? AS DECIMAL) IS NULL OR price >= ?) AND " +
+            "(CAST(? AS DECIMAL) IS NULL OR price <= ?) AND " +
+            "(CAST(? AS BOOLEAN) IS NULL OR prescription_required = ?)";
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkCatchAllQueryAgainstSpecifications() {
+        List<Medicine> rows = new ArrayList<>(1000);
+        for (int i = 0; i < ROWS; i++) {
+            Medicine medicine = new Medicine("Criteria Bench " + i, "Bench Maker " + (i % 200),
+                    new BigDecimal((1 + i % 9_000) / 100 + "." + (10 + i % 90)), i % 500, LocalDate.now().plusYears(1));
+            medicine.setCategory("Bench Category " + (i % 40));
+            medicine.setPrescriptionRequired(i % 3 == 0);
+            rows.add(medicine);
+            if (rows.size() == 1000) {
+                medicineBulkRepository.insertBatch(rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            medicineBulkRepository.insertBatch(rows);
+        }
+        jdbcTemplate.execute("ANALYZE");
+
+        String catchAllPlan = explain(CATCH_ALL_SQL, null, null, null, null, "bench category 7", "bench category 7",
+                null, null, null, null, null, null);
+        System.out.println("Catch-all plan (category only): " + catchAllPlan);
+        String categoryPlan = explain("SELECT * FROM medicines WHERE category_key = ?", "bench category 7");
+        String manufacturerPlan = explain(
+                "SELECT * FROM medicines WHERE manufacturer_key = ? AND price BETWEEN ? AND ?",
+                "bench maker 42", new BigDecimal("10.00"), new BigDecimal("20.00"));
+        String pricePlan = explain("SELECT * FROM medicines WHERE price >= ? AND price < ?",
+                new BigDecimal("5.00"), new BigDecimal("5.50"));
+        System.out.println("Specification plan (category only): " + categoryPlan);
+        System.out.println("Specification plan (manufacturer + price): " + manufacturerPlan);
+        System.out.println("Specification plan (price bucket): " + pricePlan);
+
+        assertTrue(categoryPlan.contains("IDX_MEDICINES_CATEGORY_KEY"), categoryPlan);
+        assertTrue(manufacturerPlan.contains("IDX_MEDICINES_MANUFACTURER_KEY"), manufacturerPlan);
+        assertTrue(pricePlan.contains("IDX_MEDICINES_PRICE"), pricePlan);
+
+        report("category only",
+                () -> catchAll(null, null, "Bench Category 7", null, null).size(),
+                () -> medicineService.searchMedicines(criteria(null, List.of("Bench Category 7"), null), 0, 50,
+                        "name", "asc").getTotalElements());
+        report("manufacturer + price",
+                () -> catchAll(null, "Bench Maker 42", null, new BigDecimal("10.00"), new BigDecimal("20.00")).size(),
+                () -> medicineService.searchMedicines(new MedicineSearchCriteria(null, List.of("Bench Maker 42"), null,
+                        new BigDecimal("10.00"), new BigDecimal("20.00"), null, null), 0, 50, "name", "asc")
+                        .getTotalElements());
+        report("2 categories + buckets",
+                () -> catchAll(null, null, "Bench Category 3", null, new BigDecimal("5.00")).size()
+                        + catchAll(null, null, "Bench Category 9", null, new BigDecimal("5.00")).size(),
+                () -> medicineService.searchMedicines(criteria(null, List.of("Bench Category 3", "Bench Category 9"),
+                        List.of(PriceRange.parse("-5.00"))), 0, 50, "price", "asc").getTotalElements());
+
+        jdbcTemplate.update("DELETE FROM medicines WHERE manufacturer LIKE 'Bench Maker %'");
+    }
+
+    private List<Medicine> catchAll(String name, String manufacturer, String category,
+                                    BigDecimal minPrice, BigDecimal maxPrice) {
+        return transactionTemplate.execute(status -> {
+            TypedQuery<Medicine> query = entityManager.createQuery(CATCH_ALL_JPQL, Medicine.class);
+            query.setParameter("name", name);
+            query.setParameter("manufacturer", manufacturer);
+            query.setParameter("category", category);
+            query.setParameter("minPrice", minPrice);
+            query.setParameter("maxPrice", maxPrice);
+            query.setParameter("prescriptionRequired", null);
+            List<Medicine> result = query.getResultList();
+            entityManager.clear();
+            return result;
+        });
+    }
+
+    private void report(String label, Supplier<Number> before, Supplier<Number> after) {
+        long beforeRows = before.get().longValue();
+        long afterRows = after.get().longValue();
+        assertEquals(beforeRows, afterRows, label);
+        System.out.printf("%-24s catch-all mean %8.2f ms | specification mean %8.2f ms (%,d matching rows)%n",
+                label, meanMillis(before), meanMillis(after), afterRows);
+    }
+
+    private static double meanMillis(Supplier<Number> query) {
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        return Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+    }
+
+    // Only the access path comments, e.g. "/* PUBLIC.MEDICINES.tableScan */"
+    private String explain(String sql, Object... args) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+        return plan.lines().filter(line -> line.contains("/*")).map(String::trim).reduce((a, b) -> a + "\n" + b)
+                .orElse(plan);
+    }
+
+    private static MedicineSearchCriteria criteria(String name, List<String> categories, List<PriceRange> buckets) {
+        return new MedicineSearchCriteria(name, null, categories, null, null, buckets, null);
+    }
+}
@@ -0,0 +1,74 @@
+package com.pharmacy.store.benchmark;
+
+import com.pharmacy.store.dto.ImportReport;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.service.MedicineImportService;
+import com.pharmacy.store.service.MedicineService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rows/sec of the chunked bulk import against one-at-a-time saveMedicine on H2.
+ * Run with: mvn test -Pbenchmark -Dtest=MedicineImportBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineImportBenchmarkTest {
+
+    private static final int IMPORT_ROWS = Integer.getInteger("benchmark.import.rows", 200_000);
+    private static final int SAVE_ROWS = Integer.getInteger("benchmark.save.rows", 5_000);
+
+    @Autowired
+    private MedicineImportService medicineImportService;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkBulkImportAgainstSaveMedicine() throws Exception {
+        String expiry = LocalDate.now().plusYears(2).toString();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SAVE_ROWS; i++) {
+            medicineService.saveMedicine(new Medicine("Bench Save " + i, "Bench Labs",
+                    new BigDecimal("4.20"), 100, LocalDate.now().plusYears(2)));
+        }
+        double saveRate = SAVE_ROWS / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        StringBuilder csv = new StringBuilder("name,manufacturer,price,stockQuantity,expiryDate,category\n");
+        for (int i = 0; i < IMPORT_ROWS; i++) {
+            csv.append("Bench Import ").append(i).append(",Bench Labs,")
+               .append(1 + i % 500).append(".25,").append(i % 300).append(',').append(expiry)
+               .append(",Category ").append(i % 20).append('\n');
+        }
+        byte[] feed = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        ImportReport insertRun = medicineImportService.importCsv(new ByteArrayInputStream(feed));
+        ImportReport upsertRun = medicineImportService.importCsv(new ByteArrayInputStream(feed));
+
+        System.out.printf("saveMedicine loop : %,10d rows  %,10.0f rows/sec%n", SAVE_ROWS, saveRate);
+        System.out.printf("bulk import insert: %,10d rows  %,10.0f rows/sec%n", insertRun.getRowsRead(), insertRun.getRowsPerSecond());
+        System.out.printf("bulk import upsert: %,10d rows  %,10.0f rows/sec%n", upsertRun.getRowsRead(), upsertRun.getRowsPerSecond());
+
+        assertEquals(IMPORT_ROWS, insertRun.getInserted());
+        assertEquals(IMPORT_ROWS, upsertRun.getUpdated());
+        jdbcTemplate.update("DELETE FROM medicines WHERE manufacturer = 'Bench Labs'");
+    }
+}
@@ -0,0 +1,87 @@
+package com.pharmacy.store.benchmark;
+
+import com.pharmacy.store.logging.RequestQueryStats;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rows/sec and statements per row of saveAll, one transaction per chunk, with
+ * whichever id generator Medicine is mapped with. An identity column forces
+ * one INSERT per row; the pooled sequence lets them go out in JDBC batches.
+ * Run with: mvn test -Pbenchmark -Dtest=MedicineSaveAllBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineSaveAllBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.saveall.rows", 50_000);
+    private static final int CHUNK = Integer.getInteger("benchmark.saveall.chunk", 1_000);
+    private static final int WARMUP_ROWS = 5_000;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkSaveAll() {
+        String generator = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(Medicine.class).getGenerator().getClass().getSimpleName();
+
+        saveAll("Bench Warmup", WARMUP_ROWS);
+        RequestQueryStats stats = RequestQueryStats.start();
+        long start;
+        try {
+            start = System.nanoTime();
+            saveAll("Bench SaveAll", ROWS);
+        } finally {
+            RequestQueryStats.end();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("saveAll with %s, %,d rows in chunks of %,d%n", generator, ROWS, CHUNK);
+        System.out.printf("  %,10.0f rows/sec  %6.3f statements/row  %,d statements%n",
+                ROWS / seconds, (double) stats.getQueries() / ROWS, stats.getQueries());
+
+        assertEquals(ROWS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM medicines WHERE manufacturer = 'Bench SaveAll'", Integer.class));
+        jdbcTemplate.update("DELETE FROM medicines WHERE manufacturer IN ('Bench Warmup', 'Bench SaveAll')");
+    }
+
+    private void saveAll(String manufacturer, int rows) {
+        LocalDate expiry = LocalDate.now().plusYears(2);
+        for (int offset = 0; offset < rows; offset += CHUNK) {
+            List<Medicine> chunk = new ArrayList<>(CHUNK);
+            for (int i = offset; i < Math.min(rows, offset + CHUNK); i++) {
+                chunk.add(new Medicine(manufacturer + " " + i, manufacturer, new BigDecimal("3.40"), 20, expiry));
+            }
+            transactionTemplate.executeWithoutResult(status -> medicineRepository.saveAll(chunk));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.pharmacy.store.benchmark;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import com.pharmacy.store.repository.MedicineRepository;
+import com.pharmacy.store.service.TrigramIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-query latency of the trigram index against the LIKE '%name%' query it replaces;
+ * fails when the index's p99 misses the search budget.
+ * Run with: mvn test -Pbenchmark -Dtest=MedicineSearchBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineSearchBenchmarkTest {
+
+    private static final int INDEX_ROWS = Integer.getInteger("benchmark.search.index.rows", 1_000_000);
+    private static final int TABLE_ROWS = Integer.getInteger("benchmark.search.table.rows", 100_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.search.iterations", 2_000);
+    // Counter-side search budget at 1M SKUs
+    private static final double P99_BUDGET_MS =
+            Double.parseDouble(System.getProperty("benchmark.search.p99-budget-ms", "2.0"));
+
+    private static final String[] PREFIXES = {"ami", "ben", "cal", "dex", "eto", "flu", "glu", "hydro", "ibu", "keto",
+            "levo", "meto", "napro", "oxy", "para", "quin", "rani", "sal", "tetra", "vala", "zol", "ator", "clo", "pre"};
+    private static final String[] MIDDLES = {"pro", "ce", "xi", "lo", "mi", "pi", "ci", "fe", "pri", "sta", "ti", "va"};
+    private static final String[] SUFFIXES = {"fen", "tamol", "cillin", "lol", "zole", "mide", "pine", "mycin",
+            "pril", "statin", "sone", "tine", "dronate", "xacin"};
+    private static final String[] FORMS = {"Tablets", "Capsules", "Syrup", "Gel", "Drops", "Injection"};
+    private static final String[] MANUFACTURERS = {"Generic Pharma", "Apex Labs", "Northwind Health", "Meditech",
+            "Sunrise Biotech", "Crescent Generics", "Blue River Pharma", "Helix Therapeutics"};
+
+    private static final String[] QUERIES = {"ibu", "ibuprofen", "paraceamol", "levoprolol 50", "ator",
+            "helix", "amoxicillin", "metostatin 100mg", "zolfezole", "quinlomycin caps"};
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkTrigramIndexAgainstLikeQuery() {
+        long start = System.nanoTime();
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < INDEX_ROWS; i++) {
+            index.put(i, name(i), MANUFACTURERS[i % MANUFACTURERS.length], FORMS[i % FORMS.length] + " for oral use");
+        }
+        double buildSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long[] indexNanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS * 2; i++) {
+            long queryStart = System.nanoTime();
+            List<TrigramIndex.Hit> hits = index.search(QUERIES[i % QUERIES.length], 20);
+            if (i >= ITERATIONS) {
+                indexNanos[i - ITERATIONS] = System.nanoTime() - queryStart;
+            }
+            assertFalse(hits.isEmpty(), QUERIES[i % QUERIES.length]);
+        }
+
+        List<Medicine> rows = new ArrayList<>(1000);
+        for (int i = 0; i < TABLE_ROWS; i++) {
+            rows.add(new Medicine(name(i) + " #" + i, "Bench Search Labs", new BigDecimal("3.00"), 10,
+                    LocalDate.now().plusYears(1)));
+            if (rows.size() == 1000) {
+                medicineBulkRepository.insertBatch(rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            medicineBulkRepository.insertBatch(rows);
+        }
+
+        int likeIterations = Math.max(ITERATIONS / 100, QUERIES.length);
+        long[] likeNanos = new long[likeIterations];
+        for (int i = 0; i < likeIterations; i++) {
+            long queryStart = System.nanoTime();
+            medicineRepository.findByNameContainingIgnoreCase(QUERIES[i % QUERIES.length]);
+            likeNanos[i] = System.nanoTime() - queryStart;
+        }
+
+        System.out.printf("trigram index: %,d SKUs built in %.1f s, %,d postings%n",
+                index.size(), buildSeconds, index.postingCount());
+        System.out.printf("trigram index  (%,9d SKUs): mean %8.3f ms  p99 %8.3f ms%n",
+                INDEX_ROWS, mean(indexNanos), percentile(indexNanos, 0.99));
+        System.out.printf("LIKE '%%name%%' (%,9d rows): mean %8.3f ms  p99 %8.3f ms%n",
+                TABLE_ROWS, mean(likeNanos), percentile(likeNanos, 0.99));
+        for (int q = 0; q < QUERIES.length; q++) {
+            long[] perQuery = new long[ITERATIONS / QUERIES.length];
+            for (int i = 0; i < perQuery.length; i++) {
+                perQuery[i] = indexNanos[i * QUERIES.length + q];
+            }
+            System.out.printf("  %-20s mean %8.3f ms  p99 %8.3f ms%n",
+                    '"' + QUERIES[q] + '"', mean(perQuery), percentile(perQuery, 0.99));
+        }
+
+        jdbcTemplate.update("DELETE FROM medicines WHERE manufacturer = 'Bench Search Labs'");
+
+        double p99 = percentile(indexNanos, 0.99);
+        assertTrue(p99 < P99_BUDGET_MS, String.format("trigram index p99 %.3f ms over the %.1f ms budget",
+                p99, P99_BUDGET_MS));
+    }
+
+    private static String name(int i) {
+        return capitalize(PREFIXES[i % PREFIXES.length] + MIDDLES[(i / 7) % MIDDLES.length]
+                + SUFFIXES[(i / 13) % SUFFIXES.length]) + " " + (25 * (1 + (i / 3) % 20)) + "mg "
+                + FORMS[(i / 5) % FORMS.length];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static double mean(long[] nanos) {
+        return Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+    }
+
+    private static double percentile(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * (sorted.length - 1)))] / 1_000_000.0;
+    }
+}
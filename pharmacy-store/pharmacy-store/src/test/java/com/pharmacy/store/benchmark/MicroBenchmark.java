@@ -0,0 +1,113 @@
+package com.pharmacy.store.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Minimal JMH-style harness for the benchmark suites: timed warmup and
+ * measurement iterations on the calling thread, average time per operation,
+ * and results written as JSON in JMH's result layout so runs from different
+ * commits can be compared with the same tooling.
+ */
+final class MicroBenchmark {
+
+    // Two-sided 99.9% Student t quantiles for 1..15 degrees of freedom, as JMH reports scoreError
+    private static final double[] T_999 = {636.62, 31.60, 12.92, 8.61, 6.87, 5.96, 5.41, 5.04, 4.78, 4.59,
+            4.44, 4.32, 4.22, 4.14, 4.07};
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final Duration iterationTime;
+    private final List<Map<String, Object>> results = new ArrayList<>();
+
+    // Results are fed in here so the JIT cannot drop an operation whose value is unused
+    private volatile Object sink;
+
+    MicroBenchmark(int warmupIterations, int measurementIterations, Duration iterationTime) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationTime = iterationTime;
+    }
+
+    // Average microseconds per operation for each measurement iteration
+    double[] run(String benchmark, Map<String, Object> params, Callable<?> operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation);
+        }
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            scores[i] = iteration(operation);
+        }
+
+        double mean = Arrays.stream(scores).average().orElse(0);
+        double error = scoreError(scores, mean);
+        System.out.printf("%-52s %-28s %12.3f +- %10.3f us/op%n", benchmark, params, mean, error);
+        results.add(result(benchmark, params, scores, mean, error));
+        return scores;
+    }
+
+    void writeJson(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), results);
+        System.out.println("Benchmark results written to " + file.toAbsolutePath());
+    }
+
+    private double iteration(Callable<?> operation) throws Exception {
+        long deadline = System.nanoTime() + iterationTime.toNanos();
+        long operations = 0;
+        long start = System.nanoTime();
+        long now;
+        do {
+            sink = operation.call();
+            operations++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return (now - start) / 1_000.0 / operations;
+    }
+
+    private Map<String, Object> result(String benchmark, Map<String, Object> params, double[] scores,
+                                       double mean, double error) {
+        Map<String, Object> primaryMetric = new LinkedHashMap<>();
+        primaryMetric.put("score", mean);
+        primaryMetric.put("scoreError", error);
+        primaryMetric.put("scoreConfidence", new double[]{mean - error, mean + error});
+        primaryMetric.put("scoreUnit", "us/op");
+        primaryMetric.put("rawData", new double[][]{scores});
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", benchmark);
+        result.put("mode", "avgt");
+        result.put("threads", 1);
+        result.put("forks", 0);
+        result.put("warmupIterations", warmupIterations);
+        result.put("warmupTime", iterationTime.toMillis() + " ms");
+        result.put("measurementIterations", measurementIterations);
+        result.put("measurementTime", iterationTime.toMillis() + " ms");
+        Map<String, String> textParams = new LinkedHashMap<>();
+        params.forEach((name, value) -> textParams.put(name, String.valueOf(value)));
+        result.put("params", textParams);
+        result.put("primaryMetric", primaryMetric);
+        return result;
+    }
+
+    private static double scoreError(double[] scores, double mean) {
+        int n = scores.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double variance = Arrays.stream(scores).map(s -> (s - mean) * (s - mean)).sum() / (n - 1);
+        double t = n - 1 <= T_999.length ? T_999[n - 2] : 3.29;
+        return t * Math.sqrt(variance / n);
+    }
+}
@@ -0,0 +1,157 @@
+package com.pharmacy.store.benchmark;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.model.StockMovement;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import com.pharmacy.store.service.StockLedger;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stock movements/sec through the write-behind ledger against the synchronous
+ * paths it replaced, with concurrent counters hitting a shared catalogue.
+ * Run with: mvn test -Pbenchmark -Dtest=StockLedgerBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class StockLedgerBenchmarkTest {
+
+    private static final int SKUS = Integer.getInteger("benchmark.ledger.skus", 1_000);
+    private static final int THREADS = Integer.getInteger("benchmark.ledger.threads", 16);
+    private static final int MOVEMENTS_PER_THREAD = Integer.getInteger("benchmark.ledger.movements", 2_000);
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    // The read-then-save-everything statement the entity path issued for every stock change
+    private static final String FULL_ROW_UPDATE = "UPDATE medicines SET name = ?, description = ?, manufacturer = ?, " +
+            "price = ?, stock_quantity = ?, expiry_date = ?, category = ?, prescription_required = ?, " +
+            "batch_number = ?, updated_at = ? WHERE medicine_id = ?";
+
+    private static final String CONDITIONAL_DECREMENT =
+            "UPDATE medicines SET stock_quantity = stock_quantity - ?, updated_at = ? " +
+            "WHERE medicine_id = ? AND stock_quantity >= ? AND expiry_date >= ?";
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkLedgerAgainstSynchronousStockWrites() throws Exception {
+        List<Medicine> rows = new ArrayList<>(SKUS);
+        for (int i = 0; i < SKUS; i++) {
+            rows.add(new Medicine("Ledger Bench " + i, "Ledger Bench Labs", new BigDecimal("3.50"),
+                    INITIAL_STOCK, LocalDate.now().plusYears(1)));
+        }
+        long[] ids = medicineBulkRepository.insertBatch(rows).stream().mapToLong(Long::longValue).toArray();
+        stockLedger.flush();
+        stockLedger.compact();
+
+        report("read + full-row save", run(ids, id -> transactionTemplate.executeWithoutResult(status -> {
+            Medicine medicine = entityManager.find(Medicine.class, id);
+            medicine.updateStock(-1);
+            jdbcTemplate.update(FULL_ROW_UPDATE, medicine.getName(), medicine.getDescription(),
+                    medicine.getManufacturer(), medicine.getPrice(), medicine.getStockQuantity(),
+                    medicine.getExpiryDate(), medicine.getCategory(), medicine.getPrescriptionRequired(),
+                    medicine.getBatchNumber(), LocalDateTime.now(), id);
+            entityManager.clear();
+        })));
+        report("conditional UPDATE", run(ids, id ->
+                assertEquals(1, jdbcTemplate.update(CONDITIONAL_DECREMENT, 1, LocalDateTime.now(), id, 1,
+                        LocalDate.now()))));
+        report("ledger DURABLE", run(ids, id -> stockLedger.record(id, -1, StockMovement.Reason.SALE, "bench",
+                StockLedger.Durability.DURABLE).orElseThrow()));
+        long bufferedNanos = run(ids, id -> stockLedger.record(id, -1, StockMovement.Reason.SALE, "bench",
+                StockLedger.Durability.BUFFERED).orElseThrow());
+        long flushStart = System.nanoTime();
+        stockLedger.flush();
+        report("ledger BUFFERED", bufferedNanos);
+        report("ledger BUFFERED + flush", bufferedNanos + System.nanoTime() - flushStart);
+
+        long foldStart = System.nanoTime();
+        int folded = 0;
+        for (int medicines = stockLedger.compact(); medicines > 0; medicines = stockLedger.compact()) {
+            folded += medicines;
+        }
+        System.out.printf("fold of %,d ledger movements into %,d medicines: %.1f ms%n",
+                2 * movements(), folded, (System.nanoTime() - foldStart) / 1_000_000.0);
+
+        // The full-row path loses updates under contention; the ledger paths must not lose any
+        Long ledgerSold = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(delta), 0) FROM stock_movements " +
+                "WHERE performed_by = 'bench'", Long.class);
+        assertEquals(-2L * movements(), ledgerSold);
+
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE performed_by = 'bench'");
+        jdbcTemplate.update("DELETE FROM medicines WHERE manufacturer = 'Ledger Bench Labs'");
+    }
+
+    private long run(long[] ids, StockWrite write) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < MOVEMENTS_PER_THREAD; i++) {
+                    write.apply(ids[random.nextInt(ids.length)]);
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private static void report(String label, long nanos) {
+        System.out.printf("%-26s %,9.0f movements/sec (%d threads, %,d movements)%n",
+                label, movements() / (nanos / 1_000_000_000.0), THREADS, movements());
+    }
+
+    private static long movements() {
+        return (long) THREADS * MOVEMENTS_PER_THREAD;
+    }
+
+    @FunctionalInterface
+    private interface StockWrite {
+        void apply(long medicineId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.pharmacy.store.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pharmacy.store.service.CatalogueGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Local stand-in for store-day load: a generated catalogue served over HTTP
+ * and driven by a replayable mix of sales, searches, stock updates and
+ * dashboard reads at a target rate. Runs against its own in-memory database.
+ * Run with: mvn test -Pbenchmark -Dtest=StoreDayLoadTest -Dloadtest.rows=1000000 -Dloadtest.rate=300
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO",
+        "spring.datasource.url=jdbc:h2:mem:storeday;DB_CLOSE_DELAY=-1",
+        "pharmacy.generator.rows=${loadtest.rows:100000}",
+        "pharmacy.generator.seed=${loadtest.seed:20240601}"
+})
+class StoreDayLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration", 60));
+    private static final long SEED = Long.getLong("loadtest.seed", 20240601);
+    private static final double POPULARITY_SKEW = Double.parseDouble(System.getProperty("loadtest.zipf", "1.0"));
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+    private static final String RESULTS_DIR = System.getProperty("benchmark.results.dir", "target/benchmark-results");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void driveStoreDayTraffic() throws Exception {
+        // Generated rows are inserted in popularity order
+        long[] ids = jdbcTemplate.queryForList("SELECT medicine_id FROM medicines WHERE batch_number LIKE '"
+                + CatalogueGenerator.BATCH_PREFIX + "%' ORDER BY medicine_id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        assertTrue(ids.length > 0, "no generated catalogue; set -Dloadtest.rows");
+
+        TrafficDriver driver = new TrafficDriver("http://localhost:" + port, ids, TrafficDriver.defaultMix(),
+                POPULARITY_SKEW, CONCURRENCY);
+        driver.run(RATE, WARMUP, SEED - 1);
+        TrafficDriver.Report report = driver.run(RATE, DURATION, SEED);
+        report.print();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("catalogueRows", ids.length);
+        result.put("seed", SEED);
+        result.put("popularitySkew", POPULARITY_SKEW);
+        result.put("concurrency", CONCURRENCY);
+        result.putAll(report.toMap());
+        Path file = Path.of(RESULTS_DIR, "store-day-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), result);
+        System.out.println("Load test results written to " + file.toAbsolutePath());
+
+        assertTrue(report.requests() > 0);
+        assertEquals(0, report.failures(), "server errors or transport failures during the run");
+    }
+}
@@ -0,0 +1,277 @@
+package com.pharmacy.store.benchmark;
+
+import com.pharmacy.store.service.CatalogueGenerator;
+import com.pharmacy.store.service.ZipfSampler;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop store-day traffic against the REST API. Requests are issued on a
+ * fixed schedule at the target rate whatever the server's latency, and each
+ * latency is measured from the request's scheduled start, so queueing behind
+ * a slow server shows up in the histograms instead of lowering the load.
+ * The request sequence depends only on the seed, so a run can be replayed.
+ * A closed-loop run instead keeps a fixed number of clients each waiting on
+ * its own request, which measures what the server sustains at that
+ * concurrency.
+ */
+final class TrafficDriver {
+
+    enum Operation { SALE, SEARCH, AUTOCOMPLETE, GET, STOCK_UPDATE, DASHBOARD }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final long[] idsByPopularity;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final ZipfSampler popularity;
+    private final int concurrency;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    TrafficDriver(String baseUrl, long[] idsByPopularity, Map<Operation, Integer> mix, double popularitySkew,
+                  int concurrency) {
+        this.baseUrl = baseUrl;
+        this.idsByPopularity = idsByPopularity;
+        this.mix = new EnumMap<>(mix);
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.popularity = new ZipfSampler(idsByPopularity.length, popularitySkew);
+        this.concurrency = concurrency;
+    }
+
+    static Map<Operation, Integer> defaultMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.SALE, 35);
+        mix.put(Operation.SEARCH, 20);
+        mix.put(Operation.AUTOCOMPLETE, 15);
+        mix.put(Operation.GET, 15);
+        mix.put(Operation.STOCK_UPDATE, 5);
+        mix.put(Operation.DASHBOARD, 10);
+        return mix;
+    }
+
+    Report run(double requestsPerSecond, Duration duration, long seed) throws InterruptedException {
+        Random random = new Random(seed);
+        Report report = new Report(requestsPerSecond);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        long requests = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        try {
+            for (long i = 0; i < requests; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                Operation operation = nextOperation(random);
+                HttpRequest request = request(operation, random);
+                long wait = scheduledAt - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                workers.execute(() -> send(operation, request, scheduledAt, report));
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    // Each client sends its next request as soon as the previous one answers; no client thread is held while waiting
+    Report runClosedLoop(int clients, Duration duration, long seed) throws InterruptedException {
+        Report report = new Report(0);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        CountDownLatch finished = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            new ClosedLoopClient(new Random(seed + i), deadline, report, finished).sendNext();
+        }
+        finished.await(duration.toSeconds() + REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private final class ClosedLoopClient {
+        private final Random random;
+        private final long deadline;
+        private final Report report;
+        private final CountDownLatch finished;
+
+        private ClosedLoopClient(Random random, long deadline, Report report, CountDownLatch finished) {
+            this.random = random;
+            this.deadline = deadline;
+            this.report = report;
+            this.finished = finished;
+        }
+
+        private void sendNext() {
+            if (System.nanoTime() >= deadline) {
+                finished.countDown();
+                return;
+            }
+            Operation operation = nextOperation(random);
+            HttpRequest request = request(operation, random);
+            long sentAt = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                report.record(operation, error == null ? response.statusCode() : -1,
+                        (System.nanoTime() - sentAt) / 1_000);
+                sendNext();
+            });
+        }
+    }
+
+    private void send(Operation operation, HttpRequest request, long scheduledAt, Report report) {
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        report.record(operation, status, (System.nanoTime() - scheduledAt) / 1_000);
+    }
+
+    private Operation nextOperation(Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Traffic mix has no weight");
+    }
+
+    private HttpRequest request(Operation operation, Random random) {
+        String api = baseUrl + "/api/medicines";
+        return switch (operation) {
+            case SALE -> post(api + "/" + popularId(random) + "/sale?quantity=" + (1 + random.nextInt(3)));
+            case SEARCH -> get(api + "/search?size=20&name=" + stem(random));
+            case AUTOCOMPLETE -> get(api + "/autocomplete?prefix=" + stem(random).substring(0, 3));
+            case GET -> get(api + "/" + popularId(random));
+            case STOCK_UPDATE -> HttpRequest.newBuilder(URI.create(api + "/" + popularId(random) + "/stock?quantity="
+                    + (50 + random.nextInt(500)))).timeout(REQUEST_TIMEOUT)
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+            case DASHBOARD -> get(api + "/analytics/dashboard");
+        };
+    }
+
+    private long popularId(Random random) {
+        return idsByPopularity[popularity.sample(random)];
+    }
+
+    private static String stem(Random random) {
+        return CatalogueGenerator.NAME_STEMS[random.nextInt(CatalogueGenerator.NAME_STEMS.length)];
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest post(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    static final class Report {
+        private final double targetRate;
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> rejected = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> failed = new EnumMap<>(Operation.class);
+        private final LatencyHistogram overall = new LatencyHistogram();
+        private volatile long elapsedNanos;
+
+        private Report(double targetRate) {
+            this.targetRate = targetRate;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                rejected.put(operation, new LongAdder());
+                failed.put(operation, new LongAdder());
+            }
+        }
+
+        private void record(Operation operation, int status, long micros) {
+            latencies.get(operation).record(micros);
+            overall.record(micros);
+            // 4xx is the API saying no (e.g. out of stock); 5xx and transport errors are failures
+            if (status >= 400 && status < 500) {
+                rejected.get(operation).increment();
+            } else if (status < 200 || status >= 500) {
+                failed.get(operation).increment();
+            }
+        }
+
+        long failures() {
+            return failed.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        long requests() {
+            return overall.count();
+        }
+
+        void print() {
+            if (targetRate > 0) {
+                System.out.printf("Store-day traffic: %,d requests in %.1f s, %.1f req/s achieved (target %.1f)%n",
+                        requests(), elapsedNanos / 1e9, requests() / (elapsedNanos / 1e9), targetRate);
+            } else {
+                System.out.printf("Closed-loop traffic: %,d requests in %.1f s, %.1f req/s%n",
+                        requests(), elapsedNanos / 1e9, requests() / (elapsedNanos / 1e9));
+            }
+            System.out.printf("%-14s %9s %9s %7s %9s %9s %9s %9s %9s%n",
+                    "operation", "requests", "rejected", "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            latencies.forEach((operation, histogram) -> printRow(operation.name(), histogram,
+                    rejected.get(operation).sum(), failed.get(operation).sum()));
+            printRow("ALL", overall, rejected.values().stream().mapToLong(LongAdder::sum).sum(), failures());
+        }
+
+        private static void printRow(String label, LatencyHistogram histogram, long rejected, long failed) {
+            System.out.printf("%-14s %,9d %,9d %,7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", label, histogram.count(),
+                    rejected, failed, histogram.percentile(0.50) / 1000.0, histogram.percentile(0.90) / 1000.0,
+                    histogram.percentile(0.99) / 1000.0, histogram.percentile(0.999) / 1000.0,
+                    histogram.max() / 1000.0);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("targetRate", targetRate);
+            result.put("achievedRate", requests() / (elapsedNanos / 1e9));
+            result.put("elapsedSeconds", elapsedNanos / 1e9);
+            Map<String, Object> operations = new LinkedHashMap<>();
+            latencies.forEach((operation, histogram) -> operations.put(operation.name(),
+                    summary(histogram, rejected.get(operation).sum(), failed.get(operation).sum())));
+            operations.put("ALL", summary(overall, rejected.values().stream().mapToLong(LongAdder::sum).sum(),
+                    failures()));
+            result.put("operations", operations);
+            return result;
+        }
+
+        private static Map<String, Object> summary(LatencyHistogram histogram, long rejected, long failed) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", histogram.count());
+            summary.put("rejected", rejected);
+            summary.put("failed", failed);
+            summary.put("p50Micros", histogram.percentile(0.50));
+            summary.put("p90Micros", histogram.percentile(0.90));
+            summary.put("p99Micros", histogram.percentile(0.99));
+            summary.put("p999Micros", histogram.percentile(0.999));
+            summary.put("maxMicros", histogram.max());
+            summary.put("histogram", histogram.buckets());
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.pharmacy.store.controller;
+
+import com.pharmacy.store.logging.QueryBudgetInterceptor;
+import com.pharmacy.store.logging.RequestQueryStats;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import com.pharmacy.store.service.MedicineCatalogueCache;
+import com.pharmacy.store.service.MedicineExpiryIndex;
+import com.pharmacy.store.service.MedicineLowStockIndex;
+import com.pharmacy.store.service.MedicineService;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement counts per endpoint on the request thread. The test profile runs
+ * the guard in FAIL mode, so a handler over its budget also fails its request.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class ControllerQueryBudgetTest {
+
+    private static final String MANUFACTURER = "Budget Labs";
+    private static final String EXPIRY = LocalDate.now().plusYears(1).toString();
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineCatalogueCache medicineCatalogueCache;
+
+    @Autowired
+    private QueryBudgetInterceptor queryBudgetInterceptor;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @Autowired
+    private MedicineLowStockIndex medicineLowStockIndex;
+
+    private MockMvc mockMvc;
+    private Medicine medicine;
+    private long exceededBefore;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        medicine = medicineService.saveMedicine(new Medicine("Budgetol", MANUFACTURER,
+                new BigDecimal("3.10"), 40, LocalDate.now().plusYears(1)));
+        medicineCatalogueCache.clear();
+        exceededBefore = exceeded();
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase(MANUFACTURER));
+        medicineCatalogueCache.clear();
+        assertEquals(exceededBefore, exceeded(), "a request went over its query budget");
+    }
+
+    @Test
+    void testGuard_RunsInFailModeForTests() {
+        assertEquals(QueryBudgetInterceptor.Mode.FAIL, queryBudgetInterceptor.getMode());
+    }
+
+    @Test
+    void testMedicineControllerReads_StayWithinTheirQueryCounts() throws Exception {
+        Long id = medicine.getId();
+
+        assertEquals(1, queries(get("/api/medicines"), status().isOk()));
+        assertEquals(0, queries(get("/api/medicines/export"), status().isOk()));
+        assertEquals(1, queries(get("/api/medicines/paginated"), status().isOk()));
+        // A full page also needs the count query
+        assertEquals(2, queries(get("/api/medicines/paginated").param("size", "1"), status().isOk()));
+        assertEquals(1, queries(get("/api/medicines/paginated/keyset"), status().isOk()));
+        assertEquals(1, queries(get("/api/medicines/" + id), status().isOk()));
+        // Served from the catalogue cache the second time
+        assertEquals(0, queries(get("/api/medicines/" + id), status().isOk()));
+        assertEquals(1, queries(get("/api/medicines/search/name/Budgetol"), status().isOk()));
+        assertEquals(2, queries(get("/api/medicines/search").param("name", "budg").param("size", "1"),
+                status().isOk()));
+        assertEquals(1, queries(get("/api/medicines/search/ranked").param("q", "budgetol"), status().isOk()));
+        assertEquals(0, queries(get("/api/medicines/autocomplete").param("prefix", "bud"), status().isOk()));
+        // Likewise the low-stock index names the rows to load
+        int lowStockRows = medicineLowStockIndex.getLowStockIds().isEmpty() ? 0 : 1;
+        assertEquals(lowStockRows, queries(get("/api/medicines/low-stock"), status().isOk()));
+        assertEquals(lowStockRows, queries(get("/api/medicines/reorder-suggestions"), status().isOk()));
+        assertEquals(medicineLowStockIndex.countBelow(50) == 0 ? 0 : 1,
+                queries(get("/api/medicines/low-stock").param("threshold", "50"), status().isOk()));
+        // The expiry index names the expired ids; the rows are loaded only when there are some
+        assertEquals(medicineExpiryIndex.getExpiredIds().isEmpty() ? 0 : 1,
+                queries(get("/api/medicines/expired"), status().isOk()));
+    }
+
+    @Test
+    void testMedicineControllerWrites_StayWithinTheirQueryCounts() throws Exception {
+        Long id = medicine.getId();
+        Long second = medicineService.saveMedicine(new Medicine("Budgetol Forte", MANUFACTURER,
+                new BigDecimal("4.80"), 40, LocalDate.now().plusYears(1))).getId();
+        Long third = medicineService.saveMedicine(new Medicine("Budgetol Junior", MANUFACTURER,
+                new BigDecimal("2.20"), 40, LocalDate.now().plusYears(1))).getId();
+        String json = "{\"name\":\"Budgetol Plus\",\"manufacturer\":\"" + MANUFACTURER + "\",\"price\":2.50,"
+                + "\"stockQuantity\":5,\"expiryDate\":\"" + EXPIRY + "\"}";
+
+        // Plus a sequence call for the first id of each pooled block
+        assertQueries(2, 1, queries(post("/api/medicines").contentType(MediaType.APPLICATION_JSON).content(json),
+                status().isCreated()));
+        assertEquals(4, queries(put("/api/medicines/" + id).contentType(MediaType.APPLICATION_JSON)
+                .content(json.replace("Plus", "Max")), status().isOk()));
+        // The edit evicted the cached row, so this reads it as well as the stock level
+        assertEquals(2, queries(patch("/api/medicines/" + id + "/stock").param("quantity", "30"),
+                status().isOk()));
+        assertEquals(2, queries(patch("/api/medicines/" + id + "/reorder-point").param("reorderPoint", "35")
+                .param("reorderQuantity", "60"), status().isOk()));
+        assertEquals(1, queries(post("/api/medicines/" + id + "/sale").param("quantity", "2"), status().isOk()));
+        assertEquals(2, queries(post("/api/medicines/" + id + "/sale").param("quantity", "1000"),
+                status().isBadRequest()));
+        // One statement per basket, not per line
+        assertEquals(2, queries(post("/api/medicines/sales/basket").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"medicineId\":" + id + ",\"quantity\":1},{\"medicineId\":" + second
+                        + ",\"quantity\":1},{\"medicineId\":" + third + ",\"quantity\":1}]"), status().isOk()));
+        assertEquals(2, queries(delete("/api/medicines/" + second), status().isOk()));
+    }
+
+    @Test
+    void testMedicineControllerImportAndStatistics_StayWithinTheirQueryCounts() throws Exception {
+        String csv = "name,manufacturer,price,stock_quantity,expiry_date\n"
+                + "Budget Import One," + MANUFACTURER + ",1.00,3," + EXPIRY + "\n"
+                + "Budget Import Two," + MANUFACTURER + ",1.50,6," + EXPIRY + "\n";
+
+        // Not budgeted, but one chunk should still cost the same as it does today, give or take a sequence call;
+        // the low-stock index reloads the imported rows once more
+        assertQueries(6, 1, queries(post("/api/medicines/import").contentType("text/csv").content(csv),
+                status().isOk()));
+        assertEquals(0, queries(get("/api/medicines/import/status"), status().isOk()));
+        assertEquals(0, queries(get("/api/medicines/sales/statistics"), status().isOk()));
+        assertEquals(0, queries(get("/api/medicines/stock/ledger/statistics"), status().isOk()));
+        assertEquals(0, queries(get("/api/medicines/cache/statistics"), status().isOk()));
+        assertEquals(0, queries(get("/api/medicines/analytics/dashboard"), status().isOk()));
+        assertEquals(0, queries(get("/api/medicines/analytics/dashboard/stream"), status().isOk()));
+    }
+
+    @Test
+    void testWebControllerPages_StayWithinTheirQueryCounts() throws Exception {
+        assertEquals(0, queries(get("/"), status().isOk()));
+        assertEquals(1, queries(get("/medicines"), status().isOk()));
+        // medicines/form and medicines/view do not render in this tree; the handlers are counted regardless
+        assertEquals(0, queriesWithBrokenView(get("/medicines/add")));
+        assertEquals(1, queriesWithBrokenView(get("/medicines/view/" + medicine.getId())));
+    }
+
+    private int queries(RequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        // Started here so the guard counts into stats the test can read afterwards
+        RequestQueryStats stats = RequestQueryStats.start();
+        try {
+            mockMvc.perform(request).andExpect(expectedStatus);
+        } finally {
+            RequestQueryStats.end();
+        }
+        return stats.getQueries();
+    }
+
+    private int queriesWithBrokenView(RequestBuilder request) {
+        RequestQueryStats stats = RequestQueryStats.start();
+        try {
+            assertThrows(ServletException.class, () -> mockMvc.perform(request));
+        } finally {
+            RequestQueryStats.end();
+        }
+        return stats.getQueries();
+    }
+
+    // New ids are drawn from a pool, so whether a request also fetches the next block depends on earlier inserts
+    private static void assertQueries(int expected, int sequenceCalls, int actual) {
+        assertTrue(actual >= expected && actual <= expected + sequenceCalls,
+                "expected " + expected + " statements plus up to " + sequenceCalls + " sequence calls, was " + actual);
+    }
+
+    private long exceeded() {
+        return ((Number) queryBudgetInterceptor.getStatistics().get("exceeded")).longValue();
+    }
+}
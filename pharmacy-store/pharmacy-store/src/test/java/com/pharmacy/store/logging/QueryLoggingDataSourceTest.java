@@ -0,0 +1,97 @@
+package com.pharmacy.store.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryLoggingDataSourceTest {
+
+    private final Logger slowQueryLogger = (Logger) LoggerFactory.getLogger("com.pharmacy.store.sql.slow");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private SingleConnectionDataSource target;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        slowQueryLogger.addAppender(appender);
+        target = new SingleConnectionDataSource("jdbc:h2:mem:query_logging;DB_CLOSE_DELAY=-1", "sa", "", true);
+        new JdbcTemplate(target).execute("CREATE TABLE IF NOT EXISTS shelf (id INT PRIMARY KEY, label VARCHAR(50))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLogger.detachAppender(appender);
+        new JdbcTemplate(target).execute("DROP TABLE shelf");
+        target.destroy();
+    }
+
+    @Test
+    void testSlowStatements_AreLoggedWithBindValues() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new QueryLoggingDataSource(target, Duration.ZERO, 1.0, true));
+
+        jdbcTemplate.update("INSERT INTO shelf (id, label) VALUES (?, ?)", 7, "Aisle 3");
+
+        List<String> messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).contains("sql=\"INSERT INTO shelf (id, label) VALUES (?, ?)\""), messages.get(0));
+        assertTrue(messages.get(0).contains("params=[7, 'Aisle 3']"), messages.get(0));
+    }
+
+    @Test
+    void testFastStatements_AreNotLoggedButCountTowardsTheRequest() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                new QueryLoggingDataSource(target, Duration.ofMinutes(1), 1.0, false));
+
+        RequestQueryStats stats = RequestQueryStats.start();
+        try {
+            jdbcTemplate.update("INSERT INTO shelf (id, label) VALUES (?, ?)", 1, "Front");
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shelf", Integer.class);
+        } finally {
+            RequestQueryStats.end();
+        }
+
+        assertTrue(appender.list.isEmpty());
+        assertEquals(2, stats.getQueries());
+        assertTrue(stats.getDatabaseNanos() > 0);
+    }
+
+    @Test
+    void testSampleRate_DropsSlowStatementsOutsideTheSample() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new QueryLoggingDataSource(target, Duration.ZERO, 0.0, true));
+
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shelf", Integer.class);
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void testEnforcedBudget_RejectsTheStatementOverBudget() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                new QueryLoggingDataSource(target, Duration.ofMinutes(1), 1.0, false));
+
+        RequestQueryStats stats = RequestQueryStats.start();
+        try {
+            stats.limit(1, true);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shelf", Integer.class);
+            assertThrows(QueryBudgetExceededException.class,
+                    () -> jdbcTemplate.update("INSERT INTO shelf (id, label) VALUES (?, ?)", 2, "Back"));
+        } finally {
+            RequestQueryStats.end();
+        }
+
+        assertEquals(1, stats.getQueries());
+        assertTrue(stats.isOverBudget());
+        assertEquals(0, new JdbcTemplate(target).queryForObject("SELECT COUNT(*) FROM shelf", Integer.class));
+    }
+}
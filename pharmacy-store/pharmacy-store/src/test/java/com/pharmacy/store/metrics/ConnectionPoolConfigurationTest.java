@@ -0,0 +1,79 @@
+package com.pharmacy.store.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The production pool and driver settings, started against H2 in MySQL mode
+ * through the production-h2 profile.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+@ActiveProfiles("production-h2")
+class ConnectionPoolConfigurationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Test
+    void testProductionPool_IsFixedSizeWithLeakDetection() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+
+        assertEquals("pharmacy-pool", hikari.getPoolName());
+        assertEquals(20, hikari.getMaximumPoolSize());
+        assertEquals(20, hikari.getMinimumIdle());
+        assertEquals(5000, hikari.getConnectionTimeout());
+        assertEquals(1800000, hikari.getMaxLifetime());
+        assertEquals(300000, hikari.getKeepaliveTime());
+        assertEquals(120000, hikari.getLeakDetectionThreshold());
+        assertTrue(hikari.getJdbcUrl().contains("MODE=MySQL"), hikari.getJdbcUrl());
+    }
+
+    @Test
+    void testProductionPool_PassesStatementCacheAndBatchRewriteToTheDriver() throws SQLException {
+        Properties driver = dataSource.unwrap(HikariDataSource.class).getDataSourceProperties();
+
+        assertEquals("true", driver.getProperty("useServerPrepStmts"));
+        assertEquals("true", driver.getProperty("cachePrepStmts"));
+        assertEquals("250", driver.getProperty("prepStmtCacheSize"));
+        assertEquals("2048", driver.getProperty("prepStmtCacheSqlLimit"));
+        assertEquals("true", driver.getProperty("rewriteBatchedStatements"));
+    }
+
+    @Test
+    void testPoolMetrics_TimeAcquisitionAndUsage() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM medicines", Long.class);
+
+        String scrape = metricsRegistry.scrape();
+
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds_count{pool=\"pharmacy-pool\"}"), scrape);
+        assertTrue(scrape.contains("hikaricp_connections_usage_seconds_count{pool=\"pharmacy-pool\"}"), scrape);
+        assertTrue(scrape.contains("hikaricp_connections_creation_seconds_count{pool=\"pharmacy-pool\"}"), scrape);
+        assertTrue(scrape.contains("hikaricp_connections_timeout_total{pool=\"pharmacy-pool\"} 0"), scrape);
+        assertTrue(scrape.contains("hikaricp_connections_max{pool=\"pharmacy-pool\"} 20"), scrape);
+        assertTrue(scrape.contains("hikaricp_connections_min{pool=\"pharmacy-pool\"} 20"), scrape);
+    }
+}
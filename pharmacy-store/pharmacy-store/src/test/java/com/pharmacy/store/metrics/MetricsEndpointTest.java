@@ -0,0 +1,104 @@
+package com.pharmacy.store.metrics;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import com.pharmacy.store.service.MedicineService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MetricsEndpointTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private HttpMetricsFilter httpMetricsFilter;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(httpMetricsFilter).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase("Metrics Labs"));
+    }
+
+    @Test
+    void testPrometheus_ExposesEndpointServiceAndRepositoryTimers() throws Exception {
+        Medicine medicine = medicineService.saveMedicine(new Medicine("Metricol", "Metrics Labs",
+                new BigDecimal("4.20"), 30, LocalDate.now().plusYears(1)));
+        mockMvc.perform(get("/api/medicines/" + medicine.getId())).andExpect(status().isOk());
+        medicineRepository.count();
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("# TYPE http_server_requests_seconds histogram"), scrape);
+        assertTrue(scrape.contains("http_server_requests_seconds_count{method=\"GET\",outcome=\"SUCCESS\","
+                + "status=\"200\",uri=\"/api/medicines/{id}\"}"), scrape);
+        assertTrue(scrape.contains("pharmacy_service_seconds_count{exception=\"none\",method=\"getMedicineById\","
+                + "service=\"MedicineService\"}"), scrape);
+        assertTrue(scrape.contains("pharmacy_repository_seconds_count{exception=\"none\",method=\"count\","
+                + "repository=\"MedicineRepository\"}"), scrape);
+        assertTrue(scrape.contains("# TYPE pharmacy_sales_attempts_total counter"), scrape);
+        assertTrue(scrape.contains("# TYPE pharmacy_catalogue_cache_id_hit_rate gauge"), scrape);
+        assertTrue(scrape.contains("hikaricp_connections_active{pool=\"pharmacy-pool\"}"), scrape);
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds_count{pool=\"pharmacy-pool\"}"), scrape);
+    }
+
+    @Test
+    void testRegistry_RendersCumulativeBucketsAndStatistics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Timer timer = registry.timer("sale_seconds", "Sale latency", "path", "counter");
+        timer.record(2_000_000L);
+        timer.record(200_000_000L);
+        registry.counter("sales", "Sales", "outcome", "completed").add(3);
+        registry.statistics("ledger", "Ledger", () -> Map.of("recorded", 5, "queued", 2, "mode", "x"),
+                Set.of("recorded"));
+
+        String scrape = registry.scrape();
+
+        assertTrue(scrape.contains("sale_seconds_bucket{path=\"counter\",le=\"0.001\"} 0"), scrape);
+        assertTrue(scrape.contains("sale_seconds_bucket{path=\"counter\",le=\"0.0025\"} 1"), scrape);
+        assertTrue(scrape.contains("sale_seconds_bucket{path=\"counter\",le=\"0.25\"} 2"), scrape);
+        assertTrue(scrape.contains("sale_seconds_bucket{path=\"counter\",le=\"+Inf\"} 2"), scrape);
+        assertTrue(scrape.contains("sale_seconds_count{path=\"counter\"} 2"), scrape);
+        assertTrue(scrape.contains("sale_seconds_max{path=\"counter\"} 0.2"), scrape);
+        assertTrue(scrape.contains("sales_total{outcome=\"completed\"} 3"), scrape);
+        assertTrue(scrape.contains("ledger_recorded_total 5"), scrape);
+        assertTrue(scrape.contains("# TYPE ledger_queued gauge"), scrape);
+        assertFalse(scrape.contains("ledger_mode"), scrape);
+    }
+}
@@ -0,0 +1,151 @@
+package com.pharmacy.store.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    private static final String INSERT_MEDICINE =
+            "INSERT INTO medicines (name, manufacturer, price, stock_quantity, expiry_date) " +
+            "VALUES (?, 'Migration Labs', 1.00, 5, DATE '2030-01-01')";
+
+    // The table ddl-auto created from the original Medicine entity, before any script existed
+    private static final String ORIGINAL_H2_DDL = "CREATE TABLE medicines (" +
+            "medicine_id BIGINT GENERATED BY DEFAULT AS IDENTITY, name VARCHAR(100) NOT NULL, " +
+            "description VARCHAR(500), manufacturer VARCHAR(100) NOT NULL, price NUMERIC(10,2) NOT NULL, " +
+            "stock_quantity INTEGER NOT NULL, expiry_date DATE NOT NULL, category VARCHAR(50), " +
+            "prescription_required BOOLEAN, batch_number VARCHAR(20), created_at TIMESTAMP(6), " +
+            "updated_at TIMESTAMP(6), PRIMARY KEY (medicine_id))";
+
+    private static final String ORIGINAL_MYSQL_DDL = "CREATE TABLE medicines (" +
+            "medicine_id BIGINT NOT NULL AUTO_INCREMENT, name VARCHAR(100) NOT NULL, " +
+            "description VARCHAR(500), manufacturer VARCHAR(100) NOT NULL, price DECIMAL(10,2) NOT NULL, " +
+            "stock_quantity INT NOT NULL, expiry_date DATE NOT NULL, category VARCHAR(50), " +
+            "prescription_required BIT, batch_number VARCHAR(20), created_at DATETIME(6), " +
+            "updated_at DATETIME(6), PRIMARY KEY (medicine_id)) ENGINE=InnoDB";
+
+    private static final List<Integer> ALL_VERSIONS = List.of(1, 2, 3, 4, 5, 6, 7, 8);
+    private static final List<Integer> AFTER_BASELINE = List.of(2, 3, 4, 5, 6, 7, 8);
+
+    private SingleConnectionDataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void testEmptyDatabase_RunsEveryMigrationOnce() {
+        dataSource = dataSource("jdbc:h2:mem:migration_empty;DB_CLOSE_DELAY=-1");
+        SchemaMigrator migrator = new SchemaMigrator(dataSource, "classpath:db/migration/{vendor}", 1, "medicines");
+
+        assertEquals(ALL_VERSIONS, migrator.migrate());
+        assertEquals(List.of(), migrator.migrate());
+
+        // An empty table gets the first block
+        assertEquals(50, nextSequenceValue());
+    }
+
+    @Test
+    void testExistingSchema_IsBaselinedAndItsIdsMoveOntoTheSequence() {
+        dataSource = dataSource("jdbc:h2:mem:migration_existing;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(ORIGINAL_H2_DDL);
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.update(INSERT_MEDICINE, "Existing " + i);
+        }
+
+        List<Integer> ran = new SchemaMigrator(dataSource, "classpath:db/migration/{vendor}", 1, "medicines").migrate();
+
+        assertEquals(AFTER_BASELINE, ran);
+        assertLaterSchemaExists(jdbcTemplate);
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT baseline FROM " + SchemaMigrator.HISTORY_TABLE + " WHERE version = 1", Boolean.class));
+        // The pooled optimizer's first block ends at the sequence value, just past the existing rows
+        assertEquals(170, nextSequenceValue());
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(INSERT_MEDICINE, "No id"));
+    }
+
+    @Test
+    void testMySqlMigrations_RunInH2MySqlMode() {
+        dataSource = dataSource("jdbc:h2:mem:migration_mysql;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        List<Integer> ran = new SchemaMigrator(dataSource, "classpath:db/migration/mysql", 1, "medicines").migrate();
+
+        assertEquals(ALL_VERSIONS, ran);
+        assertEquals(50, new JdbcTemplate(dataSource).queryForObject("SELECT next_val FROM medicines_seq", Long.class));
+    }
+
+    @Test
+    void testExistingMySqlSchema_GetsEveryLaterObject() {
+        dataSource = dataSource("jdbc:h2:mem:migration_mysql_existing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(ORIGINAL_MYSQL_DDL);
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.update(INSERT_MEDICINE, "Existing " + i);
+        }
+
+        List<Integer> ran = new SchemaMigrator(dataSource, "classpath:db/migration/mysql", 1, "medicines").migrate();
+
+        assertEquals(AFTER_BASELINE, ran);
+        assertLaterSchemaExists(jdbcTemplate);
+        assertEquals(170, jdbcTemplate.queryForObject("SELECT next_val FROM medicines_seq", Long.class));
+    }
+
+    @Test
+    void testEditedMigration_StopsStartup() {
+        dataSource = dataSource("jdbc:h2:mem:migration_edited;DB_CLOSE_DELAY=-1");
+        SchemaMigrator migrator = new SchemaMigrator(dataSource, "classpath:db/migration/{vendor}", 1, "medicines");
+        migrator.migrate();
+        new JdbcTemplate(dataSource).update(
+                "UPDATE " + SchemaMigrator.HISTORY_TABLE + " SET checksum = checksum + 1 WHERE version = 2");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, migrator::migrate);
+        assertTrue(e.getMessage().contains("V2__medicine_id_sequence.sql"), e.getMessage());
+    }
+
+    // Everything the scripts after the baseline add to a database that only had the original table
+    private static void assertLaterSchemaExists(JdbcTemplate jdbcTemplate) {
+        for (String column : List.of("name_key", "manufacturer_key", "category_key", "reorder_point",
+                "reorder_quantity")) {
+            assertEquals(1, count(jdbcTemplate, "COLUMNS", "medicines", "COLUMN_NAME", column), column);
+        }
+        for (String column : List.of("movement_id", "delta", "reason")) {
+            assertEquals(1, count(jdbcTemplate, "COLUMNS", "stock_movements", "COLUMN_NAME", column), column);
+        }
+        for (String column : List.of("folded_through", "lease_owner", "lease_until")) {
+            assertEquals(1, count(jdbcTemplate, "COLUMNS", "stock_ledger_checkpoint", "COLUMN_NAME", column), column);
+        }
+        for (String index : List.of("idx_medicines_name_key", "idx_medicines_manufacturer_key",
+                "idx_medicines_category_key", "idx_medicines_price")) {
+            assertEquals(1, count(jdbcTemplate, "INDEXES", "medicines", "INDEX_NAME", index), index);
+        }
+        assertEquals(1, count(jdbcTemplate, "INDEXES", "stock_movements", "INDEX_NAME",
+                "idx_stock_movements_reason_created_at"));
+        // Generated keys are filled in for the rows that were already there
+        assertEquals("existing 7", jdbcTemplate.queryForObject(
+                "SELECT name_key FROM medicines WHERE name = 'Existing 7'", String.class));
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate, String view, String table, String nameColumn, String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA." + view
+                + " WHERE LOWER(TABLE_NAME) = ? AND LOWER(" + nameColumn + ") = ?", Integer.class, table, name);
+    }
+
+    private static SingleConnectionDataSource dataSource(String url) {
+        return new SingleConnectionDataSource(url, "sa", "", true);
+    }
+
+    private long nextSequenceValue() {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT NEXT VALUE FOR medicines_seq", Long.class);
+    }
+}
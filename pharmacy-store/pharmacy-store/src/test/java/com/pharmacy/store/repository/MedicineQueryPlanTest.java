@@ -0,0 +1,297 @@
+package com.pharmacy.store.repository;
+
+import com.pharmacy.store.dto.MedicineSearchCriteria;
+import com.pharmacy.store.model.Medicine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the repository queries against the migrated production schema (H2 in
+ * MySQL mode) filled with a generated catalogue, captures the SQL they send
+ * and checks H2's EXPLAIN of each one for a full table scan.
+ * Deliberately not covered, because they read most or all of the table:
+ * the export cursor, the in-memory index rebuilds and the demand forecast's
+ * category map (every row), getTotalInventoryValue (a sum over every row; the dashboard keeps
+ * it incrementally), the prescription flag lists (half the catalogue each)
+ * and name substring matches (a leading wildcard cannot seek an index; the
+ * counter search uses the trigram index instead).
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO",
+        "spring.datasource.url=jdbc:h2:mem:query_plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "pharmacy.generator.rows=20000"
+})
+@ActiveProfiles("production-h2")
+class MedicineQueryPlanTest {
+
+    private static final List<String> CAPTURED = Collections.synchronizedList(new ArrayList<>());
+
+    private static final Set<String> EXPLAINED = Set.of("select", "update", "delete");
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineBulkRepository bulkRepository;
+
+    @Autowired
+    private MedicineStockRepository stockRepository;
+
+    @Autowired
+    private StockLedgerRepository ledgerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Fresh statistics so the planner sees the generated rows
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void testLookups_UseAnIndex() {
+        Medicine medicine = medicineRepository.findById(medicineId()).orElseThrow();
+        String name = medicine.getName().toUpperCase(Locale.ROOT);
+
+        assertIndexed("findByNameIgnoreCase", () -> assertTrue(medicineRepository.findByNameIgnoreCase(name)
+                .isPresent()));
+        assertIndexed("existsByNameIgnoreCase", () -> assertTrue(medicineRepository.existsByNameIgnoreCase(name)));
+        assertIndexed("findByManufacturerIgnoreCase", () -> assertFalse(medicineRepository
+                .findByManufacturerIgnoreCase(medicine.getManufacturer().toUpperCase(Locale.ROOT)).isEmpty()));
+        assertIndexed("findByCategoryIgnoreCase", () -> medicineRepository
+                .findByCategoryIgnoreCase(String.valueOf(medicine.getCategory())));
+        assertIndexed("findByBatchNumber", () -> medicineRepository.findByBatchNumber(medicine.getBatchNumber()));
+        assertIndexed("findAllById", () -> medicineRepository.findAllById(List.of(medicine.getId(), 1L, 2L)));
+    }
+
+    @Test
+    void testRangesAndThresholds_UseAnIndex() {
+        LocalDate today = LocalDate.now();
+
+        assertIndexed("findByPriceBetween", () -> medicineRepository
+                .findByPriceBetween(new BigDecimal("10.00"), new BigDecimal("10.50")));
+        assertIndexed("findByStockQuantityLessThan", () -> medicineRepository.findByStockQuantityLessThan(10));
+        assertIndexed("countLowStockMedicines", () -> medicineRepository.countLowStockMedicines(10));
+        assertIndexed("findByExpiryDateBefore", () -> medicineRepository.findByExpiryDateBefore(today));
+        assertIndexed("findByExpiryDateBetween", () -> medicineRepository
+                .findByExpiryDateBetween(today, today.plusDays(7)));
+        assertIndexed("countExpiredMedicines", () -> medicineRepository.countExpiredMedicines());
+        assertIndexed("findTop10ByOrderByStockQuantityDesc", () -> assertEquals(10, medicineRepository
+                .findTop10ByOrderByStockQuantityDesc().size()));
+    }
+
+    @Test
+    void testKeysetPages_SeekAnIndex() {
+        Medicine medicine = medicineRepository.findById(medicineId()).orElseThrow();
+        for (MedicineSortKey sortKey : MedicineSortKey.values()) {
+            for (boolean descending : new boolean[]{false, true}) {
+                String page = "findKeysetPage(" + sortKey + (descending ? " DESC)" : ")");
+                // H2 cannot walk an index backwards, so an unbounded first page is only checked in the
+                // direction the index is declared in; MySQL reads it either way
+                if (descending == (sortKey == MedicineSortKey.STOCK_QUANTITY)) {
+                    assertIndexed(page + " first", () -> assertEquals(20,
+                            medicineRepository.findKeysetPage(sortKey, descending, null, null, 20).size()));
+                }
+                assertIndexed(page + " next", () -> assertFalse(medicineRepository.findKeysetPage(sortKey,
+                        descending, sortKey.valueOf(medicine), medicine.getId(), 20).isEmpty()));
+            }
+        }
+    }
+
+    @Test
+    void testCriteriaSearch_UsesAnIndexForEachSelectiveFilter() {
+        Medicine medicine = medicineRepository.findById(medicineId()).orElseThrow();
+        List<MedicineSearchCriteria> searches = List.of(
+                criteria(List.of(medicine.getManufacturer()), List.of(), null, null, List.of()),
+                criteria(List.of(medicine.getManufacturer(), "Other Labs"), List.of(), null, null, List.of()),
+                criteria(List.of(), List.of(String.valueOf(medicine.getCategory())), null, new BigDecimal("20"),
+                        List.of()),
+                criteria(List.of(), List.of(), new BigDecimal("10"), new BigDecimal("11"), List.of()),
+                criteria(List.of(), List.of(), null, null, List.of(
+                        new MedicineSearchCriteria.PriceRange(null, new BigDecimal("2")),
+                        new MedicineSearchCriteria.PriceRange(new BigDecimal("50"), new BigDecimal("51")))));
+        for (MedicineSearchCriteria search : searches) {
+            assertIndexed("search " + describe(search), () -> medicineRepository.findAll(
+                    MedicineSpecifications.matching(search), PageRequest.of(0, 20, Sort.by("name", "id"))));
+        }
+    }
+
+    @Test
+    void testJdbcRepositories_UseAnIndex() {
+        long id = medicineId();
+        Medicine medicine = medicineRepository.findById(id).orElseThrow();
+
+        assertIndexed("findIdsByNormalizedNames", () -> assertEquals(1, bulkRepository.findIdsByNormalizedNames(
+                List.of(medicine.getName().toLowerCase(Locale.ROOT), "no such medicine")).size()));
+        assertIndexed("forEachSearchDocument(ids)", () -> bulkRepository.forEachSearchDocument(List.of(id, 1L),
+                (medicineId, name, manufacturer, description) -> { }));
+        assertIndexed("forEachSuggestion(ids)", () -> bulkRepository.forEachSuggestion(List.of(id, 1L),
+                (medicineId, name, stock, price) -> { }));
+        assertIndexed("forEachStockLevel(id)", () -> stockRepository.forEachStockLevel(List.of(id),
+                (medicineId, price, stock, expiry) -> { }));
+        assertIndexed("forEachStockLevel(ids)", () -> stockRepository.forEachStockLevel(List.of(id, 1L),
+                (medicineId, price, stock, expiry) -> { }));
+        assertIndexed("forEachReorderLevel(ids)", () -> stockRepository.forEachReorderLevel(List.of(id, 1L),
+                (medicineId, stock, reorderPoint, reorderQuantity) -> { }));
+        assertIndexed("findStockQuantity", () -> assertTrue(stockRepository.findStockQuantity(id).isPresent()));
+        assertIndexed("findPendingDeltas", () -> ledgerRepository.findPendingDeltas());
+        assertIndexed("forEachDailySale", () -> ledgerRepository.forEachDailySale(LocalDate.now().minusDays(56),
+                LocalDate.now(), (medicineId, saleDate, quantity) -> { }));
+        assertIndexed("countExpired", () -> bulkRepository.countExpired(LocalDate.now()));
+        assertIndexed("purge chunk", () -> transactionTemplate.executeWithoutResult(status -> {
+            bulkRepository.lockExpired(LocalDate.now(), 100);
+            assertFalse(bulkRepository.lockExpiredIds(LocalDate.now(), 100).isEmpty());
+            assertEquals(2, bulkRepository.deleteByIds(List.of(id, 1L)));
+            status.setRollbackOnly();
+        }));
+        assertIndexed("foldPending", () -> transactionTemplate.executeWithoutResult(status -> {
+            ledgerRepository.foldPending(1000);
+            status.setRollbackOnly();
+        }));
+    }
+
+    private long medicineId() {
+        // A row from the middle of the catalogue, so keyset pages after it are never empty
+        return jdbcTemplate.queryForObject("SELECT MIN(medicine_id) FROM medicines WHERE category IS NOT NULL " +
+                "AND batch_number IS NOT NULL AND medicine_id > (SELECT MAX(medicine_id) / 2 FROM medicines)",
+                Long.class);
+    }
+
+    // Runs the call, then checks the plan of every query and update it sent
+    private void assertIndexed(String description, Runnable call) {
+        CAPTURED.clear();
+        call.run();
+        List<String> statements = new ArrayList<>(CAPTURED);
+        assertFalse(statements.isEmpty(), description + " sent no statements");
+        for (String sql : statements) {
+            String verb = sql.stripLeading().split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+            if (!EXPLAINED.contains(verb)) {
+                continue;
+            }
+            String plan = explain(sql);
+            assertFalse(plan.contains(".tableScan"), description + " scans the table:\n" + sql + "\n" + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection();
+             var statement = connection.prepareStatement("EXPLAIN " + sql);
+             var plan = statement.executeQuery()) {
+            StringBuilder text = new StringBuilder();
+            while (plan.next()) {
+                text.append(plan.getString(1)).append('\n');
+            }
+            return text.toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not explain " + sql, e);
+        } finally {
+            CAPTURED.clear();
+        }
+    }
+
+    private static MedicineSearchCriteria criteria(List<String> manufacturers, List<String> categories,
+                                                   BigDecimal minPrice, BigDecimal maxPrice,
+                                                   List<MedicineSearchCriteria.PriceRange> buckets) {
+        return new MedicineSearchCriteria(null, manufacturers, categories, minPrice, maxPrice, buckets, null);
+    }
+
+    private static String describe(MedicineSearchCriteria criteria) {
+        return Stream.of("manufacturers=" + criteria.getManufacturers(), "categories=" + criteria.getCategories(),
+                "price=" + criteria.getMinPrice() + ".." + criteria.getMaxPrice(),
+                "buckets=" + criteria.getPriceBuckets().size()).reduce((a, b) -> a + " " + b).orElse("");
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+
+        // Records the SQL of every statement the application prepares or executes
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof CapturingDataSource)) {
+                        return new CapturingDataSource(dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    private static final class CapturingDataSource extends DelegatingDataSource {
+
+        private CapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                            CAPTURED.add(sql);
+                        }
+                        Object result = invoke(method, connection, args);
+                        if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                            return capturing(statement);
+                        }
+                        return result;
+                    });
+        }
+
+        private static Statement capturing(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(CapturingDataSource.class.getClassLoader(),
+                    new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute") && args != null && args[0] instanceof String sql) {
+                            CAPTURED.add(sql);
+                        }
+                        return invoke(method, statement, args);
+                    });
+        }
+
+        private static Object invoke(java.lang.reflect.Method method, Object target, Object[] args)
+                throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.DashboardSnapshot;
+import com.pharmacy.store.dto.SaleLine;
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class DashboardAggregateStoreTest {
+
+    @Autowired
+    private DashboardAggregateStore dashboardAggregateStore;
+
+    @Autowired
+    private MedicineLowStockIndex medicineLowStockIndex;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Other tests in the shared context write through the repository directly
+        medicineLowStockIndex.rebuild();
+        medicineExpiryIndex.rebuild();
+        dashboardAggregateStore.rebuild();
+        assertMatchesTable();
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase("Dashboard Labs"));
+    }
+
+    @Test
+    void testAggregates_FollowServiceWrites() {
+        Medicine ibuprofen = medicineService.saveMedicine(newMedicine("Dashboard Ibuprofen", "4.00", 30));
+        Medicine aspirin = medicineService.saveMedicine(newMedicine("Dashboard Aspirin", "2.50", 5));
+        assertMatchesTable();
+
+        salesService.processSale(ibuprofen.getId(), 25);
+        assertMatchesTable();
+
+        salesService.processBasket(List.of(new SaleLine(aspirin.getId(), 2), new SaleLine(ibuprofen.getId(), 1)));
+        assertMatchesTable();
+
+        Medicine repriced = medicineService.getMedicineById(aspirin.getId());
+        repriced.setPrice(new BigDecimal("3.75"));
+        repriced.setStockQuantity(50);
+        medicineService.updateMedicine(aspirin.getId(), repriced);
+        assertMatchesTable();
+
+        medicineService.deleteMedicine(ibuprofen.getId());
+        assertMatchesTable();
+    }
+
+    @Test
+    void testSavedEvent_DoesNotUndoConcurrentSales() {
+        Medicine medicine = medicineService.saveMedicine(newMedicine("Dashboard Racing", "4.00", 30));
+        BigDecimal valueBefore = dashboardAggregateStore.getSnapshot().getTotalInventoryValue();
+
+        // An edit read the stock before this sale and publishes its save after the sale's delta
+        Medicine staleEdit = new Medicine(medicine);
+        staleEdit.setPrice(new BigDecimal("5.00"));
+        salesService.processSale(medicine.getId(), 5);
+        dashboardAggregateStore.onMedicineChanged(MedicineChangedEvent.saved(staleEdit));
+
+        // 25 left at the new price replaces 30 at the old one
+        assertEquals(0, valueBefore.add(new BigDecimal("5.00"))
+                .compareTo(dashboardAggregateStore.getSnapshot().getTotalInventoryValue()));
+    }
+
+    @Test
+    void testRebuild_CorrectsWritesThatBypassEvents() {
+        Medicine medicine = medicineService.saveMedicine(newMedicine("Dashboard Expiring", "10.00", 40));
+        long expiredBefore = dashboardAggregateStore.getSnapshot().getExpiredMedicines();
+
+        jdbcTemplate.update("UPDATE medicines SET expiry_date = ?, stock_quantity = 3 WHERE medicine_id = ?",
+                LocalDate.now().minusDays(1), medicine.getId());
+        assertEquals(expiredBefore, dashboardAggregateStore.getSnapshot().getExpiredMedicines());
+
+        medicineLowStockIndex.rebuild();
+        medicineExpiryIndex.rebuild();
+        dashboardAggregateStore.rebuild();
+
+        assertEquals(expiredBefore + 1, dashboardAggregateStore.getSnapshot().getExpiredMedicines());
+        assertNotNull(dashboardAggregateStore.getSnapshot().getLastReconciledAt());
+        assertMatchesTable();
+    }
+
+    private void assertMatchesTable() {
+        // The table only catches up with the aggregates once pending stock movements are folded
+        stockLedger.flush();
+        stockLedger.compact();
+        DashboardSnapshot snapshot = dashboardAggregateStore.getSnapshot();
+        assertEquals(medicineService.getTotalMedicineCount(), snapshot.getTotalMedicines());
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM medicines WHERE expiry_date < CURRENT_DATE",
+                Long.class), snapshot.getExpiredMedicines());
+        assertEquals(medicineService.getExpiredMedicineCount(), snapshot.getExpiredMedicines());
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM medicines WHERE stock_quantity < "
+                + "COALESCE(reorder_point, 10)", Long.class), snapshot.getLowStockMedicines());
+        BigDecimal tableValue = medicineService.getTotalInventoryValue();
+        assertEquals(0, (tableValue == null ? BigDecimal.ZERO : tableValue).compareTo(snapshot.getTotalInventoryValue()));
+    }
+
+    private static Medicine newMedicine(String name, String price, int stock) {
+        return new Medicine(name, "Dashboard Labs", new BigDecimal(price), stock, LocalDate.now().plusMonths(6));
+    }
+}
@@ -0,0 +1,161 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class DashboardStreamPublisherTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private DashboardStreamPublisher dashboardStreamPublisher;
+
+    @Autowired
+    private DashboardAggregateStore dashboardAggregateStore;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        dashboardAggregateStore.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Through the service, so the in-memory aggregates see the deletes too
+        medicineRepository.findByManufacturerIgnoreCase("Stream Labs")
+                .forEach(medicine -> medicineService.deleteMedicine(medicine.getId()));
+    }
+
+    @Test
+    void testStream_SendsSnapshotThenDeltas() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/medicines/analytics/dashboard/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        long total = dashboardAggregateStore.getSnapshot().getTotalMedicines();
+
+        assertTrue(response.getContentAsString().startsWith("event:snapshot\ndata:{\"totalMedicines\":" + total));
+        assertTrue(dashboardStreamPublisher.getSubscriberCount() >= 1);
+
+        dashboardStreamPublisher.publishChanges();
+        medicineService.saveMedicine(new Medicine("Stream Aspirin", "Stream Labs", new BigDecimal("2.00"), 3,
+                LocalDate.now().plusMonths(6)));
+        medicineService.saveMedicine(new Medicine("Stream Ibuprofen", "Stream Labs", new BigDecimal("3.00"), 50,
+                LocalDate.now().plusMonths(6)));
+        dashboardStreamPublisher.publishChanges();
+
+        String content = response.getContentAsString();
+        String deltas = content.substring(content.indexOf("event:delta"));
+        // The scheduled tick may split the saves across two events; the last one carries the final figures
+        assertTrue(content.substring(content.lastIndexOf("event:delta")).contains("\"totalMedicines\":" + (total + 2)));
+        assertTrue(deltas.contains("\"lowStockMedicines\""));
+        assertTrue(deltas.contains("\"totalInventoryValue\""));
+        // Only figures that moved are sent
+        assertFalse(deltas.contains("\"expiredMedicines\""));
+    }
+
+    @Test
+    void testStream_FigureShownAheadOfTheLastTickIsResent() throws Exception {
+        long total = dashboardAggregateStore.getSnapshot().getTotalMedicines();
+        dashboardStreamPublisher.publishChanges();
+        Medicine added = medicineService.saveMedicine(new Medicine("Stream Naproxen", "Stream Labs",
+                new BigDecimal("4.00"), 30, LocalDate.now().plusMonths(6)));
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/medicines/analytics/dashboard/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        medicineService.deleteMedicine(added.getId());
+        dashboardStreamPublisher.publishChanges();
+
+        // The snapshot counted the new row; back at the last tick's figure, the count is still sent to correct it
+        String content = response.getContentAsString();
+        assertTrue(content.startsWith("event:snapshot\ndata:{\"totalMedicines\":" + (total + 1)), content);
+        assertTrue(content.substring(content.lastIndexOf("event:delta")).contains("\"totalMedicines\":" + total),
+                content);
+    }
+
+    @Test
+    void testStream_StalledClientDoesNotBlockSubscribers() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter stalled = new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) throws IOException {
+                sending.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Client went away");
+            }
+        };
+        dashboardStreamPublisher.publishChanges();
+        @SuppressWarnings("unchecked")
+        List<SseEmitter> emitters = (List<SseEmitter>) ReflectionTestUtils.getField(dashboardStreamPublisher,
+                "emitters");
+        emitters.add(stalled);
+        medicineService.saveMedicine(new Medicine("Stream Codeine", "Stream Labs", new BigDecimal("6.00"), 12,
+                LocalDate.now().plusMonths(6)));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> tick = executor.submit(dashboardStreamPublisher::publishChanges);
+            assertTrue(sending.await(10, TimeUnit.SECONDS));
+
+            // The tick is stuck sending to the stalled client; a new subscriber still gets its snapshot
+            SseEmitter subscriber = CompletableFuture.supplyAsync(dashboardStreamPublisher::subscribe)
+                    .get(2, TimeUnit.SECONDS);
+            assertTrue(emitters.contains(subscriber));
+            assertFalse(tick.isDone());
+
+            release.countDown();
+            tick.get(10, TimeUnit.SECONDS);
+            // The client whose send failed is dropped
+            assertFalse(emitters.contains(stalled));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.ForecastReport;
+import com.pharmacy.store.dto.SaleLine;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO",
+        "pharmacy.forecast.history-days=28",
+        "pharmacy.forecast.smoothing-factor=0.5",
+        "pharmacy.forecast.cover-days=10",
+        "pharmacy.forecast.parallelism=2"
+})
+class DemandForecastServiceTest {
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineLowStockIndex medicineLowStockIndex;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase("Forecast Labs"));
+    }
+
+    @Test
+    void testRun_WritesReorderQuantitiesFromSalesAcrossCategories() {
+        Medicine analgesic = medicineService.saveMedicine(newMedicine("Forecast Analgesic", "Analgesic", 50));
+        Medicine antibiotic = medicineService.saveMedicine(newMedicine("Forecast Antibiotic", "Antibiotic", 8));
+        Medicine unsold = medicineService.saveMedicine(newMedicine("Forecast Unsold", "Antibiotic", 40));
+        salesService.processSale(analgesic.getId(), 6);
+        salesService.processBasket(List.of(new SaleLine(analgesic.getId(), 4), new SaleLine(antibiotic.getId(), 3)));
+        stockLedger.flush();
+
+        // Today's sales are the last day of history once the window ends tomorrow
+        ForecastReport report = demandForecastService.run(LocalDate.now().plusDays(1));
+
+        assertEquals(ForecastReport.State.COMPLETED, report.getState());
+        assertEquals(LocalDate.now().minusDays(27), report.getHistoryFrom());
+        assertTrue(report.getCategories() >= 2, "categories " + report.getCategories());
+        assertTrue(report.getSalesRowsRead() >= 2);
+        assertTrue(report.getReorderQuantitiesChanged() >= 2);
+        // Smoothed demand is half the day's sales: 5 and 1.5 units a day, covered for ten days
+        assertEquals(50, reorderQuantity(analgesic));
+        assertEquals(15, reorderQuantity(antibiotic));
+        assertNull(reorderQuantity(unsold));
+
+        // The low-stock index reloaded the changed rows, so suggestions order the forecast quantity
+        assertTrue(medicineLowStockIndex.getLowStockLevels().stream().anyMatch(level ->
+                level.getMedicineId() == antibiotic.getId() && level.getSuggestedQuantity() == 15));
+
+        ForecastReport rerun = demandForecastService.run(LocalDate.now().plusDays(1));
+        assertEquals(0, rerun.getReorderQuantitiesChanged());
+        assertEquals(50, reorderQuantity(analgesic));
+        assertSame(rerun, demandForecastService.getLastRun());
+        assertFalse(demandForecastService.isRunning());
+    }
+
+    @Test
+    void testStart_RunsInTheBackgroundUpToToday() throws InterruptedException {
+        ForecastReport started = demandForecastService.start();
+        assertEquals(ForecastReport.State.RUNNING, started.getState());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (demandForecastService.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(demandForecastService.isRunning());
+        assertEquals(ForecastReport.State.COMPLETED, demandForecastService.getLastRun().getState());
+        assertEquals(LocalDate.now(), demandForecastService.getLastRun().getHistoryUntil());
+    }
+
+    private Integer reorderQuantity(Medicine medicine) {
+        return medicineRepository.findById(medicine.getId()).orElseThrow().getReorderQuantity();
+    }
+
+    private static Medicine newMedicine(String name, String category, int stock) {
+        Medicine medicine = new Medicine(name, "Forecast Labs", new BigDecimal("5.10"), stock,
+                LocalDate.now().plusYears(1));
+        medicine.setCategory(category);
+        return medicine;
+    }
+}
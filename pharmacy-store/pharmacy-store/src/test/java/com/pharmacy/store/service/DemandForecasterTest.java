@@ -0,0 +1,67 @@
+package com.pharmacy.store.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DemandForecasterTest {
+
+    private final DemandForecaster forecaster = new DemandForecaster(28, 0.5, 10);
+
+    @Test
+    void testForecast_SteadyDemandIsOrderedForTheCoverPeriod() {
+        int[] sales = new int[28];
+        Arrays.fill(sales, 4);
+
+        DemandForecaster.Forecast forecast = forecaster.forecast(sales);
+
+        assertEquals(4.0, forecast.getShortMovingAverage());
+        assertEquals(4.0, forecast.getLongMovingAverage());
+        assertEquals(4.0, forecast.getSmoothedDemand(), 1e-9);
+        assertEquals(40, forecast.getReorderQuantity());
+    }
+
+    @Test
+    void testForecast_SmoothingWeighsRecentDaysMost() {
+        int[] sales = new int[28];
+        sales[26] = 8;
+        sales[27] = 8;
+
+        DemandForecaster.Forecast forecast = forecaster.forecast(sales);
+
+        // 0.5 * 8 + 0.5 * (0.5 * 8)
+        assertEquals(6.0, forecast.getSmoothedDemand(), 1e-9);
+        assertEquals(16 / 7.0, forecast.getShortMovingAverage(), 1e-9);
+        assertEquals(16 / 28.0, forecast.getLongMovingAverage(), 1e-9);
+        assertEquals(60, forecast.getReorderQuantity());
+    }
+
+    @Test
+    void testForecast_ShortAverageCatchesASurgeTheSmoothingLags() {
+        DemandForecaster slow = new DemandForecaster(28, 0.05, 7);
+        int[] sales = new int[28];
+        Arrays.fill(sales, 21, 28, 10);
+
+        DemandForecaster.Forecast forecast = slow.forecast(sales);
+
+        assertTrue(forecast.getSmoothedDemand() < 10);
+        assertEquals(10.0, forecast.getShortMovingAverage());
+        assertEquals(70, forecast.getReorderQuantity());
+    }
+
+    @Test
+    void testForecast_NoRecentSalesOrdersNothing() {
+        assertEquals(0, forecaster.forecast(new int[28]).getReorderQuantity());
+    }
+
+    @Test
+    void testForecast_RejectsBadSettingsAndSeries() {
+        assertThrows(IllegalArgumentException.class, () -> new DemandForecaster(27, 0.5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new DemandForecaster(28, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new DemandForecaster(28, 1.5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new DemandForecaster(28, 0.5, 0));
+        assertThrows(IllegalArgumentException.class, () -> forecaster.forecast(new int[7]));
+    }
+}
@@ -0,0 +1,144 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.PurgeReport;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineBulkRepository;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO",
+        "pharmacy.purge.chunk-size=2",
+        "pharmacy.purge.max-rows-per-second=20",
+        "pharmacy.purge.archive-directory=target/purge-archive-test"
+})
+class ExpiredMedicinePurgeServiceTest {
+
+    private static final Path ARCHIVE_DIRECTORY = Path.of("target/purge-archive-test");
+
+    @Autowired
+    private ExpiredMedicinePurgeService purgeService;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineBulkRepository medicineBulkRepository;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(ARCHIVE_DIRECTORY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase("Purge Labs"));
+    }
+
+    @Test
+    void testPurge_DeletesInChunksAndArchivesEachChunkFirst() throws IOException {
+        List<Long> expired = insertExpired(5);
+        Medicine current = medicineService.saveMedicine(new Medicine("Purge Current", "Purge Labs",
+                new BigDecimal("3.00"), 10, LocalDate.now().plusMonths(6)));
+
+        PurgeReport report = purgeService.purge(true);
+
+        assertEquals(PurgeReport.State.COMPLETED, report.getState());
+        assertEquals(LocalDate.now(), report.getCutoff());
+        assertEquals(5, report.getExpected());
+        assertEquals(5, report.getDeleted());
+        assertEquals(5, report.getArchived());
+        assertEquals(3, report.getChunksCommitted());
+        assertEquals(100.0, report.getPercentComplete());
+        assertTrue(report.getRowsPerSecond() > 0);
+
+        assertTrue(medicineRepository.findAllById(expired).isEmpty());
+        assertTrue(medicineRepository.existsById(current.getId()));
+        List<String> archived = Files.readAllLines(Path.of(report.getArchiveFile()));
+        assertEquals(5, archived.size());
+        for (Long id : expired) {
+            assertTrue(archived.stream().anyMatch(line -> line.contains("\"id\":" + id + ",")), archived::toString);
+        }
+        // The delete events reach the in-memory indexes
+        expired.forEach(id -> assertFalse(medicineExpiryIndex.getExpiredIds().contains(id)));
+    }
+
+    @Test
+    void testStart_StopsBetweenChunksAndResumesWithTheSameCutoff() throws InterruptedException {
+        List<Long> expired = insertExpired(10);
+
+        PurgeReport started = purgeService.start(false);
+        assertEquals(PurgeReport.State.RUNNING, started.getState());
+        assertThrows(IllegalStateException.class, () -> purgeService.start(false));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (purgeService.getLastPurge().getDeleted() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        purgeService.stop();
+        PurgeReport stopped = awaitFinished();
+        assertEquals(PurgeReport.State.STOPPED, stopped.getState());
+        assertTrue(stopped.getDeleted() >= 2 && stopped.getDeleted() < 10, "deleted " + stopped.getDeleted());
+        assertEquals(10 - stopped.getDeleted(), medicineRepository.findAllById(expired).size());
+
+        purgeService.start(false);
+        PurgeReport resumed = awaitFinished();
+        assertEquals(PurgeReport.State.COMPLETED, resumed.getState());
+        assertEquals(stopped.getCutoff(), resumed.getCutoff());
+        assertEquals(10, resumed.getDeleted());
+        assertEquals(5, resumed.getChunksCommitted());
+        assertNull(resumed.getArchiveFile());
+        assertTrue(medicineRepository.findAllById(expired).isEmpty());
+    }
+
+    @Test
+    void testRemoveExpiredMedicines_RunsThePurgeInChunks() {
+        insertExpired(3);
+
+        assertEquals(3, medicineService.removeExpiredMedicines());
+        assertEquals(2, purgeService.getLastPurge().getChunksCommitted());
+        assertEquals(0, medicineService.removeExpiredMedicines());
+    }
+
+    // Bean validation rejects past expiry dates on save, so expired rows go straight in through JDBC
+    private List<Long> insertExpired(int count) {
+        List<Medicine> medicines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            medicines.add(new Medicine("Purge Expired " + i, "Purge Labs", new BigDecimal("2.00"), 5,
+                    LocalDate.now().minusDays(1 + i)));
+        }
+        return medicineBulkRepository.insertBatch(medicines);
+    }
+
+    private PurgeReport awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (purgeService.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(purgeService.isRunning());
+        return purgeService.getLastPurge();
+    }
+}
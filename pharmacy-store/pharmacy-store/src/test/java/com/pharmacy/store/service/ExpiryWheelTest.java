@@ -0,0 +1,132 @@
+package com.pharmacy.store.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryWheelTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 10);
+
+    private ExpiryWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        // Ten-day wheel, alerts for today through three days ahead
+        wheel = new ExpiryWheel(TODAY, 10, 3);
+        wheel.put(1L, TODAY.minusDays(1));
+        wheel.put(2L, TODAY);
+        wheel.put(3L, TODAY.plusDays(3));
+        wheel.put(4L, TODAY.plusDays(4));
+        wheel.put(5L, TODAY.plusDays(15));
+    }
+
+    @Test
+    void testPut_PlacesMedicinesByExpiryDay() {
+        assertEquals(Set.of(1L), wheel.expiredIds());
+        assertEquals(Set.of(2L, 3L), wheel.expiringSoonIds());
+        assertEquals(1, wheel.beyondHorizonSize());
+        assertEquals(5, wheel.size());
+    }
+
+    @Test
+    void testAdvance_ExpiresTodayAndPullsTheNextDayIntoTheAlertWindow() {
+        int moved = wheel.advanceTo(TODAY.plusDays(1));
+
+        assertEquals(2, moved);
+        assertEquals(Set.of(1L, 2L), wheel.expiredIds());
+        assertEquals(Set.of(3L, 4L), wheel.expiringSoonIds());
+        assertEquals(0, wheel.advanceTo(TODAY.plusDays(1)));
+    }
+
+    @Test
+    void testAdvance_BringsOverflowDatesOntoTheWheel() {
+        wheel.advanceTo(TODAY.plusDays(6));
+        assertEquals(0, wheel.beyondHorizonSize());
+        assertFalse(wheel.expiringSoonIds().contains(5L));
+
+        wheel.advanceTo(TODAY.plusDays(12));
+        assertEquals(Set.of(5L), wheel.expiringSoonIds());
+
+        wheel.advanceTo(TODAY.plusDays(16));
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), wheel.expiredIds());
+        assertTrue(wheel.expiringSoonIds().isEmpty());
+    }
+
+    @Test
+    void testAdvance_PastTheWholeHorizonPlacesEverythingAfresh() {
+        wheel.advanceTo(TODAY.plusDays(13));
+
+        assertEquals(Set.of(1L, 2L, 3L, 4L), wheel.expiredIds());
+        assertEquals(Set.of(5L), wheel.expiringSoonIds());
+        assertEquals(TODAY.plusDays(13), wheel.getToday());
+    }
+
+    @Test
+    void testPutAndRemove_MoveMedicinesBetweenBuckets() {
+        wheel.put(1L, TODAY.plusDays(2));
+        wheel.put(5L, TODAY.minusDays(3));
+        wheel.remove(3L);
+
+        assertEquals(Set.of(5L), wheel.expiredIds());
+        assertEquals(Set.of(1L, 2L), wheel.expiringSoonIds());
+        assertEquals(0, wheel.beyondHorizonSize());
+        assertEquals(4, wheel.size());
+    }
+
+    @Test
+    void testExpiringWithin_CoversAnyWindowIncludingOverflow() {
+        assertEquals(Set.of(2L), wheel.expiringWithin(0));
+        assertEquals(Set.of(2L, 3L, 4L), wheel.expiringWithin(9));
+        assertEquals(Set.of(2L, 3L, 4L, 5L), wheel.expiringWithin(15));
+        assertThrows(IllegalArgumentException.class, () -> wheel.expiringWithin(-1));
+    }
+
+    @Test
+    void testAlertWindow_MustFitOnTheWheel() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryWheel(TODAY, 10, 10));
+    }
+
+    @Test
+    void testRandomWrites_MatchADateComparison() {
+        Random random = new Random(42);
+        ExpiryWheel randomWheel = new ExpiryWheel(TODAY, 30, 7);
+        Map<Long, LocalDate> expiries = new HashMap<>();
+        LocalDate today = TODAY;
+        for (int step = 0; step < 5_000; step++) {
+            long id = random.nextInt(200);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                LocalDate expiry = today.plusDays(random.nextInt(80) - 10);
+                randomWheel.put(id, expiry);
+                expiries.put(id, expiry);
+            } else if (action < 8) {
+                randomWheel.remove(id);
+                expiries.remove(id);
+            } else {
+                today = today.plusDays(random.nextInt(action == 9 ? 40 : 3));
+                randomWheel.advanceTo(today);
+            }
+
+            Set<Long> expired = new HashSet<>();
+            Set<Long> soon = new HashSet<>();
+            for (Map.Entry<Long, LocalDate> entry : expiries.entrySet()) {
+                if (entry.getValue().isBefore(today)) {
+                    expired.add(entry.getKey());
+                } else if (!entry.getValue().isAfter(today.plusDays(7))) {
+                    soon.add(entry.getKey());
+                }
+            }
+            assertEquals(expired, randomWheel.expiredIds(), "expired after step " + step);
+            assertEquals(soon, randomWheel.expiringSoonIds(), "expiring soon after step " + step);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.pharmacy.store.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LowStockSetTest {
+
+    private LowStockSet levels;
+
+    @BeforeEach
+    void setUp() {
+        levels = new LowStockSet(10);
+        levels.put(1L, 4, null, null);
+        levels.put(2L, 12, 20, 50);
+        levels.put(3L, 9, 5, null);
+        levels.put(4L, 30, null, null);
+    }
+
+    @Test
+    void testPut_MeasuresEachMedicineAgainstItsOwnReorderPoint() {
+        assertEquals(Set.of(1L, 2L), levels.lowStockIds());
+        assertEquals(10, levels.get(1L).getReorderPoint());
+        assertEquals(20, levels.get(2L).getReorderPoint());
+        assertFalse(levels.get(3L).isLow());
+        assertEquals(4, levels.size());
+    }
+
+    @Test
+    void testAdjust_MovesMedicinesInAndOutOfTheSet() {
+        assertTrue(levels.adjust(4L, -21));
+        assertTrue(levels.adjust(1L, 6));
+        assertTrue(levels.adjust(3L, -5));
+
+        assertEquals(Set.of(2L, 3L, 4L), levels.lowStockIds());
+        assertEquals(10, levels.get(1L).getStockQuantity());
+        assertFalse(levels.adjust(99L, 5));
+        assertNull(levels.get(99L));
+    }
+
+    @Test
+    void testRemove_DropsTheMedicineEverywhere() {
+        levels.remove(1L);
+        levels.remove(99L);
+
+        assertEquals(Set.of(2L), levels.lowStockIds());
+        assertEquals(List.of(3L, 2L), levels.idsBelow(20));
+        assertEquals(3, levels.size());
+    }
+
+    @Test
+    void testIdsBelow_ReadsLowestStockFirst() {
+        levels.put(5L, 4, null, null);
+
+        assertEquals(List.of(1L, 5L, 3L, 2L), levels.idsBelow(13));
+        assertEquals(2, levels.countBelow(5));
+        assertEquals(List.of(), levels.idsBelow(0));
+        assertEquals(5, levels.countBelow(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testSuggestedQuantity_CoversAtLeastTheShortfall() {
+        // No reorder quantity: up to twice the reorder point
+        assertEquals(16, levels.get(1L).getSuggestedQuantity());
+        assertEquals(50, levels.get(2L).getSuggestedQuantity());
+
+        levels.put(2L, -40, 20, 50);
+        assertEquals(60, levels.get(2L).getSuggestedQuantity());
+    }
+
+    @Test
+    void testConstructor_RejectsANegativeDefault() {
+        assertThrows(IllegalArgumentException.class, () -> new LowStockSet(-1));
+    }
+}
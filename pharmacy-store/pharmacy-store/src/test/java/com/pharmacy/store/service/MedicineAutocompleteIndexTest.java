@@ -0,0 +1,74 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.MedicineSuggestion;
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MedicineAutocompleteIndexTest {
+
+    private MedicineAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MedicineAutocompleteIndex();
+        save(1L, "Paracetamol 500mg", 40);
+        save(2L, "Paracetamol 1g", 0);
+        save(3L, "Pantoprazole", 12);
+        save(4L, "Ibuprofen", 8);
+        save(5L, "paracetamol 500mg", 3);
+    }
+
+    @Test
+    void testSuggest_ReturnsPrefixRangeInNameOrder() {
+        assertEquals(List.of(2L, 1L, 5L), ids(index.suggest("PARA", 10)));
+        assertEquals(List.of(3L, 2L), ids(index.suggest("pa", 2)));
+        assertTrue(index.suggest("x", 10).isEmpty());
+        assertTrue(index.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void testSuggest_CarriesStockAndPrice() {
+        MedicineSuggestion suggestion = index.suggest("ibu", 1).get(0);
+
+        assertEquals("Ibuprofen", suggestion.getName());
+        assertEquals(8, suggestion.getStockQuantity());
+        assertEquals(new BigDecimal("4.00"), suggestion.getPrice());
+    }
+
+    @Test
+    void testEvents_KeepSuggestionsCurrent() {
+        index.onMedicineChanged(MedicineChangedEvent.stockChanged(4L, -3));
+        assertEquals(5, index.suggest("ibu", 1).get(0).getStockQuantity());
+
+        save(4L, "Naproxen", 5);
+        assertTrue(index.suggest("ibu", 10).isEmpty());
+        assertEquals(List.of(4L), ids(index.suggest("nap", 10)));
+
+        index.onMedicineChanged(MedicineChangedEvent.deleted(medicine(3L, "Pantoprazole", 12)));
+        assertEquals(List.of(2L, 1L, 5L), ids(index.suggest("pa", 10)));
+        assertEquals(4, index.size());
+    }
+
+    private void save(Long id, String name, int stock) {
+        index.onMedicineChanged(MedicineChangedEvent.saved(medicine(id, name, stock)));
+    }
+
+    private static Medicine medicine(Long id, String name, int stock) {
+        Medicine medicine = new Medicine(name, "Test Manufacturer", new BigDecimal("4.00"), stock,
+                LocalDate.now().plusMonths(6));
+        medicine.setId(id);
+        return medicine;
+    }
+
+    private static List<Long> ids(List<MedicineSuggestion> suggestions) {
+        return suggestions.stream().map(MedicineSuggestion::getId).toList();
+    }
+}
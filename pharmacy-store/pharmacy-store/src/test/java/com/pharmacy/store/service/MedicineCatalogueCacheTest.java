@@ -0,0 +1,116 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.event.MedicineChangedEvent;
+import com.pharmacy.store.model.Medicine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MedicineCatalogueCacheTest {
+
+    private MedicineCatalogueCache cache;
+    private Medicine medicine;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new MedicineCatalogueCache(100, Duration.ofMinutes(1));
+        medicine = new Medicine("Cached Medicine", "Test Manufacturer", new BigDecimal("10.00"),
+                20, LocalDate.now().plusMonths(6));
+        medicine.setId(7L);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testFindById_SecondLookupIsHitAndReturnsCopy() {
+        Optional<Medicine> first = cache.findById(7L, this::load);
+        Optional<Medicine> second = cache.findById(7L, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals("Cached Medicine", second.orElseThrow().getName());
+        assertNotSame(first.orElseThrow(), second.orElseThrow());
+        second.get().setStockQuantity(0);
+        assertEquals(20, cache.findById(7L, this::load).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void testFindByName_NormalizesAndSharesIdEntry() {
+        cache.findByName("  CACHED medicine ", this::loadByName);
+        cache.findByName("cached medicine", this::loadByName);
+        cache.findById(7L, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getStatistics().get("nameHits"));
+        assertEquals(1L, cache.getStatistics().get("idHits"));
+    }
+
+    @Test
+    void testStockChangeKeepsEntry() {
+        cache.findById(7L, this::load);
+        cache.onMedicineChanged(MedicineChangedEvent.stockChanged(7L, -5));
+
+        assertEquals(20, cache.findById(7L, this::load).orElseThrow().getStockQuantity());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testStockFoldMovesDeltaIntoCachedStock() {
+        cache.findById(7L, this::load);
+        cache.onMedicineChanged(MedicineChangedEvent.stockFolded(Map.of(7L, -5, 8L, 3)));
+
+        assertEquals(15, cache.findById(7L, this::load).orElseThrow().getStockQuantity());
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getStatistics().get("cachedMedicines"));
+    }
+
+    @Test
+    void testUpdateEvictsEntry() {
+        cache.findById(7L, this::load);
+        cache.onMedicineChanged(MedicineChangedEvent.saved(medicine));
+        cache.findById(7L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testSavedEventDropsNegativeNameEntry() {
+        assertTrue(cache.findByName("New Medicine", name -> Optional.empty()).isEmpty());
+        assertTrue(cache.findByName("New Medicine", name -> Optional.of(medicine)).isEmpty());
+
+        Medicine created = new Medicine(medicine);
+        created.setName("New Medicine");
+        cache.onMedicineChanged(MedicineChangedEvent.saved(created));
+
+        assertTrue(cache.findByName("new medicine", name -> Optional.of(created)).isPresent());
+    }
+
+    @Test
+    void testRenameDoesNotServeOldName() {
+        cache.findByName("Cached Medicine", this::loadByName);
+
+        Medicine renamed = new Medicine(medicine);
+        renamed.setName("Renamed Medicine");
+        cache.onMedicineChanged(MedicineChangedEvent.saved(renamed));
+        cache.findById(7L, id -> Optional.of(renamed));
+
+        assertTrue(cache.findByName("Cached Medicine", name -> Optional.empty()).isEmpty());
+    }
+
+    private Optional<Medicine> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of(medicine);
+    }
+
+    private Optional<Medicine> loadByName(String name) {
+        loads.incrementAndGet();
+        return Optional.of(medicine);
+    }
+}
@@ -0,0 +1,116 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.metrics.MetricsRegistry;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineExpiryIndexTest {
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Other tests in the shared context write through the repository directly
+        medicineExpiryIndex.rebuild();
+        assertMatchesTable();
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase("Expiry Labs"));
+    }
+
+    @Test
+    void testAlertSets_FollowServiceWrites() {
+        Medicine medicine = medicineService.saveMedicine(newMedicine("Expiry Soon", LocalDate.now().plusDays(3)));
+        assertTrue(medicineExpiryIndex.getExpiringSoonIds().contains(medicine.getId()));
+        assertMatchesTable();
+
+        Medicine later = medicineService.getMedicineById(medicine.getId());
+        later.setExpiryDate(LocalDate.now().plusMonths(6));
+        medicineService.updateMedicine(medicine.getId(), later);
+        assertFalse(medicineExpiryIndex.getExpiringSoonIds().contains(medicine.getId()));
+        assertTrue(medicineExpiryIndex.getExpiringWithin(200).contains(medicine.getId()));
+        assertMatchesTable();
+
+        medicineService.deleteMedicine(medicine.getId());
+        assertFalse(medicineExpiryIndex.getExpiringWithin(200).contains(medicine.getId()));
+        assertMatchesTable();
+    }
+
+    @Test
+    void testRebuild_CorrectsWritesThatBypassEvents() {
+        Medicine medicine = medicineService.saveMedicine(newMedicine("Expiry Bypassed", LocalDate.now().plusDays(90)));
+        jdbcTemplate.update("UPDATE medicines SET expiry_date = ? WHERE medicine_id = ?",
+                LocalDate.now().minusDays(1), medicine.getId());
+        assertFalse(medicineExpiryIndex.getExpiredIds().contains(medicine.getId()));
+
+        medicineExpiryIndex.rebuild();
+
+        assertTrue(medicineExpiryIndex.getExpiredIds().contains(medicine.getId()));
+        assertTrue(medicineService.getExpiredMedicines().stream().anyMatch(m -> m.getId().equals(medicine.getId())));
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> medicineService.processSale(medicine.getId(), 1));
+        assertTrue(e.getMessage().startsWith("Cannot sell expired medicine"), e.getMessage());
+        assertMatchesTable();
+    }
+
+    @Test
+    void testRollover_IsANoOpWithinTheSameDayAndExposesItsCost() {
+        Object rolloversBefore = medicineExpiryIndex.getStatistics().get("rollovers");
+
+        medicineExpiryIndex.rollOver();
+
+        assertEquals(rolloversBefore, medicineExpiryIndex.getStatistics().get("rollovers"));
+        assertEquals(LocalDate.now(), medicineExpiryIndex.today());
+        String scrape = metricsRegistry.scrape();
+        assertTrue(scrape.contains("pharmacy_expiry_rollovers_total "), scrape);
+        assertTrue(scrape.contains("pharmacy_expiry_rollover_micros_total "), scrape);
+        assertTrue(scrape.contains("pharmacy_expiry_expiring_soon_medicines "), scrape);
+    }
+
+    private void assertMatchesTable() {
+        LocalDate today = LocalDate.now();
+        assertEquals(new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT medicine_id FROM medicines WHERE expiry_date < ?", Long.class, today)),
+                new HashSet<>(medicineExpiryIndex.getExpiredIds()));
+        assertEquals(new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT medicine_id FROM medicines WHERE expiry_date BETWEEN ? AND ?", Long.class,
+                today, today.plusDays(medicineExpiryIndex.getAlertDays()))),
+                new HashSet<>(medicineExpiryIndex.getExpiringSoonIds()));
+    }
+
+    private static Medicine newMedicine(String name, LocalDate expiryDate) {
+        return new Medicine(name, "Expiry Labs", new BigDecimal("4.20"), 30, expiryDate);
+    }
+}
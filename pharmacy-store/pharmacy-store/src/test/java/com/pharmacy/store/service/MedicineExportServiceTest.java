@@ -0,0 +1,82 @@
+package com.pharmacy.store.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineExportServiceTest {
+
+    @Autowired
+    private MedicineExportService medicineExportService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<Medicine> medicines;
+
+    @BeforeEach
+    void setUp() {
+        medicines = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            Medicine medicine = new Medicine("Export Medicine " + i, "Maker, Ltd", new BigDecimal("9.50"),
+                    i, LocalDate.now().plusDays(90));
+            medicine.setDescription(i == 0 ? "Says \"take with food\"\nTwice daily" : null);
+            medicines.add(medicine);
+        }
+        medicines = medicineRepository.saveAll(medicines);
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicines);
+    }
+
+    @Test
+    void testExportNdjson_OneDocumentPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = medicineExportService.exportNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2500, rows);
+        assertEquals(2500, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Export Medicine 0", first.get("name").asText());
+        assertEquals(LocalDate.now().plusDays(90).toString(), first.get("expiryDate").asText());
+    }
+
+    @Test
+    void testExportCsv_QuotesSpecialCharacters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = medicineExportService.exportCsv(out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(2500, rows);
+        assertTrue(csv.startsWith("id,name,description,manufacturer,price"));
+        assertTrue(csv.contains(",Export Medicine 0,\"Says \"\"take with food\"\"\nTwice daily\",\"Maker, Ltd\",9.50,0,"));
+    }
+}
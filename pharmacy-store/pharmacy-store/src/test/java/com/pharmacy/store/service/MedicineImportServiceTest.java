@@ -0,0 +1,109 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.ImportReport;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO",
+        "pharmacy.import.chunk-size=2"
+})
+class MedicineImportServiceTest {
+
+    private static final String EXPIRY = LocalDate.now().plusYears(1).toString();
+
+    @Autowired
+    private MedicineImportService medicineImportService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase("Import Supplier"));
+    }
+
+    @Test
+    void testImportCsv_InsertsUpdatesAndRejects() throws Exception {
+        Medicine existing = new Medicine("Import Existing", "Import Supplier", new BigDecimal("5.00"),
+                10, LocalDate.now().plusMonths(3));
+        existing.setCategory("Kept Category");
+        existing = medicineRepository.save(existing);
+
+        String csv = "name,manufacturer,price,stock_quantity,expiry_date,description,category\n" +
+                     "Import One,Import Supplier,12.50,40," + EXPIRY + ",\"Plain, with comma\",Pain Relief\n" +
+                     "IMPORT EXISTING,Import Supplier,6.25,99," + EXPIRY + ",,\n" +
+                     "Import Bad Price,Import Supplier,abc,1," + EXPIRY + ",,\n" +
+                     "Import Expired,Import Supplier,1.00,1,2000-01-01,,\n" +
+                     "Import Two,Import Supplier,3.00,7," + EXPIRY + ",\"Line one\nLine two\",\n";
+
+        ImportReport report = medicineImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(ImportReport.State.COMPLETED, report.getState());
+        assertEquals(5, report.getRowsRead());
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(2, report.getRejected());
+        assertEquals(2, report.getErrors().size());
+        assertEquals(2, report.getChunksCommitted());
+
+        stockLedger.flush();
+        stockLedger.compact();
+        Medicine updated = medicineRepository.findById(existing.getId()).orElseThrow();
+        assertEquals(new BigDecimal("6.25"), updated.getPrice());
+        assertEquals(99, updated.getStockQuantity());
+        assertEquals("Kept Category", updated.getCategory());
+        assertEquals("Line one\nLine two",
+                medicineRepository.findByNameIgnoreCase("Import Two").orElseThrow().getDescription());
+        assertEquals("Plain, with comma",
+                medicineRepository.findByNameIgnoreCase("Import One").orElseThrow().getDescription());
+    }
+
+    @Test
+    void testImportCsv_StockCountsMovementsNotYetFolded() throws Exception {
+        Medicine existing = medicineRepository.save(new Medicine("Import Busy", "Import Supplier",
+                new BigDecimal("5.00"), 10, LocalDate.now().plusMonths(3)));
+        salesService.processSale(existing.getId(), 4);
+
+        String csv = "name,manufacturer,price,stock_quantity,expiry_date\n" +
+                     "Import Busy,Import Supplier,5.00,25," + EXPIRY + "\n";
+        medicineImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // The counted 25 replaces stock after the sale; the sale is not taken off it again when folded
+        assertEquals(25, medicineService.getMedicineById(existing.getId()).getStockQuantity());
+        stockLedger.flush();
+        stockLedger.compact();
+        assertEquals(25, medicineRepository.findById(existing.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void testImportCsv_MissingColumnRejected() {
+        String csv = "name,price\nImport One,1.00\n";
+
+        assertThrows(IllegalArgumentException.class, () -> medicineImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    }
+}
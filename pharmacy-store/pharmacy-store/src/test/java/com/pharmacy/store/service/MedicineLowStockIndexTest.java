@@ -0,0 +1,137 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.ReorderSuggestion;
+import com.pharmacy.store.dto.SaleLine;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineLowStockIndexTest {
+
+    @Autowired
+    private MedicineLowStockIndex medicineLowStockIndex;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Other tests in the shared context write through the repository directly
+        medicineLowStockIndex.rebuild();
+        assertMatchesTable();
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase("Reorder Labs"));
+    }
+
+    @Test
+    void testLowStockSet_FollowsEveryStockMutation() {
+        Medicine medicine = medicineService.saveMedicine(newMedicine("Reorder Paracetamol", 12));
+        Long id = medicine.getId();
+        assertFalse(medicineLowStockIndex.getLowStockIds().contains(id));
+
+        salesService.processSale(id, 3);
+        assertTrue(medicineLowStockIndex.getLowStockIds().contains(id));
+        assertMatchesTable();
+
+        medicineService.increaseStock(id, 5);
+        assertFalse(medicineLowStockIndex.getLowStockIds().contains(id));
+
+        medicineService.reduceStock(id, 5);
+        assertTrue(medicineLowStockIndex.getLowStockIds().contains(id));
+
+        salesService.processBasket(List.of(new SaleLine(id, 2)));
+        medicineService.updateStock(id, 40);
+        assertFalse(medicineLowStockIndex.getLowStockIds().contains(id));
+        assertMatchesTable();
+
+        medicineService.deleteMedicine(id);
+        assertFalse(medicineLowStockIndex.getLowStockIds().contains(id));
+        assertMatchesTable();
+    }
+
+    @Test
+    void testReorderPoint_OverridesTheDefault() {
+        Medicine medicine = medicineService.saveMedicine(newMedicine("Reorder Insulin", 30));
+        Long id = medicine.getId();
+        assertFalse(medicineLowStockIndex.getLowStockIds().contains(id));
+
+        Medicine updated = medicineService.updateReorderPoint(id, 50, 100);
+        assertEquals(50, updated.getReorderPoint());
+        assertTrue(medicineLowStockIndex.getLowStockIds().contains(id));
+        assertTrue(medicineService.getLowStockMedicines().stream().anyMatch(m -> m.getId().equals(id)));
+        // A fixed threshold ignores the medicine's own reorder point
+        assertFalse(medicineService.getLowStockMedicines(10).stream().anyMatch(m -> m.getId().equals(id)));
+        assertMatchesTable();
+
+        ReorderSuggestion suggestion = medicineService.getReorderSuggestions().stream()
+                .filter(s -> s.getMedicineId().equals(id)).findFirst().orElseThrow();
+        assertEquals("Reorder Insulin", suggestion.getName());
+        assertEquals(30, suggestion.getStockQuantity());
+        assertEquals(50, suggestion.getReorderPoint());
+        assertEquals(100, suggestion.getSuggestedQuantity());
+
+        medicineService.updateReorderPoint(id, null, null);
+        assertFalse(medicineLowStockIndex.getLowStockIds().contains(id));
+        assertThrows(IllegalArgumentException.class, () -> medicineService.updateReorderPoint(id, -1, null));
+        assertMatchesTable();
+    }
+
+    @Test
+    void testRebuild_CorrectsWritesThatBypassEvents() {
+        Medicine medicine = medicineService.saveMedicine(newMedicine("Reorder Bypassed", 40));
+        jdbcTemplate.update("UPDATE medicines SET reorder_point = 45 WHERE medicine_id = ?", medicine.getId());
+        assertFalse(medicineLowStockIndex.getLowStockIds().contains(medicine.getId()));
+
+        medicineLowStockIndex.rebuild();
+
+        assertTrue(medicineLowStockIndex.getLowStockIds().contains(medicine.getId()));
+        assertEquals(false, medicineLowStockIndex.getStatistics().get("rebuilding"));
+        assertMatchesTable();
+    }
+
+    private void assertMatchesTable() {
+        // The table only catches up with the index once pending stock movements are folded
+        stockLedger.flush();
+        stockLedger.compact();
+        assertEquals(new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT medicine_id FROM medicines WHERE stock_quantity < COALESCE(reorder_point, ?)", Long.class,
+                medicineLowStockIndex.getDefaultReorderPoint())),
+                new HashSet<>(medicineLowStockIndex.getLowStockIds()));
+    }
+
+    private static Medicine newMedicine(String name, int stock) {
+        return new Medicine(name, "Reorder Labs", new BigDecimal("6.40"), stock, LocalDate.now().plusMonths(6));
+    }
+}
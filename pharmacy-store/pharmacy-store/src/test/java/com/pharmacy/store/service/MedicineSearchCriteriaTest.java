@@ -0,0 +1,122 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.MedicineSearchCriteria;
+import com.pharmacy.store.dto.MedicineSearchCriteria.PriceRange;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineSearchCriteriaTest {
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    private List<Medicine> medicines;
+
+    @BeforeEach
+    void setUp() {
+        medicines = new ArrayList<>();
+        medicines.add(medicine("Criteria Aspirin", "Criteria Labs A", "Criteria Pain", "4.00", false));
+        medicines.add(medicine("Criteria Ibuprofen", "Criteria Labs A", "Criteria Pain", "12.00", false));
+        medicines.add(medicine("Criteria Amoxicillin", "Criteria Labs B", "Criteria Antibiotic", "18.00", true));
+        medicines.add(medicine("Criteria Cetirizine", "Criteria Labs B", "Criteria Allergy", "9.99", false));
+        medicines.add(medicine("Criteria 100%_Pure", "Criteria Labs C", "Criteria Allergy", "60.00", false));
+        medicines = medicineRepository.saveAll(medicines);
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicines);
+    }
+
+    @Test
+    void testSearch_MultiValueCategoriesIgnoreCase() {
+        Page<Medicine> page = search(criteria(null, null, List.of("criteria PAIN", "Criteria Allergy"), null, null, null),
+                "price", "asc");
+
+        assertEquals(List.of("Criteria Aspirin", "Criteria Cetirizine", "Criteria Ibuprofen", "Criteria 100%_Pure"),
+                names(page));
+    }
+
+    @Test
+    void testSearch_PriceBucketsAreHalfOpenAndOred() {
+        Page<Medicine> page = search(criteria(null, null, null, null, null,
+                List.of(PriceRange.parse("0-10"), PriceRange.parse("50-"))), "price", "asc");
+
+        assertEquals(List.of("Criteria Aspirin", "Criteria Cetirizine", "Criteria 100%_Pure"), names(page));
+        assertEquals(1, search(criteria(null, null, null, null, null,
+                List.of(PriceRange.parse("10-12"), PriceRange.parse("12-18"))), "price", "asc").getTotalElements());
+    }
+
+    @Test
+    void testSearch_CombinesOnlySuppliedFilters() {
+        Page<Medicine> page = search(new MedicineSearchCriteria("criteria", List.of("criteria labs b"), null,
+                new BigDecimal("5.00"), new BigDecimal("20.00"), null, true), "name", "asc");
+
+        assertEquals(List.of("Criteria Amoxicillin"), names(page));
+    }
+
+    @Test
+    void testSearch_NameWildcardsMatchLiterally() {
+        assertEquals(List.of("Criteria 100%_Pure"), names(search(criteria("100%_p", null, null, null, null, null),
+                "name", "asc")));
+        assertEquals(0, search(criteria("criteria_", null, null, null, null, null), "name", "asc").getTotalElements());
+    }
+
+    @Test
+    void testSearch_PagesAndSorts() {
+        MedicineSearchCriteria all = criteria(null, List.of("Criteria Labs A", "Criteria Labs B", "Criteria Labs C"),
+                null, null, null, null);
+
+        Page<Medicine> first = medicineService.searchMedicines(all, 0, 2, "price", "desc");
+        Page<Medicine> last = medicineService.searchMedicines(all, 2, 2, "price", "desc");
+
+        assertEquals(5, first.getTotalElements());
+        assertEquals(3, first.getTotalPages());
+        assertEquals(List.of("Criteria 100%_Pure", "Criteria Amoxicillin"), names(first));
+        assertEquals(List.of("Criteria Aspirin"), names(last));
+        assertThrows(IllegalArgumentException.class, () -> medicineService.searchMedicines(all, 0, 2, "batchNumber", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> PriceRange.parse("20-10"));
+    }
+
+    private Page<Medicine> search(MedicineSearchCriteria criteria, String sortBy, String sortDir) {
+        return medicineService.searchMedicines(criteria, 0, 50, sortBy, sortDir);
+    }
+
+    private static MedicineSearchCriteria criteria(String name, List<String> manufacturers, List<String> categories,
+                                                   BigDecimal minPrice, BigDecimal maxPrice, List<PriceRange> buckets) {
+        return new MedicineSearchCriteria(name, manufacturers, categories, minPrice, maxPrice, buckets, null);
+    }
+
+    private static Medicine medicine(String name, String manufacturer, String category, String price,
+                                     boolean prescription) {
+        Medicine medicine = new Medicine(name, manufacturer, new BigDecimal(price), 10, LocalDate.now().plusMonths(6));
+        medicine.setCategory(category);
+        medicine.setPrescriptionRequired(prescription);
+        return medicine;
+    }
+
+    private static List<String> names(Page<Medicine> page) {
+        return page.getContent().stream().map(Medicine::getName).toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineSearchIndexTest {
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineImportService medicineImportService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.findByManufacturerIgnoreCase("Search Labs"));
+    }
+
+    @Test
+    void testSearchRanked_FollowsServiceWrites() {
+        Medicine saved = medicineService.saveMedicine(new Medicine("Zolmitriptan Nasal", "Search Labs",
+                new BigDecimal("14.00"), 12, LocalDate.now().plusMonths(8)));
+
+        assertEquals(List.of(saved.getId()), ids(medicineService.searchMedicinesRanked("zolmitriptn", 10)));
+
+        saved.setName("Rizatriptan Wafer");
+        medicineService.updateMedicine(saved.getId(), saved);
+        assertTrue(medicineService.searchMedicinesRanked("zolmitriptan", 10).isEmpty());
+        assertEquals(List.of(saved.getId()), ids(medicineService.searchMedicinesRanked("rizatrip", 10)));
+
+        medicineService.deleteMedicine(saved.getId());
+        assertTrue(medicineService.searchMedicinesRanked("rizatrip", 10).isEmpty());
+    }
+
+    @Test
+    void testSearchRanked_FollowsBulkImport() throws Exception {
+        String csv = "name,manufacturer,price,stock_quantity,expiry_date\n" +
+                     "Quetiapine Retard,Search Labs,3.10,40," + LocalDate.now().plusYears(1) + "\n";
+
+        medicineImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        List<Medicine> results = medicineService.searchMedicinesRanked("quetiap", 10);
+        assertEquals(1, results.size());
+        assertEquals("Quetiapine Retard", results.get(0).getName());
+    }
+
+    private static List<Long> ids(List<Medicine> medicines) {
+        return medicines.stream().map(Medicine::getId).toList();
+    }
+}
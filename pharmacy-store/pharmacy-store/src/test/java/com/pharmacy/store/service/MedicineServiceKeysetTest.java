@@ -0,0 +1,112 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.KeysetSlice;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class MedicineServiceKeysetTest {
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    private List<Medicine> medicines;
+
+    @BeforeEach
+    void setUp() {
+        medicines = new ArrayList<>();
+        for (int i = 0; i < 57; i++) {
+            // Only a handful of distinct prices so ties have to be broken by id
+            Medicine medicine = new Medicine("Keyset Medicine " + i, "Maker " + (i % 4),
+                    new BigDecimal(10 + (i % 5) + ".00"), i, LocalDate.now().plusDays(30 + i));
+            medicines.add(medicine);
+        }
+        medicines = medicineRepository.saveAll(medicines);
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicines);
+    }
+
+    @Test
+    void testKeysetWalk_MatchesFullOrderingAcrossTies() {
+        List<Long> expected = medicineRepository.findAll(Sort.by("price").descending().and(Sort.by("id").descending()))
+                .stream().map(Medicine::getId).toList();
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            KeysetSlice<Medicine> slice = medicineService.getMedicinesAfter(cursor, 10, "price", "desc");
+            slice.getContent().forEach(m -> walked.add(m.getId()));
+            cursor = slice.getNextCursor();
+            pages++;
+            assertEquals(cursor != null, slice.isHasNext());
+        } while (cursor != null);
+
+        assertEquals(expected, walked);
+        assertEquals(6, pages);
+    }
+
+    @Test
+    void testKeysetWalk_StockOrderHoldsWithUnfoldedSales() {
+        // Sales not yet folded move the effective stock but not the stored stock the pages seek on
+        medicines.stream().filter(m -> m.getStockQuantity() >= 10)
+                .forEach(m -> salesService.processSale(m.getId(), 10));
+
+        List<Long> walked = new ArrayList<>();
+        List<Integer> shown = new ArrayList<>();
+        // Holds a scheduled fold off until the walk is done
+        List<Long> expected = stockLedger.readConsistent(() -> {
+            String cursor = null;
+            do {
+                KeysetSlice<Medicine> slice = medicineService.getMedicinesAfter(cursor, 10, "stockQuantity", "asc");
+                slice.getContent().forEach(m -> {
+                    walked.add(m.getId());
+                    shown.add(m.getStockQuantity());
+                });
+                cursor = slice.getNextCursor();
+            } while (cursor != null);
+            return medicineRepository.findAll(Sort.by("stockQuantity").and(Sort.by("id")))
+                    .stream().map(Medicine::getId).toList();
+        });
+
+        assertEquals(expected, walked);
+        assertEquals(shown.stream().sorted().toList(), shown);
+    }
+
+    @Test
+    void testKeysetWalk_InvalidCursorRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> medicineService.getMedicinesAfter("not-a-cursor", 10, "name", "asc"));
+        assertThrows(IllegalArgumentException.class,
+                () -> medicineService.getMedicinesAfter(null, 10, "description", "asc"));
+    }
+}
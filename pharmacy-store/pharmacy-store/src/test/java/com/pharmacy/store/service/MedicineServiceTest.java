@@ -1,19 +1,27 @@
 package com.pharmacy.store.service;
 
+import com.pharmacy.store.event.MedicineChangedEvent;
 import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.model.StockMovement;
 import com.pharmacy.store.repository.MedicineRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -25,6 +33,24 @@ class MedicineServiceTest {
     @Mock
     private MedicineRepository medicineRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MedicineCatalogueCache catalogueCache = new MedicineCatalogueCache(100, Duration.ofMinutes(1));
+
+    @Spy
+    private StockLedger stockLedger = new StockLedger();
+
+    @Spy
+    private MedicineExpiryIndex expiryIndex = new MedicineExpiryIndex(366, 30);
+
+    @Spy
+    private MedicineLowStockIndex lowStockIndex = new MedicineLowStockIndex(10);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private MedicineService medicineService;
 
@@ -78,25 +104,59 @@ class MedicineServiceTest {
     void testProcessSale_Success() {
         // Given
         when(medicineRepository.findById(1L)).thenReturn(Optional.of(testMedicine));
-        when(medicineRepository.save(any(Medicine.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doReturn(OptionalInt.of(40)).when(stockLedger)
+                .record(eq(1L), eq(-10), eq(StockMovement.Reason.SALE), isNull(), isNull());
 
         // When
         Medicine soldMedicine = medicineService.processSale(1L, 10);
 
         // Then
         assertEquals(40, soldMedicine.getStockQuantity()); // 50 - 10
-        verify(medicineRepository).save(any(Medicine.class));
+        // Recorded as a ledger movement; the entity itself is never rewritten
+        verify(medicineRepository, never()).save(any(Medicine.class));
+    }
+
+    @Test
+    void testUpdateMedicine_FieldsStandWhenStockAdjustmentFails() {
+        // Given
+        when(medicineRepository.findById(1L)).thenReturn(Optional.of(testMedicine));
+        when(medicineRepository.save(testMedicine)).thenReturn(testMedicine);
+        doThrow(new StockLedgerUnavailableException("No write lease")).when(stockLedger)
+                .adjustTo(eq(1L), eq(30), isNull(), isNull());
+        Medicine edit = new Medicine();
+        edit.setName("Renamed Medicine");
+        edit.setManufacturer("Test Manufacturer");
+        edit.setPrice(new BigDecimal("90.00"));
+        edit.setStockQuantity(30);
+        edit.setExpiryDate(testMedicine.getExpiryDate());
+
+        // When
+        StockAdjustmentFailedException e = assertThrows(StockAdjustmentFailedException.class,
+                () -> medicineService.updateMedicine(1L, edit));
+        assertEquals("Renamed Medicine", e.getSavedMedicine().getName());
+        assertInstanceOf(StockLedgerUnavailableException.class, e.getCause());
+
+        // Then the edit committed before the adjustment was tried, and listeners reload the row
+        InOrder order = inOrder(transactionManager, stockLedger);
+        order.verify(transactionManager).commit(any());
+        order.verify(stockLedger).adjustTo(eq(1L), eq(30), isNull(), isNull());
+        verify(eventPublisher).publishEvent(argThat((MedicineChangedEvent event) ->
+                event.getType() == MedicineChangedEvent.Type.BULK_CHANGED
+                        && event.getMedicineIds().equals(List.of(1L))));
     }
 
     @Test
     void testGetLowStockMedicines() {
         // Given
         Medicine lowStockMedicine = new Medicine();
+        lowStockMedicine.setId(2L);
         lowStockMedicine.setName("Low Stock Medicine");
         lowStockMedicine.setStockQuantity(5);
+        lowStockIndex.onMedicineChanged(MedicineChangedEvent.saved(testMedicine));
+        lowStockIndex.onMedicineChanged(MedicineChangedEvent.saved(lowStockMedicine));
 
         List<Medicine> lowStockMedicines = Arrays.asList(lowStockMedicine);
-        when(medicineRepository.findByStockQuantityLessThan(10))
+        when(medicineRepository.findAllById(List.of(2L)))
                 .thenReturn(lowStockMedicines);
 
         // When
@@ -106,5 +166,6 @@ class MedicineServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(lowStockMedicine.getName(), result.get(0).getName());
+        assertEquals(1, medicineService.getLowStockMedicineCount());
     }
 }
\ No newline at end of file
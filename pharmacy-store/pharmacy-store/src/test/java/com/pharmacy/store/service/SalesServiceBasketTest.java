@@ -0,0 +1,101 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.dto.SaleLine;
+import com.pharmacy.store.dto.SaleLineResult;
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import com.pharmacy.store.repository.MedicineStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class SalesServiceBasketTest {
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineStockRepository medicineStockRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    private Medicine paracetamol;
+    private Medicine cetirizine;
+
+    @BeforeEach
+    void setUp() {
+        paracetamol = saveMedicine("Basket Paracetamol", 20, "12.50");
+        cetirizine = saveMedicine("Basket Cetirizine", 5, "8.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAllById(List.of(paracetamol.getId(), cetirizine.getId()));
+    }
+
+    @Test
+    void testProcessBasket_AllLinesSold() {
+        List<SaleLineResult> results = salesService.processBasket(List.of(
+                new SaleLine(paracetamol.getId(), 3),
+                new SaleLine(cetirizine.getId(), 5),
+                new SaleLine(paracetamol.getId(), 2)));
+
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == SaleLineResult.Status.SOLD));
+        assertEquals(15, results.get(0).getRemainingStock());
+        assertEquals(0, results.get(1).getRemainingStock());
+        assertEquals(new BigDecimal("37.50"), results.get(0).getLineTotal());
+        stockLedger.flush();
+        stockLedger.compact();
+        assertEquals(15, medicineStockRepository.findStockQuantity(paracetamol.getId()).orElseThrow());
+        assertEquals(0, medicineStockRepository.findStockQuantity(cetirizine.getId()).orElseThrow());
+    }
+
+    @Test
+    void testProcessBasket_RejectedLineLeavesStockUntouched() {
+        List<SaleLineResult> results = salesService.processBasket(List.of(
+                new SaleLine(paracetamol.getId(), 3),
+                new SaleLine(cetirizine.getId(), 6),
+                new SaleLine(-1L, 1)));
+
+        assertEquals(SaleLineResult.Status.AVAILABLE, results.get(0).getStatus());
+        assertEquals(SaleLineResult.Status.INSUFFICIENT_STOCK, results.get(1).getStatus());
+        assertEquals(SaleLineResult.Status.NOT_FOUND, results.get(2).getStatus());
+        assertEquals(20, medicineStockRepository.findStockQuantity(paracetamol.getId()).orElseThrow());
+        assertEquals(5, medicineStockRepository.findStockQuantity(cetirizine.getId()).orElseThrow());
+    }
+
+    @Test
+    void testProcessBasket_RepeatedLinesValidatedOnCombinedQuantity() {
+        List<SaleLineResult> results = salesService.processBasket(List.of(
+                new SaleLine(cetirizine.getId(), 3),
+                new SaleLine(cetirizine.getId(), 3)));
+
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == SaleLineResult.Status.INSUFFICIENT_STOCK));
+        assertEquals(5, medicineStockRepository.findStockQuantity(cetirizine.getId()).orElseThrow());
+    }
+
+    private Medicine saveMedicine(String name, int stock, String price) {
+        Medicine medicine = new Medicine(name, "Test Manufacturer", new BigDecimal(price),
+                stock, LocalDate.now().plusMonths(6));
+        medicine.setCategory("Test Category");
+        return medicineRepository.save(medicine);
+    }
+}
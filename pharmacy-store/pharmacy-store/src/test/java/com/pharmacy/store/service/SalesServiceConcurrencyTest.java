@@ -0,0 +1,204 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.repository.MedicineRepository;
+import com.pharmacy.store.repository.MedicineStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO"
+})
+class SalesServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int SALES_PER_THREAD = 250;
+    private static final int INITIAL_STOCK = 2000;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineStockRepository medicineStockRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long medicineId;
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(salesService, "reservationEnabled", false);
+        if (medicineId != null) {
+            medicineRepository.deleteById(medicineId);
+        }
+    }
+
+    @Test
+    void testConcurrentSales_NeverOversell() throws Exception {
+        runHotSkuSales("Hot SKU Direct");
+    }
+
+    @Test
+    void testConcurrentSales_WithReservationStripes() throws Exception {
+        ReflectionTestUtils.setField(salesService, "reservationEnabled", true);
+        runHotSkuSales("Hot SKU Reserved");
+    }
+
+    @Test
+    void testReservationStripe_ReleasedBeforeDurableWait() throws Exception {
+        ReflectionTestUtils.setField(salesService, "reservationEnabled", true);
+        saveMedicine("Stripe SKU", 10);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Holding the checkpoint row keeps the writer from committing, so a durable sale waits
+        Thread holder = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT folded_through FROM stock_ledger_checkpoint FOR UPDATE", Long.class);
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+            Future<Integer> durable = executor.submit(() ->
+                    salesService.processSale(medicineId, 1, null, StockLedger.Durability.DURABLE));
+            while (stockLedger.getPendingDelta(medicineId) == 0) {
+                Thread.sleep(10);
+            }
+
+            // The same stripe is free again while the first sale waits for its batch commit
+            Future<Integer> buffered = executor.submit(() ->
+                    salesService.processSale(medicineId, 1, null, StockLedger.Durability.BUFFERED));
+            assertEquals(8, buffered.get(2, TimeUnit.SECONDS));
+            assertFalse(durable.isDone());
+
+            release.countDown();
+            assertEquals(9, durable.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            holder.join();
+            executor.shutdown();
+        }
+        stockLedger.flush();
+    }
+
+    @Test
+    void testProcessSale_ExpiredMedicineRejected() {
+        saveMedicine("Expired SKU", 10);
+        // Bean validation rejects past expiry dates on save, so age the row directly
+        jdbcTemplate.update("UPDATE medicines SET expiry_date = ? WHERE medicine_id = ?",
+                LocalDate.now().minusDays(1), medicineId);
+        // A write that bypasses the services reaches the expiry wheel with its next reconcile
+        medicineExpiryIndex.reload(List.of(medicineId));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> salesService.processSale(medicineId, 1));
+
+        assertTrue(exception.getMessage().startsWith("Cannot sell expired medicine"));
+        assertEquals(10, medicineStockRepository.findStockQuantity(medicineId).orElseThrow());
+    }
+
+    @Test
+    void testProcessSale_InsufficientStockRejected() {
+        saveMedicine("Short SKU", 3);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> salesService.processSale(medicineId, 5));
+
+        assertEquals("Insufficient stock. Available: 3, Requested: 5", exception.getMessage());
+    }
+
+    private void runHotSkuSales(String name) throws Exception {
+        saveMedicine(name, INITIAL_STOCK);
+        Map<String, Object> before = salesService.getSaleStatistics();
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < SALES_PER_THREAD; i++) {
+                    try {
+                        salesService.processSale(medicineId, 1);
+                        sold.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int attempts = THREADS * SALES_PER_THREAD;
+
+        // Exactly the available stock is sold, everything beyond it is rejected
+        assertEquals(INITIAL_STOCK, sold.get());
+        assertEquals(attempts - INITIAL_STOCK, rejected.get());
+        stockLedger.flush();
+        stockLedger.compact();
+        assertEquals(0, medicineStockRepository.findStockQuantity(medicineId).orElseThrow());
+        // Running out of stock is its own outcome, not a conflict between sales
+        Map<String, Object> after = salesService.getSaleStatistics();
+        assertEquals((long) rejected.get(),
+                (long) after.get("rejectedInsufficientStock") - (long) before.get("rejectedInsufficientStock"));
+        assertEquals((long) before.get("conflicts"), (long) after.get("conflicts"));
+    }
+
+    private Medicine saveMedicine(String name, int stock) {
+        Medicine medicine = new Medicine(name, "Test Manufacturer", new BigDecimal("10.00"),
+                stock, LocalDate.now().plusMonths(6));
+        medicine.setCategory("Test Category");
+        Medicine saved = medicineRepository.save(medicine);
+        medicineId = saved.getId();
+        return saved;
+    }
+}
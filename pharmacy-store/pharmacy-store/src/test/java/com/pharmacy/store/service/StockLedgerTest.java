@@ -0,0 +1,256 @@
+package com.pharmacy.store.service;
+
+import com.pharmacy.store.model.Medicine;
+import com.pharmacy.store.model.StockMovement;
+import com.pharmacy.store.repository.MedicineRepository;
+import com.pharmacy.store.repository.MedicineStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.pharmacy.store=INFO",
+        // Short enough for the lease to change hands within a test
+        "pharmacy.stock.ledger.lease=3s",
+        "pharmacy.stock.ledger.durable-timeout=1s"
+})
+class StockLedgerTest {
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineStockRepository medicineStockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MedicineExpiryIndex medicineExpiryIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long medicineId;
+
+    @BeforeEach
+    void setUp() {
+        // Start from a fully folded ledger so stored stock is comparable
+        stockLedger.flush();
+        stockLedger.compact();
+        medicineId = medicineRepository.save(new Medicine("Ledger Amoxicillin", "Ledger Labs",
+                new BigDecimal("6.00"), 20, LocalDate.now().plusMonths(6))).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockLedger.flush();
+        stockLedger.compact();
+        medicineRepository.deleteById(medicineId);
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE medicine_id = ?", medicineId);
+    }
+
+    @Test
+    void testBufferedMovement_VisibleToReadsBeforeFold() {
+        // Keep the scheduled compaction out until the unfolded state has been checked
+        ReentrantLock compactionLock = (ReentrantLock) ReflectionTestUtils.getField(stockLedger, "compactionLock");
+        compactionLock.lock();
+        try {
+            OptionalInt stock = stockLedger.record(medicineId, -5, StockMovement.Reason.SALE, "counter-1",
+                    StockLedger.Durability.BUFFERED);
+
+            assertEquals(15, stock.orElseThrow());
+            assertEquals(15, medicineService.getMedicineById(medicineId).getStockQuantity());
+            assertEquals(20, storedStock());
+
+            stockLedger.flush();
+            Map<String, Object> movement = jdbcTemplate.queryForMap(
+                    "SELECT delta, reason, performed_by FROM stock_movements WHERE medicine_id = ?",
+                    medicineId);
+            assertEquals(-5, ((Number) movement.get("DELTA")).intValue());
+            assertEquals("SALE", movement.get("REASON"));
+            assertEquals("counter-1", movement.get("PERFORMED_BY"));
+
+            assertTrue(stockLedger.compact() >= 1);
+        } finally {
+            compactionLock.unlock();
+        }
+        assertEquals(15, storedStock());
+        assertEquals(0, stockLedger.getPendingDelta(medicineId));
+        assertEquals(15, medicineService.getMedicineById(medicineId).getStockQuantity());
+    }
+
+    @Test
+    void testDurableMovement_WrittenBeforeReturn() {
+        medicineService.increaseStock(medicineId, 10);
+
+        assertEquals(1, movementCount());
+        assertEquals(30, medicineService.getMedicineById(medicineId).getStockQuantity());
+    }
+
+    @Test
+    void testDurableTimeout_ReportsTheStockThatStands() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Holding the checkpoint row keeps the writer from appending the batch
+        Thread holder = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT folded_through FROM stock_ledger_checkpoint FOR UPDATE", Long.class);
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+            StockNotYetDurableException e = assertThrows(StockNotYetDurableException.class, () -> stockLedger
+                    .record(medicineId, -5, StockMovement.Reason.SALE, null, StockLedger.Durability.DURABLE));
+            assertEquals(15, e.getStock(medicineId));
+            assertEquals(15, medicineService.getMedicineById(medicineId).getStockQuantity());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        // Applied once and written once the row is free; a retry would have sold twice
+        stockLedger.flush();
+        assertEquals(1, movementCount());
+    }
+
+    @Test
+    void testSales_RejectedWhenShortOrExpired() {
+        assertTrue(stockLedger.record(medicineId, -21, StockMovement.Reason.SALE, null, null).isEmpty());
+        assertTrue(stockLedger.record(-1L, -1, StockMovement.Reason.SALE, null, null).isEmpty());
+
+        jdbcTemplate.update("UPDATE medicines SET expiry_date = ? WHERE medicine_id = ?",
+                LocalDate.now().minusDays(1), medicineId);
+        // A write that bypasses the services reaches the expiry wheel with its next reconcile
+        medicineExpiryIndex.reload(List.of(medicineId));
+        assertTrue(stockLedger.record(medicineId, -1, StockMovement.Reason.SALE, null, null).isEmpty());
+        assertEquals(0, movementCount());
+    }
+
+    @Test
+    void testAdjustments_ClampAtZeroAndSetAbsoluteLevels() {
+        assertEquals(0, medicineService.reduceStock(medicineId, 50).getStockQuantity());
+        assertEquals(12, stockLedger.adjustTo(medicineId, 12, "stocktake", null).orElseThrow());
+
+        stockLedger.compact();
+        assertEquals(12, storedStock());
+        assertEquals(List.of(-20, 12), jdbcTemplate.queryForList(
+                "SELECT delta FROM stock_movements WHERE medicine_id = ? ORDER BY movement_id", Integer.class, medicineId));
+    }
+
+    @Test
+    void testFold_GivesWayToReadersInsteadOfWaitingOnThem() throws Exception {
+        ReentrantLock compactionLock = (ReentrantLock) ReflectionTestUtils.getField(stockLedger, "compactionLock");
+        compactionLock.lock();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(() -> stockLedger.readConsistent(() -> {
+            reading.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }));
+        try {
+            medicineService.increaseStock(medicineId, 10);
+            long deferred = (Long) stockLedger.getStatistics().get("deferredCompactions");
+            reader.start();
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+            // A reader inside the lock may be waiting for the very connection the fold holds
+            assertEquals(0, stockLedger.compact());
+            assertEquals(deferred + 1, stockLedger.getStatistics().get("deferredCompactions"));
+            assertEquals(20, storedStock());
+            assertEquals(30, medicineService.getMedicineById(medicineId).getStockQuantity());
+
+            release.countDown();
+            reader.join();
+            assertTrue(stockLedger.compact() >= 1);
+        } finally {
+            release.countDown();
+            compactionLock.unlock();
+        }
+        assertEquals(30, storedStock());
+        assertEquals(0, stockLedger.getPendingDelta(medicineId));
+    }
+
+    @Test
+    void testLease_InstanceThatLostItWritesNothing() throws Exception {
+        try {
+            // Another instance takes the lease over, as it would once this one stopped renewing
+            jdbcTemplate.update("UPDATE stock_ledger_checkpoint SET lease_owner = 'other-instance', " +
+                    "lease_until = TIMESTAMPADD(SECOND, 60, LOCALTIMESTAMP)");
+            // Refused up front, or dropped by the writer if the loss only shows when the batch is appended
+            assertThrows(RuntimeException.class, () -> stockLedger.record(medicineId, -5, StockMovement.Reason.SALE,
+                    null, StockLedger.Durability.DURABLE));
+            assertThrows(StockLedgerUnavailableException.class, () -> stockLedger.record(medicineId, -5,
+                    StockMovement.Reason.SALE, null, StockLedger.Durability.DURABLE));
+            assertEquals(0, movementCount());
+            assertEquals(20, medicineService.getMedicineById(medicineId).getStockQuantity());
+
+            // Movements the other instance wrote but never folded count once the lease comes back
+            jdbcTemplate.update("INSERT INTO stock_movements (medicine_id, delta, reason, performed_by, created_at) " +
+                    "VALUES (?, -3, 'SALE', 'other-instance', ?)", medicineId, LocalDateTime.now());
+            releaseOtherInstanceLease();
+            awaitLease();
+            assertEquals(17, medicineService.getMedicineById(medicineId).getStockQuantity());
+            assertEquals(12, stockLedger.record(medicineId, -5, StockMovement.Reason.SALE, null,
+                    StockLedger.Durability.DURABLE).orElseThrow());
+        } finally {
+            releaseOtherInstanceLease();
+            awaitLease();
+        }
+    }
+
+    private void releaseOtherInstanceLease() {
+        jdbcTemplate.update("UPDATE stock_ledger_checkpoint SET lease_owner = NULL, lease_until = NULL " +
+                "WHERE lease_owner = 'other-instance'");
+    }
+
+    private void awaitLease() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!stockLedger.holdsLease() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(stockLedger.holdsLease());
+    }
+
+    private int storedStock() {
+        return medicineStockRepository.findStockQuantity(medicineId).orElseThrow();
+    }
+
+    private int movementCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movements WHERE medicine_id = ?",
+                Integer.class, medicineId);
+    }
+}
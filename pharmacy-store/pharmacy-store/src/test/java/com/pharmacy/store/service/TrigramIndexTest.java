@@ -0,0 +1,80 @@
+package com.pharmacy.store.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1L, "Ibuprofen 400mg", "Advil Labs", "Anti-inflammatory pain relief");
+        index.put(2L, "Paracetamol 500mg", "Generic Pharma", "Fever and pain relief");
+        index.put(3L, "Ibuprofen Gel", "Generic Pharma", "Topical");
+        index.put(4L, "Amoxicillin 250mg", "Generic Pharma", "Antibiotic capsules");
+    }
+
+    @Test
+    void testSearch_PrefixRanksShorterNamesFirst() {
+        assertEquals(List.of(3L, 1L), ids(index.search("ibu", 10)));
+    }
+
+    @Test
+    void testSearch_ToleratesTypos() {
+        assertEquals(1L, ids(index.search("ibuprfen 400", 10)).get(0));
+        assertEquals(List.of(2L), ids(index.search("paracetamool", 10)));
+    }
+
+    @Test
+    void testSearch_MatchesManufacturerAndDescription() {
+        // Equal scores fall back to the shorter name
+        assertEquals(List.of(3L, 2L, 4L), ids(index.search("generic", 10)));
+        assertEquals(List.of(4L), ids(index.search("antibiotic", 10)));
+    }
+
+    @Test
+    void testSearch_NameMatchOutranksDescriptionMatch() {
+        index.put(5L, "Painkiller Plus", "Other Labs", null);
+
+        assertEquals(5L, ids(index.search("pain", 10)).get(0));
+    }
+
+    @Test
+    void testPutAndRemove_ReplaceIndexedText() {
+        index.put(1L, "Naproxen", "Advil Labs", null);
+        index.remove(3L);
+
+        assertTrue(index.search("ibuprofen", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("naproxen", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testCompaction_KeepsResultsIntact() {
+        for (int round = 0; round < 5; round++) {
+            for (long id = 100; id < 1100; id++) {
+                index.put(id, "Churn Tablet " + id + " r" + round, "Churn Labs", null);
+            }
+        }
+
+        assertEquals(1004, index.size());
+        assertEquals(List.of(500L), ids(index.search("churn tablet 500 r4", 1)));
+        assertEquals(List.of(3L, 1L), ids(index.search("ibu", 10)));
+    }
+
+    @Test
+    void testSearch_BlankQueryReturnsNothing() {
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertTrue(index.search("ibu", 0).isEmpty());
+    }
+
+    private static List<Long> ids(List<TrigramIndex.Hit> hits) {
+        return hits.stream().map(TrigramIndex.Hit::getMedicineId).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.pharmacy.store.threading;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    private JdbcDataSource target;
+
+    @BeforeEach
+    void setUp() {
+        target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:concurrency_limit;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void testPermit_IsReturnedOnceWhenTheConnectionCloses() throws Exception {
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofSeconds(1));
+
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, dataSource.getStatistics().get("inUse"));
+        connection.close();
+        connection.close();
+
+        assertEquals(0, dataSource.getStatistics().get("inUse"));
+        try (Connection again = dataSource.getConnection()) {
+            assertTrue(again.isValid(1));
+        }
+        assertEquals(2L, dataSource.getStatistics().get("acquired"));
+    }
+
+    @Test
+    void testSurplusCallers_WaitForAPermitAndTimeOut() throws Exception {
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+
+        try (Connection held = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertEquals(1L, dataSource.getStatistics().get("timeouts"));
+        }
+
+        ConcurrencyLimitedDataSource patient = new ConcurrencyLimitedDataSource(target, 1, Duration.ofSeconds(5));
+        Connection held = patient.getConnection();
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = patient.getConnection()) {
+                return connection.isValid(1);
+            } catch (Exception e) {
+                return false;
+            }
+        });
+        while (patient.getStatistics().get("waiting").equals(0)) {
+            Thread.onSpinWait();
+        }
+        held.close();
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+    }
+}